@@ -0,0 +1,200 @@
+// Package declaration: Defines that this class belongs to the client package
+package com.zerox80.riotapi.client;
+
+// Import for metrics registry for performance monitoring
+import io.micrometer.core.instrument.MeterRegistry;
+// Import for the route tag of the limit metrics
+import io.micrometer.core.instrument.Tags;
+// Import for the logging interface from SLF4J
+import org.slf4j.Logger;
+// Import for the factory to create logger instances
+import org.slf4j.LoggerFactory;
+
+// Import for tracking the current limit for the gauge
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Adapts the permit limit of one routing host to how Riot currently answers.
+ *
+ * Call outcomes are collected in windows of about one limit's worth of calls. After a
+ * window without problems that actually used the limit, it grows by one (additive
+ * increase). If the window's average latency rose above the lowest latency seen times
+ * the tolerance, the limit shrinks by the latency gradient, and a window with a 429,
+ * 5xx or timeout ends at once and cuts the limit by the backoff ratio (multiplicative
+ * decrease). The lowest latency is re-learned every few dozen windows, so a slower
+ * baseline (e.g. another region) does not keep the limit down for good.
+ */
+final class AdaptiveConcurrencyLimit {
+
+    // static final: Class-wide constant, logger for this specific class
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveConcurrencyLimit.class);
+
+    // Smallest window, so a low limit still judges more than a single call
+    private static final int MIN_WINDOW = 5;
+
+    // Windows after which the lowest latency is measured afresh
+    private static final int MIN_RTT_RESET_WINDOWS = 50;
+
+    // Largest cut a latency increase alone may cause in one window
+    private static final double MIN_GRADIENT = 0.5;
+
+    // final: Pool whose permits are adjusted
+    private final AsyncPermitPool pool;
+
+    // final: Lower bound of the limit
+    private final int minLimit;
+
+    // final: Upper bound of the limit
+    private final int maxLimit;
+
+    // final: Allowed latency increase over the lowest latency
+    private final double latencyTolerance;
+
+    // final: Factor applied to the limit after throttling or errors
+    private final double backoffRatio;
+
+    // final: Registry for metrics (Prometheus, Grafana)
+    private final MeterRegistry meterRegistry;
+
+    // final: Tags of all metrics of this limit (the route)
+    private final Tags tags;
+
+    // Current limit, exported as gauge
+    private final AtomicInteger currentLimit;
+
+    // Exact limit (fractions accumulate across windows), guarded by this
+    private double limit;
+
+    // Calls in the current window
+    private int samples;
+
+    // Sum of the latencies in the current window
+    private long rttSum;
+
+    // Lowest latency in the current window
+    private long windowMinRtt = Long.MAX_VALUE;
+
+    // Highest number of calls in flight seen in the current window
+    private int windowMaxInFlight;
+
+    // Calls in the current window that were throttled or failed
+    private int drops;
+
+    // Lowest latency seen, the no-queueing baseline
+    private long minRtt = Long.MAX_VALUE;
+
+    // Windows evaluated since the baseline was last measured afresh
+    private int windowsSinceReset;
+
+    /**
+     * Creates the limit and sets the pool to its initial value.
+     *
+     * @param pool             Pool whose permits are adjusted
+     * @param initialLimit     Starting limit (riot.api.max-concurrent)
+     * @param minLimit         Lower bound (at most the starting limit)
+     * @param maxLimit         Upper bound
+     * @param latencyTolerance Allowed latency increase over the baseline, e.g. 2.0
+     * @param backoffRatio     Factor after throttling or errors, e.g. 0.7
+     * @param tags             Tags of the metrics (the route)
+     * @param meterRegistry    Metrics registry for monitoring
+     */
+    AdaptiveConcurrencyLimit(AsyncPermitPool pool, int initialLimit, int minLimit, int maxLimit,
+            double latencyTolerance, double backoffRatio, Tags tags, MeterRegistry meterRegistry) {
+        this.pool = pool;
+        // A starting limit below the minimum lowers the minimum; it was configured on purpose
+        this.minLimit = Math.max(1, Math.min(minLimit, initialLimit));
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.latencyTolerance = Math.max(1.0, latencyTolerance);
+        this.backoffRatio = Math.min(1.0, Math.max(0.1, backoffRatio));
+        this.meterRegistry = meterRegistry;
+        this.tags = tags;
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+        this.currentLimit = new AtomicInteger((int) limit);
+        pool.setLimit((int) limit);
+        meterRegistry.gauge("riotapi.client.concurrency.limit", tags, currentLimit);
+    }
+
+    /**
+     * Feeds the outcome of one call into the current window.
+     *
+     * @param rttNanos Time from sending the call to its response
+     * @param dropped  true for a 429, 5xx or timeout
+     * @param inFlight Calls in flight when the call finished (including itself)
+     */
+    void onSample(long rttNanos, boolean dropped, int inFlight) {
+        int before;
+        int after;
+        String reason;
+        synchronized (this) {
+            samples++;
+            rttSum += rttNanos;
+            windowMinRtt = Math.min(windowMinRtt, rttNanos);
+            windowMaxInFlight = Math.max(windowMaxInFlight, inFlight);
+            if (dropped) {
+                drops++;
+            }
+            if (drops == 0 && samples < Math.max(MIN_WINDOW, (int) limit)) {
+                return;
+            }
+            before = (int) limit;
+            reason = evaluateWindow();
+            after = (int) limit;
+        }
+        if (after != before) {
+            currentLimit.set(after);
+            pool.setLimit(after);
+            meterRegistry.counter("riotapi.client.concurrency.changes",
+                    tags.and("direction", after > before ? "up" : "down", "reason", reason)).increment();
+            if (after < before) {
+                logger.debug("Outbound concurrency {} lowered {} -> {} ({})", tags, before, after, reason);
+            }
+        }
+    }
+
+    /**
+     * Gets the current limit.
+     *
+     * @return Permits the pool currently has
+     */
+    int getLimit() {
+        return currentLimit.get();
+    }
+
+    /**
+     * Judges the finished window, adjusts the limit and starts a new window.
+     *
+     * @return Reason of the adjustment, for the metric tag
+     */
+    private String evaluateWindow() {
+        String reason;
+        if (drops > 0) {
+            limit = Math.max(minLimit, limit * backoffRatio);
+            reason = "throttled";
+        } else {
+            long averageRtt = rttSum / samples;
+            if (++windowsSinceReset >= MIN_RTT_RESET_WINDOWS) {
+                minRtt = windowMinRtt;
+                windowsSinceReset = 0;
+            } else {
+                minRtt = Math.min(minRtt, windowMinRtt);
+            }
+            double gradient = (minRtt * latencyTolerance) / Math.max(1, averageRtt);
+            if (gradient < 1.0) {
+                limit = Math.max(minLimit, limit * Math.max(MIN_GRADIENT, gradient));
+                reason = "latency";
+            } else if (windowMaxInFlight * 2 >= (int) limit) {
+                // Only grow a limit that is actually used
+                limit = Math.min(maxLimit, limit + 1);
+                reason = "probe";
+            } else {
+                reason = "idle";
+            }
+        }
+        samples = 0;
+        rttSum = 0;
+        windowMinRtt = Long.MAX_VALUE;
+        windowMaxInFlight = 0;
+        drops = 0;
+        return reason;
+    }
+}
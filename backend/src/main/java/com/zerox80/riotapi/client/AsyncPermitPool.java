@@ -0,0 +1,438 @@
+// Package declaration: Defines that this class belongs to the client package
+package com.zerox80.riotapi.client;
+
+// Import for metrics registry for performance monitoring
+import io.micrometer.core.instrument.MeterRegistry;
+// Import for tags of per-class gauges
+import io.micrometer.core.instrument.Tags;
+// Import for timer metrics to measure the permit wait
+import io.micrometer.core.instrument.Timer;
+
+// Import for time durations (max wait)
+import java.time.Duration;
+// Import for the FIFO waiter queues
+import java.util.ArrayDeque;
+// Import for asynchronous operations with callbacks
+import java.util.concurrent.CompletableFuture;
+// Import for time units in concurrent operations
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Non-blocking counting semaphore with one FIFO queue of waiting futures per
+ * {@link RequestPriority}.
+ *
+ * acquire() completes immediately while permits are free. Otherwise the caller
+ * is queued, and release() hands the permit directly to the oldest waiter of the
+ * highest waiting class, so there is no polling and no overtaking within a class.
+ * PREFETCH and BACKGROUND callers may only hold a share of the permits at once,
+ * which keeps the rest free for interactive requests. Waiters give up with a
+ * RiotApiRequestException (mapped to 503) after their class's max wait, and new
+ * callers are rejected right away once the queues are full.
+ */
+public class AsyncPermitPool {
+
+    // Number of permits (max concurrent outbound requests), guarded by this; changed by setLimit()
+    private int permits;
+
+    // final: Maximum number of queued waiters (all classes) before new callers are rejected
+    private final int maxQueueSize;
+
+    // Maximum permits held at once, per priority ordinal, guarded by this
+    private final int[] caps;
+
+    // final: Share of the permits each priority class may hold, per priority ordinal
+    private final double[] shares;
+
+    // final: Maximum wait for a permit, per priority ordinal
+    private final Duration[] maxWait;
+
+    // final: Timer used for the max-wait timeouts
+    private final HashedWheelTimer timer;
+
+    // final: Registry for metrics (Prometheus, Grafana)
+    private final MeterRegistry meterRegistry;
+
+    // final: Tags added to every metric of this pool (e.g. the routing host)
+    private final Tags tags;
+
+    // final: Time between acquire() and getting a permit, per priority ordinal
+    private final Timer[] waitTimers;
+
+    // Free permits, guarded by this; negative after a shrink until enough permits came back
+    private int available;
+
+    // Permits held, per priority ordinal, guarded by this
+    private final int[] inUse;
+
+    // Waiting callers in arrival order, per priority ordinal, guarded by this
+    private final ArrayDeque<Waiter>[] waiters;
+
+    // Total number of queued waiters, guarded by this
+    private int queued;
+
+    /**
+     * Creates a permit pool without per-class shares; every class may use every permit.
+     *
+     * @param permits       Number of permits
+     * @param maxQueueSize  Maximum number of waiting callers
+     * @param maxWait       Maximum time a caller waits for a permit
+     * @param timer         Timer for the wait timeouts
+     * @param meterRegistry Metrics registry for monitoring
+     */
+    public AsyncPermitPool(int permits, int maxQueueSize, Duration maxWait, HashedWheelTimer timer,
+            MeterRegistry meterRegistry) {
+        this(permits, maxQueueSize, maxWait, maxWait, 1.0, 1.0, timer, meterRegistry);
+    }
+
+    /**
+     * Creates a permit pool.
+     *
+     * @param permits           Number of permits
+     * @param maxQueueSize      Maximum number of waiting callers
+     * @param maxWait           Maximum time an interactive or prefetch caller waits
+     * @param backgroundMaxWait Maximum time a background caller waits
+     * @param prefetchShare     Share of the permits prefetch calls may hold at once (0..1)
+     * @param backgroundShare   Share of the permits background calls may hold at once (0..1)
+     * @param timer             Timer for the wait timeouts
+     * @param meterRegistry     Metrics registry for monitoring
+     */
+    public AsyncPermitPool(int permits, int maxQueueSize, Duration maxWait, Duration backgroundMaxWait,
+            double prefetchShare, double backgroundShare, HashedWheelTimer timer, MeterRegistry meterRegistry) {
+        this(permits, maxQueueSize, maxWait, backgroundMaxWait, prefetchShare, backgroundShare, Tags.empty(), timer,
+                meterRegistry);
+    }
+
+    /**
+     * Creates a permit pool whose metrics carry extra tags, so several pools can be told apart.
+     *
+     * @param permits           Number of permits
+     * @param maxQueueSize      Maximum number of waiting callers
+     * @param maxWait           Maximum time an interactive or prefetch caller waits
+     * @param backgroundMaxWait Maximum time a background caller waits
+     * @param prefetchShare     Share of the permits prefetch calls may hold at once (0..1)
+     * @param backgroundShare   Share of the permits background calls may hold at once (0..1)
+     * @param tags              Tags added to all metrics of this pool
+     * @param timer             Timer for the wait timeouts
+     * @param meterRegistry     Metrics registry for monitoring
+     */
+    @SuppressWarnings("unchecked")
+    public AsyncPermitPool(int permits, int maxQueueSize, Duration maxWait, Duration backgroundMaxWait,
+            double prefetchShare, double backgroundShare, Tags tags, HashedWheelTimer timer,
+            MeterRegistry meterRegistry) {
+        RequestPriority[] classes = RequestPriority.values();
+        this.permits = permits;
+        this.available = permits;
+        this.maxQueueSize = maxQueueSize;
+        this.timer = timer;
+        this.meterRegistry = meterRegistry;
+        this.tags = tags;
+        this.shares = new double[classes.length];
+        this.shares[RequestPriority.INTERACTIVE.ordinal()] = 1.0;
+        this.shares[RequestPriority.PREFETCH.ordinal()] = prefetchShare;
+        this.shares[RequestPriority.BACKGROUND.ordinal()] = backgroundShare;
+        this.caps = new int[classes.length];
+        for (int p = 0; p < classes.length; p++) {
+            caps[p] = shareOf(permits, shares[p]);
+        }
+        this.maxWait = new Duration[classes.length];
+        this.maxWait[RequestPriority.INTERACTIVE.ordinal()] = maxWait;
+        this.maxWait[RequestPriority.PREFETCH.ordinal()] = maxWait;
+        this.maxWait[RequestPriority.BACKGROUND.ordinal()] = backgroundMaxWait;
+        this.inUse = new int[classes.length];
+        this.waiters = new ArrayDeque[classes.length];
+        this.waitTimers = new Timer[classes.length];
+        for (RequestPriority priority : classes) {
+            int p = priority.ordinal();
+            waiters[p] = new ArrayDeque<>();
+            waitTimers[p] = Timer.builder("riotapi.client.permits.wait")
+                    .description("Time calls waited for an outbound permit")
+                    .tags(tags.and("priority", priority.tag()))
+                    .publishPercentileHistogram()
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry);
+            meterRegistry.gauge("riotapi.client.permits.queue.depth", tags.and("priority", priority.tag()), this,
+                    pool -> pool.queueDepth(priority));
+        }
+        meterRegistry.gauge("riotapi.client.permits.available", tags, this, AsyncPermitPool::availablePermits);
+        meterRegistry.gauge("riotapi.client.permits.in-flight", tags, this, AsyncPermitPool::inFlight);
+        meterRegistry.gauge("riotapi.client.permits.limit", tags, this, AsyncPermitPool::getLimit);
+    }
+
+    /**
+     * Acquires a permit for an interactive call.
+     *
+     * @return CompletableFuture that completes once a permit was handed to the caller
+     */
+    public CompletableFuture<Void> acquire() {
+        return acquire(RequestPriority.INTERACTIVE);
+    }
+
+    /**
+     * Acquires a permit.
+     *
+     * @param priority Scheduling class of the caller
+     * @return CompletableFuture that completes once a permit was handed to the caller,
+     *         or fails with RiotApiRequestException when the queue is full or the wait timed out
+     */
+    public CompletableFuture<Void> acquire(RequestPriority priority) {
+        int p = priority.ordinal();
+        Waiter waiter;
+        synchronized (this) {
+            if (available > 0 && inUse[p] < caps[p] && noWaitersUpTo(p)) {
+                available--;
+                inUse[p]++;
+                waitTimers[p].record(0, TimeUnit.NANOSECONDS);
+                return CompletableFuture.completedFuture(null);
+            }
+            if (queued >= maxQueueSize) {
+                meterRegistry.counter("riotapi.client.permits.rejected",
+                        tags.and("reason", "queue-full", "priority", priority.tag())).increment();
+                return CompletableFuture.failedFuture(new RiotApiRequestException(
+                        "Outbound request queue is full (" + maxQueueSize + " waiting), status code: 503"));
+            }
+            waiter = new Waiter(p, System.nanoTime());
+            waiters[p].addLast(waiter);
+            queued++;
+        }
+        waiter.timeout = timer.schedule(() -> expire(waiter), maxWait[p].toMillis(), TimeUnit.MILLISECONDS);
+        // A caller that gives up frees its queue slot right away instead of at the max wait
+        waiter.future.whenComplete((ignored, throwable) -> withdraw(waiter));
+        return waiter.future;
+    }
+
+    /**
+     * Takes a permit only if one is free right now and nobody of the same or a higher
+     * class is waiting. Never queues.
+     *
+     * @param priority Scheduling class of the caller
+     * @return true if a permit was taken; it must be returned with release(priority)
+     */
+    public synchronized boolean tryAcquire(RequestPriority priority) {
+        int p = priority.ordinal();
+        if (available > 0 && inUse[p] < caps[p] && noWaitersUpTo(p)) {
+            available--;
+            inUse[p]++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns a permit taken for an interactive call.
+     */
+    public void release() {
+        release(RequestPriority.INTERACTIVE);
+    }
+
+    /**
+     * Returns a permit and hands free permits to the oldest waiters of the highest waiting class.
+     *
+     * @param priority Scheduling class the permit was acquired with
+     */
+    public void release(RequestPriority priority) {
+        synchronized (this) {
+            int p = priority.ordinal();
+            inUse[p] = Math.max(0, inUse[p] - 1);
+            available = Math.min(permits, available + 1);
+        }
+        dispatch();
+    }
+
+    /**
+     * Changes the number of permits at runtime. Growing hands the new permits to
+     * waiters right away; shrinking takes effect as held permits are released, so
+     * running calls are never interrupted.
+     *
+     * @param limit New number of permits (at least 1)
+     */
+    public void setLimit(int limit) {
+        synchronized (this) {
+            int target = Math.max(1, limit);
+            // May drop below zero while more permits are held than the new limit allows
+            available += target - permits;
+            permits = target;
+            for (int p = 0; p < caps.length; p++) {
+                caps[p] = shareOf(permits, shares[p]);
+            }
+        }
+        dispatch();
+    }
+
+    /**
+     * Returns the current number of permits.
+     *
+     * @return Permit limit
+     */
+    public synchronized int getLimit() {
+        return permits;
+    }
+
+    /**
+     * Returns the number of permits currently held.
+     *
+     * @return Permits in use over all classes
+     */
+    public synchronized int inFlight() {
+        int held = 0;
+        for (int count : inUse) {
+            held += count;
+        }
+        return held;
+    }
+
+    /**
+     * Hands free permits to eligible waiters until none is left.
+     */
+    private void dispatch() {
+        while (true) {
+            Waiter next = null;
+            synchronized (this) {
+                if (available > 0) {
+                    for (int p = 0; p < waiters.length && next == null; p++) {
+                        if (!waiters[p].isEmpty() && inUse[p] < caps[p]) {
+                            next = waiters[p].pollFirst();
+                            queued--;
+                            available--;
+                            inUse[p]++;
+                        }
+                    }
+                }
+                if (next == null) {
+                    return;
+                }
+            }
+            if (next.future.complete(null)) {
+                if (next.timeout != null) {
+                    next.timeout.cancel();
+                }
+                waitTimers[next.priority].record(System.nanoTime() - next.enqueuedAt, TimeUnit.NANOSECONDS);
+            } else {
+                // The waiter gave up (timeout or cancellation) - take the permit back and try the next one
+                synchronized (this) {
+                    inUse[next.priority]--;
+                    available++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Fails a waiter that is still queued after the max wait.
+     *
+     * @param waiter The waiter whose timeout fired
+     */
+    private void expire(Waiter waiter) {
+        synchronized (this) {
+            if (!waiters[waiter.priority].remove(waiter)) {
+                return;
+            }
+            queued--;
+        }
+        meterRegistry.counter("riotapi.client.permits.rejected",
+                tags.and("reason", "timeout", "priority", RequestPriority.values()[waiter.priority].tag())).increment();
+        // Runs on the timer thread; the caller handles the failure on the completion executor
+        timer.completeExceptionally(waiter.future, new RiotApiRequestException(
+                "No outbound permit within " + maxWait[waiter.priority].toMillis() + " ms, status code: 503"));
+    }
+
+    /**
+     * Removes a waiter whose future was completed by the caller (usually cancelled)
+     * while it was still queued. Waiters that got a permit or timed out are already gone.
+     *
+     * @param waiter The waiter whose future completed
+     */
+    private void withdraw(Waiter waiter) {
+        synchronized (this) {
+            if (!waiters[waiter.priority].remove(waiter)) {
+                return;
+            }
+            queued--;
+        }
+        if (waiter.timeout != null) {
+            waiter.timeout.cancel();
+        }
+        meterRegistry.counter("riotapi.client.permits.rejected",
+                tags.and("reason", "cancelled", "priority", RequestPriority.values()[waiter.priority].tag()))
+                .increment();
+    }
+
+    /**
+     * Checks that no caller of the same or a higher class is waiting.
+     *
+     * @param p Priority ordinal of the caller
+     * @return true if the caller would not overtake anyone
+     */
+    private boolean noWaitersUpTo(int p) {
+        for (int i = 0; i <= p; i++) {
+            if (!waiters[i].isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Converts a share of the pool into a permit count (at least one).
+     *
+     * @param permits Pool size
+     * @param share   Share between 0 and 1
+     * @return Number of permits
+     */
+    private static int shareOf(int permits, double share) {
+        if (share >= 1.0) {
+            return permits;
+        }
+        return Math.max(1, (int) Math.floor(permits * share));
+    }
+
+    /**
+     * Returns the number of currently free permits.
+     *
+     * @return Free permits
+     */
+    public synchronized int availablePermits() {
+        return Math.max(0, available);
+    }
+
+    /**
+     * Returns the number of callers waiting for a permit.
+     *
+     * @return Queue depth over all classes
+     */
+    public synchronized int queueDepth() {
+        return queued;
+    }
+
+    /**
+     * Returns the number of callers of one class waiting for a permit.
+     *
+     * @param priority Scheduling class
+     * @return Queue depth of that class
+     */
+    public synchronized int queueDepth(RequestPriority priority) {
+        return waiters[priority.ordinal()].size();
+    }
+
+    /**
+     * A queued caller.
+     */
+    private static final class Waiter {
+
+        // Completed with the permit
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        // final: Priority ordinal of the caller
+        private final int priority;
+
+        // final: System.nanoTime() when the caller was queued
+        private final long enqueuedAt;
+
+        // Max-wait timeout, cancelled once the permit was handed over
+        private volatile HashedWheelTimer.Timeout timeout;
+
+        Waiter(int priority, long enqueuedAt) {
+            this.priority = priority;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+}
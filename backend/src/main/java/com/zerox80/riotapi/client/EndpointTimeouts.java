@@ -0,0 +1,120 @@
+// Package declaration: Defines that this class belongs to the client package
+package com.zerox80.riotapi.client;
+
+// Import for the timeout settings (riot.api.timeouts.*)
+import com.zerox80.riotapi.config.RiotApiProperties;
+// Import for metrics registry for performance monitoring
+import io.micrometer.core.instrument.MeterRegistry;
+// Import for the endpoint tag of the timeout gauge
+import io.micrometer.core.instrument.Tags;
+
+// Import for time durations (timeouts)
+import java.time.Duration;
+// Import for the latency windows by request type
+import java.util.Map;
+// Import for thread-safe per-type latency windows
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Request timeouts per request type, derived from the measured latency.
+ *
+ * Once a type has enough samples its timeout is the configured percentile (p99) of its
+ * recent latencies times the multiplier, clamped between min and max. Fast endpoints
+ * then give up on a hung connection after a few seconds instead of 15, while slow ones
+ * keep enough head room. The current timeout per type is exported as a gauge.
+ */
+final class EndpointTimeouts {
+
+    // final: Master switch
+    private final boolean adaptive;
+
+    // final: Latency percentile the timeout is derived from
+    private final double percentile;
+
+    // final: Factor applied to the percentile latency
+    private final double multiplier;
+
+    // final: Samples needed before a timeout adapts
+    private final int minSamples;
+
+    // final: Lower bound of an adapted timeout
+    private final Duration min;
+
+    // final: Upper bound and initial timeout
+    private final Duration max;
+
+    // final: Registry for metrics (Prometheus, Grafana)
+    private final MeterRegistry meterRegistry;
+
+    // Latency windows by request type
+    private final Map<String, LatencyWindow> latencies = new ConcurrentHashMap<>();
+
+    /**
+     * Creates the timeouts from the timeout settings.
+     *
+     * @param config        Timeouts configuration section
+     * @param meterRegistry Metrics registry for monitoring
+     */
+    EndpointTimeouts(RiotApiProperties.Timeouts config, MeterRegistry meterRegistry) {
+        this.adaptive = config.isAdaptive();
+        this.percentile = Math.min(1.0, Math.max(0.5, config.getPercentile()));
+        this.multiplier = Math.max(1.0, config.getMultiplier());
+        this.minSamples = Math.max(1, Math.min(config.getMinSamples(), LatencyWindow.SIZE));
+        this.max = config.getMax();
+        this.min = config.getMin().compareTo(max) > 0 ? max : config.getMin();
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Gets the timeout for the next request of a type.
+     *
+     * @param requestType Request type (e.g. "MatchDetails")
+     * @return Timeout between min and max
+     */
+    Duration timeoutFor(String requestType) {
+        LatencyWindow window = adaptive ? latencies.get(requestType) : null;
+        if (window == null) {
+            return max;
+        }
+        long nanos = window.percentileNanos(percentile, minSamples);
+        if (nanos < 0) {
+            return max;
+        }
+        Duration timeout = Duration.ofNanos((long) (nanos * multiplier));
+        if (timeout.compareTo(min) < 0) {
+            return min;
+        }
+        return timeout.compareTo(max) > 0 ? max : timeout;
+    }
+
+    /**
+     * Gets how long a request of a type usually takes: the percentile latency without
+     * the multiplier, or the minimum timeout while the type has too few samples.
+     *
+     * @param requestType Request type
+     * @return Expected latency of one attempt
+     */
+    Duration expectedLatency(String requestType) {
+        LatencyWindow window = latencies.get(requestType);
+        long nanos = window != null ? window.percentileNanos(percentile, minSamples) : -1;
+        return nanos < 0 ? min : Duration.ofNanos(nanos);
+    }
+
+    /**
+     * Records how long a request took. Timed-out requests are recorded with the time
+     * they waited, so the percentile climbs again when an endpoint slows down.
+     *
+     * @param requestType Request type
+     * @param nanos       Time from sending to the response (or the timeout)
+     */
+    void record(String requestType, long nanos) {
+        if (!adaptive) {
+            return;
+        }
+        latencies.computeIfAbsent(requestType, type -> {
+            meterRegistry.gauge("riotapi.client.timeout", Tags.of("type", type), this,
+                    t -> t.timeoutFor(type).toMillis());
+            return new LatencyWindow();
+        }).add(nanos);
+    }
+}
@@ -0,0 +1,311 @@
+// Package declaration: Defines that this class belongs to the client package
+package com.zerox80.riotapi.client;
+
+// Import for the logging interface from SLF4J
+import org.slf4j.Logger;
+// Import for the factory to create logger instances
+import org.slf4j.LoggerFactory;
+
+// Import for time durations (delays)
+import java.time.Duration;
+// Import for the bucket lists of the wheel
+import java.util.ArrayDeque;
+// Import for iterating while removing expired timeouts
+import java.util.Iterator;
+// Import for asynchronous operations with callbacks
+import java.util.concurrent.CompletableFuture;
+// Import for the lock-free hand-over queue from callers to the worker
+import java.util.concurrent.ConcurrentLinkedQueue;
+// Import for the executor that completes the futures handed out by the timer
+import java.util.concurrent.Executor;
+// Import for the default virtual-thread completion executor
+import java.util.concurrent.Executors;
+// Import for time units in concurrent operations
+import java.util.concurrent.TimeUnit;
+// Import for the timeout state machine (pending/cancelled/expired)
+import java.util.concurrent.atomic.AtomicInteger;
+// Import for parking the worker thread between ticks
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hashed-wheel timer for the many short delays of the outbound client
+ * (retry backoffs, rate limit waits, permit wait timeouts).
+ *
+ * One daemon thread advances a wheel of buckets every tick and runs the tasks
+ * that became due. Scheduling and cancelling are O(1) and lock-free for the
+ * caller, and no task ever touches the common ForkJoinPool. Precision is one
+ * tick, which is plenty for delays measured in hundreds of milliseconds.
+ * Tasks run on the timer thread and must be short. Futures are completed through
+ * {@link #complete} and {@link #completeExceptionally}, which hand the completion
+ * to the completion executor, so the callers' dependent stages never run on (and
+ * never stall) the single timer thread.
+ */
+public class HashedWheelTimer {
+
+    // static final: Class-wide constant, logger for this specific class
+    private static final Logger logger = LoggerFactory.getLogger(HashedWheelTimer.class);
+
+    // Timeout states
+    private static final int ST_PENDING = 0;
+    private static final int ST_CANCELLED = 1;
+    private static final int ST_EXPIRED = 2;
+
+    // final: Length of one tick in nanoseconds
+    private final long tickNanos;
+
+    // final: Buckets of the wheel; the length is a power of two
+    private final ArrayDeque<TimerTask>[] wheel;
+
+    // final: Bit mask replacing the modulo on the wheel length
+    private final int mask;
+
+    // final: Name of the worker thread
+    private final String threadName;
+
+    // final: Runs the completions of futures handed out by the timer
+    private final Executor completionExecutor;
+
+    // Timeouts scheduled by callers, moved into the wheel by the worker on every tick
+    private final ConcurrentLinkedQueue<TimerTask> pending = new ConcurrentLinkedQueue<>();
+
+    // Set by stop(), read by the worker loop
+    private volatile boolean stopped;
+
+    // Reference time of the wheel, set before the worker is published
+    private volatile long startNanos;
+
+    // Worker thread, created on first schedule() (double-checked under this)
+    private volatile Thread worker;
+
+    /**
+     * Creates a timer with the given resolution that completes futures on virtual threads.
+     *
+     * @param threadName Name of the worker thread
+     * @param tick       Length of one tick (resolution)
+     * @param wheelSize  Number of buckets, rounded up to a power of two
+     */
+    public HashedWheelTimer(String threadName, Duration tick, int wheelSize) {
+        this(threadName, tick, wheelSize,
+                Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(threadName + "-completion-", 0).factory()));
+    }
+
+    /**
+     * Creates a timer with the given resolution.
+     *
+     * @param threadName         Name of the worker thread
+     * @param tick               Length of one tick (resolution)
+     * @param wheelSize          Number of buckets, rounded up to a power of two
+     * @param completionExecutor Executor that completes the futures handed out by the timer
+     */
+    @SuppressWarnings("unchecked")
+    public HashedWheelTimer(String threadName, Duration tick, int wheelSize, Executor completionExecutor) {
+        this.threadName = threadName;
+        this.completionExecutor = completionExecutor;
+        this.tickNanos = Math.max(TimeUnit.MILLISECONDS.toNanos(1), tick.toNanos());
+        int size = Integer.highestOneBit(Math.max(2, wheelSize) - 1) << 1;
+        this.wheel = new ArrayDeque[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new ArrayDeque<>();
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * Schedules a task to run once after the given delay.
+     *
+     * @param task  Task to run on the timer thread
+     * @param delay Delay before the task runs
+     * @param unit  Unit of the delay
+     * @return Handle to cancel the task
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        if (stopped) {
+            throw new IllegalStateException("Timer " + threadName + " has been stopped");
+        }
+        startIfNeeded();
+        long deadline = System.nanoTime() + Math.max(0, unit.toNanos(delay)) - startNanos;
+        TimerTask timeout = new TimerTask(task, deadline);
+        pending.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Returns a future that completes after the given delay.
+     *
+     * @param delay Duration to wait
+     * @return CompletableFuture that completes after the delay
+     */
+    public CompletableFuture<Void> delay(Duration delay) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        Timeout timeout = schedule(() -> complete(future, null), delay.toMillis(), TimeUnit.MILLISECONDS);
+        future.whenComplete((v, t) -> timeout.cancel());
+        return future;
+    }
+
+    /**
+     * Completes a future on the completion executor instead of the calling (timer) thread.
+     *
+     * @param future Future to complete
+     * @param value  Result value
+     * @param <T>    Type of the result
+     */
+    public <T> void complete(CompletableFuture<T> future, T value) {
+        completionExecutor.execute(() -> future.complete(value));
+    }
+
+    /**
+     * Fails a future on the completion executor instead of the calling (timer) thread.
+     *
+     * @param future  Future to fail
+     * @param failure Cause of the failure
+     */
+    public void completeExceptionally(CompletableFuture<?> future, Throwable failure) {
+        completionExecutor.execute(() -> future.completeExceptionally(failure));
+    }
+
+    /**
+     * Stops the worker thread. Pending tasks are dropped.
+     */
+    public void stop() {
+        stopped = true;
+        Thread thread = worker;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * Starts the worker thread on first use.
+     */
+    private void startIfNeeded() {
+        if (worker != null) {
+            return;
+        }
+        synchronized (this) {
+            if (worker == null) {
+                startNanos = System.nanoTime();
+                Thread thread = new Thread(this::run, threadName);
+                thread.setDaemon(true);
+                thread.start();
+                worker = thread;
+            }
+        }
+    }
+
+    /**
+     * Worker loop: waits for the next tick, moves new timeouts into the wheel
+     * and expires the due bucket.
+     */
+    private void run() {
+        long tick = 0;
+        while (!stopped) {
+            long tickDeadline = tickNanos * (tick + 1);
+            long sleepNanos = startNanos + tickDeadline - System.nanoTime();
+            if (sleepNanos > 0) {
+                LockSupport.parkNanos(this, sleepNanos);
+                continue;
+            }
+            transferPending(tick);
+            expire(wheel[(int) (tick & mask)], tickDeadline);
+            tick++;
+        }
+        pending.clear();
+    }
+
+    /**
+     * Moves newly scheduled timeouts into their buckets.
+     *
+     * @param tick Current tick
+     */
+    private void transferPending(long tick) {
+        TimerTask timeout;
+        while ((timeout = pending.poll()) != null) {
+            if (timeout.state.get() != ST_PENDING) {
+                continue;
+            }
+            long dueTick = timeout.deadline / tickNanos;
+            timeout.remainingRounds = (dueTick - tick) / wheel.length;
+            // Timeouts that are already due go into the current bucket
+            long targetTick = Math.max(dueTick, tick);
+            wheel[(int) (targetTick & mask)].add(timeout);
+        }
+    }
+
+    /**
+     * Runs all timeouts of a bucket whose round has come; others lose one round.
+     *
+     * @param bucket       Bucket of the current tick
+     * @param tickDeadline Deadline of the current tick
+     */
+    private void expire(ArrayDeque<TimerTask> bucket, long tickDeadline) {
+        Iterator<TimerTask> it = bucket.iterator();
+        while (it.hasNext()) {
+            TimerTask timeout = it.next();
+            if (timeout.state.get() == ST_CANCELLED) {
+                it.remove();
+            } else if (timeout.remainingRounds <= 0) {
+                it.remove();
+                if (timeout.deadline <= tickDeadline) {
+                    timeout.expire();
+                } else {
+                    // Cannot happen with the round calculation above; keep the task rather than drop it
+                    pending.add(timeout);
+                }
+            } else {
+                timeout.remainingRounds--;
+            }
+        }
+    }
+
+    /**
+     * Handle of a scheduled task.
+     */
+    public interface Timeout {
+
+        /**
+         * Cancels the task if it did not run yet.
+         *
+         * @return true if the task was cancelled by this call
+         */
+        boolean cancel();
+    }
+
+    /**
+     * Scheduled task with its deadline relative to the start of the wheel.
+     */
+    private static final class TimerTask implements Timeout {
+
+        // final: The task to run
+        private final Runnable task;
+
+        // final: Deadline in nanoseconds since the wheel started
+        private final long deadline;
+
+        // Full wheel rotations left before the task is due (worker thread only)
+        private long remainingRounds;
+
+        // Pending, cancelled or expired
+        private final AtomicInteger state = new AtomicInteger(ST_PENDING);
+
+        TimerTask(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public boolean cancel() {
+            return state.compareAndSet(ST_PENDING, ST_CANCELLED);
+        }
+
+        void expire() {
+            if (!state.compareAndSet(ST_PENDING, ST_EXPIRED)) {
+                return;
+            }
+            try {
+                task.run();
+            } catch (Throwable t) {
+                logger.warn("Timer task threw an exception", t);
+            }
+        }
+    }
+}
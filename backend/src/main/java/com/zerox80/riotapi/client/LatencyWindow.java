@@ -0,0 +1,69 @@
+// Package declaration: Defines that this class belongs to the client package
+package com.zerox80.riotapi.client;
+
+// Import for sorting a copy of the window
+import java.util.Arrays;
+
+/**
+ * Ring buffer of the most recent latencies of one endpoint type, with a cached
+ * percentile that is recomputed every few samples instead of on every read.
+ * Each owner asks for one fixed percentile (e.g. p95 for hedging, p99 for timeouts).
+ */
+final class LatencyWindow {
+
+    // Latency samples kept
+    static final int SIZE = 256;
+
+    // New samples after which the percentile is recomputed
+    private static final int RECOMPUTE_EVERY = 16;
+
+    // Latencies in nanoseconds, guarded by this
+    private final long[] samples = new long[SIZE];
+
+    // Samples in the buffer (up to its length)
+    private int count;
+
+    // Write position
+    private int next;
+
+    // Samples added since the percentile was computed
+    private int sinceComputed = RECOMPUTE_EVERY;
+
+    // Last computed percentile, -1 if not yet known
+    private long cached = -1;
+
+    /**
+     * Adds a latency sample, overwriting the oldest one once the window is full.
+     *
+     * @param nanos Latency in nanoseconds
+     */
+    synchronized void add(long nanos) {
+        samples[next] = nanos;
+        next = (next + 1) % samples.length;
+        if (count < samples.length) {
+            count++;
+        }
+        sinceComputed++;
+    }
+
+    /**
+     * Gets a percentile of the window.
+     *
+     * @param percentile Percentile between 0 and 1
+     * @param minSamples Samples needed before a value is reported
+     * @return Latency in nanoseconds, or -1 while fewer samples were seen
+     */
+    synchronized long percentileNanos(double percentile, int minSamples) {
+        if (count < minSamples) {
+            return -1;
+        }
+        if (sinceComputed >= RECOMPUTE_EVERY) {
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile * count) - 1;
+            cached = sorted[Math.max(0, Math.min(count - 1, index))];
+            sinceComputed = 0;
+        }
+        return cached;
+    }
+}
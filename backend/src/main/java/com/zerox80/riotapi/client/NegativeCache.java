@@ -0,0 +1,105 @@
+// Package declaration: Defines that this class belongs to the client package
+package com.zerox80.riotapi.client;
+
+// Import for the bounded store of 404 answers
+import com.github.benmanes.caffeine.cache.Cache;
+// Import for the Caffeine cache builder
+import com.github.benmanes.caffeine.cache.Caffeine;
+// Import for the clock of the expiry (replaceable in tests)
+import com.github.benmanes.caffeine.cache.Ticker;
+// Import for the negative cache settings
+import com.zerox80.riotapi.config.RiotApiProperties;
+// Import for the store size gauge
+import io.micrometer.core.instrument.Gauge;
+// Import for metrics registry
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Import for time durations (time to live)
+import java.time.Duration;
+
+/**
+ * Remembers lookups Riot answered with 404 Not Found for a short while, so a typo or
+ * a deleted account is answered as not found without another call (and without
+ * using Riot quota) while the same search is retried or typed on.
+ *
+ * Keys live in their own key space, prefixed with the request type ("Account",
+ * "Summoner", "MatchDetails"), and the store is bounded in size, so a scan of random
+ * names only evicts other 404 answers. Metrics: riotapi.client.negative{type,outcome=hit|miss|stored}
+ * and the gauge riotapi.client.negative.size.
+ */
+final class NegativeCache {
+
+    // final: Whether 404 answers are reused
+    private final boolean enabled;
+
+    // final: 404 answers by request type and cache key, dropped after the time to live
+    private final Cache<String, Boolean> notFound;
+
+    // final: Metrics registry for the counters
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Creates a negative cache on the system clock.
+     *
+     * @param config        Negative cache settings
+     * @param meterRegistry Metrics registry for the counters
+     */
+    NegativeCache(RiotApiProperties.NegativeCache config, MeterRegistry meterRegistry) {
+        this(config, meterRegistry, Ticker.systemTicker());
+    }
+
+    /**
+     * Creates a negative cache with an explicit clock (for tests).
+     *
+     * @param config        Negative cache settings
+     * @param meterRegistry Metrics registry for the counters
+     * @param ticker        Clock of the expiry
+     */
+    NegativeCache(RiotApiProperties.NegativeCache config, MeterRegistry meterRegistry, Ticker ticker) {
+        Duration ttl = config.getTtl();
+        this.enabled = config.isEnabled() && ttl != null && ttl.isPositive();
+        this.notFound = Caffeine.newBuilder()
+                .maximumSize(Math.max(1, config.getMaxEntries()))
+                .expireAfterWrite(enabled ? ttl : Duration.ofMillis(1))
+                .ticker(ticker)
+                // Evictions of this small store are cheap: run them at once, so the bound holds exactly
+                .executor(Runnable::run)
+                .build();
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("riotapi.client.negative.size", notFound, Cache::estimatedSize)
+                .description("Remembered 404 answers")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Tells whether Riot recently answered a lookup with 404, counting a hit or a miss.
+     *
+     * @param requestType Request type (e.g. "Account")
+     * @param key         Cache key of the lookup
+     * @return true if the lookup is known not to exist
+     */
+    boolean isNotFound(String requestType, String key) {
+        if (!enabled) {
+            return false;
+        }
+        if (notFound.getIfPresent(requestType + ":" + key) == null) {
+            meterRegistry.counter("riotapi.client.negative", "type", requestType, "outcome", "miss").increment();
+            return false;
+        }
+        meterRegistry.counter("riotapi.client.negative", "type", requestType, "outcome", "hit").increment();
+        return true;
+    }
+
+    /**
+     * Remembers a 404 answer.
+     *
+     * @param requestType Request type (e.g. "Account")
+     * @param key         Cache key of the lookup
+     */
+    void rememberNotFound(String requestType, String key) {
+        if (enabled) {
+            notFound.put(requestType + ":" + key, Boolean.TRUE);
+            meterRegistry.counter("riotapi.client.negative", "type", requestType, "outcome", "stored").increment();
+        }
+    }
+}
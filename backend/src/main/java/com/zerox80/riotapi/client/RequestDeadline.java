@@ -0,0 +1,238 @@
+// Package declaration: Defines that this class belongs to the client package
+package com.zerox80.riotapi.client;
+
+// Import for time durations (deadline length, remaining time)
+import java.time.Duration;
+// Import for the set of bound steps that are still pending
+import java.util.Set;
+// Import for the cancellation signal and cancelling bound futures
+import java.util.concurrent.CompletableFuture;
+// Import for the concurrent set of pending steps
+import java.util.concurrent.ConcurrentHashMap;
+// Import for scheduling the expiry of the signal
+import java.util.concurrent.TimeUnit;
+// Import for counting the callers of a shared load that still wait
+import java.util.concurrent.atomic.AtomicInteger;
+// Import for the actions run with a deadline
+import java.util.function.Supplier;
+
+/**
+ * Time budget of an incoming HTTP request, carried down to the Riot calls it causes.
+ *
+ * The controller creates a deadline per request and cancels it when the client
+ * disconnects; the deadline also ends by itself once its time is up. RiotApiClient
+ * picks it up on the calling thread, like RequestPriority, and then no longer queues
+ * for permits or starts retries for a caller that is gone or could not use the
+ * answer in time:
+ *
+ * <pre>
+ * RequestDeadline deadline = RequestDeadline.after(Duration.ofSeconds(10));
+ * deadline.call(() -> riot.getMatchDetails(region, matchId));
+ * </pre>
+ *
+ * A Riot call shared by several callers (coalesced lookups) runs under a group
+ * deadline: it ends only when the last of its callers ended, and a caller without a
+ * deadline (e.g. a background crawl) keeps it running for good.
+ */
+public final class RequestDeadline {
+
+    // Remaining time of a group without a deadline: practically unlimited, but safe to add to
+    private static final Duration UNLIMITED = Duration.ofDays(365);
+
+    // Deadline of the calls issued on the current thread, null = none
+    private static final ThreadLocal<RequestDeadline> CURRENT = new ThreadLocal<>();
+
+    // Completes when the deadline ended (expired, cancelled, or all callers of a group ended)
+    private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+    // Bound steps not completed yet; a step leaves on completion, so finished ones
+    // (e.g. HTTP responses) are not kept reachable until the deadline ends
+    private final Set<CompletableFuture<?>> pending = ConcurrentHashMap.newKeySet();
+
+    // Callers of a group that have not ended yet (unused for a single deadline)
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    // System.nanoTime() the deadline expires at; for a group the latest of its callers
+    private volatile long expiresAt;
+
+    // true once a caller without a deadline joined the group
+    private volatile boolean pinned;
+
+    // true if the deadline ended because the caller went away rather than by time
+    private volatile boolean cancelled;
+
+    /**
+     * Creates a deadline.
+     *
+     * @param expiresAt System.nanoTime() it expires at
+     */
+    private RequestDeadline(long expiresAt) {
+        this.expiresAt = expiresAt;
+        done.thenRun(this::cancelPending);
+    }
+
+    /**
+     * Creates a deadline that expires after the given time.
+     *
+     * @param timeout Time budget from now
+     * @return The new deadline
+     */
+    public static RequestDeadline after(Duration timeout) {
+        RequestDeadline deadline = new RequestDeadline(System.nanoTime() + timeout.toNanos());
+        deadline.done.completeOnTimeout(null, Math.max(0, timeout.toNanos()), TimeUnit.NANOSECONDS);
+        return deadline;
+    }
+
+    /**
+     * Creates the group deadline of a shared call, joined by its first caller.
+     *
+     * @param first Deadline of the first caller, null if it has none
+     * @return The group deadline
+     */
+    static RequestDeadline group(RequestDeadline first) {
+        RequestDeadline group = new RequestDeadline(Long.MIN_VALUE);
+        group.join(first);
+        return group;
+    }
+
+    /**
+     * Returns the deadline of calls issued on the current thread.
+     *
+     * @return The current deadline, null if there is none
+     */
+    public static RequestDeadline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Runs the action with this deadline for all Riot API calls it issues on the current thread.
+     *
+     * @param action The action issuing the calls
+     * @param <T>    Result type
+     * @return The result of the action
+     */
+    public <T> T call(Supplier<T> action) {
+        return call(this, action);
+    }
+
+    /**
+     * Runs the action with the given deadline, e.g. one captured before an async step.
+     *
+     * @param deadline The deadline, null to run without one
+     * @param action   The action issuing the calls
+     * @param <T>      Result type
+     * @return The result of the action
+     */
+    public static <T> T call(RequestDeadline deadline, Supplier<T> action) {
+        RequestDeadline previous = CURRENT.get();
+        CURRENT.set(deadline);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Ends the deadline early because nobody waits for the result any more.
+     */
+    public void cancel() {
+        cancelled = true;
+        done.complete(null);
+    }
+
+    /**
+     * Checks whether the deadline ended.
+     *
+     * @return true once it expired or was cancelled
+     */
+    public boolean isDone() {
+        return done.isDone() || (!pinned && System.nanoTime() - expiresAt >= 0);
+    }
+
+    /**
+     * Checks whether the deadline ended because the caller went away.
+     *
+     * @return true if cancelled rather than expired
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Returns the time left.
+     *
+     * @return Remaining time, zero once ended, a very long time for a pinned group
+     */
+    public Duration remaining() {
+        if (done.isDone()) {
+            return Duration.ZERO;
+        }
+        if (pinned) {
+            return UNLIMITED;
+        }
+        return Duration.ofNanos(Math.max(0, expiresAt - System.nanoTime()));
+    }
+
+    /**
+     * Cancels a future once the deadline ends (nothing happens if it completed before).
+     *
+     * @param future The pending step, e.g. a permit wait or an exchange
+     * @param <F>    Type of the future
+     * @return The same future, for chaining
+     */
+    <F extends CompletableFuture<?>> F bind(F future) {
+        if (future.isDone()) {
+            return future;
+        }
+        pending.add(future);
+        future.whenComplete((ignored, throwable) -> pending.remove(future));
+        if (done.isDone()) {
+            // Ended while the step was added: cancelPending may have missed it
+            future.cancel(true);
+        }
+        return future;
+    }
+
+    /**
+     * Cancels the bound steps still pending when the deadline ends.
+     */
+    private void cancelPending() {
+        for (CompletableFuture<?> future : pending) {
+            future.cancel(true);
+        }
+    }
+
+    /**
+     * Adds a caller to this group deadline.
+     *
+     * @param caller Deadline of the caller, null if it has none
+     * @return false if the group already ended, so the caller cannot rely on it
+     */
+    boolean join(RequestDeadline caller) {
+        if (done.isDone()) {
+            return false;
+        }
+        if (caller == null) {
+            pinned = true;
+            return true;
+        }
+        waiting.incrementAndGet();
+        synchronized (this) {
+            if (expiresAt == Long.MIN_VALUE || caller.expiresAt - expiresAt > 0) {
+                expiresAt = caller.expiresAt;
+            }
+        }
+        caller.done.thenRun(() -> {
+            if (waiting.decrementAndGet() == 0 && !pinned) {
+                cancelled = caller.isCancelled();
+                done.complete(null);
+            }
+        });
+        return true;
+    }
+}
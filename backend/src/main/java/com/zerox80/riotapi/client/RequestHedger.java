@@ -0,0 +1,134 @@
+// Package declaration: Defines that this class belongs to the client package
+package com.zerox80.riotapi.client;
+
+// Import for the hedging settings (riot.api.hedging.*)
+import com.zerox80.riotapi.config.RiotApiProperties;
+
+// Import for the latency windows by endpoint type
+import java.util.Map;
+// Import for the set of hedged endpoint types
+import java.util.Set;
+// Import for thread-safe per-endpoint latency windows
+import java.util.concurrent.ConcurrentHashMap;
+// Import for converting nanoseconds to milliseconds
+import java.util.concurrent.TimeUnit;
+// Import for collecting the configured endpoint types
+import java.util.stream.Collectors;
+
+/**
+ * Decides when a slow Riot call gets a duplicate (a "hedge").
+ *
+ * Keeps the latencies of the most recent calls per hedged endpoint type and derives
+ * the configured percentile from them; a call still open after that delay may be
+ * hedged once. Hedges are paid from a token budget that every primary call tops up
+ * by the budget ratio, so hedging never adds more than that share of extra calls.
+ */
+final class RequestHedger {
+
+    // final: Master switch
+    private final boolean enabled;
+
+    // final: Endpoint types that may be hedged
+    private final Set<String> endpoints;
+
+    // final: Percentile after which a call is hedged (0..1)
+    private final double percentile;
+
+    // final: Samples needed before an endpoint is hedged
+    private final int minSamples;
+
+    // final: Lower bound of the hedge delay in milliseconds
+    private final long minDelayMillis;
+
+    // final: Budget earned per primary call
+    private final double budgetRatio;
+
+    // final: Upper bound of the budget
+    private final int maxBurst;
+
+    // Latency windows by endpoint type
+    private final Map<String, LatencyWindow> latencies = new ConcurrentHashMap<>();
+
+    // Hedges that may currently be sent, guarded by this
+    private double budget;
+
+    /**
+     * Creates a hedger from the hedging settings.
+     *
+     * @param config Hedging configuration section
+     */
+    RequestHedger(RiotApiProperties.Hedging config) {
+        this.enabled = config.isEnabled();
+        this.endpoints = config.getEndpoints().stream().map(String::trim).collect(Collectors.toUnmodifiableSet());
+        this.percentile = Math.min(1.0, Math.max(0.0, config.getPercentile()));
+        this.minSamples = Math.max(1, Math.min(config.getMinSamples(), LatencyWindow.SIZE));
+        this.minDelayMillis = Math.max(1, config.getMinDelay().toMillis());
+        this.budgetRatio = Math.max(0.0, config.getBudgetRatio());
+        this.maxBurst = Math.max(1, config.getMaxBurst());
+    }
+
+    /**
+     * Checks whether calls of a request type are hedged (and their latencies tracked).
+     *
+     * @param requestType Request type (e.g. "MatchDetails")
+     * @return true if the type may be hedged
+     */
+    boolean isHedged(String requestType) {
+        return enabled && endpoints.contains(requestType);
+    }
+
+    /**
+     * Gets the delay after which an open call of the given type gets a duplicate.
+     *
+     * @param requestType Request type
+     * @return Delay in milliseconds, or -1 while too few latencies were seen
+     */
+    long hedgeDelayMillis(String requestType) {
+        LatencyWindow window = latencies.get(requestType);
+        if (window == null) {
+            return -1;
+        }
+        long nanos = window.percentileNanos(percentile, minSamples);
+        if (nanos < 0) {
+            return -1;
+        }
+        return Math.max(minDelayMillis, TimeUnit.NANOSECONDS.toMillis(nanos));
+    }
+
+    /**
+     * Records the latency of a primary call.
+     *
+     * @param requestType Request type
+     * @param nanos       Time from sending to completion (or cancellation)
+     */
+    void record(String requestType, long nanos) {
+        latencies.computeIfAbsent(requestType, t -> new LatencyWindow()).add(nanos);
+    }
+
+    /**
+     * Tops up the budget for one primary call.
+     */
+    synchronized void onPrimary() {
+        budget = Math.min(maxBurst, budget + budgetRatio);
+    }
+
+    /**
+     * Takes the budget for one hedge.
+     *
+     * @return true if the budget allowed a hedge
+     */
+    synchronized boolean tryTakeBudget() {
+        if (budget < 1.0) {
+            return false;
+        }
+        budget -= 1.0;
+        return true;
+    }
+
+    /**
+     * Gives back the budget of a hedge that was not sent after all.
+     */
+    synchronized void refundBudget() {
+        budget = Math.min(maxBurst, budget + 1.0);
+    }
+}
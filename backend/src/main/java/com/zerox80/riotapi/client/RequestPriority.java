@@ -0,0 +1,77 @@
+// Package declaration: Defines that this enum belongs to the client package
+package com.zerox80.riotapi.client;
+
+// Import for locale (language settings, here for toLowerCase)
+import java.util.Locale;
+// Import for supplier functional interface
+import java.util.function.Supplier;
+
+/**
+ * Scheduling class of an outbound Riot API call.
+ *
+ * INTERACTIVE calls (a user waiting on /api/profile) always go first. PREFETCH
+ * calls warm caches ahead of time and BACKGROUND calls (build aggregation crawls)
+ * only get the permits and rate limit quota that interactive traffic leaves idle.
+ *
+ * The class is picked up by RiotApiClient on the calling thread when a request
+ * is issued, so callers mark a block of calls instead of threading a parameter
+ * through every method:
+ *
+ * <pre>
+ * RequestPriority.BACKGROUND.call(() -> riot.getMatchDetails(matchId));
+ * </pre>
+ */
+public enum RequestPriority {
+
+    // A user is waiting for the response
+    INTERACTIVE,
+
+    // Speculative cache warming, nobody is waiting yet
+    PREFETCH,
+
+    // Bulk crawls like the build aggregation
+    BACKGROUND;
+
+    // Priority of the calls issued on the current thread, null = INTERACTIVE
+    private static final ThreadLocal<RequestPriority> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Returns the priority of calls issued on the current thread.
+     *
+     * @return The current priority, INTERACTIVE by default
+     */
+    public static RequestPriority current() {
+        RequestPriority priority = CURRENT.get();
+        return priority != null ? priority : INTERACTIVE;
+    }
+
+    /**
+     * Runs the action with this priority for all Riot API calls it issues on the current thread.
+     *
+     * @param action The action issuing the calls
+     * @param <T>    Result type
+     * @return The result of the action
+     */
+    public <T> T call(Supplier<T> action) {
+        RequestPriority previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Returns the metric tag value of this priority.
+     *
+     * @return Lowercase name, e.g. "background"
+     */
+    public String tag() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
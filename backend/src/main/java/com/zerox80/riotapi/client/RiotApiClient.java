@@ -1,8 +1,6 @@
 // Package declaration: Defines that this class belongs to the client package
 package com.zerox80.riotapi.client;
 
-// Import for Jackson JSON parsing exceptions
-import com.fasterxml.jackson.core.JsonProcessingException;
 // Import for Jackson to deserialize generic types (e.g., List<LeagueEntryDTO>)
 import com.fasterxml.jackson.core.type.TypeReference;
 // Import for configuring deserialization behavior
@@ -11,10 +9,20 @@ import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 // Import for configuration of property naming (camelCase, snake_case, etc.)
 import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+// Import for the memory-budget mode that also bounds the last good values
+import com.zerox80.riotapi.config.CacheBudgetProperties;
+// Import for the off-heap match store that also keeps the last good matches
+import com.zerox80.riotapi.config.CompressedMatchCache;
+// Import for the tuning options of this client (rate limiter, ...)
+import com.zerox80.riotapi.config.RiotApiProperties;
+// Import for unwrapping the off-heap match store
+import com.zerox80.riotapi.config.StaleRejectingCache;
 // Import of our model class for account data from Riot
 import com.zerox80.riotapi.model.AccountDto;
 // Import for ranked league entries (rank, division, LP)
 import com.zerox80.riotapi.model.LeagueEntryDTO;
+// Import for the compact cached form of match data
+import com.zerox80.riotapi.model.CompactMatch;
 // Import for detailed match data from the V5 API
 import com.zerox80.riotapi.model.MatchV5Dto;
 // Import for summoner basic data (level, name, icon)
@@ -37,6 +45,12 @@ import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Component;
 // Import for metrics registry for performance monitoring
 import io.micrometer.core.instrument.MeterRegistry;
+// Import for the response size distributions
+import io.micrometer.core.instrument.DistributionSummary;
+// Import for the byte gauges of the last good values
+import io.micrometer.core.instrument.Gauge;
+// Import for tags of the per-host permit pool metrics
+import io.micrometer.core.instrument.Tags;
 // Import for timer metrics to measure latency
 import io.micrometer.core.instrument.Timer;
 
@@ -52,6 +66,8 @@ import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 // Import for HTTP response objects
 import java.net.http.HttpResponse;
+// Import for recognizing requests that ran into their timeout
+import java.net.http.HttpTimeoutException;
 // Import for UTF-8 encoding standard
 import java.nio.charset.StandardCharsets;
 // Import for time durations (timeouts, delays)
@@ -60,6 +76,8 @@ import java.time.Duration;
 import java.time.ZonedDateTime;
 // Import for formatting date strings
 import java.time.format.DateTimeFormatter;
+// Import for unmodifiable map views
+import java.util.Collections;
 // Import for list data structure
 import java.util.List;
 // Import for locale (language settings, here for toLowerCase)
@@ -70,18 +88,24 @@ import java.util.Optional;
 import java.util.Map;
 // Import for thread-safe hash map (important for concurrency)
 import java.util.concurrent.ConcurrentHashMap;
-// Import for time units in concurrent operations
-import java.util.concurrent.TimeUnit;
 // Import for thread-safe random generator (for jitter in retry logic)
 import java.util.concurrent.ThreadLocalRandom;
 // Import for asynchronous operations with callbacks
 import java.util.concurrent.CompletableFuture;
-// Import for supplier functional interface
+// Import for unwrapping errors of dependent futures
+import java.util.concurrent.CompletionException;
+// Import for recognizing cancelled exchanges (lost hedges, cancelled callers)
+import java.util.concurrent.CancellationException;
+// Import for the hedge delay unit
+import java.util.concurrent.TimeUnit;
+// Import for flattening the nested future of the stale fallback
+import java.util.function.Function;
+// Import for the loads of sync cache entries
 import java.util.function.Supplier;
-// Import for semaphore to limit concurrent requests
-import java.util.concurrent.Semaphore;
 // Import for thread-safe integer counter
 import java.util.concurrent.atomic.AtomicInteger;
+// Import for handing the hedge future to the primary's completion
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Main HTTP client for all communication with the Riot Games API.
@@ -90,6 +114,10 @@ import java.util.concurrent.atomic.AtomicInteger;
  * - Riot API authentication and rate limiting
  * - Automatic retry logic with exponential backoff
  * - Request coalescing to prevent duplicate API calls
+ * - Circuit breakers per endpoint type, answering with stale cached data while Riot fails
+ * - Negative caching: account, summoner and match lookups answered with 404 are not repeated for a while
+ * - Hedged requests for slow calls of latency-sensitive endpoints (match details)
+ * - Request deadlines: calls nobody waits for any more are cancelled instead of queued or retried
  * - Comprehensive metrics and logging
  * - Spring Cache integration
  *
@@ -99,13 +127,50 @@ import java.util.concurrent.atomic.AtomicInteger;
 @Component
 public class RiotApiClient {
 
-    // Semaphore limits the number of concurrent outgoing HTTP requests
-    // Prevents overloading the Riot API and reaching rate limits
-    // final: Value cannot be changed after initialization
-    // Semaphore limits the number of concurrent outgoing HTTP requests
-    // Prevents overloading the Riot API and reaching rate limits
-    // final: Value cannot be changed after initialization
-    private final Semaphore outboundLimiter;
+    // Limits the number of concurrent outgoing HTTP requests, one pool per routing host
+    // (euw1, europe, kr, ...), so a spike on one region cannot queue up the others
+    // Only bounds open connections; Riot's quota is enforced by the rate limiter
+    // Waiting callers are queued FIFO and get released permits handed over directly
+    private final Map<String, AsyncPermitPool> outboundPermits = new ConcurrentHashMap<>();
+
+    // Adaptive limits of the permit pools by routing host (absent when riot.api.concurrency.adaptive=false)
+    private final Map<String, AdaptiveConcurrencyLimit> concurrencyLimits = new ConcurrentHashMap<>();
+
+    // final: Settings of the adaptive limits
+    private final RiotApiProperties.Concurrency concurrencyConfig;
+
+    // Per-endpoint request timeouts derived from the measured p99
+    private final EndpointTimeouts timeouts;
+
+    // final: Queue settings for new permit pools
+    private final RiotApiProperties.Permits permitConfig;
+
+    // final: Priority shares for new permit pools
+    private final RiotApiProperties.Priority priorityConfig;
+
+    // Shared timer for retry backoffs, rate limit waits and permit timeouts
+    private final HashedWheelTimer timer;
+
+    // Header-driven mirror of Riot's App/Method rate limits per routing host
+    private final RiotRateLimiter rateLimiter;
+
+    // Circuit breakers by endpoint type (Account, Summoner, LeagueEntries, MatchIds, MatchDetails)
+    private final Map<String, RiotCircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+
+    // final: Settings for breakers of further endpoint types
+    private final RiotApiProperties.CircuitBreaker circuitConfig;
+
+    // Last good values of the cached lookups, served when Riot fails or a breaker is open
+    private final StaleValueStore staleValues;
+
+    // final: Whether match details are kept off-heap, which then also holds their last good values
+    private final boolean matchStoreEnabled;
+
+    // final: Recent 404 answers of account, summoner and match lookups (riot.api.negative-cache.*)
+    private final NegativeCache negativeCache;
+
+    // Latency percentiles and budget of the hedged requests
+    private final RequestHedger hedger;
 
     // static final: Class-wide constant, logger for this specific class
     // LoggerFactory.getLogger(): Creates a logger with the class name as category
@@ -114,11 +179,11 @@ public class RiotApiClient {
     // final: Immutable API key for authentication with Riot
     private final String apiKey;
 
-    // final: Platform region (e.g., "euw1" for Europe West)
-    private final String platformRegion;
+    // final: Region used when a caller does not name one (riot.api.region)
+    private final RiotRegion defaultRegion;
 
-    // final: Regional routing for match history APIs (e.g., "europe")
-    private final String regionalRoute;
+    // final: Base URL replacing the Riot hosts (riot.api.base-url), empty in production
+    private final String baseUrl;
 
     // final: Reusable HTTP client for all requests
     private final HttpClient httpClient;
@@ -141,26 +206,28 @@ public class RiotApiClient {
     // final: Manager for all cache instances in the application
     private final CacheManager cacheManager;
 
-    // In-flight request coalescing maps - prevents duplicate API calls
+    // In-flight request coalescing - prevents duplicate API calls
     // when multiple threads request the same data simultaneously (cache miss)
-    // ConcurrentHashMap: Thread-safe map for parallel access
-    // Key: Account identifier, Value: Future with the result
-    private final Map<String, CompletableFuture<AccountDto>> accountByRiotIdInFlight = new ConcurrentHashMap<>();
+    // Keys are prefixed with the platform or regional route, like the cache keys,
+    // so identical lookups in different regions never share a future
+    // Bounded in size and time, see riot.api.coalescing.*
+    // Key: Account identifier, Value: Account lookup in flight
+    private final SingleFlight<String, AccountDto> accountByRiotIdInFlight;
 
-    // Map for in-flight summoner requests by PUUID
-    private final Map<String, CompletableFuture<Summoner>> summonerByPuuidInFlight = new ConcurrentHashMap<>();
+    // Single flight for summoner requests by PUUID
+    private final SingleFlight<String, Summoner> summonerByPuuidInFlight;
 
-    // Map for in-flight league requests by summoner ID
-    private final Map<String, CompletableFuture<List<LeagueEntryDTO>>> leagueBySummonerIdInFlight = new ConcurrentHashMap<>();
+    // Single flight for league requests by summoner ID
+    private final SingleFlight<String, List<LeagueEntryDTO>> leagueBySummonerIdInFlight;
 
-    // Map for in-flight league requests by PUUID
-    private final Map<String, CompletableFuture<List<LeagueEntryDTO>>> leagueByPuuidInFlight = new ConcurrentHashMap<>();
+    // Single flight for league requests by PUUID
+    private final SingleFlight<String, List<LeagueEntryDTO>> leagueByPuuidInFlight;
 
-    // Map for in-flight match ID requests
-    private final Map<String, CompletableFuture<List<String>>> matchIdsInFlight = new ConcurrentHashMap<>();
+    // Single flight for match ID requests
+    private final SingleFlight<String, List<String>> matchIdsInFlight;
 
-    // Map for in-flight match detail requests
-    private final Map<String, CompletableFuture<MatchV5Dto>> matchDetailsInFlight = new ConcurrentHashMap<>();
+    // Single flight for match detail requests
+    private final SingleFlight<String, CompactMatch> matchDetailsInFlight;
 
     // static final: Type token for Jackson to deserialize List<LeagueEntryDTO>
     // TypeReference: Preserves generic type information at runtime (bypasses type
@@ -177,7 +244,7 @@ public class RiotApiClient {
      * Constructs the RiotApiClient with all required dependencies.
      *
      * @param apiKey                Riot API key from configuration
-     * @param platformRegion        Platform region (e.g., euw1, na1, kr)
+     * @param platformRegion        Default platform region (e.g., euw1, na1, kr)
      * @param communityDragonUrl    Base URL for Community Dragon CDN
      * @param userAgent             User-Agent header for API requests
      * @param objectMapper          Jackson ObjectMapper for JSON processing
@@ -185,6 +252,9 @@ public class RiotApiClient {
      * @param httpClient            HTTP client for making requests
      * @param maxConcurrentOutbound Maximum number of concurrent outbound requests
      * @param cacheManager          Spring cache manager for cache operations
+     * @param riotApiProperties     Tuning options (rate limiter, permit queue, ...)
+     * @param riotApiTimer          Shared timer for delays and timeouts
+     * @param cacheBudget           Memory-budget mode settings, which also bound the last good values
      */
     @Autowired
     public RiotApiClient(@Value("${riot.api.key:}") String apiKey,
@@ -195,11 +265,17 @@ public class RiotApiClient {
             MeterRegistry meterRegistry,
             HttpClient httpClient,
             @Value("${riot.api.max-concurrent:15}") int maxConcurrentOutbound,
-            CacheManager cacheManager) {
+            CacheManager cacheManager,
+            RiotApiProperties riotApiProperties,
+            HashedWheelTimer riotApiTimer,
+            CacheBudgetProperties cacheBudget) {
         this.apiKey = apiKey;
-        this.platformRegion = platformRegion.toLowerCase(Locale.ROOT);
-        this.regionalRoute = determineRegionalRoute(this.platformRegion);
+        this.defaultRegion = RiotRegion.fromPlatformId(platformRegion);
         this.communityDragonUrl = communityDragonUrl;
+        String configuredBaseUrl = riotApiProperties.getBaseUrl().trim();
+        this.baseUrl = configuredBaseUrl.endsWith("/")
+                ? configuredBaseUrl.substring(0, configuredBaseUrl.length() - 1)
+                : configuredBaseUrl;
         this.userAgent = userAgent;
         this.meterRegistry = meterRegistry;
         this.maxConcurrentOutbound = maxConcurrentOutbound > 0 ? maxConcurrentOutbound : 15;
@@ -209,8 +285,40 @@ public class RiotApiClient {
                 .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
                 .setPropertyNamingStrategy(PropertyNamingStrategies.LOWER_CAMEL_CASE);
         this.httpClient = httpClient;
-        this.outboundLimiter = new Semaphore(this.maxConcurrentOutbound);
+        this.timer = riotApiTimer;
+        this.permitConfig = riotApiProperties.getPermits();
+        this.priorityConfig = riotApiProperties.getPriority();
         this.cacheManager = cacheManager;
+        RiotApiProperties.RateLimit rateLimitConfig = riotApiProperties.getRateLimit();
+        this.rateLimiter = new RiotRateLimiter(rateLimitConfig.isEnabled(), rateLimitConfig.getDefaultAppLimits(),
+                priorityConfig.getPrefetchShare(), priorityConfig.getBackgroundShare(), meterRegistry, riotApiTimer);
+        this.circuitConfig = riotApiProperties.getCircuitBreaker();
+        this.matchStoreEnabled = riotApiProperties.getMatchStore().isEnabled();
+        long staleBudget = cacheBudget.isEnabled() ? cacheBudget.budgetFor("staleValues") : 0;
+        this.staleValues = new StaleValueStore(circuitConfig.getMaxStaleAge(), circuitConfig.getStaleMaxEntries(),
+                staleBudget);
+        if (staleBudget > 0) {
+            // Same gauges as the caches in memory-budget mode (CacheConfig)
+            Gauge.builder("riotapi.cache.budget.bytes", () -> staleBudget)
+                    .tag("cache", "staleValues").baseUnit("bytes").register(meterRegistry);
+            Gauge.builder("riotapi.cache.estimated.bytes", staleValues, StaleValueStore::estimatedBytes)
+                    .tag("cache", "staleValues").baseUnit("bytes").register(meterRegistry);
+        }
+        this.hedger = new RequestHedger(riotApiProperties.getHedging());
+        this.negativeCache = new NegativeCache(riotApiProperties.getNegativeCache(), meterRegistry);
+        this.concurrencyConfig = riotApiProperties.getConcurrency();
+        this.timeouts = new EndpointTimeouts(riotApiProperties.getTimeouts(), meterRegistry);
+        RiotApiProperties.Coalescing coalescing = riotApiProperties.getCoalescing();
+        this.accountByRiotIdInFlight = singleFlight("accounts", coalescing);
+        this.summonerByPuuidInFlight = singleFlight("summoners", coalescing);
+        this.leagueBySummonerIdInFlight = singleFlight("leagueBySummonerId", coalescing);
+        this.leagueByPuuidInFlight = singleFlight("leagueByPuuid", coalescing);
+        this.matchIdsInFlight = singleFlight("matchIds", coalescing);
+        this.matchDetailsInFlight = singleFlight("matchDetails", coalescing);
+        // Create the breakers up-front, so their state gauges exist before the first call
+        for (String endpoint : List.of("Account", "Summoner", "LeagueEntries", "MatchIds", "MatchDetails")) {
+            circuitBreakerFor(endpoint);
+        }
 
         if (this.apiKey == null || this.apiKey.isBlank() || "YOUR_API_KEY".equalsIgnoreCase(this.apiKey)) {
             logger.warn("Riot API key is missing or placeholder. Set property 'riot.api.key' or env 'RIOT_API_KEY'.");
@@ -228,56 +336,47 @@ public class RiotApiClient {
     }
 
     /**
-     * Determines the regional routing endpoint based on the platform region.
-     * Regional routes are used for match history and account APIs.
-     *
-     * @param platform The platform region (e.g., euw1, na1, kr)
-     * @return The regional routing endpoint (europe, americas, asia, sea)
-     */
-    private String determineRegionalRoute(String platform) {
-        switch (platform) {
-            case "euw1", "eun1", "tr1", "ru", "me1":
-                return "europe";
-            case "na1", "br1", "la1", "la2", "oc1":
-                return "americas";
-            case "kr", "jp1":
-                return "asia";
-            case "vn2", "ph2", "sg2", "th2", "tw2", "id1":
-                return "sea";
-            default:
-                logger.warn(
-                        "Warning: Unknown platform region '{}' for determining regional route. Defaulting to platform itself.",
-                        platform);
-                return platform;
-        }
+     * Builds the URL of an API call. Calls go to the Riot host of their route, or to
+     * riot.api.base-url when one is configured (e.g. a local fake server); the host
+     * still selects the rate limit buckets and permits either way.
+     *
+     * @param host Riot host of the route (e.g. "europe.api.riotgames.com")
+     * @param path Path including the query string
+     * @return Full request URL
+     */
+    private String apiUrl(String host, String path) {
+        return baseUrl.isEmpty() ? "https://" + host + path : baseUrl + path;
     }
 
     /**
      * Sends an async API request and parses the response into a single object.
      *
+     * @param route         Routing value whose rate limits and permits the request uses
      * @param url           The full API endpoint URL
      * @param responseClass The class to deserialize the response into
      * @param requestType   Description of the request type for logging/metrics
      * @param <T>           The type of the response object
      * @return CompletableFuture containing the parsed response
      */
-    private <T> CompletableFuture<T> sendApiRequestAsync(String url, Class<T> responseClass, String requestType) {
-        return sendRequest(url, requestType)
+    private <T> CompletableFuture<T> sendApiRequestAsync(String route, String url, Class<T> responseClass,
+            String requestType) {
+        return sendRequest(route, url, requestType)
                 .thenApply(response -> parseResponse(response, responseClass, requestType, url));
     }
 
     /**
      * Sends an async API request and parses the response into a generic type.
      *
+     * @param route         Routing value whose rate limits and permits the request uses
      * @param url           The full API endpoint URL
      * @param typeReference TypeReference for generic types (e.g., List<T>)
      * @param requestType   Description of the request type for logging/metrics
      * @param <T>           The type of the response object
      * @return CompletableFuture containing the parsed response
      */
-    private <T> CompletableFuture<T> sendApiRequestAsync(String url, TypeReference<T> typeReference,
+    private <T> CompletableFuture<T> sendApiRequestAsync(String route, String url, TypeReference<T> typeReference,
             String requestType) {
-        return sendRequest(url, requestType)
+        return sendRequest(route, url, requestType)
                 .thenApply(response -> parseResponse(response, typeReference, requestType, url));
     }
 
@@ -286,30 +385,39 @@ public class RiotApiClient {
 
     // Base backoff duration for exponential retry
     private static final Duration BASE_BACKOFF = Duration.ofSeconds(2);
-    // Polling interval for acquiring semaphore permits without blocking threads
-    private static final Duration PERMIT_POLL_INTERVAL = Duration.ofMillis(25);
+
+    // Bytes of an error body kept for the log snippet; the rest is dropped while it arrives
+    private static final int ERROR_SNIPPET_BYTES = 500;
 
     /**
      * Sends an HTTP request with automatic retry logic and instrumentation.
      *
+     * @param route       Routing value (e.g., "euw1", "europe")
      * @param url         The full API endpoint URL
      * @param requestType Description of the request type for logging/metrics
      * @return CompletableFuture containing the HTTP response
      */
-    private CompletableFuture<HttpResponse<String>> sendRequest(String url, String requestType) {
+    private CompletableFuture<HttpResponse<RiotResponseBody>> sendRequest(String route, String url,
+            String requestType) {
         HttpRequest request = HttpRequest.newBuilder()
                 .uri(URI.create(url))
                 .header("X-Riot-Token", this.apiKey)
                 .header("Accept", "application/json")
                 .header("User-Agent", this.userAgent)
-                .timeout(Duration.ofSeconds(15))
+                .timeout(timeouts.timeoutFor(requestType))
                 .build();
+        RequestPriority priority = RequestPriority.current();
+        RequestDeadline deadline = RequestDeadline.current();
         Timer.Sample sample = Timer.start(meterRegistry);
         AtomicInteger retries = new AtomicInteger(0);
-        return sendWithRetryInstrumented(request, requestType, url, 1, retries)
+        return sendWithRetryInstrumented(request, requestType, url, route, priority, deadline, 1, retries)
                 .whenComplete((response, throwable) -> {
                     String statusTag;
-                    if (throwable != null) {
+                    if (throwable instanceof RiotDeadlineExceededException
+                            || throwable instanceof CompletionException
+                                    && throwable.getCause() instanceof RiotDeadlineExceededException) {
+                        statusTag = "abandoned";
+                    } else if (throwable != null) {
                         statusTag = "error";
                     } else {
                         int status = response.statusCode();
@@ -324,8 +432,8 @@ public class RiotApiClient {
                         else
                             statusTag = String.valueOf(status);
                     }
-                    meterRegistry.counter("riotapi.client.requests", "type", requestType, "status", statusTag)
-                            .increment();
+                    meterRegistry.counter("riotapi.client.requests", "type", requestType, "status", statusTag,
+                            "priority", priority.tag(), "route", route).increment();
                     Timer timer = meterRegistry.timer("riotapi.client.latency", "type", requestType, "status",
                             statusTag, "retries", String.valueOf(retries.get()));
                     sample.stop(timer);
@@ -335,26 +443,33 @@ public class RiotApiClient {
     /**
      * Sends an HTTP request with Bearer token authentication (for RSO endpoints).
      *
+     * @param route       Routing value (e.g., "euw1")
      * @param url         The full API endpoint URL
      * @param requestType Description of the request type for logging/metrics
      * @param bearerToken RSO Bearer token for authentication
      * @return CompletableFuture containing the HTTP response
      */
-    private CompletableFuture<HttpResponse<String>> sendRequestWithBearer(String url, String requestType,
-            String bearerToken) {
+    private CompletableFuture<HttpResponse<RiotResponseBody>> sendRequestWithBearer(String route, String url,
+            String requestType, String bearerToken) {
         HttpRequest request = HttpRequest.newBuilder()
                 .uri(URI.create(url))
                 .header("Authorization", "Bearer " + bearerToken)
                 .header("Accept", "application/json")
                 .header("User-Agent", this.userAgent)
-                .timeout(Duration.ofSeconds(15))
+                .timeout(timeouts.timeoutFor(requestType))
                 .build();
+        RequestPriority priority = RequestPriority.current();
+        RequestDeadline deadline = RequestDeadline.current();
         Timer.Sample sample = Timer.start(meterRegistry);
         AtomicInteger retries = new AtomicInteger(0);
-        return sendWithRetryInstrumented(request, requestType, url, 1, retries)
+        return sendWithRetryInstrumented(request, requestType, url, route, priority, deadline, 1, retries)
                 .whenComplete((response, throwable) -> {
                     String statusTag;
-                    if (throwable != null) {
+                    if (throwable instanceof RiotDeadlineExceededException
+                            || throwable instanceof CompletionException
+                                    && throwable.getCause() instanceof RiotDeadlineExceededException) {
+                        statusTag = "abandoned";
+                    } else if (throwable != null) {
                         statusTag = "error";
                     } else {
                         int status = response.statusCode();
@@ -369,8 +484,8 @@ public class RiotApiClient {
                         else
                             statusTag = String.valueOf(status);
                     }
-                    meterRegistry.counter("riotapi.client.requests", "type", requestType, "status", statusTag)
-                            .increment();
+                    meterRegistry.counter("riotapi.client.requests", "type", requestType, "status", statusTag,
+                            "priority", priority.tag(), "route", route).increment();
                     Timer timer = meterRegistry.timer("riotapi.client.latency", "type", requestType, "status",
                             statusTag, "retries", String.valueOf(retries.get()));
                     sample.stop(timer);
@@ -380,49 +495,116 @@ public class RiotApiClient {
     /**
      * Executes the HTTP request with automatic retry for transient failures.
      * Implements exponential backoff with jitter and respects Retry-After headers.
+     * Every attempt takes a permit and then reserves capacity in the rate limiter, so
+     * requests wait locally instead of spending a round trip on a predictable 429. The
+     * quota comes last, so a call that gets no permit in time (or whose callers went
+     * away while it queued) never uses up a request of the rate limit windows. The quota
+     * wait is bounded like the permit wait, so a held permit is not kept for a full
+     * window or a Retry-After pause.
+     * Once the request deadline ends, waiting for quota or a permit and the exchange
+     * itself are cancelled, and a retry is only started if it can finish in time.
      *
      * @param request     The HTTP request to send
      * @param requestType Description of the request type for logging/metrics
      * @param url         The full API endpoint URL
+     * @param route       Routing value whose rate limits and permits the request uses
+     * @param priority    Scheduling class of the request
+     * @param deadline    Deadline of the callers, null if there is none
      * @param attempt     Current attempt number (1-based)
      * @param retries     Atomic counter tracking total retry attempts
      * @return CompletableFuture containing the HTTP response
      */
-    private CompletableFuture<HttpResponse<String>> sendWithRetryInstrumented(HttpRequest request, String requestType,
-            String url, int attempt, AtomicInteger retries) {
-        return acquirePermitAsync()
-                .thenCompose(v -> httpClient
-                        .sendAsync(request, HttpResponse.BodyHandlers.ofString())
-                        .handle((response, throwable) -> new Object[] { response, throwable })
-                        .whenComplete((pair, t) -> releasePermit()))
+    private CompletableFuture<HttpResponse<RiotResponseBody>> sendWithRetryInstrumented(HttpRequest request, String requestType,
+            String url, String route, RequestPriority priority, RequestDeadline deadline, int attempt,
+            AtomicInteger retries) {
+        if (deadline != null && deadline.isDone()) {
+            // Nobody can use the answer any more
+            return CompletableFuture.failedFuture(abandon(deadline, requestType, "queued"));
+        }
+        String method = rateLimitMethod(requestType);
+        RiotCircuitBreaker breaker = circuitBreakerFor(circuitEndpoint(requestType));
+        if (!breaker.tryAcquire()) {
+            // Fail fast, also between retries once the breaker opened
+            return CompletableFuture.failedFuture(new RiotCircuitOpenException(breaker.getEndpoint()));
+        }
+        return bind(deadline, acquirePermitAsync(route, priority))
+                .thenCompose(v -> bind(deadline, rateLimiter.acquire(route, method, priority, maxWait(priority)))
+                        .whenComplete((ignored, t) -> {
+                            if (t != null) {
+                                // Quota not within the max wait, or the callers went away while
+                                // waiting for it: the permit goes back unused
+                                releasePermit(route, priority);
+                            }
+                        }))
+                .thenCompose(v -> {
+                    long sentAt = System.nanoTime();
+                    return bind(deadline, exchange(request, requestType, route, method))
+                            .handle((response, throwable) -> new Object[] { response, throwable })
+                            .whenComplete((pair, t) -> {
+                                recordExchange(route, requestType, System.nanoTime() - sentAt, pair);
+                                releasePermit(route, priority);
+                            });
+                })
+                .whenComplete((pair, t) -> {
+                    // Never sent (e.g. no permit in time): says nothing about Riot
+                    if (t != null) {
+                        breaker.onIgnored();
+                    }
+                })
+                .exceptionallyCompose(t -> CompletableFuture.failedFuture(
+                        deadline != null && deadline.isDone() ? abandon(deadline, requestType, "queued") : t))
                 .thenCompose(pair -> {
                     @SuppressWarnings("unchecked")
-                    HttpResponse<String> response = (HttpResponse<String>) pair[0];
+                    HttpResponse<RiotResponseBody> response = (HttpResponse<RiotResponseBody>) pair[0];
                     Throwable throwable = (Throwable) pair[1];
 
+                    if (throwable != null && deadline != null && deadline.isDone()) {
+                        // Cancelled on the wire because the callers are gone: not Riot's fault
+                        breaker.onIgnored();
+                        return CompletableFuture.failedFuture(abandon(deadline, requestType, "in-flight"));
+                    }
                     if (throwable != null) {
-                        if (attempt < MAX_ATTEMPTS) {
+                        breaker.onFailure();
+                        // No backoff and retry into an outage once the breaker opened
+                        if (attempt < MAX_ATTEMPTS && breaker.getState() != RiotCircuitBreaker.State.OPEN) {
                             Duration delay = computeBackoffDelay(attempt, Optional.empty());
+                            if (!fitsDeadline(deadline, delay, requestType)) {
+                                return CompletableFuture.failedFuture(throwable);
+                            }
                             logger.warn("Request {} to {} failed (attempt {}/{})\n Retrying in {} ms. Cause: {}",
                                     requestType, url, attempt, MAX_ATTEMPTS, delay.toMillis(), throwable.toString());
                             retries.incrementAndGet();
                             meterRegistry.counter("riotapi.client.retries", "type", requestType).increment();
-                            return delayed(delay).thenCompose(
-                                    v -> sendWithRetryInstrumented(request, requestType, url, attempt + 1, retries));
+                            return bind(deadline, delayed(delay)).thenCompose(
+                                    v -> sendWithRetryInstrumented(request, requestType, url, route, priority,
+                                            deadline, attempt + 1, retries));
                         }
                         return CompletableFuture.failedFuture(throwable);
                     }
 
                     int status = response.statusCode();
-                    if ((status == 429 || (status >= 500 && status < 600)) && attempt < MAX_ATTEMPTS) {
-                        Optional<Long> retryAfterSeconds = parseRetryAfterSeconds(response);
+                    if (status >= 500) {
+                        breaker.onFailure();
+                    } else if (status == 429) {
+                        breaker.onIgnored();
+                    } else {
+                        breaker.onSuccess();
+                    }
+                    Optional<Long> retryAfterSeconds = parseRetryAfterSeconds(response);
+                    rateLimiter.onResponse(route, method, response.headers(), status, retryAfterSeconds);
+                    if ((status == 429 || (status >= 500 && status < 600)) && attempt < MAX_ATTEMPTS
+                            && breaker.getState() != RiotCircuitBreaker.State.OPEN) {
                         Duration delay = computeBackoffDelay(attempt, retryAfterSeconds);
+                        if (!fitsDeadline(deadline, delay, requestType)) {
+                            return CompletableFuture.completedFuture(response);
+                        }
                         logger.warn("Request {} to {} returned {}. Retrying in {} ms (attempt {}/{}).",
                                 requestType, url, status, delay.toMillis(), attempt, MAX_ATTEMPTS);
                         retries.incrementAndGet();
                         meterRegistry.counter("riotapi.client.retries", "type", requestType).increment();
-                        return delayed(delay).thenCompose(
-                                v -> sendWithRetryInstrumented(request, requestType, url, attempt + 1, retries));
+                        return bind(deadline, delayed(delay)).thenCompose(
+                                v -> sendWithRetryInstrumented(request, requestType, url, route, priority,
+                                        deadline, attempt + 1, retries));
                     }
 
                     return CompletableFuture.completedFuture(response);
@@ -430,36 +612,362 @@ public class RiotApiClient {
     }
 
     /**
-     * Asynchronously acquires a permit from the semaphore for rate limiting.
-     * Uses non-blocking polling with delayed retry.
+     * Sends one attempt over the wire. Calls of hedged endpoint types that are still open
+     * after the observed latency percentile of their type get one duplicate, if the hedge
+     * budget, the rate limiter and the permit pool have spare room; the first response
+     * wins and the other exchange is cancelled.
      *
-     * @return CompletableFuture that completes when a permit is acquired
+     * @param request     The HTTP request to send
+     * @param requestType Description of the request type for logging/metrics
+     * @param route       Routing value whose rate limits and permits the request uses
+     * @param method      Rate limiter method of the request
+     * @return CompletableFuture containing the first HTTP response
      */
-    private CompletableFuture<Void> acquirePermitAsync() {
-        CompletableFuture<Void> future = new CompletableFuture<>();
-        tryAcquirePermitOrSchedule(future);
-        return future;
+    private CompletableFuture<HttpResponse<RiotResponseBody>> exchange(HttpRequest request, String requestType,
+            String route, String method) {
+        if (!hedger.isHedged(requestType)) {
+            return httpClient.sendAsync(request, RiotResponseBody.handler(ERROR_SNIPPET_BYTES));
+        }
+        hedger.onPrimary();
+        long startedAt = System.nanoTime();
+        CompletableFuture<HttpResponse<RiotResponseBody>> primary = httpClient.sendAsync(request,
+                RiotResponseBody.handler(ERROR_SNIPPET_BYTES));
+        // A cancelled primary records the time until it lost, a lower bound of its latency
+        primary.whenComplete((response, throwable) -> hedger.record(requestType, System.nanoTime() - startedAt));
+        long delayMillis = hedger.hedgeDelayMillis(requestType);
+        if (delayMillis < 0) {
+            return primary;
+        }
+
+        CompletableFuture<HttpResponse<RiotResponseBody>> result = new CompletableFuture<>();
+        // Attempts still running; the result only fails once every attempt failed
+        AtomicInteger outstanding = new AtomicInteger(1);
+        AtomicReference<CompletableFuture<HttpResponse<RiotResponseBody>>> hedge = new AtomicReference<>();
+        HashedWheelTimer.Timeout trigger = timer.schedule(() -> {
+            // Claim the hedge's attempt while the primary is pending, so a primary that
+            // failed meanwhile neither settles the result early nor gets a hedge charged
+            if (primary.isDone() || !outstanding.compareAndSet(1, 2)) {
+                return;
+            }
+            if (!tryReserveHedge(route, method, requestType)) {
+                withdrawHedge(result, primary, outstanding);
+                return;
+            }
+            if (primary.isDone()) {
+                // Finished while the hedge was being reserved: give the budget and permit back
+                releasePermit(route, RequestPriority.PREFETCH);
+                hedger.refundBudget();
+                withdrawHedge(result, primary, outstanding);
+                return;
+            }
+            meterRegistry.counter("riotapi.client.hedge.fired", "type", requestType).increment();
+            CompletableFuture<HttpResponse<RiotResponseBody>> duplicate = httpClient.sendAsync(request,
+                    RiotResponseBody.handler(ERROR_SNIPPET_BYTES));
+            hedge.set(duplicate);
+            duplicate.whenComplete((response, throwable) -> {
+                releasePermit(route, RequestPriority.PREFETCH);
+                if (settle(result, response, throwable, outstanding, primary,
+                        () -> meterRegistry.counter("riotapi.client.hedge.won", "type", requestType).increment())) {
+                    return;
+                }
+                onLosingResponse(route, method, response);
+            });
+            if (result.isDone() && !result.isCompletedExceptionally()) {
+                duplicate.cancel(true);
+            }
+        }, delayMillis, TimeUnit.MILLISECONDS);
+        primary.whenComplete((response, throwable) -> {
+            trigger.cancel();
+            if (!settle(result, response, throwable, outstanding, hedge.get(), () -> {
+            })) {
+                onLosingResponse(route, method, response);
+            }
+        });
+        result.whenComplete((response, throwable) -> {
+            if (result.isCancelled()) {
+                trigger.cancel();
+                primary.cancel(true);
+                CompletableFuture<HttpResponse<RiotResponseBody>> duplicate = hedge.get();
+                if (duplicate != null) {
+                    duplicate.cancel(true);
+                }
+            }
+        });
+        return result;
     }
 
     /**
-     * Tries to acquire a semaphore permit; if unavailable, schedules a retry.
+     * Feeds the outcome of one attempt of a hedged exchange into its result.
      *
-     * @param future The future to complete when permit is acquired
+     * @param result      Result of the exchange
+     * @param response    Response of the attempt, null on failure
+     * @param throwable   Failure of the attempt, null on success
+     * @param outstanding Attempts still running
+     * @param other       The other attempt (cancelled when this one wins), may be null
+     * @param onWin       Runs if this attempt's response became the result
+     * @return true if this attempt's response became the result
      */
-    private void tryAcquirePermitOrSchedule(CompletableFuture<Void> future) {
-        if (future.isDone()) {
-            return;
+    private static boolean settle(CompletableFuture<HttpResponse<RiotResponseBody>> result,
+            HttpResponse<RiotResponseBody> response, Throwable throwable, AtomicInteger outstanding,
+            CompletableFuture<HttpResponse<RiotResponseBody>> other, Runnable onWin) {
+        if (throwable == null) {
+            if (result.complete(response)) {
+                onWin.run();
+                if (other != null) {
+                    other.cancel(true);
+                }
+                return true;
+            }
+            return false;
+        }
+        if (outstanding.decrementAndGet() == 0) {
+            result.completeExceptionally(throwable);
         }
-        if (outboundLimiter.tryAcquire()) {
-            future.complete(null);
+        return false;
+    }
+
+    /**
+     * Gives up a hedge that claimed its attempt but was not sent. If the primary failed
+     * in the meantime, its failure becomes the result.
+     *
+     * @param result      Result of the exchange
+     * @param primary     The primary attempt
+     * @param outstanding Attempts still running
+     */
+    private static void withdrawHedge(CompletableFuture<HttpResponse<RiotResponseBody>> result,
+            CompletableFuture<HttpResponse<RiotResponseBody>> primary, AtomicInteger outstanding) {
+        if (outstanding.decrementAndGet() == 0) {
+            // Only a failed primary gives its attempt back, so it is done here
+            primary.whenComplete((response, throwable) -> result.completeExceptionally(throwable));
+        }
+    }
+
+    /**
+     * Feeds the rate limit headers of a hedged attempt's response that did not become
+     * the result into the rate limiter. Riot counted that call too, so the windows of
+     * the limiter would otherwise fall behind Riot's own counters.
+     *
+     * @param route    Routing value of the request
+     * @param method   Rate limiter method of the request
+     * @param response Response of the attempt, null if it failed or was cancelled
+     */
+    private void onLosingResponse(String route, String method, HttpResponse<RiotResponseBody> response) {
+        if (response != null) {
+            rateLimiter.onResponse(route, method, response.headers(), response.statusCode(),
+                    parseRetryAfterSeconds(response));
+        }
+    }
+
+    /**
+     * Reserves what a hedge needs: hedge budget, a slot within the prefetch share of the rate
+     * limiter and a free permit, all without waiting. A hedge that would have to queue
+     * is not sent, so hedging only spends spare capacity and never provokes a 429.
+     *
+     * @param route       Routing value of the request
+     * @param method      Rate limiter method of the request
+     * @param requestType Description of the request type for metrics
+     * @return true if the hedge may be sent; its permit must be released afterwards
+     */
+    private boolean tryReserveHedge(String route, String method, String requestType) {
+        String skipped = null;
+        if (!hedger.tryTakeBudget()) {
+            skipped = "budget";
+        } else if (!permitsFor(route).tryAcquire(RequestPriority.PREFETCH)) {
+            hedger.refundBudget();
+            skipped = "permits";
+        } else if (!rateLimiter.tryAcquire(route, method, RequestPriority.PREFETCH)) {
+            releasePermit(route, RequestPriority.PREFETCH);
+            hedger.refundBudget();
+            skipped = "quota";
+        }
+        if (skipped != null) {
+            meterRegistry.counter("riotapi.client.hedge.skipped", "type", requestType, "reason", skipped)
+                    .increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Feeds the outcome of one exchange into the endpoint timeouts, the adaptive
+     * concurrency limit of its routing host and the network time and body size metrics.
+     * Network time is kept apart from the permit wait, so the two can be told apart.
+     *
+     * @param route       Routing value of the request
+     * @param requestType Description of the request type
+     * @param nanos       Time from sending to the response or failure
+     * @param pair        Response and throwable of the exchange
+     */
+    private void recordExchange(String route, String requestType, long nanos, Object[] pair) {
+        HttpResponse<?> response = (HttpResponse<?>) pair[0];
+        Throwable cause = pair[1] instanceof CompletionException && ((Throwable) pair[1]).getCause() != null
+                ? ((Throwable) pair[1]).getCause()
+                : (Throwable) pair[1];
+        if (cause instanceof CancellationException) {
+            // Cancelled by the caller: says nothing about Riot
             return;
         }
-        CompletableFuture.delayedExecutor(PERMIT_POLL_INTERVAL.toMillis(), TimeUnit.MILLISECONDS)
-                .execute(() -> tryAcquirePermitOrSchedule(future));
+        Timer.builder("riotapi.client.network")
+                .description("Time from sending a Riot call to its response, without queueing")
+                .tags("type", requestType, "outcome", cause == null ? "response" : "error")
+                .publishPercentileHistogram()
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        if (cause == null && response.statusCode() == 200 && response.body() instanceof RiotResponseBody body) {
+            // Error bodies are cut off after the snippet, so only complete ones count
+            DistributionSummary.builder("riotapi.client.response.size")
+                    .description("Size of successful Riot response bodies")
+                    .baseUnit("bytes")
+                    .tag("type", requestType)
+                    .publishPercentileHistogram()
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry)
+                    .record(body.size());
+        }
+        boolean timedOut = cause instanceof HttpTimeoutException;
+        if (cause == null || timedOut) {
+            timeouts.record(requestType, nanos);
+        }
+        AdaptiveConcurrencyLimit limit = concurrencyLimits.get(route);
+        if (limit != null) {
+            boolean dropped = cause != null || response.statusCode() == 429 || response.statusCode() >= 500;
+            limit.onSample(nanos, dropped, permitsFor(route).inFlight());
+        }
+    }
+
+    /**
+     * Cancels a pending step of a request once its deadline ends.
+     *
+     * @param deadline Deadline of the callers, null if there is none
+     * @param future   The pending step
+     * @param <T>      Result type of the step
+     * @return The same future, for chaining
+     */
+    private static <T> CompletableFuture<T> bind(RequestDeadline deadline, CompletableFuture<T> future) {
+        return deadline != null ? deadline.bind(future) : future;
+    }
+
+    /**
+     * Checks whether a retry after the given backoff can still finish before the deadline,
+     * judged by the usual latency of the endpoint.
+     *
+     * @param deadline    Deadline of the callers, null if there is none
+     * @param delay       Backoff before the retry
+     * @param requestType Description of the request type
+     * @return true if the retry may be started
+     */
+    private boolean fitsDeadline(RequestDeadline deadline, Duration delay, String requestType) {
+        if (deadline == null
+                || deadline.remaining().compareTo(delay.plus(timeouts.expectedLatency(requestType))) > 0) {
+            return true;
+        }
+        logger.debug("Not retrying {}: backoff of {} ms would overrun the request deadline", requestType,
+                delay.toMillis());
+        meterRegistry.counter("riotapi.client.deadline.abandoned", "type", requestType, "stage", "retry")
+                .increment();
+        return false;
+    }
+
+    /**
+     * Creates the failure of a request given up because its deadline ended.
+     *
+     * @param deadline    The ended deadline
+     * @param requestType Description of the request type
+     * @param stage       Where the request was given up ("queued", "in-flight")
+     * @return Exception to fail the request with
+     */
+    private RiotDeadlineExceededException abandon(RequestDeadline deadline, String requestType, String stage) {
+        meterRegistry.counter("riotapi.client.deadline.abandoned", "type", requestType, "stage", stage).increment();
+        return new RiotDeadlineExceededException(requestType, deadline.isCancelled());
     }
 
-    private void releasePermit() {
-        outboundLimiter.release();
+    /**
+     * Maps a request type to the Riot method whose limit it counts against.
+     * Paged and unpaged match ID lookups hit the same Riot endpoint.
+     *
+     * @param requestType Description of the request type
+     * @return Method key for the rate limiter
+     */
+    private static String rateLimitMethod(String requestType) {
+        return "MatchIdsPaged".equals(requestType) ? "MatchIds" : requestType;
+    }
+
+    /**
+     * Maps a request type to the endpoint type whose circuit breaker guards it.
+     *
+     * @param requestType Description of the request type
+     * @return Endpoint type (e.g. "Summoner" for "SummonerById")
+     */
+    private static String circuitEndpoint(String requestType) {
+        return switch (requestType) {
+            case "Summoner", "SummonerById", "SummonerMeRSO" -> "Summoner";
+            case "LeagueEntries", "LeagueEntriesByPuuid", "LeagueEntriesByTier" -> "LeagueEntries";
+            case "MatchIds", "MatchIdsPaged", "MatchIdsSince" -> "MatchIds";
+            default -> requestType;
+        };
+    }
+
+    /**
+     * Returns the circuit breaker of an endpoint type, creating it on first use.
+     *
+     * @param endpoint Endpoint type (e.g. "MatchDetails")
+     * @return The breaker guarding that endpoint type
+     */
+    private RiotCircuitBreaker circuitBreakerFor(String endpoint) {
+        return circuitBreakers.computeIfAbsent(endpoint, e -> new RiotCircuitBreaker(e, circuitConfig.isEnabled(),
+                circuitConfig.getFailureRateThreshold(), circuitConfig.getWindowSize(),
+                circuitConfig.getMinimumCalls(), circuitConfig.getOpenDuration().toMillis(),
+                circuitConfig.getHalfOpenCalls(), meterRegistry));
+    }
+
+    /**
+     * Asynchronously acquires a permit that bounds concurrent requests to one routing host.
+     * Waits in FIFO order per priority class without blocking a thread.
+     *
+     * @param route    Routing value of the request
+     * @param priority Scheduling class of the request
+     * @return CompletableFuture that completes when a permit is acquired
+     */
+    private CompletableFuture<Void> acquirePermitAsync(String route, RequestPriority priority) {
+        return permitsFor(route).acquire(priority);
+    }
+
+    /**
+     * Returns how long a request of a class may wait for a permit, and then for quota.
+     *
+     * @param priority Scheduling class of the request
+     * @return riot.api.priority.background-max-wait for background calls, otherwise riot.api.permits.max-wait
+     */
+    private Duration maxWait(RequestPriority priority) {
+        return priority == RequestPriority.BACKGROUND ? priorityConfig.getBackgroundMaxWait()
+                : permitConfig.getMaxWait();
+    }
+
+    private void releasePermit(String route, RequestPriority priority) {
+        permitsFor(route).release(priority);
+    }
+
+    /**
+     * Returns the permit pool of a routing host, creating it on first use.
+     *
+     * @param route Routing value (e.g., "euw1", "europe")
+     * @return The pool bounding concurrent requests to that host
+     */
+    private AsyncPermitPool permitsFor(String route) {
+        return outboundPermits.computeIfAbsent(route, r -> {
+            AsyncPermitPool pool = new AsyncPermitPool(maxConcurrentOutbound, permitConfig.getMaxQueueSize(),
+                    permitConfig.getMaxWait(), priorityConfig.getBackgroundMaxWait(),
+                    priorityConfig.getPrefetchShare(), priorityConfig.getBackgroundShare(), Tags.of("route", r),
+                    timer, meterRegistry);
+            if (concurrencyConfig.isAdaptive()) {
+                concurrencyLimits.put(r, new AdaptiveConcurrencyLimit(pool, maxConcurrentOutbound,
+                        concurrencyConfig.getMinLimit(), concurrencyConfig.getMaxLimit(),
+                        concurrencyConfig.getLatencyTolerance(), concurrencyConfig.getBackoffRatio(),
+                        Tags.of("route", r), meterRegistry));
+            }
+            return pool;
+        });
     }
 
     /**
@@ -470,7 +978,7 @@ public class RiotApiClient {
      * @return Optional containing retry delay in seconds, empty if header missing
      *         or invalid
      */
-    private Optional<Long> parseRetryAfterSeconds(HttpResponse<String> response) {
+    private Optional<Long> parseRetryAfterSeconds(HttpResponse<RiotResponseBody> response) {
         return response.headers().firstValue("Retry-After").flatMap(value -> {
             if (value == null)
                 return Optional.empty();
@@ -516,15 +1024,13 @@ public class RiotApiClient {
      * @return CompletableFuture that completes after the delay
      */
     private CompletableFuture<Void> delayed(Duration delay) {
-        return CompletableFuture
-                .supplyAsync(() -> null, CompletableFuture.delayedExecutor(delay.toMillis(), TimeUnit.MILLISECONDS))
-                .thenAccept(v -> {
-                });
+        return timer.delay(delay);
     }
 
     /**
      * Parses HTTP response body into a single object using class type.
      * Handles 200 OK, 404 Not Found, and error responses.
+     * Jackson reads straight from the received byte chunks.
      *
      * @param response      The HTTP response to parse
      * @param responseClass The class to deserialize into
@@ -533,18 +1039,18 @@ public class RiotApiClient {
      * @param <T>           The type of the response object
      * @return Parsed object, or null if 404, throws exception on error
      */
-    private <T> T parseResponse(HttpResponse<String> response, Class<T> responseClass, String requestType, String url) {
+    private <T> T parseResponse(HttpResponse<RiotResponseBody> response, Class<T> responseClass, String requestType, String url) {
         if (response.statusCode() == 200) {
             try {
-                return objectMapper.readValue(response.body(), responseClass);
-            } catch (JsonProcessingException e) {
+                return objectMapper.readValue(response.body().inputStream(), responseClass);
+            } catch (IOException e) {
                 throw new RiotApiRequestException("Failed to parse API response for " + requestType, e);
             }
         } else if (response.statusCode() == 404) {
             logger.warn("API Request ({}) to URL '{}' returned 404 Not Found.", requestType, url);
             return null;
         } else {
-            String snippet = abbreviate(response.body(), 500);
+            String snippet = response.body().snippet();
             logger.error("API Request Failed ({}): status={} url={} bodySnippet={}", requestType, response.statusCode(),
                     url, snippet);
             throw new RiotApiRequestException(
@@ -555,6 +1061,7 @@ public class RiotApiClient {
     /**
      * Parses HTTP response body into a generic type using TypeReference.
      * Handles 200 OK, 404 Not Found, and error responses.
+     * Jackson reads straight from the received byte chunks.
      *
      * @param response      The HTTP response to parse
      * @param typeReference TypeReference for generic types (e.g., List<T>)
@@ -563,19 +1070,19 @@ public class RiotApiClient {
      * @param <T>           The type of the response object
      * @return Parsed object, or null if 404, throws exception on error
      */
-    private <T> T parseResponse(HttpResponse<String> response, TypeReference<T> typeReference, String requestType,
+    private <T> T parseResponse(HttpResponse<RiotResponseBody> response, TypeReference<T> typeReference, String requestType,
             String url) {
         if (response.statusCode() == 200) {
             try {
-                return objectMapper.readValue(response.body(), typeReference);
-            } catch (JsonProcessingException e) {
+                return objectMapper.readValue(response.body().inputStream(), typeReference);
+            } catch (IOException e) {
                 throw new RiotApiRequestException("Failed to parse API response for " + requestType, e);
             }
         } else if (response.statusCode() == 404) {
             logger.warn("API Request ({}) to URL '{}' returned 404 Not Found.", requestType, url);
             return null;
         } else {
-            String snippet = abbreviate(response.body(), 500);
+            String snippet = response.body().snippet();
             logger.error("API Request Failed ({}): status={} url={} bodySnippet={}", requestType, response.statusCode(),
                     url, snippet);
             throw new RiotApiRequestException(
@@ -585,189 +1092,248 @@ public class RiotApiClient {
 
     /**
      * Retrieves account information by Riot ID (game name + tag line).
-     * Results are cached to reduce API calls.
+     * Results are cached per regional route to reduce API calls.
      *
+     * @param region   Region whose regional route serves the lookup
      * @param gameName The summoner's game name
      * @param tagLine  The summoner's tag line (e.g., "EUW", "NA1")
      * @return CompletableFuture containing the AccountDto, or null if not found
      */
-    @Cacheable(value = "accounts", key = "T(com.zerox80.riotapi.client.RiotApiClient).accountCacheKey(#gameName, #tagLine)")
-    public CompletableFuture<AccountDto> getAccountByRiotId(String gameName, String tagLine) {
+    @Cacheable(value = "accounts", key = "#region.regionalRoute() + ':' + T(com.zerox80.riotapi.client.RiotApiClient).accountCacheKey(#gameName, #tagLine)")
+    public CompletableFuture<AccountDto> getAccountByRiotId(RiotRegion region, String gameName, String tagLine) {
         String encodedGameName = URLEncoder.encode(gameName, StandardCharsets.UTF_8).replace("+", "%20");
         String encodedTagLine = URLEncoder.encode(tagLine, StandardCharsets.UTF_8);
 
-        String host = this.regionalRoute + ".api.riotgames.com";
+        String host = region.regionalHost();
         String path = "/riot/account/v1/accounts/by-riot-id/" + encodedGameName + "/" + encodedTagLine;
-        String url = "https://" + host + path;
+        String url = apiUrl(host, path);
 
         logger.debug(">>> RiotApiClient (Account): Requesting RAW Riot ID: [{}#{}]", gameName, tagLine);
         logger.debug(">>> RiotApiClient (Account): Requesting ENCODED URL: [{}]", url);
 
-        String inflightKey = accountCacheKey(gameName, tagLine);
-        CompletableFuture<AccountDto> future = coalesce(accountByRiotIdInFlight, inflightKey,
-                () -> sendApiRequestAsync(url, AccountDto.class, "Account"));
-        return evictOnException(future, "accounts", inflightKey);
+        String cacheKey = region.regionalRoute() + ":" + accountCacheKey(gameName, tagLine);
+        if (negativeCache.isNotFound("Account", cacheKey)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<AccountDto> future = accountByRiotIdInFlight.execute(cacheKey,
+                () -> rememberNotFound(sendApiRequestAsync(region.regionalRoute(), url, AccountDto.class, "Account"),
+                        "Account", cacheKey));
+        return withStaleFallback(future, "accounts", cacheKey);
     }
 
     /**
      * Retrieves summoner information by PUUID.
-     * Results are cached to reduce API calls.
+     * Results are cached per platform to reduce API calls.
      *
-     * @param puuid The player's PUUID
+     * @param region Platform the summoner plays on
+     * @param puuid  The player's PUUID
      * @return CompletableFuture containing the Summoner, or null if not found
      */
-    @Cacheable(value = "summoners", key = "#puuid")
-    public CompletableFuture<Summoner> getSummonerByPuuid(String puuid) {
-        String host = this.platformRegion + ".api.riotgames.com";
+    @Cacheable(value = "summoners", key = "#region.platformId() + ':' + #puuid")
+    public CompletableFuture<Summoner> getSummonerByPuuid(RiotRegion region, String puuid) {
+        String host = region.platformHost();
         String path = "/lol/summoner/v4/summoners/by-puuid/" + puuid;
-        String url = "https://" + host + path;
+        String url = apiUrl(host, path);
         logger.debug(">>> RiotApiClient (Summoner): Requesting by PUUID [{}]", maskPuuid(puuid));
-        CompletableFuture<Summoner> future = coalesce(summonerByPuuidInFlight, puuid,
-                () -> sendApiRequestAsync(url, Summoner.class, "Summoner"));
-        return evictOnException(future, "summoners", puuid);
+        String cacheKey = region.platformId() + ":" + puuid;
+        if (negativeCache.isNotFound("Summoner", cacheKey)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Summoner> future = summonerByPuuidInFlight.execute(cacheKey,
+                () -> rememberNotFound(sendApiRequestAsync(region.platformId(), url, Summoner.class, "Summoner"),
+                        "Summoner", cacheKey));
+        return withStaleFallback(future, "summoners", cacheKey);
     }
 
     /**
      * Retrieves ranked league entries by summoner ID.
-     * Results are cached to reduce API calls.
+     * Results are cached per platform to reduce API calls; sync = true hands the loader to the
+     * cache, which reloads entries that are read shortly before they expire. The load runs
+     * without the caller's deadline (see {@link #detached}).
      *
+     * @param region     Platform the summoner plays on
      * @param summonerId The summoner's encrypted ID
      * @return CompletableFuture containing list of LeagueEntryDTOs (may be empty)
      */
-    @Cacheable(value = "leagueEntries", key = "'sid:' + #summonerId")
-    public CompletableFuture<List<LeagueEntryDTO>> getLeagueEntriesBySummonerId(String summonerId) {
-        String host = this.platformRegion + ".api.riotgames.com";
+    @Cacheable(value = "leagueEntries", key = "#region.platformId() + ':sid:' + #summonerId", sync = true)
+    public CompletableFuture<List<LeagueEntryDTO>> getLeagueEntriesBySummonerId(RiotRegion region, String summonerId) {
+        String host = region.platformHost();
         String path = "/lol/league/v4/entries/by-summoner/" + summonerId;
-        String url = "https://" + host + path;
+        String url = apiUrl(host, path);
         logger.debug(">>> RiotApiClient (LeagueEntries): Requesting URL: [{}]", url);
-        String cacheKey = "sid:" + summonerId;
-        CompletableFuture<List<LeagueEntryDTO>> future = coalesce(leagueBySummonerIdInFlight, summonerId,
-                () -> sendApiRequestAsync(url, LEAGUE_LIST_TYPE, "LeagueEntries")
-                        .thenApply(list -> list != null ? list : List.of()));
-        return evictOnException(future, "leagueEntries", cacheKey);
+        String cacheKey = region.platformId() + ":sid:" + summonerId;
+        CompletableFuture<List<LeagueEntryDTO>> future = detached(
+                () -> leagueBySummonerIdInFlight.execute(cacheKey,
+                        () -> sendApiRequestAsync(region.platformId(), url, LEAGUE_LIST_TYPE, "LeagueEntries")
+                                .thenApply(list -> list != null ? list : List.of())));
+        return withStaleFallback(future, "leagueEntries", cacheKey);
     }
 
     /**
      * Retrieves ranked league entries by PUUID.
-     * Results are cached to reduce API calls.
+     * Results are cached per platform to reduce API calls; sync = true hands the loader to the
+     * cache, which reloads entries that are read shortly before they expire. The load runs
+     * without the caller's deadline (see {@link #detached}).
      *
-     * @param puuid The player's PUUID
+     * @param region Platform the summoner plays on
+     * @param puuid  The player's PUUID
      * @return CompletableFuture containing list of LeagueEntryDTOs (may be empty)
      */
-    @Cacheable(value = "leagueEntries", key = "'puuid:' + #puuid")
-    public CompletableFuture<List<LeagueEntryDTO>> getLeagueEntriesByPuuid(String puuid) {
-        String host = this.platformRegion + ".api.riotgames.com";
+    @Cacheable(value = "leagueEntries", key = "#region.platformId() + ':puuid:' + #puuid", sync = true)
+    public CompletableFuture<List<LeagueEntryDTO>> getLeagueEntriesByPuuid(RiotRegion region, String puuid) {
+        String host = region.platformHost();
         String path = "/lol/league/v4/entries/by-puuid/" + puuid;
-        String url = "https://" + host + path;
+        String url = apiUrl(host, path);
         logger.debug(">>> RiotApiClient (LeagueEntries PUUID): Requesting by PUUID [{}]", maskPuuid(puuid));
-        String cacheKey = "puuid:" + puuid;
-        CompletableFuture<List<LeagueEntryDTO>> future = coalesce(leagueByPuuidInFlight, puuid,
-                () -> sendApiRequestAsync(url, LEAGUE_LIST_TYPE, "LeagueEntriesByPuuid")
-                        .thenApply(list -> list != null ? list : List.of()));
-        return evictOnException(future, "leagueEntries", cacheKey);
+        String cacheKey = region.platformId() + ":puuid:" + puuid;
+        CompletableFuture<List<LeagueEntryDTO>> future = detached(() -> leagueByPuuidInFlight.execute(cacheKey,
+                () -> sendApiRequestAsync(region.platformId(), url, LEAGUE_LIST_TYPE, "LeagueEntriesByPuuid")
+                        .thenApply(list -> list != null ? list : List.of())));
+        return withStaleFallback(future, "leagueEntries", cacheKey);
     }
 
     /**
      * Retrieves authenticated summoner data using RSO Bearer token.
      * This endpoint uses the /me endpoint with OAuth authentication.
      *
+     * @param region      Platform the signed-in player plays on
      * @param bearerToken RSO Bearer token from OAuth flow
      * @return CompletableFuture containing the authenticated Summoner
      */
-    public CompletableFuture<Summoner> getSummonerMeWithBearer(String bearerToken) {
-        String host = this.platformRegion + ".api.riotgames.com";
+    public CompletableFuture<Summoner> getSummonerMeWithBearer(RiotRegion region, String bearerToken) {
+        String host = region.platformHost();
         String path = "/lol/summoner/v4/summoners/me";
-        String url = "https://" + host + path;
+        String url = apiUrl(host, path);
         logger.debug(">>> RiotApiClient (SummonerMe RSO): Requesting URL: [{}]", url);
-        return sendRequestWithBearer(url, "SummonerMeRSO", bearerToken)
+        return sendRequestWithBearer(region.platformId(), url, "SummonerMeRSO", bearerToken)
                 .thenApply(response -> parseResponse(response, Summoner.class, "SummonerMeRSO", url));
     }
 
     /**
      * Retrieves match IDs for a player by PUUID.
-     * Results are cached to reduce API calls.
+     * Results are cached per regional route to reduce API calls; sync = true hands the loader to the
+     * cache, which reloads entries that are read shortly before they expire. The load runs
+     * without the caller's deadline (see {@link #detached}).
      *
-     * @param puuid The player's PUUID
-     * @param count Maximum number of match IDs to return
+     * @param region Region whose regional route serves the lookup
+     * @param puuid  The player's PUUID
+     * @param count  Maximum number of match IDs to return
      * @return CompletableFuture containing list of match IDs (may be empty)
      */
-    @Cacheable(value = "matchIds", key = "#puuid + '-' + #count")
-    public CompletableFuture<List<String>> getMatchIdsByPuuid(String puuid, int count) {
-        String host = this.regionalRoute + ".api.riotgames.com";
+    @Cacheable(value = "matchIds", key = "#region.regionalRoute() + ':' + #puuid + '-' + #count", sync = true)
+    public CompletableFuture<List<String>> getMatchIdsByPuuid(RiotRegion region, String puuid, int count) {
+        String host = region.regionalHost();
         String path = "/lol/match/v5/matches/by-puuid/" + puuid + "/ids?count=" + count;
-        String url = "https://" + host + path;
+        String url = apiUrl(host, path);
         logger.debug(">>> RiotApiClient (MatchIds): Requesting by PUUID [{}], count {}", maskPuuid(puuid), count);
-        String key = puuid + "-" + count;
-        CompletableFuture<List<String>> future = coalesce(matchIdsInFlight, key,
-                () -> sendApiRequestAsync(url, MATCH_ID_LIST_TYPE, "MatchIds")
-                        .thenApply(list -> list != null ? list : List.of()));
-        return evictOnException(future, "matchIds", key);
+        String key = region.regionalRoute() + ":" + puuid + "-" + count;
+        CompletableFuture<List<String>> future = detached(() -> matchIdsInFlight.execute(key,
+                () -> sendApiRequestAsync(region.regionalRoute(), url, MATCH_ID_LIST_TYPE, "MatchIds")
+                        .thenApply(list -> list != null ? list : List.of())));
+        return withStaleFallback(future, "matchIds", key);
     }
 
     /**
      * Retrieves match IDs for a player by PUUID with pagination.
-     * Results are cached to reduce API calls.
+     * Results are cached per regional route to reduce API calls; sync = true hands the loader to the
+     * cache, which reloads entries that are read shortly before they expire. The load runs
+     * without the caller's deadline (see {@link #detached}).
      *
-     * @param puuid The player's PUUID
-     * @param start Starting index for pagination
-     * @param count Maximum number of match IDs to return
+     * @param region Region whose regional route serves the lookup
+     * @param puuid  The player's PUUID
+     * @param start  Starting index for pagination
+     * @param count  Maximum number of match IDs to return
      * @return CompletableFuture containing list of match IDs (may be empty)
      */
-    @Cacheable(value = "matchIds", key = "#puuid + '-' + #start + '-' + #count")
-    public CompletableFuture<List<String>> getMatchIdsByPuuid(String puuid, int start, int count) {
-        String host = this.regionalRoute + ".api.riotgames.com";
+    @Cacheable(value = "matchIds", key = "#region.regionalRoute() + ':' + #puuid + '-' + #start + '-' + #count", sync = true)
+    public CompletableFuture<List<String>> getMatchIdsByPuuid(RiotRegion region, String puuid, int start, int count) {
+        String host = region.regionalHost();
         String path = "/lol/match/v5/matches/by-puuid/" + puuid + "/ids?start=" + start + "&count=" + count;
-        String url = "https://" + host + path;
+        String url = apiUrl(host, path);
         logger.debug(">>> RiotApiClient (MatchIdsPaged): PUUID [{}], start {}, count {}", maskPuuid(puuid), start,
                 count);
-        String key = puuid + "-" + start + "-" + count;
-        CompletableFuture<List<String>> future = coalesce(matchIdsInFlight, key,
-                () -> sendApiRequestAsync(url, MATCH_ID_LIST_TYPE, "MatchIdsPaged")
+        String key = region.regionalRoute() + ":" + puuid + "-" + start + "-" + count;
+        CompletableFuture<List<String>> future = detached(() -> matchIdsInFlight.execute(key,
+                () -> sendApiRequestAsync(region.regionalRoute(), url, MATCH_ID_LIST_TYPE, "MatchIdsPaged")
+                        .thenApply(list -> list != null ? list : List.of())));
+        return withStaleFallback(future, "matchIds", key);
+    }
+
+    /**
+     * Retrieves the match IDs of games a player started at or after a point in time.
+     * Not cached: used to bring a stored match ID timeline up to date, which then
+     * serves the pages itself.
+     *
+     * @param region    Region whose regional route serves the lookup
+     * @param puuid     The player's PUUID
+     * @param startTime Epoch seconds of the earliest game start to include, 0 for no limit
+     * @param start     Starting index for pagination
+     * @param count     Maximum number of match IDs to return (at most 100)
+     * @return CompletableFuture containing list of match IDs, newest first (may be empty)
+     */
+    public CompletableFuture<List<String>> getMatchIdsByPuuidSince(RiotRegion region, String puuid, long startTime,
+            int start, int count) {
+        String host = region.regionalHost();
+        // Riot drops matches older than its start time index (June 2021) once startTime is set at all
+        String path = "/lol/match/v5/matches/by-puuid/" + puuid + "/ids?"
+                + (startTime > 0 ? "startTime=" + startTime + "&" : "") + "start=" + start + "&count=" + count;
+        String url = apiUrl(host, path);
+        logger.debug(">>> RiotApiClient (MatchIdsSince): PUUID [{}], startTime {}, start {}, count {}",
+                maskPuuid(puuid), startTime, start, count);
+        String key = region.regionalRoute() + ":" + puuid + "@" + startTime + "-" + start + "-" + count;
+        return matchIdsInFlight.execute(key,
+                () -> sendApiRequestAsync(region.regionalRoute(), url, MATCH_ID_LIST_TYPE, "MatchIdsSince")
                         .thenApply(list -> list != null ? list : List.of()));
-        return evictOnException(future, "matchIds", key);
     }
 
     /**
      * Retrieves detailed match information by match ID.
-     * Results are cached to reduce API calls.
+     * Results are cached per regional route in their compact form to reduce API calls and heap usage.
      *
+     * @param region  Region whose regional route serves the lookup
      * @param matchId The match ID (e.g., "EUW1_6234567890")
-     * @return CompletableFuture containing MatchV5Dto, or null if not found
+     * @return CompletableFuture containing the CompactMatch, or null if not found
      */
-    @Cacheable(value = "matchDetails", key = "#matchId")
-    public CompletableFuture<MatchV5Dto> getMatchDetails(String matchId) {
-        String host = this.regionalRoute + ".api.riotgames.com";
+    @Cacheable(value = "matchDetails", key = "#region.regionalRoute() + ':' + #matchId")
+    public CompletableFuture<CompactMatch> getMatchDetails(RiotRegion region, String matchId) {
+        String host = region.regionalHost();
         String path = "/lol/match/v5/matches/" + matchId;
-        String url = "https://" + host + path;
+        String url = apiUrl(host, path);
         logger.debug(">>> RiotApiClient (MatchDetails): Requesting URL: [{}]", url);
-        CompletableFuture<MatchV5Dto> future = coalesce(matchDetailsInFlight, matchId,
-                () -> sendApiRequestAsync(url, MatchV5Dto.class, "MatchDetails"));
-        return evictOnException(future, "matchDetails", matchId);
+        String key = region.regionalRoute() + ":" + matchId;
+        if (negativeCache.isNotFound("MatchDetails", key)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<CompactMatch> future = matchDetailsInFlight.execute(key,
+                () -> rememberNotFound(sendApiRequestAsync(region.regionalRoute(), url, MatchV5Dto.class,
+                        "MatchDetails"), "MatchDetails", key).thenApply(CompactMatch::from));
+        return withStaleFallback(future, "matchDetails", key);
     }
 
     /**
      * Retrieves league entries by queue type, tier, and division with pagination.
      * Used for fetching ladder data and LP tracking.
-     * Results are cached to reduce API calls.
+     * Results are cached per platform to reduce API calls.
      *
+     * @param region   Platform whose ladder is read
      * @param queue    Queue type (e.g., "RANKED_SOLO_5x5")
      * @param tier     Tier (e.g., "DIAMOND", "MASTER")
      * @param division Division (e.g., "I", "II", "III", "IV")
      * @param page     Page number (1-based)
      * @return CompletableFuture containing list of LeagueEntryDTOs
      */
-    @Cacheable(value = "leagueEntries", key = "#queue + '|' + #tier + '|' + #division + '|' + #page")
-    public CompletableFuture<List<LeagueEntryDTO>> getEntriesByQueueTierDivision(String queue, String tier,
-            String division, int page) {
-        String host = this.platformRegion + ".api.riotgames.com";
+    @Cacheable(value = "leagueEntries", key = "#region.platformId() + ':' + #queue + '|' + #tier + '|' + #division + '|' + #page")
+    public CompletableFuture<List<LeagueEntryDTO>> getEntriesByQueueTierDivision(RiotRegion region, String queue,
+            String tier, String division, int page) {
+        String host = region.platformHost();
         String path = "/lol/league/v4/entries/" + urlEncode(queue) + "/" + urlEncode(tier) + "/" + urlEncode(division)
                 + "?page=" + page;
-        String url = "https://" + host + path;
+        String url = apiUrl(host, path);
         logger.debug(">>> RiotApiClient (Entries {} {} {} p{}): {}", queue, tier, division, page, url);
-        String cacheKey = queue + "|" + tier + "|" + division + "|" + page;
-        CompletableFuture<List<LeagueEntryDTO>> future = sendApiRequestAsync(url, LEAGUE_LIST_TYPE,
-                "LeagueEntriesByTier");
-        return evictOnException(future, "leagueEntries", cacheKey);
+        String cacheKey = region.platformId() + ":" + queue + "|" + tier + "|" + division + "|" + page;
+        CompletableFuture<List<LeagueEntryDTO>> future = sendApiRequestAsync(region.platformId(), url,
+                LEAGUE_LIST_TYPE, "LeagueEntriesByTier");
+        return withStaleFallback(future, "leagueEntries", cacheKey);
     }
 
     /**
@@ -782,47 +1348,103 @@ public class RiotApiClient {
 
     /**
      * Retrieves summoner information by summoner ID.
-     * Results are cached to reduce API calls.
+     * Results are cached per platform to reduce API calls, under a ":sid:" key so they
+     * are not taken for by-PUUID entries of the same cache (which have a database level).
      *
+     * @param region     Platform the summoner plays on
      * @param summonerId The summoner's encrypted ID
      * @return CompletableFuture containing Summoner, or null if not found
      */
-    @Cacheable(value = "summoners", key = "#summonerId")
-    public CompletableFuture<Summoner> getSummonerById(String summonerId) {
-        String host = this.platformRegion + ".api.riotgames.com";
+    @Cacheable(value = "summoners", key = "#region.platformId() + ':sid:' + #summonerId")
+    public CompletableFuture<Summoner> getSummonerById(RiotRegion region, String summonerId) {
+        String host = region.platformHost();
         String path = "/lol/summoner/v4/summoners/" + summonerId;
-        String url = "https://" + host + path;
+        String url = apiUrl(host, path);
         logger.debug(">>> RiotApiClient (Summoner by ID): Requesting ID [{}]", maskId(summonerId));
-        CompletableFuture<Summoner> future = sendApiRequestAsync(url, Summoner.class, "SummonerById");
-        return evictOnException(future, "summoners", summonerId);
+        String cacheKey = region.platformId() + ":sid:" + summonerId;
+        if (negativeCache.isNotFound("SummonerById", cacheKey)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Summoner> future = rememberNotFound(sendApiRequestAsync(region.platformId(), url,
+                Summoner.class, "SummonerById"), "SummonerById", cacheKey);
+        return withStaleFallback(future, "summoners", cacheKey);
+    }
+
+    /**
+     * Gets the circuit breakers by endpoint type.
+     *
+     * @return Read-only view of the breakers
+     */
+    public Map<String, RiotCircuitBreaker> getCircuitBreakers() {
+        return Collections.unmodifiableMap(circuitBreakers);
+    }
+
+    /**
+     * Tells whether a value returned by this client was served stale (from the
+     * last good values, because Riot failed or the endpoint's breaker is open).
+     *
+     * @param value A value returned by one of the lookup methods, may be null
+     * @return true if the value is stale
+     */
+    public boolean isStale(Object value) {
+        return staleValues.isStale(value);
     }
 
     /**
-     * Gets the configured platform region.
+     * Marks a value derived from stale data as stale itself, e.g. a match history
+     * built from a stale match ID list. Lists are copied before they are marked.
+     *
+     * @param value The value
+     * @param <T>   Type of the value
+     * @return The marked value (a copy for lists)
+     */
+    public <T> T markStale(T value) {
+        return staleValues.markStale(value);
+    }
+
+    /**
+     * Gets the region used when a request does not name one.
+     *
+     * @return The configured default region
+     */
+    public RiotRegion getDefaultRegion() {
+        return defaultRegion;
+    }
+
+    /**
+     * Gets the configured default platform region.
      *
      * @return The platform region (e.g., "euw1", "na1")
      */
     public String getPlatformRegion() {
-        return platformRegion;
+        return defaultRegion.platformId();
+    }
+
+    /**
+     * Runs the load of a sync = true cache entry without the calling thread's deadline.
+     * The cache hands the same future to every concurrent reader and calls the method
+     * only for the first, so the others never join the load's group deadline; bound to
+     * the first caller's deadline, that caller's disconnect would fail everyone's read.
+     * The load ends with its result, which the cache keeps, or with the coalescing timeout.
+     *
+     * @param load Starts the load
+     * @param <T>  Type of the result
+     * @return Future of the load
+     */
+    private static <T> CompletableFuture<T> detached(Supplier<CompletableFuture<T>> load) {
+        return RequestDeadline.call(null, load);
     }
 
     /**
-     * Coalesces multiple concurrent requests for the same resource.
-     * If a request is already in flight for the given key, returns the existing
-     * future.
-     * Otherwise, creates a new request and registers it.
+     * Creates the single flight of one lookup type.
      *
-     * @param inFlightMap Map tracking in-flight requests
-     * @param key         Unique identifier for the request
-     * @param loader      Supplier that creates the actual request
-     * @param <K>         Type of the key
-     * @param <T>         Type of the result
-     * @return CompletableFuture for the result (shared if in flight)
+     * @param name   Name for the metrics (e.g. "summoners")
+     * @param config Coalescing configuration section
+     * @param <T>    Type of the result
+     * @return The single flight
      */
-    private <K, T> CompletableFuture<T> coalesce(Map<K, CompletableFuture<T>> inFlightMap, K key,
-            Supplier<CompletableFuture<T>> loader) {
-        return inFlightMap.computeIfAbsent(key, k -> loader.get()
-                .whenComplete((res, ex) -> inFlightMap.remove(k)));
+    private <T> SingleFlight<String, T> singleFlight(String name, RiotApiProperties.Coalescing config) {
+        return new SingleFlight<>(name, config.getMaxInFlight(), config.getTimeout(), meterRegistry);
     }
 
     /**
@@ -858,19 +1480,23 @@ public class RiotApiClient {
     }
 
     /**
-     * Abbreviates a string to maximum length for logging.
-     * Appends ellipsis if truncated.
+     * Remembers a lookup Riot answered with 404 (the parsed response is null), so it is
+     * answered as not found without another call until the negative cache entry expires.
      *
-     * @param s   The string to abbreviate
-     * @param max Maximum length
-     * @return Abbreviated string
+     * @param future      The lookup future
+     * @param requestType Request type the 404 is remembered under
+     * @param cacheKey    Cache key of the lookup
+     * @param <T>         Type of the future result
+     * @return Future completing with the same value
      */
-    private String abbreviate(String s, int max) {
-        if (s == null)
-            return null;
-        if (s.length() <= max)
-            return s;
-        return s.substring(0, max) + "…";
+    private <T> CompletableFuture<T> rememberNotFound(CompletableFuture<T> future, String requestType,
+            String cacheKey) {
+        return future.thenApply(value -> {
+            if (value == null) {
+                negativeCache.rememberNotFound(requestType, cacheKey);
+            }
+            return value;
+        });
     }
 
     /**
@@ -885,15 +1511,84 @@ public class RiotApiClient {
      */
     private <T> CompletableFuture<T> evictOnException(CompletableFuture<T> future, String cacheName, Object cacheKey) {
         return future.whenComplete((value, throwable) -> {
-            if (throwable != null && cacheManager != null) {
-                Cache cache = cacheManager.getCache(cacheName);
-                if (cache != null) {
-                    cache.evict(cacheKey);
-                }
+            if (throwable != null) {
+                evict(cacheName, cacheKey);
             }
         });
     }
 
+    /**
+     * Removes an entry from a cache, if cache and entry exist.
+     *
+     * @param cacheName Name of the cache
+     * @param cacheKey  Key to evict
+     */
+    private void evict(String cacheName, Object cacheKey) {
+        if (cacheManager != null) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                cache.evict(cacheKey);
+            }
+        }
+    }
+
+    /**
+     * Remembers successful results and answers failed lookups with the last good
+     * value, if one is known. The stale answer is marked, and the caches of Riot
+     * data refuse marked values (StaleRejectingCache), so it never replaces or
+     * becomes an entry and the next request asks Riot again.
+     *
+     * @param future    The lookup future
+     * @param cacheName Name of the cache the lookup belongs to
+     * @param cacheKey  Cache key of the lookup
+     * @param <T>       Type of the future result
+     * @return Future completing with the fresh value, a stale value, or the original error
+     */
+    private <T> CompletableFuture<T> withStaleFallback(CompletableFuture<T> future, String cacheName,
+            String cacheKey) {
+        return evictOnException(future, cacheName, cacheKey)
+                .handle((value, throwable) -> {
+                    CompressedMatchCache offHeap = "matchDetails".equals(cacheName) ? compressedMatches() : null;
+                    if (throwable == null) {
+                        if (offHeap == null) {
+                            staleValues.remember(cacheName, cacheKey, value);
+                        }
+                        return CompletableFuture.completedFuture(value);
+                    }
+                    @SuppressWarnings("unchecked")
+                    T stale = offHeap != null ? (T) staleValues.markStale(offHeap.getStale(cacheKey))
+                            : staleValues.lookup(cacheName, cacheKey);
+                    if (stale == null) {
+                        return CompletableFuture.<T>failedFuture(throwable);
+                    }
+                    Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+                            ? throwable.getCause()
+                            : throwable;
+                    logger.warn("Serving stale {} entry after upstream error: {}", cacheName, cause.getMessage());
+                    meterRegistry.counter("riotapi.client.stale.served", "cache", cacheName).increment();
+                    return CompletableFuture.completedFuture(stale);
+                })
+                .thenCompose(Function.identity());
+    }
+
+    /**
+     * Resolves the off-heap match store, if "matchDetails" is kept there. It holds
+     * expired matches for the maximum stale age itself, so no last good copy of a
+     * match is kept on the heap.
+     *
+     * @return The store, or null if riot.api.match-store is disabled
+     */
+    private CompressedMatchCache compressedMatches() {
+        if (!matchStoreEnabled) {
+            return null;
+        }
+        Cache cache = cacheManager.getCache("matchDetails");
+        if (cache instanceof StaleRejectingCache rejecting) {
+            cache = rejecting.getTargetCache();
+        }
+        return cache instanceof CompressedMatchCache store ? store : null;
+    }
+
     /**
      * Converts a string to lowercase using ROOT locale.
      * Used for case-insensitive cache keys.
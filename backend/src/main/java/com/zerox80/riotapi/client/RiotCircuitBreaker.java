@@ -0,0 +1,301 @@
+// Package declaration: Defines that this class belongs to the client package
+package com.zerox80.riotapi.client;
+
+// Import for metrics registry for performance monitoring
+import io.micrometer.core.instrument.MeterRegistry;
+// Import for the endpoint tag of the state gauge
+import io.micrometer.core.instrument.Tags;
+// Import for the logging interface from SLF4J
+import org.slf4j.Logger;
+// Import for the factory to create logger instances
+import org.slf4j.LoggerFactory;
+
+// Import for locale (language settings, here for toLowerCase)
+import java.util.Locale;
+// Import for a pluggable clock (tests use a manual clock)
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker for one Riot endpoint type (e.g. "MatchDetails").
+ *
+ * Keeps the outcome of the last calls in a sliding window. Once enough calls were
+ * seen and the share of failures (5xx, timeouts, I/O errors) reaches the threshold,
+ * the breaker opens and {@link #tryAcquire()} rejects every call for the open
+ * duration, so callers fail fast instead of retrying into an outage. Afterwards a
+ * few trial calls are let through (half-open); if all of them succeed the breaker
+ * closes again, a single failure opens it for another period.
+ *
+ * Calls that say nothing about Riot's health (429, local permit rejections)
+ * are reported via {@link #onIgnored()} and do not count.
+ */
+public class RiotCircuitBreaker {
+
+    // static final: Class-wide constant, logger for this specific class
+    private static final Logger logger = LoggerFactory.getLogger(RiotCircuitBreaker.class);
+
+    /**
+     * Breaker states, ordered by severity (the ordinal is exported as gauge value).
+     */
+    public enum State {
+        CLOSED, HALF_OPEN, OPEN
+    }
+
+    /**
+     * Point-in-time view of a breaker, for the actuator endpoint.
+     *
+     * @param state               Current state
+     * @param calls               Calls in the sliding window
+     * @param failures            Failed calls in the sliding window
+     * @param failureRate         failures / calls, 0 if the window is empty
+     * @param remainingOpenMillis Time until trial calls are let through, 0 unless open
+     */
+    public record Snapshot(State state, int calls, int failures, double failureRate, long remainingOpenMillis) {
+    }
+
+    // final: Endpoint type guarded by this breaker (metric tag and log name)
+    private final String endpoint;
+
+    // final: Master switch, false lets every call through
+    private final boolean enabled;
+
+    // final: Failure share that opens the breaker
+    private final double failureRateThreshold;
+
+    // final: Calls needed before the failure rate is judged
+    private final int minimumCalls;
+
+    // final: How long the breaker stays open
+    private final long openMillis;
+
+    // final: Trial calls of the half-open state
+    private final int halfOpenCalls;
+
+    // final: Registry for metrics (Prometheus, Grafana)
+    private final MeterRegistry meterRegistry;
+
+    // final: Millisecond clock, System::currentTimeMillis outside of tests
+    private final LongSupplier clock;
+
+    // Ring buffer of call outcomes, true = failure; guarded by this
+    private final boolean[] window;
+
+    // Number of outcomes in the window (up to its length)
+    private int calls;
+
+    // Write position in the ring buffer
+    private int next;
+
+    // Failures among the outcomes in the window
+    private int failures;
+
+    // Current state
+    private State state = State.CLOSED;
+
+    // Clock time the breaker opened at
+    private long openedAt;
+
+    // Trial calls handed out in the half-open state
+    private int trialsStarted;
+
+    // Trial calls that succeeded in the half-open state
+    private int trialsSucceeded;
+
+    /**
+     * Creates a breaker using the system clock.
+     *
+     * @param endpoint             Endpoint type (e.g. "Account")
+     * @param enabled              false to let every call through
+     * @param failureRateThreshold Failure share that opens the breaker (0..1)
+     * @param windowSize           Number of calls in the sliding window
+     * @param minimumCalls         Calls needed before the breaker may open
+     * @param openMillis           Open duration in milliseconds
+     * @param halfOpenCalls        Trial calls after the open duration
+     * @param meterRegistry        Metrics registry for monitoring
+     */
+    public RiotCircuitBreaker(String endpoint, boolean enabled, double failureRateThreshold, int windowSize,
+            int minimumCalls, long openMillis, int halfOpenCalls, MeterRegistry meterRegistry) {
+        this(endpoint, enabled, failureRateThreshold, windowSize, minimumCalls, openMillis, halfOpenCalls,
+                meterRegistry, System::currentTimeMillis);
+    }
+
+    /**
+     * Creates a breaker with an explicit clock.
+     *
+     * @param endpoint             Endpoint type (e.g. "Account")
+     * @param enabled              false to let every call through
+     * @param failureRateThreshold Failure share that opens the breaker (0..1)
+     * @param windowSize           Number of calls in the sliding window
+     * @param minimumCalls         Calls needed before the breaker may open
+     * @param openMillis           Open duration in milliseconds
+     * @param halfOpenCalls        Trial calls after the open duration
+     * @param meterRegistry        Metrics registry for monitoring
+     * @param clock                Millisecond clock
+     */
+    RiotCircuitBreaker(String endpoint, boolean enabled, double failureRateThreshold, int windowSize,
+            int minimumCalls, long openMillis, int halfOpenCalls, MeterRegistry meterRegistry, LongSupplier clock) {
+        this.endpoint = endpoint;
+        this.enabled = enabled;
+        this.failureRateThreshold = failureRateThreshold;
+        this.window = new boolean[Math.max(1, windowSize)];
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, this.window.length));
+        this.openMillis = Math.max(0, openMillis);
+        this.halfOpenCalls = Math.max(1, halfOpenCalls);
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+        meterRegistry.gauge("riotapi.client.circuit.state", Tags.of("endpoint", endpoint), this,
+                b -> b.getState().ordinal());
+    }
+
+    /**
+     * Asks for permission to send a call. Every granted call must be reported
+     * back with onSuccess, onFailure or onIgnored.
+     *
+     * @return true if the call may be sent, false if it has to fail fast
+     */
+    public synchronized boolean tryAcquire() {
+        if (!enabled) {
+            return true;
+        }
+        if (state == State.OPEN) {
+            if (clock.getAsLong() - openedAt < openMillis) {
+                meterRegistry.counter("riotapi.client.circuit.rejected", "endpoint", endpoint).increment();
+                return false;
+            }
+            transition(State.HALF_OPEN);
+            trialsStarted = 0;
+            trialsSucceeded = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialsStarted >= halfOpenCalls) {
+                meterRegistry.counter("riotapi.client.circuit.rejected", "endpoint", endpoint).increment();
+                return false;
+            }
+            trialsStarted++;
+        }
+        return true;
+    }
+
+    /**
+     * Reports a call that reached Riot and got a healthy answer.
+     */
+    public synchronized void onSuccess() {
+        if (!enabled) {
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            trialsSucceeded++;
+            if (trialsSucceeded >= halfOpenCalls) {
+                resetWindow();
+                transition(State.CLOSED);
+            }
+        } else if (state == State.CLOSED) {
+            record(false);
+            openIfFailureRateReached();
+        }
+    }
+
+    /**
+     * Reports a call that failed because of Riot (5xx, timeout, I/O error).
+     */
+    public synchronized void onFailure() {
+        if (!enabled) {
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            open();
+        } else if (state == State.CLOSED) {
+            record(true);
+            openIfFailureRateReached();
+        }
+    }
+
+    /**
+     * Reports a granted call whose outcome says nothing about Riot's health,
+     * e.g. a 429 or a call that never left because no permit was free.
+     */
+    public synchronized void onIgnored() {
+        if (enabled && state == State.HALF_OPEN && trialsStarted > trialsSucceeded) {
+            // Hand the trial slot to the next caller
+            trialsStarted--;
+        }
+    }
+
+    /**
+     * Gets the current state. An open breaker whose open duration has passed
+     * still reports OPEN until the next call turns it half-open.
+     *
+     * @return The breaker state
+     */
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Gets the endpoint type of this breaker.
+     *
+     * @return Endpoint type (e.g. "Account")
+     */
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    /**
+     * Takes a consistent snapshot of the breaker.
+     *
+     * @return Snapshot of state and window
+     */
+    public synchronized Snapshot snapshot() {
+        long remaining = state == State.OPEN ? Math.max(0, openMillis - (clock.getAsLong() - openedAt)) : 0;
+        double rate = calls == 0 ? 0.0 : (double) failures / calls;
+        return new Snapshot(state, calls, failures, rate, remaining);
+    }
+
+    private void record(boolean failure) {
+        if (calls == window.length) {
+            // Window is full: the oldest outcome drops out
+            if (window[next]) {
+                failures--;
+            }
+        } else {
+            calls++;
+        }
+        window[next] = failure;
+        if (failure) {
+            failures++;
+        }
+        next = (next + 1) % window.length;
+    }
+
+    private void openIfFailureRateReached() {
+        if (calls >= minimumCalls && failures > 0 && failures >= failureRateThreshold * calls) {
+            open();
+        }
+    }
+
+    private void open() {
+        openedAt = clock.getAsLong();
+        if (state != State.OPEN) {
+            logger.warn("Circuit for Riot endpoint {} opened after {}/{} failed calls; failing fast for {} ms",
+                    endpoint, failures, calls, openMillis);
+        }
+        transition(State.OPEN);
+    }
+
+    private void resetWindow() {
+        calls = 0;
+        next = 0;
+        failures = 0;
+    }
+
+    private void transition(State target) {
+        if (state == target) {
+            return;
+        }
+        if (target == State.CLOSED) {
+            logger.info("Circuit for Riot endpoint {} closed again", endpoint);
+        }
+        state = target;
+        meterRegistry.counter("riotapi.client.circuit.transitions", "endpoint", endpoint, "state",
+                target.name().toLowerCase(Locale.ROOT)).increment();
+    }
+}
@@ -0,0 +1,21 @@
+// Package declaration: Defines that this exception belongs to the client package
+package com.zerox80.riotapi.client;
+
+
+/**
+ * Thrown instead of calling Riot while the circuit breaker of an endpoint is open.
+ *
+ * The message carries status code 503, so the global exception handler answers
+ * with Service Unavailable when no stale value could be served instead.
+ */
+public class RiotCircuitOpenException extends RiotApiRequestException {
+
+    /**
+     * Constructs the exception for a rejected call.
+     *
+     * @param endpoint Endpoint type whose breaker is open (e.g. "MatchDetails")
+     */
+    public RiotCircuitOpenException(String endpoint) {
+        super("API request (" + endpoint + ") rejected, circuit open - status code: 503");
+    }
+}
@@ -0,0 +1,23 @@
+// Package declaration: Defines that this exception belongs to the client package
+package com.zerox80.riotapi.client;
+
+
+/**
+ * Thrown instead of queueing, sending or retrying a Riot call whose request deadline ended.
+ *
+ * The message carries status code 504, so the global exception handler answers with
+ * Gateway Timeout if the exception ever reaches it; usually the caller is gone already.
+ */
+public class RiotDeadlineExceededException extends RiotApiRequestException {
+
+    /**
+     * Constructs the exception for an abandoned call.
+     *
+     * @param requestType Request type that was abandoned (e.g. "MatchDetails")
+     * @param cancelled   true if the caller went away, false if the time ran out
+     */
+    public RiotDeadlineExceededException(String requestType, boolean cancelled) {
+        super("API request (" + requestType + ") abandoned, "
+                + (cancelled ? "caller went away" : "request deadline exceeded") + " - status code: 504");
+    }
+}
@@ -0,0 +1,530 @@
+// Package declaration: Defines that this class belongs to the client package
+package com.zerox80.riotapi.client;
+
+// Import for metrics registry for performance monitoring
+import io.micrometer.core.instrument.MeterRegistry;
+// Import for the logging interface from SLF4J
+import org.slf4j.Logger;
+// Import for the factory to create logger instances
+import org.slf4j.LoggerFactory;
+
+// Import for HTTP response headers (rate limit headers)
+import java.net.http.HttpHeaders;
+// Import for the maximum quota wait
+import java.time.Duration;
+// Import for resizable list implementation
+import java.util.ArrayList;
+// Import for hash map (guarded by the limiter lock)
+import java.util.HashMap;
+// Import for iterating while removing windows
+import java.util.Iterator;
+// Import for list data structure
+import java.util.List;
+// Import for locale (language settings, here for toLowerCase)
+import java.util.Locale;
+// Import for map interface
+import java.util.Map;
+// Import for optional pattern (avoids null checks)
+import java.util.Optional;
+// Import for asynchronous operations with callbacks
+import java.util.concurrent.CompletableFuture;
+// Import for time units in concurrent operations
+import java.util.concurrent.TimeUnit;
+// Import for a pluggable clock (tests use a manual clock)
+import java.util.function.LongSupplier;
+
+/**
+ * Client-side mirror of Riot's App and Method rate limits.
+ *
+ * Riot reports every limit window in the X-App-Rate-Limit and X-Method-Rate-Limit
+ * headers (e.g. "20:1,100:120") together with the current usage in the matching
+ * *-Count headers. This limiter keeps one bucket per routing host (app scope) and
+ * one per routing host and method (method scope), each holding a counter per
+ * window, and holds requests back until every window has room again. A 429 for an
+ * application or method limit pauses the whole bucket for the Retry-After period,
+ * so every caller waits instead of running into the same 429.
+ *
+ * Lower {@link RequestPriority} classes may only fill a share of each window;
+ * the remainder stays reserved for interactive requests.
+ */
+public class RiotRateLimiter {
+
+    // static final: Class-wide constant, logger for this specific class
+    private static final Logger logger = LoggerFactory.getLogger(RiotRateLimiter.class);
+
+    // Pause applied when Riot reports a 429 for a scope but omits Retry-After
+    private static final long DEFAULT_PAUSE_MILLIS = 1_000;
+
+    // Header names used by Riot to describe limits and current usage
+    private static final String APP_LIMIT_HEADER = "X-App-Rate-Limit";
+    private static final String APP_COUNT_HEADER = "X-App-Rate-Limit-Count";
+    private static final String METHOD_LIMIT_HEADER = "X-Method-Rate-Limit";
+    private static final String METHOD_COUNT_HEADER = "X-Method-Rate-Limit-Count";
+    private static final String LIMIT_TYPE_HEADER = "X-Rate-Limit-Type";
+
+    // final: Master switch, false turns acquire() into a no-op
+    private final boolean enabled;
+
+    // final: App windows assumed before the first response of a routing host arrived
+    private final List<LimitSpec> defaultAppLimits;
+
+    // final: Share of every window a class may fill, per priority ordinal
+    private final double[] shares;
+
+    // final: Registry for metrics (Prometheus, Grafana)
+    private final MeterRegistry meterRegistry;
+
+    // final: Millisecond clock, System::currentTimeMillis outside of tests
+    private final LongSupplier clock;
+
+    // final: Timer used to re-check held back requests
+    private final HashedWheelTimer timer;
+
+    // App-scope buckets by routing host (e.g. "europe", "euw1"), guarded by this
+    private final Map<String, Bucket> appBuckets = new HashMap<>();
+
+    // Method-scope buckets by routing host and method, guarded by this
+    private final Map<String, Bucket> methodBuckets = new HashMap<>();
+
+    /**
+     * Creates a rate limiter using the system clock.
+     *
+     * @param enabled          false to let every request through immediately
+     * @param defaultAppLimits Initial app limits in Riot header format (e.g. "20:1,100:120")
+     * @param prefetchShare    Share of each window prefetch calls may fill (0..1)
+     * @param backgroundShare  Share of each window background calls may fill (0..1)
+     * @param meterRegistry    Metrics registry for monitoring
+     * @param timer            Timer used to re-check held back requests
+     */
+    public RiotRateLimiter(boolean enabled, String defaultAppLimits, double prefetchShare, double backgroundShare,
+            MeterRegistry meterRegistry, HashedWheelTimer timer) {
+        this(enabled, defaultAppLimits, prefetchShare, backgroundShare, meterRegistry, timer,
+                System::currentTimeMillis);
+    }
+
+    /**
+     * Creates a rate limiter with an explicit clock.
+     *
+     * @param enabled          false to let every request through immediately
+     * @param defaultAppLimits Initial app limits in Riot header format
+     * @param prefetchShare    Share of each window prefetch calls may fill (0..1)
+     * @param backgroundShare  Share of each window background calls may fill (0..1)
+     * @param meterRegistry    Metrics registry for monitoring
+     * @param timer            Timer used to re-check held back requests
+     * @param clock            Millisecond clock
+     */
+    RiotRateLimiter(boolean enabled, String defaultAppLimits, double prefetchShare, double backgroundShare,
+            MeterRegistry meterRegistry, HashedWheelTimer timer, LongSupplier clock) {
+        this.enabled = enabled;
+        this.defaultAppLimits = parseLimits(defaultAppLimits);
+        this.shares = new double[RequestPriority.values().length];
+        this.shares[RequestPriority.INTERACTIVE.ordinal()] = 1.0;
+        this.shares[RequestPriority.PREFETCH.ordinal()] = prefetchShare;
+        this.shares[RequestPriority.BACKGROUND.ordinal()] = backgroundShare;
+        this.meterRegistry = meterRegistry;
+        this.timer = timer;
+        this.clock = clock;
+    }
+
+    /**
+     * Reserves one request in the app and method buckets of the given route.
+     * Completes immediately if every window has room, otherwise once the earliest
+     * blocking window has reset or the bucket pause has ended.
+     *
+     * @param route    Routing host value (platform like "euw1" or region like "europe")
+     * @param method   Logical Riot method (e.g. "MatchDetails")
+     * @param priority Scheduling class of the request
+     * @return CompletableFuture that completes when the request may be sent
+     */
+    public CompletableFuture<Void> acquire(String route, String method, RequestPriority priority) {
+        return acquire(route, method, priority, null);
+    }
+
+    /**
+     * Reserves one request like {@link #acquire(String, String, RequestPriority)}, but
+     * fails with a 503 RiotApiRequestException as soon as it is clear that the windows
+     * will not have room within the maximum wait. Nothing is reserved then.
+     *
+     * @param route    Routing host value
+     * @param method   Logical Riot method
+     * @param priority Scheduling class of the request
+     * @param maxWait  Maximum time to wait for capacity, null = no limit
+     * @return CompletableFuture that completes when the request may be sent
+     */
+    public CompletableFuture<Void> acquire(String route, String method, RequestPriority priority,
+            Duration maxWait) {
+        if (!enabled) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        tryAcquireOrSchedule(route, method, priority, future, clock.getAsLong(),
+                maxWait != null ? maxWait.toMillis() : Long.MAX_VALUE, true);
+        return future;
+    }
+
+    /**
+     * Reserves one request only if every window has room right now, without waiting.
+     * Used for optional calls (hedges) that are dropped rather than queued.
+     *
+     * @param route    Routing host value
+     * @param method   Logical Riot method
+     * @param priority Scheduling class whose share of the windows may be used
+     * @return true if capacity was reserved
+     */
+    public boolean tryAcquire(String route, String method, RequestPriority priority) {
+        if (!enabled) {
+            return true;
+        }
+        return tryReserve(route, method, priority, false) <= 0;
+    }
+
+    /**
+     * Tries to reserve capacity; if unavailable, re-checks once the blocking window resets,
+     * or fails the future if that would be later than the maximum wait.
+     *
+     * @param route         Routing host value
+     * @param method        Logical Riot method
+     * @param priority      Scheduling class of the request
+     * @param future        The future to complete when capacity was reserved
+     * @param startedAt     Time of the original acquire call (for the wait metric)
+     * @param maxWaitMillis Maximum wait in milliseconds since startedAt
+     * @param firstAttempt  true on the first check (counts throttled requests once)
+     */
+    private void tryAcquireOrSchedule(String route, String method, RequestPriority priority,
+            CompletableFuture<Void> future, long startedAt, long maxWaitMillis, boolean firstAttempt) {
+        if (future.isDone()) {
+            return;
+        }
+        long waitMillis = tryReserve(route, method, priority, firstAttempt);
+        if (waitMillis <= 0) {
+            meterRegistry.timer("riotapi.client.ratelimit.wait", "route", route, "priority", priority.tag())
+                    .record(clock.getAsLong() - startedAt, TimeUnit.MILLISECONDS);
+            if (firstAttempt) {
+                future.complete(null);
+            } else {
+                // Re-checks run on the timer thread; the caller continues on the completion executor
+                timer.complete(future, null);
+            }
+            return;
+        }
+        if (clock.getAsLong() - startedAt + waitMillis > maxWaitMillis) {
+            // No room in time: fail now instead of holding the caller (and its permit) until then
+            meterRegistry.counter("riotapi.client.ratelimit.rejected", "route", route, "priority", priority.tag())
+                    .increment();
+            RiotApiRequestException rejected = new RiotApiRequestException(
+                    "No rate limit quota within " + maxWaitMillis + " ms, status code: 503");
+            if (firstAttempt) {
+                future.completeExceptionally(rejected);
+            } else {
+                timer.completeExceptionally(future, rejected);
+            }
+            return;
+        }
+        timer.schedule(() -> tryAcquireOrSchedule(route, method, priority, future, startedAt, maxWaitMillis, false),
+                waitMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Reserves capacity in both buckets if all of their windows have room.
+     *
+     * @param route        Routing host value
+     * @param method       Logical Riot method
+     * @param priority     Scheduling class of the request
+     * @param firstAttempt true on the first check of a request
+     * @return 0 if capacity was reserved, otherwise milliseconds until the next check
+     */
+    private synchronized long tryReserve(String route, String method, RequestPriority priority,
+            boolean firstAttempt) {
+        long now = clock.getAsLong();
+        double share = shares[priority.ordinal()];
+        Bucket app = appBucket(route);
+        Bucket methodBucket = methodBucket(route, method);
+        long appWait = app.waitMillis(now, share);
+        long methodWait = methodBucket.waitMillis(now, share);
+        if (appWait <= 0 && methodWait <= 0) {
+            app.consume(now);
+            methodBucket.consume(now);
+            return 0;
+        }
+        if (firstAttempt) {
+            meterRegistry.counter("riotapi.client.ratelimit.throttled", "route", route, "scope",
+                    appWait >= methodWait ? "app" : "method", "priority", priority.tag()).increment();
+        }
+        return Math.max(appWait, methodWait);
+    }
+
+    /**
+     * Feeds the rate limit headers of a response back into the buckets.
+     * Learns the configured windows, catches up with Riot's own counters and
+     * pauses the whole bucket on a 429 for an application or method limit.
+     *
+     * @param route             Routing host value of the request
+     * @param method            Logical Riot method of the request
+     * @param headers           Response headers
+     * @param status            HTTP status code of the response
+     * @param retryAfterSeconds Parsed Retry-After header, if any
+     * @return true if a 429 paused the app or method bucket
+     */
+    public boolean onResponse(String route, String method, HttpHeaders headers, int status,
+            Optional<Long> retryAfterSeconds) {
+        if (!enabled) {
+            return false;
+        }
+        synchronized (this) {
+            long now = clock.getAsLong();
+            Bucket app = appBucket(route);
+            Bucket methodBucket = methodBucket(route, method);
+            headers.firstValue(APP_LIMIT_HEADER).map(RiotRateLimiter::parseLimits)
+                    .ifPresent(specs -> app.updateLimits(specs));
+            headers.firstValue(APP_COUNT_HEADER).map(RiotRateLimiter::parseLimits)
+                    .ifPresent(counts -> app.syncCounts(counts, now));
+            headers.firstValue(METHOD_LIMIT_HEADER).map(RiotRateLimiter::parseLimits)
+                    .ifPresent(specs -> methodBucket.updateLimits(specs));
+            headers.firstValue(METHOD_COUNT_HEADER).map(RiotRateLimiter::parseLimits)
+                    .ifPresent(counts -> methodBucket.syncCounts(counts, now));
+
+            if (status != 429) {
+                return false;
+            }
+            String limitType = headers.firstValue(LIMIT_TYPE_HEADER)
+                    .map(value -> value.trim().toLowerCase(Locale.ROOT))
+                    .orElse("");
+            long pauseMillis = retryAfterSeconds.map(seconds -> Math.max(1, seconds) * 1_000)
+                    .orElse(DEFAULT_PAUSE_MILLIS);
+            Bucket paused = switch (limitType) {
+                case "application" -> app;
+                case "method" -> methodBucket;
+                default -> null;
+            };
+            if (paused == null) {
+                // "service" (or missing) means the upstream service is struggling, not our quota
+                return false;
+            }
+            paused.pause(now + pauseMillis);
+            meterRegistry.counter("riotapi.client.ratelimit.paused", "route", route, "scope", limitType).increment();
+            logger.warn("Riot {} rate limit hit on route {} ({}). Pausing bucket for {} ms.", limitType, route, method,
+                    pauseMillis);
+            return true;
+        }
+    }
+
+    /**
+     * Returns the app bucket of a route, seeded with the default app limits.
+     *
+     * @param route Routing host value
+     * @return The bucket (created on first use)
+     */
+    private Bucket appBucket(String route) {
+        return appBuckets.computeIfAbsent(route, r -> {
+            Bucket bucket = new Bucket();
+            bucket.updateLimits(defaultAppLimits);
+            return bucket;
+        });
+    }
+
+    /**
+     * Returns the method bucket of a route; its windows are unknown until Riot reports them.
+     *
+     * @param route  Routing host value
+     * @param method Logical Riot method
+     * @return The bucket (created on first use)
+     */
+    private Bucket methodBucket(String route, String method) {
+        return methodBuckets.computeIfAbsent(route + "|" + method, k -> new Bucket());
+    }
+
+    /**
+     * Parses a Riot limit header such as "20:1,100:120" (count:seconds pairs).
+     * Malformed pairs are skipped.
+     *
+     * @param header Header value
+     * @return Parsed windows, empty if nothing could be parsed
+     */
+    static List<LimitSpec> parseLimits(String header) {
+        List<LimitSpec> specs = new ArrayList<>();
+        if (header == null || header.isBlank()) {
+            return specs;
+        }
+        for (String part : header.split(",")) {
+            int colon = part.indexOf(':');
+            if (colon <= 0) {
+                continue;
+            }
+            try {
+                int value = Integer.parseInt(part.substring(0, colon).trim());
+                long seconds = Long.parseLong(part.substring(colon + 1).trim());
+                if (value >= 0 && seconds > 0) {
+                    specs.add(new LimitSpec(value, seconds * 1_000));
+                }
+            } catch (NumberFormatException e) {
+                logger.debug("Ignoring malformed rate limit pair '{}'", part);
+            }
+        }
+        return specs;
+    }
+
+    /**
+     * One "value:seconds" pair of a rate limit header.
+     *
+     * @param value        Limit (or current count, for *-Count headers)
+     * @param windowMillis Window length in milliseconds
+     */
+    record LimitSpec(int value, long windowMillis) {
+    }
+
+    /**
+     * Set of limit windows that must all have room before a request may be sent.
+     * Not thread-safe on its own; only used under the limiter lock.
+     */
+    private static final class Bucket {
+
+        // Windows of this bucket (e.g. per second and per two minutes)
+        private final List<Window> windows = new ArrayList<>();
+
+        // Requests are held back until this time after a 429 for this scope
+        private long pausedUntil;
+
+        /**
+         * Returns how long a request has to wait before this bucket has room.
+         *
+         * @param now   Current time in milliseconds
+         * @param share Share of each window the request's class may fill
+         * @return 0 if a request may be sent now, otherwise the wait in milliseconds
+         */
+        long waitMillis(long now, double share) {
+            long wait = pausedUntil - now;
+            for (Window window : windows) {
+                wait = Math.max(wait, window.waitMillis(now, share));
+            }
+            return wait;
+        }
+
+        /**
+         * Counts one request in every window.
+         *
+         * @param now Current time in milliseconds
+         */
+        void consume(long now) {
+            for (Window window : windows) {
+                window.consume(now);
+            }
+        }
+
+        /**
+         * Replaces the window definitions, keeping the usage of windows whose length did not change.
+         *
+         * @param specs Windows reported by Riot
+         */
+        void updateLimits(List<LimitSpec> specs) {
+            if (specs.isEmpty()) {
+                return;
+            }
+            Iterator<Window> it = windows.iterator();
+            while (it.hasNext()) {
+                Window window = it.next();
+                if (specs.stream().noneMatch(spec -> spec.windowMillis() == window.durationMillis)) {
+                    it.remove();
+                }
+            }
+            for (LimitSpec spec : specs) {
+                Window existing = find(spec.windowMillis());
+                if (existing != null) {
+                    existing.limit = spec.value();
+                } else {
+                    windows.add(new Window(spec.value(), spec.windowMillis()));
+                }
+            }
+        }
+
+        /**
+         * Catches up with Riot's counters, e.g. after a restart or when other instances share the key.
+         *
+         * @param counts Usage reported by Riot per window
+         * @param now    Current time in milliseconds
+         */
+        void syncCounts(List<LimitSpec> counts, long now) {
+            for (LimitSpec count : counts) {
+                Window window = find(count.windowMillis());
+                if (window != null) {
+                    window.sync(count.value(), now);
+                }
+            }
+        }
+
+        /**
+         * Holds back all requests of this bucket until the given time.
+         *
+         * @param until Time in milliseconds
+         */
+        void pause(long until) {
+            pausedUntil = Math.max(pausedUntil, until);
+        }
+
+        private Window find(long durationMillis) {
+            for (Window window : windows) {
+                if (window.durationMillis == durationMillis) {
+                    return window;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Fixed window that starts with the first request and resets after its duration,
+     * like the windows Riot enforces.
+     */
+    private static final class Window {
+
+        // Window length in milliseconds
+        private final long durationMillis;
+
+        // Allowed requests per window (updated from headers)
+        private int limit;
+
+        // Start of the current window, -1 while no request was counted
+        private long startedAt = -1;
+
+        // Requests counted in the current window
+        private int count;
+
+        Window(int limit, long durationMillis) {
+            this.limit = limit;
+            this.durationMillis = durationMillis;
+        }
+
+        long waitMillis(long now, double share) {
+            roll(now);
+            int allowed = share >= 1.0 ? limit : Math.max(Math.min(limit, 1), (int) Math.floor(limit * share));
+            if (count < allowed) {
+                return 0;
+            }
+            return startedAt < 0 ? durationMillis : startedAt + durationMillis - now;
+        }
+
+        void consume(long now) {
+            roll(now);
+            if (startedAt < 0) {
+                startedAt = now;
+            }
+            count++;
+        }
+
+        void sync(int serverCount, long now) {
+            roll(now);
+            if (serverCount > count) {
+                if (startedAt < 0) {
+                    startedAt = now;
+                }
+                count = serverCount;
+            }
+        }
+
+        private void roll(long now) {
+            if (startedAt >= 0 && now >= startedAt + durationMillis) {
+                startedAt = -1;
+                count = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+// Package declaration: Defines that this enum belongs to the client package
+package com.zerox80.riotapi.client;
+
+// Import for locale (language settings, here for toLowerCase/toUpperCase)
+import java.util.Locale;
+
+/**
+ * A League of Legends platform together with the regional routing value its
+ * account and match APIs live behind.
+ *
+ * Platform APIs (summoner, league) are called on {@code <platformId>.api.riotgames.com},
+ * account and match APIs on {@code <regionalRoute>.api.riotgames.com}. Riot enforces
+ * rate limits per host, so each platform and each regional host gets its own
+ * rate limit buckets and outbound permits in {@link RiotApiClient}.
+ */
+public enum RiotRegion {
+
+    // Europe
+    EUW1("euw1", "europe"),
+    EUN1("eun1", "europe"),
+    TR1("tr1", "europe"),
+    RU("ru", "europe"),
+    ME1("me1", "europe"),
+
+    // Americas and Oceania
+    NA1("na1", "americas"),
+    BR1("br1", "americas"),
+    LA1("la1", "americas"),
+    LA2("la2", "americas"),
+    OC1("oc1", "americas"),
+
+    // Asia
+    KR("kr", "asia"),
+    JP1("jp1", "asia"),
+
+    // South East Asia
+    VN2("vn2", "sea"),
+    PH2("ph2", "sea"),
+    SG2("sg2", "sea"),
+    TH2("th2", "sea"),
+    TW2("tw2", "sea"),
+    ID1("id1", "sea");
+
+    // final: Platform routing value (e.g., "euw1")
+    private final String platformId;
+
+    // final: Regional routing value for account and match APIs (e.g., "europe")
+    private final String regionalRoute;
+
+    RiotRegion(String platformId, String regionalRoute) {
+        this.platformId = platformId;
+        this.regionalRoute = regionalRoute;
+    }
+
+    /**
+     * Gets the platform routing value.
+     *
+     * @return Lowercase platform ID (e.g., "euw1")
+     */
+    public String platformId() {
+        return platformId;
+    }
+
+    /**
+     * Gets the regional routing value.
+     *
+     * @return Regional route (europe, americas, asia, sea)
+     */
+    public String regionalRoute() {
+        return regionalRoute;
+    }
+
+    /**
+     * Gets the host for platform APIs.
+     *
+     * @return Host name, e.g. "euw1.api.riotgames.com"
+     */
+    public String platformHost() {
+        return platformId + ".api.riotgames.com";
+    }
+
+    /**
+     * Gets the host for account and match APIs.
+     *
+     * @return Host name, e.g. "europe.api.riotgames.com"
+     */
+    public String regionalHost() {
+        return regionalRoute + ".api.riotgames.com";
+    }
+
+    /**
+     * Parses a platform ID or enum name, case-insensitively ("euw1", "EUW1", " kr ").
+     *
+     * @param value The platform ID
+     * @return The matching region
+     * @throws IllegalArgumentException if the value is blank or not a known platform
+     */
+    public static RiotRegion fromPlatformId(String value) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Region must not be empty");
+        }
+        String normalized = value.trim().toLowerCase(Locale.ROOT);
+        for (RiotRegion region : values()) {
+            if (region.platformId.equals(normalized)) {
+                return region;
+            }
+        }
+        throw new IllegalArgumentException("Unknown region '" + value.trim() + "'");
+    }
+
+    /**
+     * Resolves an optional region request parameter.
+     *
+     * @param value    The requested platform ID, may be null or blank
+     * @param fallback Region used when no region was requested
+     * @return The requested region, or the fallback
+     * @throws IllegalArgumentException if a region was requested but is not known
+     */
+    public static RiotRegion resolve(String value, RiotRegion fallback) {
+        if (value == null || value.isBlank()) {
+            return fallback;
+        }
+        return fromPlatformId(value);
+    }
+}
@@ -0,0 +1,183 @@
+// Package declaration: Defines that this class belongs to the client package
+package com.zerox80.riotapi.client;
+
+// Import for an InputStream view on a single ByteBuffer
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+
+// Import for the stream handed to Jackson
+import java.io.InputStream;
+// Import for concatenating the chunk streams
+import java.io.SequenceInputStream;
+// Import for the HTTP response body handler and subscriber types
+import java.net.http.HttpResponse;
+// Import for the raw body chunks delivered by the HTTP client
+import java.nio.ByteBuffer;
+// Import for UTF-8 encoding standard
+import java.nio.charset.StandardCharsets;
+// Import for resizable list implementation
+import java.util.ArrayList;
+// Import for wrapping the chunk streams as an Enumeration
+import java.util.Collections;
+// Import for list data structure
+import java.util.List;
+// Import for asynchronous operations with callbacks
+import java.util.concurrent.CompletableFuture;
+// Import for the completion stage returned by getBody()
+import java.util.concurrent.CompletionStage;
+// Import for the reactive subscription of the body publisher
+import java.util.concurrent.Flow;
+
+/**
+ * Raw body of a Riot API response, kept as the byte chunks the HTTP client delivered.
+ *
+ * Successful bodies are handed to Jackson as a stream over those chunks, so a
+ * 30 KB match never exists as one big String (decoded UTF-16 copy) or one
+ * contiguous byte array. Bodies of error responses only keep the first few
+ * hundred bytes for the log snippet and drop the rest while it arrives.
+ */
+final class RiotResponseBody {
+
+    // Empty body (e.g. no content)
+    private static final RiotResponseBody EMPTY = new RiotResponseBody(List.of(), 0, false);
+
+    // final: Body chunks in arrival order (read-only views)
+    private final List<ByteBuffer> chunks;
+
+    // final: Number of bytes retained in the chunks
+    private final int size;
+
+    // final: true if bytes beyond the retained ones were dropped
+    private final boolean truncated;
+
+    private RiotResponseBody(List<ByteBuffer> chunks, int size, boolean truncated) {
+        this.chunks = chunks;
+        this.size = size;
+        this.truncated = truncated;
+    }
+
+    /**
+     * Creates a body handler that keeps 2xx bodies completely and only the first
+     * bytes of all other bodies.
+     *
+     * @param errorSnippetBytes Bytes retained of non-2xx bodies
+     * @return Body handler for HttpClient.sendAsync
+     */
+    static HttpResponse.BodyHandler<RiotResponseBody> handler(int errorSnippetBytes) {
+        return responseInfo -> {
+            int status = responseInfo.statusCode();
+            boolean success = status >= 200 && status < 300;
+            return new ChunkSubscriber(success ? Integer.MAX_VALUE : errorSnippetBytes);
+        };
+    }
+
+    /**
+     * Opens a stream over the retained bytes.
+     *
+     * @return InputStream over all chunks
+     */
+    InputStream inputStream() {
+        List<InputStream> streams = new ArrayList<>(chunks.size());
+        for (ByteBuffer chunk : chunks) {
+            streams.add(new ByteBufferBackedInputStream(chunk.duplicate()));
+        }
+        return new SequenceInputStream(Collections.enumeration(streams));
+    }
+
+    /**
+     * Returns the number of retained bytes.
+     *
+     * @return Body size in bytes
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Decodes the retained bytes for logging.
+     *
+     * @return UTF-8 text of the retained bytes, with an ellipsis if the body was cut off
+     */
+    String snippet() {
+        byte[] bytes = new byte[size];
+        int offset = 0;
+        for (ByteBuffer chunk : chunks) {
+            ByteBuffer view = chunk.duplicate();
+            int length = view.remaining();
+            view.get(bytes, offset, length);
+            offset += length;
+        }
+        String text = new String(bytes, StandardCharsets.UTF_8);
+        return truncated ? text + "…" : text;
+    }
+
+    /**
+     * Collects body chunks, up to a byte limit.
+     */
+    private static final class ChunkSubscriber implements HttpResponse.BodySubscriber<RiotResponseBody> {
+
+        // final: Completed with the body once the publisher is done
+        private final CompletableFuture<RiotResponseBody> result = new CompletableFuture<>();
+
+        // final: Maximum number of bytes to retain
+        private final int limit;
+
+        // Retained chunks
+        private final List<ByteBuffer> chunks = new ArrayList<>();
+
+        // Retained bytes so far
+        private int size;
+
+        // true once bytes had to be dropped
+        private boolean truncated;
+
+        ChunkSubscriber(int limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public CompletionStage<RiotResponseBody> getBody() {
+            return result;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> items) {
+            for (ByteBuffer item : items) {
+                int remaining = item.remaining();
+                if (remaining == 0) {
+                    continue;
+                }
+                int room = limit - size;
+                if (room <= 0) {
+                    truncated = true;
+                    continue;
+                }
+                if (remaining > room) {
+                    // Keep only the head of the buffer that still fits
+                    ByteBuffer head = item.slice(item.position(), room);
+                    chunks.add(head.asReadOnlyBuffer());
+                    size += room;
+                    truncated = true;
+                } else {
+                    // The HTTP client hands over fresh buffers, so they can be retained without copying
+                    chunks.add(item.asReadOnlyBuffer());
+                    size += remaining;
+                }
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            result.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            result.complete(chunks.isEmpty() && !truncated ? EMPTY : new RiotResponseBody(chunks, size, truncated));
+        }
+    }
+}
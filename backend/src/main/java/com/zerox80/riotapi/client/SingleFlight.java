@@ -0,0 +1,313 @@
+// Package declaration: Defines that this class belongs to the client package
+package com.zerox80.riotapi.client;
+
+// Import for the per-outcome call counters
+import io.micrometer.core.instrument.Counter;
+// Import for metrics registry for performance monitoring
+import io.micrometer.core.instrument.MeterRegistry;
+// Import for the name tag of the in-flight gauge
+import io.micrometer.core.instrument.Tags;
+
+// Import for the timeout of a shared load
+import java.time.Duration;
+// Import for map interface
+import java.util.Map;
+// Import for the shared result and the per-caller views
+import java.util.concurrent.CompletableFuture;
+// Import for thread-safe hash map (important for concurrency)
+import java.util.concurrent.ConcurrentHashMap;
+// Import for recognizing a cancelled load
+import java.util.concurrent.CancellationException;
+// Import for recognizing failures wrapped by dependent futures
+import java.util.concurrent.CompletionException;
+// Import for the timeout unit
+import java.util.concurrent.TimeUnit;
+// Import for recognizing a load that ran into its timeout
+import java.util.concurrent.TimeoutException;
+// Import for supplier functional interface
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent loads of the same key into one (single flight).
+ *
+ * The first caller of a key starts the load, every caller arriving while it runs
+ * gets the same result. Each caller receives its own view of the shared result:
+ * cancelling a view only detaches that caller, and the load itself is cancelled
+ * once every caller cancelled its view. The load runs under the group deadline of
+ * its callers (see RequestDeadline), so queued steps and retries stop when all of
+ * them went away.
+ *
+ * The load runs at the RequestPriority of the caller that started it. A caller of
+ * a higher priority does not join a lower-priority load, which would leave it
+ * waiting at the permit and rate limit shares of that class; it starts a load at
+ * its own priority that takes the key over. Whichever of the two loads succeeds
+ * first answers the callers of both, and the other one is stopped.
+ *
+ * A load still running after the timeout fails for all its callers and frees its
+ * key. At most maxInFlight keys are tracked; beyond that, new keys are loaded
+ * without sharing rather than growing the map without bound.
+ *
+ * Metrics, tagged with the name as "map":
+ * riotapi.client.coalescing.in-flight (keys in flight) and
+ * riotapi.client.coalescing.calls{outcome=originated|coalesced|upgraded|bypassed|timeout|cancelled}.
+ *
+ * @param <K> Type of the key
+ * @param <T> Type of the result
+ */
+public final class SingleFlight<K, T> {
+
+    // final: Loads in flight by key
+    private final Map<K, Flight<T>> flights = new ConcurrentHashMap<>();
+
+    // final: Distinct keys tracked before new keys bypass coalescing
+    private final int maxInFlight;
+
+    // final: Longest a shared load may run, zero = unlimited
+    private final long timeoutNanos;
+
+    // final: Callers that started a load
+    private final Counter originated;
+
+    // final: Callers that joined a load in flight
+    private final Counter coalesced;
+
+    // final: Callers that took a key over from a lower-priority load
+    private final Counter upgraded;
+
+    // final: Callers loaded without sharing because too many keys were in flight
+    private final Counter bypassed;
+
+    // final: Loads failed by the timeout
+    private final Counter timedOut;
+
+    // final: Loads cancelled because all of their callers cancelled
+    private final Counter cancelled;
+
+    /**
+     * Creates a single flight.
+     *
+     * @param name          Name for the metrics (e.g. "summoners")
+     * @param maxInFlight   Distinct keys tracked at most
+     * @param timeout       Longest a shared load may run, null or zero for no limit
+     * @param meterRegistry Metrics registry for monitoring
+     */
+    public SingleFlight(String name, int maxInFlight, Duration timeout, MeterRegistry meterRegistry) {
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.timeoutNanos = timeout != null && timeout.isPositive() ? timeout.toNanos() : 0;
+        this.originated = counter(meterRegistry, name, "originated");
+        this.coalesced = counter(meterRegistry, name, "coalesced");
+        this.upgraded = counter(meterRegistry, name, "upgraded");
+        this.bypassed = counter(meterRegistry, name, "bypassed");
+        this.timedOut = counter(meterRegistry, name, "timeout");
+        this.cancelled = counter(meterRegistry, name, "cancelled");
+        meterRegistry.gaugeMapSize("riotapi.client.coalescing.in-flight", Tags.of("map", name), flights);
+    }
+
+    /**
+     * Loads the value of a key, or joins its load if one is in flight.
+     *
+     * The loader runs on the calling thread, outside of any map operation, because
+     * its future may already be complete (e.g. a call rejected by an open circuit
+     * breaker) and must then free the key at once.
+     *
+     * @param key    Key of the value
+     * @param loader Starts the actual load
+     * @return This caller's view of the result
+     */
+    public CompletableFuture<T> execute(K key, Supplier<CompletableFuture<T>> loader) {
+        RequestDeadline deadline = RequestDeadline.current();
+        RequestPriority priority = RequestPriority.current();
+        while (true) {
+            Flight<T> existing = flights.get(key);
+            if (existing != null) {
+                if (priority.compareTo(existing.priority) < 0) {
+                    Flight<T> flight = new Flight<>(RequestDeadline.group(deadline), priority);
+                    if (!flights.replace(key, existing, flight)) {
+                        continue;
+                    }
+                    upgraded.increment();
+                    start(key, flight, loader);
+                    flight.answerWith(existing);
+                    existing.answerWith(flight);
+                    return flight.view();
+                }
+                if (existing.join(deadline)) {
+                    coalesced.increment();
+                    return existing.view();
+                }
+                // All callers of that load went away and it is being cancelled: start afresh
+                flights.remove(key, existing);
+                continue;
+            }
+            if (flights.size() >= maxInFlight) {
+                bypassed.increment();
+                return loader.get();
+            }
+            Flight<T> flight = new Flight<>(RequestDeadline.group(deadline), priority);
+            if (flights.putIfAbsent(key, flight) != null) {
+                continue;
+            }
+            originated.increment();
+            start(key, flight, loader);
+            return flight.view();
+        }
+    }
+
+    /**
+     * Gets the number of keys in flight.
+     *
+     * @return Loads currently running
+     */
+    public int inFlight() {
+        return flights.size();
+    }
+
+    /**
+     * Runs the load of a registered flight and wires up timeout and cleanup.
+     *
+     * @param key    Key of the flight
+     * @param flight The registered flight
+     * @param loader Starts the actual load
+     */
+    private void start(K key, Flight<T> flight, Supplier<CompletableFuture<T>> loader) {
+        if (timeoutNanos > 0) {
+            flight.result.orTimeout(timeoutNanos, TimeUnit.NANOSECONDS);
+        }
+        // The key is freed before any caller sees the outcome, so a caller retrying
+        // right after a failure or timeout starts a new load instead of rejoining this one
+        flight.result.whenComplete((res, ex) -> {
+            flights.remove(key, flight);
+            if (ex instanceof TimeoutException) {
+                timedOut.increment();
+                // Stop the steps of the abandoned load (permit waits, retries)
+                flight.group.cancel();
+            } else if (ex instanceof CancellationException) {
+                cancelled.increment();
+            }
+            if (ex != null) {
+                flight.shared.completeExceptionally(ex);
+            } else {
+                flight.shared.complete(res);
+            }
+        });
+        CompletableFuture<T> load;
+        try {
+            load = RequestDeadline.call(flight.group, loader);
+        } catch (RuntimeException e) {
+            load = CompletableFuture.failedFuture(e);
+        }
+        load.whenComplete((res, ex) -> {
+            if (ex != null) {
+                flight.result.completeExceptionally(ex instanceof CompletionException && ex.getCause() != null
+                        ? ex.getCause() : ex);
+            } else {
+                flight.result.complete(res);
+            }
+        });
+    }
+
+    /**
+     * Registers a call counter.
+     *
+     * @param meterRegistry Metrics registry
+     * @param name          Name of this single flight
+     * @param outcome       Outcome tag
+     * @return The counter
+     */
+    private static Counter counter(MeterRegistry meterRegistry, String name, String outcome) {
+        return meterRegistry.counter("riotapi.client.coalescing.calls", "map", name, "outcome", outcome);
+    }
+
+    /**
+     * One shared load and the callers attached to it.
+     *
+     * @param <T> Type of the result
+     */
+    private static final class Flight<T> {
+
+        // final: Outcome of the load or its timeout, completed before the key is freed
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        // final: Result handed to the callers, completed once the key is freed
+        private final CompletableFuture<T> shared = new CompletableFuture<>();
+
+        // final: Deadline of all callers together, the load runs under it
+        private final RequestDeadline group;
+
+        // final: Priority the load runs at
+        private final RequestPriority priority;
+
+        // Callers attached, guarded by this
+        private int callers = 1;
+
+        // Callers that cancelled their view, guarded by this
+        private int detached;
+
+        /**
+         * Creates a flight for its first caller.
+         *
+         * @param group    Group deadline joined by the first caller
+         * @param priority Priority of the first caller
+         */
+        Flight(RequestDeadline group, RequestPriority priority) {
+            this.group = group;
+            this.priority = priority;
+        }
+
+        /**
+         * Completes this flight with the result of another load of the same key once
+         * that one succeeds first, and stops this flight's own load.
+         *
+         * @param other The other load of the key
+         */
+        void answerWith(Flight<T> other) {
+            other.shared.thenAccept(res -> {
+                if (result.complete(res)) {
+                    group.cancel();
+                }
+            });
+        }
+
+        /**
+         * Attaches another caller.
+         *
+         * @param deadline Deadline of the caller, null if it has none
+         * @return false if the load is already finished or being cancelled
+         */
+        synchronized boolean join(RequestDeadline deadline) {
+            if (detached == callers || result.isDone() || shared.isDone() || !group.join(deadline)) {
+                return false;
+            }
+            callers++;
+            return true;
+        }
+
+        /**
+         * Creates the view of one caller; cancelling it detaches the caller.
+         *
+         * @return View of the shared result
+         */
+        CompletableFuture<T> view() {
+            CompletableFuture<T> view = shared.copy();
+            view.whenComplete((res, ex) -> {
+                if (view.isCancelled()) {
+                    detach();
+                }
+            });
+            return view;
+        }
+
+        /**
+         * Detaches a caller and cancels the load once no caller is left.
+         */
+        private void detach() {
+            synchronized (this) {
+                if (++detached < callers) {
+                    return;
+                }
+            }
+            group.cancel();
+            result.cancel(true);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+// Package declaration: Defines that this class belongs to the client package
+package com.zerox80.riotapi.client;
+
+// Import for the per-cache stores of last good values
+import com.github.benmanes.caffeine.cache.Cache;
+// Import for the Caffeine cache builder
+import com.github.benmanes.caffeine.cache.Caffeine;
+// Import for the estimated bytes of the values in memory-budget mode
+import com.zerox80.riotapi.config.CacheWeigher;
+
+// Import for time durations (maximum stale age)
+import java.time.Duration;
+// Import for resizable list implementation
+import java.util.ArrayList;
+// Import for unmodifiable list views
+import java.util.Collections;
+// Import for list data structure
+import java.util.List;
+// Import for map interface
+import java.util.Map;
+// Import for thread-safe hash map (important for concurrency)
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the last successfully fetched value of every cached Riot lookup for a
+ * while after the regular cache entry expired, so a failing or circuit-broken
+ * endpoint can answer with slightly old data instead of an error.
+ *
+ * Values handed out from here are marked as stale by identity; callers ask
+ * {@link #isStale(Object)} to label a response. Lists are copied before they
+ * are marked, because empty lists are often shared singletons.
+ *
+ * Outside the memory-budget mode every cache keeps up to a number of values. In that
+ * mode all values share one store bounded by estimated bytes, the "staleValues" share
+ * of cache.budget, so the last good copies count against the heap budget as well.
+ */
+final class StaleValueStore {
+
+    // final: How long a value stays available after it was fetched
+    private final Duration maxAge;
+
+    // final: Maximum number of values per cache
+    private final int maxEntriesPerCache;
+
+    // Last good values per cache name, keyed like the cache itself
+    private final Map<String, Cache<Object, Object>> lastGood = new ConcurrentHashMap<>();
+
+    // final: All last good values keyed by cache name and key, bounded by estimated bytes;
+    // null outside the memory-budget mode
+    private final Cache<Object, Object> budgeted;
+
+    // Values handed out as stale; weak keys compare by identity and vanish with the value
+    private final Cache<Object, Boolean> staleValues = Caffeine.newBuilder().weakKeys().build();
+
+    /**
+     * Creates a store.
+     *
+     * @param maxAge             How long a value stays available after it was fetched
+     * @param maxEntriesPerCache Maximum number of values per cache
+     */
+    StaleValueStore(Duration maxAge, int maxEntriesPerCache) {
+        this(maxAge, maxEntriesPerCache, 0);
+    }
+
+    /**
+     * Creates a store, bounded by estimated bytes if a byte bound is given.
+     *
+     * @param maxAge             How long a value stays available after it was fetched
+     * @param maxEntriesPerCache Maximum number of values per cache, without a byte bound
+     * @param maxBytes           Estimated bytes of all values together, 0 to bound by entries
+     */
+    StaleValueStore(Duration maxAge, int maxEntriesPerCache, long maxBytes) {
+        this.maxAge = maxAge;
+        this.maxEntriesPerCache = Math.max(1, maxEntriesPerCache);
+        this.budgeted = maxBytes > 0
+                ? Caffeine.newBuilder()
+                        .expireAfterWrite(maxAge)
+                        .maximumWeight(maxBytes)
+                        .weigher(CacheWeigher.INSTANCE)
+                        // Evict on the writing thread, so the estimated bytes never overshoot the bound
+                        .executor(Runnable::run)
+                        .build()
+                : null;
+    }
+
+    /**
+     * Remembers a freshly fetched value.
+     *
+     * @param cacheName Name of the regular cache
+     * @param key       Cache key
+     * @param value     Fetched value, ignored if null
+     */
+    void remember(String cacheName, Object key, Object value) {
+        if (value == null) {
+            return;
+        }
+        if (budgeted != null) {
+            budgeted.put(new Key(cacheName, key), value);
+        } else {
+            storeFor(cacheName).put(key, value);
+        }
+    }
+
+    /**
+     * Looks up the last good value and marks it as stale.
+     *
+     * @param cacheName Name of the regular cache
+     * @param key       Cache key
+     * @param <T>       Type of the value
+     * @return The stale value, or null if none is known
+     */
+    @SuppressWarnings("unchecked")
+    <T> T lookup(String cacheName, Object key) {
+        Object value;
+        if (budgeted != null) {
+            value = budgeted.getIfPresent(new Key(cacheName, key));
+        } else {
+            Cache<Object, Object> store = lastGood.get(cacheName);
+            value = store != null ? store.getIfPresent(key) : null;
+        }
+        return value != null ? (T) markStale(value) : null;
+    }
+
+    /**
+     * Marks a value as stale. Lists are copied first.
+     *
+     * @param value The value
+     * @param <T>   Type of the value
+     * @return The marked value (a copy for lists), or null if value is null
+     */
+    @SuppressWarnings("unchecked")
+    <T> T markStale(T value) {
+        if (value == null) {
+            return null;
+        }
+        T marked = value instanceof List<?> list ? (T) Collections.unmodifiableList(new ArrayList<>(list)) : value;
+        staleValues.put(marked, Boolean.TRUE);
+        return marked;
+    }
+
+    /**
+     * Tells whether a value was handed out as stale.
+     *
+     * @param value The value, may be null
+     * @return true if the value came from this store or was marked
+     */
+    boolean isStale(Object value) {
+        return value != null && staleValues.getIfPresent(value) != null;
+    }
+
+    /**
+     * Gets the estimated bytes of the values held in memory-budget mode.
+     *
+     * @return Estimated bytes, NaN if the store is bounded by entries
+     */
+    double estimatedBytes() {
+        if (budgeted == null) {
+            return Double.NaN;
+        }
+        return budgeted.policy().eviction()
+                .map(eviction -> eviction.weightedSize())
+                .filter(size -> size.isPresent())
+                .map(size -> (double) size.getAsLong())
+                .orElse(Double.NaN);
+    }
+
+    private Cache<Object, Object> storeFor(String cacheName) {
+        return lastGood.computeIfAbsent(cacheName, name -> Caffeine.newBuilder()
+                .expireAfterWrite(maxAge)
+                .maximumSize(maxEntriesPerCache)
+                .build());
+    }
+
+    /**
+     * Key of a value in the shared store of the memory-budget mode.
+     *
+     * @param cacheName Name of the regular cache
+     * @param key       Key in that cache
+     */
+    private record Key(String cacheName, Object key) {
+    }
+}
@@ -0,0 +1,376 @@
+// Package declaration - defines that this class belongs to the config package
+package com.zerox80.riotapi.config;
+
+// Import for Caffeine's statistics snapshot
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+// Import for running the warm-up without a request deadline
+import com.zerox80.riotapi.client.RequestDeadline;
+// Import for running the warm-up as cache warming, behind interactive calls
+import com.zerox80.riotapi.client.RequestPriority;
+// Import for the platform of the warmed-up players
+import com.zerox80.riotapi.client.RiotRegion;
+// Import for warming the champion detail caches
+import com.zerox80.riotapi.service.DataDragonService;
+// Import for warming the profile caches
+import com.zerox80.riotapi.service.RiotApiService;
+// Import for logging interface
+import org.slf4j.Logger;
+// Import for logger factory to instantiate loggers
+import org.slf4j.LoggerFactory;
+// Import for selecting the application executor
+import org.springframework.beans.factory.annotation.Qualifier;
+// Import for the default region
+import org.springframework.beans.factory.annotation.Value;
+// Import for the evict operation (HTTP DELETE)
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+// Import for the endpoint declaration
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+// Import for the read operations (HTTP GET)
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+// Import for the cache name path segment
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+// Import for the warm-up operation (HTTP POST)
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+// Import for Spring's Cache interface
+import org.springframework.cache.Cache;
+// Import for Spring's CacheManager interface
+import org.springframework.cache.CacheManager;
+// Import for optional operation parameters
+import org.springframework.lang.Nullable;
+// Import for @Component for bean registration
+import org.springframework.stereotype.Component;
+// Import for string utility functions like hasText()
+import org.springframework.util.StringUtils;
+
+// Import for the sampled keys
+import java.util.ArrayList;
+// Import for splitting the comma-separated lists
+import java.util.Arrays;
+// Import for the sampled keys
+import java.util.List;
+// Import for the warm-up locale
+import java.util.Locale;
+// Import for the per-cache results
+import java.util.Map;
+// Import for the sorted per-cache results
+import java.util.TreeMap;
+// Import for the warm-up in the background
+import java.util.concurrent.Executor;
+
+
+// @Component - marks this class as a Spring-managed bean
+@Component
+// @Endpoint - available as /actuator/riotcaches once exposed via management.endpoints.web.exposure.include
+// (Spring Boot's own /actuator/caches only lists and clears caches)
+@Endpoint(id = "riotcaches")
+/**
+ * Actuator administration of the caches in CacheConfig.
+ * Shows size, estimated memory and hit/load/eviction statistics per cache, samples
+ * the hottest keys of a cache, evicts by key or key prefix, and warms the caches up
+ * for a list of Riot IDs or champions.
+ */
+public class CacheAdminEndpoint {
+
+    // Logger instance for logging in this class
+    private static final Logger logger = LoggerFactory.getLogger(CacheAdminEndpoint.class);
+
+    // Entries sampled to estimate the memory of a cache not bounded by bytes
+    private static final int MEMORY_SAMPLE = 50;
+
+    // Hottest keys returned when no limit is given
+    private static final int DEFAULT_HOT_KEYS = 20;
+
+    // Upper bound of a warm-up list
+    private static final int MAX_WARM_UP = 200;
+
+    // final: manager holding the caches
+    private final CacheManager cacheManager;
+    // final: service assembling the profiles (warms accounts, summoners, league and match caches)
+    private final RiotApiService riotApiService;
+    // final: service loading the champion details
+    private final DataDragonService dataDragonService;
+    // final: executor the warm-up runs on
+    private final Executor executor;
+    // final: region of Riot IDs without a region
+    private final String defaultRegion;
+
+    /**
+     * Constructor with dependency injection.
+     *
+     * @param cacheManager      Manager holding the caches
+     * @param riotApiService    Service assembling the profiles
+     * @param dataDragonService Service loading the champion details
+     * @param executor          Executor the warm-up runs on
+     * @param defaultRegion     Region of Riot IDs without a region (riot.api.region)
+     */
+    public CacheAdminEndpoint(CacheManager cacheManager, RiotApiService riotApiService,
+            DataDragonService dataDragonService, @Qualifier("appTaskExecutor") Executor executor,
+            @Value("${riot.api.region:euw1}") String defaultRegion) {
+        this.cacheManager = cacheManager;
+        this.riotApiService = riotApiService;
+        this.dataDragonService = dataDragonService;
+        this.executor = executor;
+        this.defaultRegion = defaultRegion;
+    }
+
+    /**
+     * Summarizes all caches.
+     *
+     * @return Summary per cache, sorted by name
+     */
+    @ReadOperation
+    public Map<String, CacheSummary> caches() {
+        Map<String, CacheSummary> result = new TreeMap<>();
+        for (String name : cacheManager.getCacheNames()) {
+            com.github.benmanes.caffeine.cache.Cache<Object, Object> cache = nativeCache(name);
+            if (cache != null) {
+                result.put(name, summary(cache));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Shows one cache with its hottest keys (masked, they hold Riot IDs and PUUIDs).
+     *
+     * @param name  Cache name
+     * @param limit Number of keys to sample (default 20)
+     * @return Summary and hottest keys, null (404) for unknown caches
+     */
+    @ReadOperation
+    public CacheDetail cache(@Selector String name, @Nullable Integer limit) {
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> cache = nativeCache(name);
+        if (cache == null) {
+            return null;
+        }
+        int count = Math.max(1, Math.min(1000, limit != null ? limit : DEFAULT_HOT_KEYS));
+        List<String> hotKeys = new ArrayList<>();
+        cache.policy().eviction().ifPresent(eviction ->
+                eviction.hottest(count).keySet().forEach(key -> hotKeys.add(maskKey(String.valueOf(key)))));
+        return new CacheDetail(summary(cache), hotKeys);
+    }
+
+    /**
+     * Evicts one key, all keys with a prefix, or - with neither - the whole cache.
+     *
+     * @param name   Cache name
+     * @param key    Exact key, e.g. "europe:EUW1_123"
+     * @param prefix Key prefix, e.g. "euw1:" or "europe:PUUID"
+     * @return Number of evicted entries, null (404) for unknown caches
+     */
+    @DeleteOperation
+    public Eviction evict(@Selector String name, @Nullable String key, @Nullable String prefix) {
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache = nativeCache(name);
+        if (nativeCache == null) {
+            return null;
+        }
+        // Always through the Spring cache, so the decorators (e.g. the database level of
+        // accounts and summoners) see the eviction; the native cache only lists the keys
+        Cache cache = cacheManager.getCache(name);
+        if (StringUtils.hasText(key)) {
+            return new Eviction(cache.evictIfPresent(key) ? 1 : 0);
+        }
+        if (StringUtils.hasText(prefix)) {
+            List<Object> matching = nativeCache.asMap().keySet().stream()
+                    .filter(k -> String.valueOf(k).startsWith(prefix))
+                    .toList();
+            int evicted = 0;
+            for (Object k : matching) {
+                if (cache.evictIfPresent(k)) {
+                    evicted++;
+                }
+            }
+            return new Eviction(evicted);
+        }
+        int size = (int) nativeCache.estimatedSize();
+        cache.clear();
+        return new Eviction(size);
+    }
+
+    /**
+     * Warms the caches up in the background: assembles the profile (with matches) of
+     * each Riot ID and loads the detail of each champion in the default locale.
+     *
+     * @param riotIds   Comma-separated Riot IDs (Name#TAG)
+     * @param champions Comma-separated champion IDs (e.g. "Anivia,Ahri")
+     * @param region    Platform of the Riot IDs (default: riot.api.region)
+     * @return Number of started and rejected warm-ups
+     */
+    @WriteOperation
+    public WarmUp warmUp(@Nullable String riotIds, @Nullable String champions, @Nullable String region) {
+        RiotRegion riotRegion;
+        try {
+            riotRegion = RiotRegion.resolve(region, RiotRegion.fromPlatformId(defaultRegion));
+        } catch (IllegalArgumentException e) {
+            return new WarmUp(0, 0, List.of(e.getMessage()));
+        }
+        List<String> rejected = new ArrayList<>();
+        int players = 0;
+        for (String riotId : split(riotIds)) {
+            String[] parts = riotId.split("#", 2);
+            if (parts.length != 2 || !StringUtils.hasText(parts[0]) || !StringUtils.hasText(parts[1])) {
+                rejected.add(riotId);
+                continue;
+            }
+            // Runs as cache warming without a deadline; the futures complete in the background
+            RequestPriority.PREFETCH.call(() -> RequestDeadline.call(null,
+                    () -> riotApiService.getSummonerProfileDataAsync(riotRegion, parts[0].trim(), parts[1].trim(),
+                            true)));
+            players++;
+        }
+        List<String> championIds = split(champions);
+        if (!championIds.isEmpty()) {
+            // Data Dragon calls block, so they run on the application executor
+            executor.execute(() -> championIds.forEach(this::warmUpChampion));
+        }
+        return new WarmUp(players, championIds.size(), rejected);
+    }
+
+    /**
+     * Loads the detail of one champion; failures are only logged.
+     *
+     * @param championId Champion ID
+     */
+    private void warmUpChampion(String championId) {
+        try {
+            dataDragonService.getChampionDetail(championId, (Locale) null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.warn("Warm-up of champion {} failed: {}", championId, e.getMessage());
+        }
+    }
+
+    /**
+     * Builds the summary of a cache.
+     *
+     * @param cache The Caffeine cache
+     * @return Summary with size, memory and statistics
+     */
+    private static CacheSummary summary(com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+        long size = cache.estimatedSize();
+        CacheStats stats = cache.stats();
+        return new CacheSummary(size, estimatedBytes(cache, size), cache.policy().isRecordingStats(),
+                stats.hitRate(), stats.hitCount(), stats.missCount(), stats.loadSuccessCount(),
+                stats.loadFailureCount(), stats.averageLoadPenalty() / 1_000_000.0, stats.evictionCount());
+    }
+
+    /**
+     * Estimates the memory of a cache: its weighted size when bounded by bytes (budget
+     * mode, off-heap match store), otherwise the average of a sample times the size.
+     *
+     * @param cache The Caffeine cache
+     * @param size  Current entry count
+     * @return Estimated bytes
+     */
+    private static long estimatedBytes(com.github.benmanes.caffeine.cache.Cache<Object, Object> cache, long size) {
+        var weighted = cache.policy().eviction().map(eviction -> eviction.weightedSize());
+        if (weighted.isPresent() && weighted.get().isPresent()) {
+            return weighted.get().getAsLong();
+        }
+        long sampled = 0;
+        int count = 0;
+        for (Map.Entry<Object, Object> entry : cache.asMap().entrySet()) {
+            if (count == MEMORY_SAMPLE) {
+                break;
+            }
+            sampled += CacheWeigher.INSTANCE.weigh(entry.getKey(), entry.getValue());
+            count++;
+        }
+        return count > 0 ? sampled / count * size : 0;
+    }
+
+    /**
+     * Looks up the Caffeine cache behind a Spring cache (also behind its decorators).
+     *
+     * @param name Cache name
+     * @return The native cache, null if the cache does not exist or is no Caffeine cache
+     */
+    @SuppressWarnings("unchecked")
+    private com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache(String name) {
+        // Only registered caches - a dynamic manager would create unknown ones on lookup
+        Cache cache = cacheManager.getCacheNames().contains(name) ? cacheManager.getCache(name) : null;
+        if (cache != null && cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> c) {
+            return (com.github.benmanes.caffeine.cache.Cache<Object, Object>) c;
+        }
+        return null;
+    }
+
+    /**
+     * Masks a cache key for the hot key list: the region or route before the first colon
+     * stays, the rest shows its first 6 and last 4 characters (like the PUUIDs in the logs).
+     *
+     * @param key Cache key, e.g. "europe:PUUID"
+     * @return Masked key, e.g. "europe:abc123...xyz9"
+     */
+    static String maskKey(String key) {
+        int colon = key.indexOf(':');
+        String prefix = colon >= 0 ? key.substring(0, colon + 1) : "";
+        String rest = key.substring(prefix.length());
+        int len = rest.length();
+        return prefix + (len <= 10 ? "***" : rest.substring(0, 6) + "..." + rest.substring(len - 4));
+    }
+
+    /**
+     * Splits a comma-separated list, trimmed, without blanks and at most MAX_WARM_UP long.
+     *
+     * @param csv Comma-separated values, may be null
+     * @return The values
+     */
+    private static List<String> split(String csv) {
+        if (!StringUtils.hasText(csv)) {
+            return List.of();
+        }
+        return Arrays.stream(csv.split(","))
+                .map(String::trim)
+                .filter(StringUtils::hasText)
+                .distinct()
+                .limit(MAX_WARM_UP)
+                .toList();
+    }
+
+    /**
+     * Summary of one cache.
+     *
+     * @param size              Current entry count (estimated)
+     * @param estimatedBytes    Estimated memory (compressed bytes for the off-heap match store)
+     * @param recordingStats    Whether the statistics below are recorded
+     * @param hitRate           Hits / requests since start
+     * @param hits              Lookups answered from the cache
+     * @param misses            Lookups not found
+     * @param loads             Successful loads through the cache
+     * @param loadFailures      Failed loads through the cache
+     * @param averageLoadMillis Average load time in milliseconds
+     * @param evictions         Entries evicted by size (not by expiry)
+     */
+    public record CacheSummary(long size, long estimatedBytes, boolean recordingStats, double hitRate, long hits,
+            long misses, long loads, long loadFailures, double averageLoadMillis, long evictions) {
+    }
+
+    /**
+     * One cache with its hottest keys.
+     *
+     * @param summary Summary of the cache
+     * @param hotKeys Most frequently used keys (masked), hottest first
+     */
+    public record CacheDetail(CacheSummary summary, List<String> hotKeys) {
+    }
+
+    /**
+     * Result of an eviction.
+     *
+     * @param evicted Number of evicted entries
+     */
+    public record Eviction(int evicted) {
+    }
+
+    /**
+     * Result of a warm-up request.
+     *
+     * @param players   Riot IDs whose profiles are being loaded
+     * @param champions Champions whose details are being loaded
+     * @param rejected  Entries that were not understood
+     */
+    public record WarmUp(int players, int champions, List<String> rejected) {
+    }
+}
@@ -0,0 +1,140 @@
+// Package declaration - defines that this class belongs to the config package
+package com.zerox80.riotapi.config;
+
+// Import for @ConfigurationProperties to bind from application.properties
+import org.springframework.boot.context.properties.ConfigurationProperties;
+// Import for @Component for bean registration
+import org.springframework.stereotype.Component;
+// Import for DataSize - bound from values like "256MB"
+import org.springframework.util.unit.DataSize;
+
+// Import for LinkedHashMap - keeps the default weights in declaration order
+import java.util.LinkedHashMap;
+// Import for Map interface - cache name to weight
+import java.util.Map;
+
+
+// @Component - marks this class as a Spring-managed bean
+@Component
+// @ConfigurationProperties - binds properties with prefix "cache.budget" to this class
+// Spring automatically reads e.g. cache.budget.enabled and sets the enabled field
+@ConfigurationProperties(prefix = "cache.budget")
+/**
+ * CacheBudgetProperties holds the memory-budget mode of the caches in CacheConfig.
+ * Binds to application.properties with prefix "cache.budget".
+ * With the mode enabled every cache is bounded by estimated bytes instead of entry count:
+ * the total budget is split across the caches by their weights.
+ */
+public class CacheBudgetProperties {
+
+    // Switch for the memory-budget mode - false = caches are bounded by entry count
+    private boolean enabled = false;
+
+    // Heap budget shared by all caches (estimated bytes of the cached values)
+    private DataSize total = DataSize.ofMegabytes(256);
+
+    // Share of the budget per cache, relative to the sum of all weights
+    // Caches without an entry get a weight of 1
+    private Map<String, Integer> weights = defaultWeights();
+
+    // === Getter & Setter for enabled ===
+    /**
+     * Returns whether the caches are bounded by bytes.
+     *
+     * @return true if the memory-budget mode is active
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets whether the caches are bounded by bytes.
+     *
+     * @param enabled true to enable the memory-budget mode
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    // === Getter & Setter for total ===
+    /**
+     * Returns the budget shared by all caches.
+     *
+     * @return Total budget
+     */
+    public DataSize getTotal() {
+        return total;
+    }
+
+    /**
+     * Sets the budget shared by all caches - e.g. "256MB".
+     *
+     * @param total Total budget
+     */
+    public void setTotal(DataSize total) {
+        this.total = total;
+    }
+
+    // === Getter & Setter for weights ===
+    /**
+     * Returns the weights the budget is split by.
+     *
+     * @return Cache name to weight
+     */
+    public Map<String, Integer> getWeights() {
+        return weights;
+    }
+
+    /**
+     * Sets the weights the budget is split by - null-safe, falls back to the defaults.
+     * Configured entries are merged into the defaults, e.g. cache.budget.weights.matchDetails=60.
+     *
+     * @param weights Cache name to weight
+     */
+    public void setWeights(Map<String, Integer> weights) {
+        this.weights = (weights != null ? weights : defaultWeights());
+    }
+
+    /**
+     * Computes the byte budget of one cache.
+     *
+     * @param cacheName Name of the cache
+     * @return Budget in bytes (at least 1 MB)
+     */
+    public long budgetFor(String cacheName) {
+        long sum = 0;
+        for (Integer weight : weights.values()) {
+            sum += Math.max(0, weight != null ? weight : 0);
+        }
+        int weight = Math.max(0, weights.getOrDefault(cacheName, 1));
+        long budget = sum > 0 ? total.toBytes() * weight / sum : total.toBytes();
+        return Math.max(DataSize.ofMegabytes(1).toBytes(), budget);
+    }
+
+    /**
+     * Default split: match data dominates, static data and player lookups are small.
+     * matchHistory holds the last 50 compact matches of each profile looked up, so it is
+     * second only to matchDetails; it is filled by the profile page through the service proxy.
+     *
+     * @return Mutable map of the default weights
+     */
+    private static Map<String, Integer> defaultWeights() {
+        Map<String, Integer> defaults = new LinkedHashMap<>();
+        defaults.put("matchDetails", 50);
+        defaults.put("matchHistory", 20);
+        defaults.put("matchIds", 4);
+        defaults.put("leagueEntries", 5);
+        defaults.put("accounts", 2);
+        defaults.put("summoners", 3);
+        defaults.put("ddragonChampionDetail", 8);
+        defaults.put("ddragonChampionList", 2);
+        defaults.put("ddragonItems", 2);
+        defaults.put("ddragonRunes", 1);
+        defaults.put("ddragonSummonerSpells", 1);
+        defaults.put("ddragonVersions", 1);
+        defaults.put("ddragonImageBases", 1);
+        // Last good copies of the Riot lookups, served while Riot fails (RiotApiClient)
+        defaults.put("staleValues", 10);
+        return defaults;
+    }
+}
@@ -1,8 +1,34 @@
 // Package declaration - defines that this configuration class belongs to the config package
 package com.zerox80.riotapi.config;
 
+// Import for the mapper used by the compressed match store
+import com.fasterxml.jackson.databind.ObjectMapper;
+// Import for Caffeine's asynchronous cache type that gets adapted to Spring
+import com.github.benmanes.caffeine.cache.AsyncCache;
 // Import for Caffeine Cache Builder - high-performance Java caching library
 import com.github.benmanes.caffeine.cache.Caffeine;
+// Import for the clock of the compressed match store
+import com.github.benmanes.caffeine.cache.Ticker;
+// Import for the client that tells stale fallback values apart
+import com.zerox80.riotapi.client.RiotApiClient;
+// Import for the Account-V1 model stored behind the "accounts" cache
+import com.zerox80.riotapi.model.AccountDto;
+// Import for the Summoner-V4 model stored behind the "summoners" cache
+import com.zerox80.riotapi.model.Summoner;
+// Import for the database level behind the accounts/summoners caches
+import com.zerox80.riotapi.service.PlayerProfileStore;
+// Import for the cache size gauges
+import io.micrometer.core.instrument.Gauge;
+// Import for binding the Caffeine statistics to Micrometer
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+// Import for the metrics of the compressed match store and the cache sizes
+import io.micrometer.core.instrument.MeterRegistry;
+// Import for lazy lookup of the store (it depends on JPA, which is created after the caches)
+import org.springframework.beans.factory.ObjectProvider;
+// Import for selecting the application executor the database lookups run on
+import org.springframework.beans.factory.annotation.Qualifier;
+// Import for Spring's Cache interface
+import org.springframework.cache.Cache;
 // Import for Spring's CacheManager interface
 import org.springframework.cache.CacheManager;
 // Import for Spring's Caffeine Cache Manager implementation
@@ -14,8 +40,28 @@ import org.springframework.context.annotation.Configuration;
 // Import for @Primary annotation - marks this bean as the default CacheManager
 import org.springframework.context.annotation.Primary;
 
+// Import for the times to live of the Riot data caches
+import java.time.Duration;
+// Import for the cache name collection
+import java.util.Collection;
+// Import for the read-only cache name view
+import java.util.Collections;
+// Import for the ordered cache name set
+import java.util.LinkedHashSet;
+// Import for the optional database level
+import java.util.Optional;
+// Import for the weighted size of a cache
+import java.util.OptionalLong;
+// Import for the cache name set
+import java.util.Set;
+// Import for the executor of the database lookups
+import java.util.concurrent.Executor;
 // Import for time units (HOURS, MINUTES, DAYS)
 import java.util.concurrent.TimeUnit;
+// Import for the key-splitting helper
+import java.util.function.BiFunction;
+// Import for the stale value check of the Riot data caches
+import java.util.function.Predicate;
 
 
 // @Configuration - marks this class as a source of bean definitions
@@ -27,142 +73,362 @@ import java.util.concurrent.TimeUnit;
  */
 public class CacheConfig {
 
+    // Time to live of the hot caches, also the base of their refresh-ahead threshold
+    private static final Duration LEAGUE_ENTRIES_TTL = Duration.ofMinutes(10);
+    private static final Duration MATCH_IDS_TTL = Duration.ofMinutes(5);
+    private static final Duration MATCH_HISTORY_TTL = Duration.ofMinutes(5);
+
     /**
      * Creates and configures the main cache manager bean.
      * Registers multiple named caches with specific expiration and size settings.
      * All caches use async mode for better concurrency and non-blocking operations.
+     * "accounts" and "summoners" get the database as second level (see {@link PlayerProfileStore}).
+     * "matchDetails" is optionally kept compressed off-heap (see {@link CompressedMatchCache}),
+     * which then also holds the last good matches served while Riot fails.
+     * The caches of Riot data never store stale fallback values (see {@link StaleRejectingCache}).
      *
+     * @param profileStore      Lazily resolved database level for accounts and summoners
+     * @param riotApiClient     Lazily resolved client that tells stale values apart
+     * @param riotApiProperties Settings of the match store
+     * @param objectMapper      Mapper for the compressed match store
+     * @param meterRegistry     Registry for the match store and cache size metrics
+     * @param budget            Memory-budget mode settings
+     * @param refresh           Refresh-ahead and jitter settings
+     * @param executor          Executor the database lookups of accounts and summoners run on
      * @return Configured CaffeineCacheManager with all application caches
      */
     @Primary
     @Bean("caffeineCacheManager")
-    public CaffeineCacheManager cacheManager() {
+    public CaffeineCacheManager cacheManager(ObjectProvider<PlayerProfileStore> profileStore,
+            ObjectProvider<RiotApiClient> riotApiClient, RiotApiProperties riotApiProperties, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+            CacheBudgetProperties budget, CacheRefreshProperties refresh,
+            @Qualifier("appTaskExecutor") Executor executor) {
+        RiotApiProperties.MatchStore matchStore = riotApiProperties.getMatchStore();
+        Predicate<Object> stale = value -> {
+            RiotApiClient client = riotApiClient.getIfAvailable();
+            return client != null && client.isStale(value);
+        };
+        Cache compressedMatches = matchStore.isEnabled()
+                ? new StaleRejectingCache(new CompressedMatchCache("matchDetails", matchStore.getMaxSize().toBytes(),
+                        matchStore.getExpireAfterWrite(), riotApiProperties.getCircuitBreaker().getMaxStaleAge(),
+                        objectMapper, meterRegistry, Ticker.systemTicker()), stale)
+                : null;
         // Create new instance of CaffeineCacheManager (Spring wrapper for Caffeine)
-        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        // Accounts and summoners are wrapped, so a miss checks the database before calling Riot
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager() {
+            @Override
+            public Cache getCache(String name) {
+                // The off-heap store is no Caffeine cache and therefore handed out here
+                if (compressedMatches != null && compressedMatches.getName().equals(name)) {
+                    return compressedMatches;
+                }
+                return super.getCache(name);
+            }
+
+            @Override
+            public Collection<String> getCacheNames() {
+                if (compressedMatches == null) {
+                    return super.getCacheNames();
+                }
+                Set<String> names = new LinkedHashSet<>(super.getCacheNames());
+                names.add(compressedMatches.getName());
+                return Collections.unmodifiableSet(names);
+            }
+
+            @Override
+            protected Cache adaptCaffeineCache(String name, AsyncCache<Object, Object> cache) {
+                Cache adapted = super.adaptCaffeineCache(name, cache);
+                Cache decorated = switch (name) {
+                    case "accounts" -> new TieredCache(adapted,
+                            key -> split(key, (route, riotId) -> store(profileStore)
+                                    .map(s -> s.findAccount(route, riotId)).orElse(null)),
+                            (key, value) -> split(key, (route, riotId) -> {
+                                if (value instanceof AccountDto account) {
+                                    store(profileStore).ifPresent(s -> s.saveAccount(route, riotId, account));
+                                }
+                                return null;
+                            }),
+                            key -> split(key, (route, riotId) -> {
+                                store(profileStore).ifPresent(s -> s.deleteAccount(route, riotId));
+                                return null;
+                            }),
+                            () -> store(profileStore).ifPresent(PlayerProfileStore::deleteAccounts), executor);
+                    case "summoners" -> new TieredCache(adapted,
+                            key -> splitPuuid(key, (platform, puuid) -> store(profileStore)
+                                    .map(s -> s.findSummoner(platform, puuid)).orElse(null)),
+                            (key, value) -> splitPuuid(key, (platform, puuid) -> {
+                                if (value instanceof Summoner summoner) {
+                                    store(profileStore).ifPresent(s -> s.saveSummoner(platform, summoner));
+                                }
+                                return null;
+                            }),
+                            key -> splitPuuid(key, (platform, puuid) -> {
+                                store(profileStore).ifPresent(s -> s.deleteSummoner(platform, puuid));
+                                return null;
+                            }),
+                            () -> store(profileStore).ifPresent(PlayerProfileStore::deleteSummoners), executor);
+                    // Hot caches are reloaded in the background while they are being read
+                    case "leagueEntries" -> refreshAhead(adapted, cache, LEAGUE_ENTRIES_TTL, refresh, meterRegistry,
+                            stale);
+                    case "matchIds" -> refreshAhead(adapted, cache, MATCH_IDS_TTL, refresh, meterRegistry,
+                            stale);
+                    case "matchHistory" -> refreshAhead(adapted, cache, MATCH_HISTORY_TTL, refresh, meterRegistry,
+                            stale);
+                    default -> adapted;
+                };
+                // Outermost, so neither the database level nor a refresh-ahead sees a stale value
+                return name.startsWith("ddragon") ? decorated : new StaleRejectingCache(decorated, stale);
+            }
+        };
         // Enable asynchronous cache mode for better concurrency
         // Prevents blocking on cache operations
         cacheManager.setAsyncCacheMode(true);
+        // The entry limits below apply unless cache.budget.enabled=true, then each cache
+        // is bounded by its share of the byte budget instead (see sized())
+        // Riot data caches expire after their time to live ± cache.refresh.jitter (JitteredExpiry)
 
         // Register cache for "accounts" (Riot Account data: puuid, gameName, tagLine)
         cacheManager.registerCustomCache("accounts",
-            Caffeine.newBuilder()
+            // Maximum 2000 account entries - LRU eviction when limit reached
+            sized("accounts", 2000, budget, meterRegistry, cacheManager)
                 // Entries expire 12 hours after write - account data rarely changes
-                .expireAfterWrite(12, TimeUnit.HOURS)
-                // Maximum 2000 account entries - LRU eviction when limit reached
-                .maximumSize(2000)
+                .expireAfter(new JitteredExpiry(Duration.ofHours(12), refresh.getJitter()))
                 .buildAsync());
 
         // Register cache for "summoners" (Summoner data: level, name, icon)
         cacheManager.registerCustomCache("summoners",
-            Caffeine.newBuilder()
+            // Maximum 2000 summoners can be cached
+            sized("summoners", 2000, budget, meterRegistry, cacheManager)
                 // Entries expire after 12 hours - summoner data (level, name) changes infrequently
-                .expireAfterWrite(12, TimeUnit.HOURS)
-                // Maximum 2000 summoners can be cached
-                .maximumSize(2000)
+                .expireAfter(new JitteredExpiry(Duration.ofHours(12), refresh.getJitter()))
                 .buildAsync());
 
         // Register cache for "leagueEntries" (Ranked data: rank, division, LP)
         cacheManager.registerCustomCache("leagueEntries",
-            Caffeine.newBuilder()
+            // Maximum 2000 league entries
+            sized("leagueEntries", 2000, budget, meterRegistry, cacheManager)
                 // Entries expire after 10 minutes - ranked data changes frequently (after each game)
-                .expireAfterWrite(10, TimeUnit.MINUTES)
-                // Maximum 2000 league entries
-                .maximumSize(2000)
+                .expireAfter(new JitteredExpiry(LEAGUE_ENTRIES_TTL, refresh.getJitter()))
                 .buildAsync());
 
         // Register cache for "matchIds" (Lists of match IDs per player)
         cacheManager.registerCustomCache("matchIds",
-            Caffeine.newBuilder()
+            // Maximum 5000 match ID lists (more than summoners due to pagination)
+            sized("matchIds", 5000, budget, meterRegistry, cacheManager)
                 // Entries expire after 5 minutes - match IDs change frequently (new games)
-                .expireAfterWrite(5, TimeUnit.MINUTES)
-                // Maximum 5000 match ID lists (more than summoners due to pagination)
-                .maximumSize(5000)
+                .expireAfter(new JitteredExpiry(MATCH_IDS_TTL, refresh.getJitter()))
                 .buildAsync());
 
-        // Register cache for "matchDetails" (Detailed match data)
-        cacheManager.registerCustomCache("matchDetails",
-            Caffeine.newBuilder()
-                // Entries expire after 7 days - match details NEVER change (historical data)
-                .expireAfterWrite(7, TimeUnit.DAYS)
+        // Register cache for "matchDetails" (Detailed match data), unless it is kept off-heap
+        if (compressedMatches == null) {
+            cacheManager.registerCustomCache("matchDetails",
                 // Maximum 10000 match details (largest cache, lots of data)
-                .maximumSize(10000)
-                .buildAsync());
+                sized("matchDetails", 10000, budget, meterRegistry, cacheManager)
+                    // Entries expire after 7 days - match details NEVER change (historical data)
+                    .expireAfter(new JitteredExpiry(Duration.ofDays(7), refresh.getJitter()))
+                    .buildAsync());
+        }
 
         // Register cache for "matchHistory" (Aggregated match history per player)
         cacheManager.registerCustomCache("matchHistory",
-            Caffeine.newBuilder()
+            // Maximum 2000 match histories
+            sized("matchHistory", 2000, budget, meterRegistry, cacheManager)
                 // Entries expire after 5 minutes - match history changes with new games
-                .expireAfterWrite(5, TimeUnit.MINUTES)
-                // Maximum 2000 match histories
-                .maximumSize(2000)
+                .expireAfter(new JitteredExpiry(MATCH_HISTORY_TTL, refresh.getJitter()))
                 .buildAsync());
 
         // Static data (Data Dragon): cache generously, these change only per patch
 
         // Register cache for "ddragonVersions" (Available LoL patch versions)
         cacheManager.registerCustomCache("ddragonVersions",
-            Caffeine.newBuilder()
+            // Maximum 10 versions (very small data)
+            sized("ddragonVersions", 10, budget, meterRegistry, cacheManager)
                 // Entries expire after 12 hours - versions change only on new patches (~2 weeks)
                 .expireAfterWrite(12, TimeUnit.HOURS)
-                // Maximum 10 versions (very small data)
-                .maximumSize(10)
                 .buildAsync());
 
         // Register cache for "ddragonChampionList" (List of all champions)
         cacheManager.registerCustomCache("ddragonChampionList",
-            Caffeine.newBuilder()
+            // Maximum 2 entries (usually only one language/version active)
+            sized("ddragonChampionList", 2, budget, meterRegistry, cacheManager)
                 // Entries expire after 12 hours - champion list changes only on new champion releases (rare)
                 .expireAfterWrite(12, TimeUnit.HOURS)
-                // Maximum 2 entries (usually only one language/version active)
-                .maximumSize(2)
                 .buildAsync());
 
         // Register cache for "ddragonChampionDetail" (Detailed champion data)
         cacheManager.registerCustomCache("ddragonChampionDetail",
-            Caffeine.newBuilder()
+            // Maximum 300 champions (about ~160 champions currently exist)
+            sized("ddragonChampionDetail", 300, budget, meterRegistry, cacheManager)
                 // Entries expire after 12 hours - champion details change only on balance patches
                 .expireAfterWrite(12, TimeUnit.HOURS)
-                // Maximum 300 champions (about ~160 champions currently exist)
-                .maximumSize(300)
                 .buildAsync());
 
         // Register cache for "ddragonItems" (Item data: costs, stats, recipes)
         cacheManager.registerCustomCache("ddragonItems",
-            Caffeine.newBuilder()
+            // Maximum 2 entries (complete item list per version)
+            sized("ddragonItems", 2, budget, meterRegistry, cacheManager)
                 // Entries expire after 12 hours - items change only on patches
                 .expireAfterWrite(12, TimeUnit.HOURS)
-                // Maximum 2 entries (complete item list per version)
-                .maximumSize(2)
                 .buildAsync());
 
         // Register cache for "ddragonRunes" (Rune data: keystones, etc.)
         cacheManager.registerCustomCache("ddragonRunes",
-            Caffeine.newBuilder()
+            // Maximum 2 entries (complete rune list)
+            sized("ddragonRunes", 2, budget, meterRegistry, cacheManager)
                 // Entries expire after 12 hours - runes change only on major patches
                 .expireAfterWrite(12, TimeUnit.HOURS)
-                // Maximum 2 entries (complete rune list)
-                .maximumSize(2)
                 .buildAsync());
 
         // Register cache for "ddragonSummonerSpells" (Summoner spells: Flash, Ignite, etc.)
         cacheManager.registerCustomCache("ddragonSummonerSpells",
-            Caffeine.newBuilder()
+            // Maximum 2 entries
+            sized("ddragonSummonerSpells", 2, budget, meterRegistry, cacheManager)
                 // Entries expire after 12 hours - summoner spells change very rarely
                 .expireAfterWrite(12, TimeUnit.HOURS)
-                // Maximum 2 entries
-                .maximumSize(2)
                 .buildAsync());
 
         // Register cache for "ddragonImageBases" (Base URLs for champion/item images)
         cacheManager.registerCustomCache("ddragonImageBases",
-            Caffeine.newBuilder()
+            // Maximum 5 entries (different asset types)
+            sized("ddragonImageBases", 5, budget, meterRegistry, cacheManager)
                 // Entries expire after 12 hours - image URLs change only with new DDragon versions
                 .expireAfterWrite(12, TimeUnit.HOURS)
-                // Maximum 5 entries (different asset types)
-                .maximumSize(5)
                 .buildAsync());
 
+        // Export hit/miss/load/eviction statistics of every cache
+        bindMetrics(cacheManager, meterRegistry);
+
         // Return fully configured cache manager for Spring bean registration
         return cacheManager;
     }
+
+    /**
+     * Binds the statistics of every Caffeine cache to Micrometer (cache.gets, cache.puts,
+     * cache.evictions, cache.load.duration, ...). Spring Boot only binds undecorated caches,
+     * so the decorated ones (tiered, refresh-ahead) would be missing; the tags match Spring
+     * Boot's, so caches bound by both end up as the same meters.
+     *
+     * @param cacheManager  Manager holding the caches
+     * @param meterRegistry Registry the statistics are bound to
+     */
+    private static void bindMetrics(CaffeineCacheManager cacheManager, MeterRegistry meterRegistry) {
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null
+                    && cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache
+                    && nativeCache.policy().isRecordingStats()) {
+                CaffeineCacheMetrics.monitor(meterRegistry, nativeCache, name, "cache.manager", "cacheManager");
+            }
+        }
+    }
+
+    /**
+     * Wraps a hot cache for refresh-ahead, if enabled.
+     *
+     * @param adapted       The Spring cache
+     * @param cache         The Caffeine cache behind it
+     * @param ttl           Nominal time to live of its entries
+     * @param refresh       Refresh-ahead settings
+     * @param meterRegistry Registry for the refresh counters
+     * @param stale         Tells stale fallback values apart (a reload yielding one is not put)
+     * @return The decorated cache, or the cache itself if refresh-ahead is off
+     */
+    private static Cache refreshAhead(Cache adapted, AsyncCache<Object, Object> cache, Duration ttl,
+            CacheRefreshProperties refresh, MeterRegistry meterRegistry, Predicate<Object> stale) {
+        if (!refresh.isEnabled()) {
+            return adapted;
+        }
+        return new RefreshAheadCache(adapted, cache, ttl, refresh.getAheadFraction(), meterRegistry, stale);
+    }
+
+    /**
+     * Creates the builder of a cache, bounded by entry count or - in memory-budget mode -
+     * by the estimated bytes of its entries (see {@link CacheWeigher}). In budget mode the
+     * estimated bytes and the budget are published as gauges. Statistics are recorded in
+     * both modes (see {@link #bindMetrics}).
+     *
+     * @param name          Cache name
+     * @param maximumSize   Entry limit outside budget mode
+     * @param budget        Memory-budget mode settings
+     * @param meterRegistry Registry for the size gauges
+     * @param cacheManager  Manager the cache is registered with (read by the gauges)
+     * @return Builder with the bound applied
+     */
+    private static Caffeine<Object, Object> sized(String name, long maximumSize, CacheBudgetProperties budget,
+            MeterRegistry meterRegistry, CaffeineCacheManager cacheManager) {
+        if (!budget.isEnabled()) {
+            return Caffeine.newBuilder().maximumSize(maximumSize).recordStats();
+        }
+        long bytes = budget.budgetFor(name);
+        Gauge.builder("riotapi.cache.budget.bytes", () -> bytes)
+                .tag("cache", name).baseUnit("bytes").register(meterRegistry);
+        Gauge.builder("riotapi.cache.estimated.bytes", cacheManager, m -> weightedSize(m, name))
+                .tag("cache", name).baseUnit("bytes").register(meterRegistry);
+        return Caffeine.newBuilder()
+                .maximumWeight(bytes)
+                .weigher(CacheWeigher.INSTANCE)
+                .recordStats();
+    }
+
+    /**
+     * Reads the current weighted size (estimated bytes) of a cache.
+     *
+     * @param cacheManager Manager holding the cache
+     * @param name         Cache name
+     * @return Estimated bytes, NaN if the cache is not bounded by weight
+     */
+    private static double weightedSize(CaffeineCacheManager cacheManager, String name) {
+        Cache cache = cacheManager.getCache(name);
+        if (cache != null && cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache) {
+            OptionalLong size = nativeCache.policy().eviction()
+                    .map(eviction -> eviction.weightedSize())
+                    .orElse(OptionalLong.empty());
+            return size.isPresent() ? size.getAsLong() : Double.NaN;
+        }
+        return Double.NaN;
+    }
+
+    /**
+     * Resolves the database level, if the application context provides one.
+     *
+     * @param profileStore Provider of the store
+     * @return The store, empty e.g. in test slices without JPA
+     */
+    private static Optional<PlayerProfileStore> store(ObjectProvider<PlayerProfileStore> profileStore) {
+        return Optional.ofNullable(profileStore.getIfAvailable());
+    }
+
+    /**
+     * Splits a cache key of the form "route:id" (as built by RiotApiClient) and applies
+     * the function to both parts.
+     *
+     * @param key      Cache key
+     * @param function Function of route and id
+     * @param <R>      Result type
+     * @return The function's result, null for keys of another form
+     */
+    private static <R> R split(Object key, BiFunction<String, String, R> function) {
+        if (!(key instanceof String text)) {
+            return null;
+        }
+        int colon = text.indexOf(':');
+        if (colon <= 0 || colon == text.length() - 1) {
+            return null;
+        }
+        return function.apply(text.substring(0, colon), text.substring(colon + 1));
+    }
+
+    /**
+     * Splits a "summoners" cache key of the form "platform:puuid". By-summonerId keys
+     * ("platform:sid:id") share the cache but have no database level, so they get null
+     * without the function being applied.
+     *
+     * @param key      Cache key
+     * @param function Function of platform and PUUID
+     * @param <R>      Result type
+     * @return The function's result, null for by-summonerId keys and keys of another form
+     */
+    private static <R> R splitPuuid(Object key, BiFunction<String, String, R> function) {
+        return split(key, (platform, id) -> id.startsWith("sid:") ? null : function.apply(platform, id));
+    }
 }
@@ -0,0 +1,88 @@
+// Package declaration - defines that this class belongs to the config package
+package com.zerox80.riotapi.config;
+
+// Import for @ConfigurationProperties to bind from application.properties
+import org.springframework.boot.context.properties.ConfigurationProperties;
+// Import for @Component for bean registration
+import org.springframework.stereotype.Component;
+
+
+// @Component - marks this class as a Spring-managed bean
+@Component
+// @ConfigurationProperties - binds properties with prefix "cache.refresh" to this class
+// Spring automatically reads e.g. cache.refresh.enabled and sets the enabled field
+@ConfigurationProperties(prefix = "cache.refresh")
+/**
+ * CacheRefreshProperties holds the expiry tuning of the Riot data caches.
+ * Binds to application.properties with prefix "cache.refresh".
+ * Controls refresh-ahead of the hot caches (leagueEntries, matchIds, matchHistory)
+ * and the random jitter applied to the time to live of all Riot data caches.
+ */
+public class CacheRefreshProperties {
+
+    // Switch for refresh-ahead - false = hot entries simply expire
+    private boolean enabled = true;
+
+    // Fraction of the time to live after which a read triggers a background reload
+    private double aheadFraction = 0.8;
+
+    // Maximum relative deviation of each entry's time to live (0.1 = ±10%)
+    private double jitter = 0.1;
+
+    // === Getter & Setter for enabled ===
+    /**
+     * Returns whether hot entries are reloaded before they expire.
+     *
+     * @return true if refresh-ahead is active
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets whether hot entries are reloaded before they expire.
+     *
+     * @param enabled true to enable refresh-ahead
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    // === Getter & Setter for aheadFraction ===
+    /**
+     * Returns the fraction of the time to live after which a read reloads the entry.
+     *
+     * @return Fraction between 0 and 1
+     */
+    public double getAheadFraction() {
+        return aheadFraction;
+    }
+
+    /**
+     * Sets the fraction of the time to live after which a read reloads the entry - e.g. 0.8.
+     *
+     * @param aheadFraction Fraction between 0 and 1
+     */
+    public void setAheadFraction(double aheadFraction) {
+        this.aheadFraction = aheadFraction;
+    }
+
+    // === Getter & Setter for jitter ===
+    /**
+     * Returns the maximum relative deviation of an entry's time to live.
+     *
+     * @return Jitter, e.g. 0.1 for ±10%
+     */
+    public double getJitter() {
+        return jitter;
+    }
+
+    /**
+     * Sets the maximum relative deviation of an entry's time to live - 0 disables jitter.
+     *
+     * @param jitter Jitter, at most 0.5
+     */
+    public void setJitter(double jitter) {
+        this.jitter = jitter;
+    }
+}
@@ -0,0 +1,163 @@
+// Package declaration - defines that this class belongs to the config package
+package com.zerox80.riotapi.config;
+
+// Import for @ConfigurationProperties to bind from application.properties
+import org.springframework.boot.context.properties.ConfigurationProperties;
+// Import for @Component for bean registration
+import org.springframework.stereotype.Component;
+
+// Import for time duration calculations
+import java.time.Duration;
+// Import for ArrayList - mutable default list of caches
+import java.util.ArrayList;
+// Import for List interface - names of the snapshotted caches
+import java.util.List;
+
+
+// @Component - marks this class as a Spring-managed bean
+@Component
+// @ConfigurationProperties - binds properties with prefix "cache.snapshot" to this class
+// Spring automatically reads e.g. cache.snapshot.enabled and sets the enabled field
+@ConfigurationProperties(prefix = "cache.snapshot")
+/**
+ * CacheSnapshotProperties holds the warm-restart settings of the caches in CacheConfig.
+ * Binds to application.properties with prefix "cache.snapshot".
+ * With snapshots enabled the selected caches are written to a local file periodically
+ * and on shutdown, and reloaded in the background on startup.
+ */
+public class CacheSnapshotProperties {
+
+    // Switch for snapshots - false = caches start empty after every restart
+    private boolean enabled = false;
+
+    // File the snapshot is written to (replaced atomically)
+    private String path = "data/cache-snapshot.bin";
+
+    // Time between two periodic snapshots (bound by @Scheduled as well)
+    private Duration interval = Duration.ofMinutes(15);
+
+    // Marker written into the snapshot - a snapshot with another marker is ignored
+    private String version = "1";
+
+    // Whether the readiness probe reports OUT_OF_SERVICE until the reload finished
+    private boolean waitForRestore = false;
+
+    // Caches written to the snapshot (hot entries that are expensive to fetch again)
+    private List<String> caches = new ArrayList<>(List.of("matchDetails", "accounts", "summoners",
+            "ddragonVersions", "ddragonChampionList", "ddragonChampionDetail", "ddragonItems", "ddragonRunes",
+            "ddragonSummonerSpells", "ddragonImageBases"));
+
+    // === Getter & Setter for enabled ===
+    /**
+     * Returns whether cache snapshots are written and restored.
+     *
+     * @return true if snapshots are active
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets whether cache snapshots are written and restored.
+     *
+     * @param enabled true to enable snapshots
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    // === Getter & Setter for path ===
+    /**
+     * Returns the snapshot file.
+     *
+     * @return File path, relative to the working directory unless absolute
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Sets the snapshot file - e.g. "/var/lib/summonerapi/cache-snapshot.bin".
+     *
+     * @param path File path
+     */
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    // === Getter & Setter for interval ===
+    /**
+     * Returns the time between two periodic snapshots.
+     *
+     * @return Snapshot interval
+     */
+    public Duration getInterval() {
+        return interval;
+    }
+
+    /**
+     * Sets the time between two periodic snapshots - e.g. "15m".
+     *
+     * @param interval Snapshot interval
+     */
+    public void setInterval(Duration interval) {
+        this.interval = interval;
+    }
+
+    // === Getter & Setter for version ===
+    /**
+     * Returns the marker a snapshot must carry to be restored.
+     *
+     * @return Version marker
+     */
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * Sets the marker a snapshot must carry to be restored - change it to drop existing snapshots.
+     *
+     * @param version Version marker
+     */
+    public void setVersion(String version) {
+        this.version = version;
+    }
+
+    // === Getter & Setter for waitForRestore ===
+    /**
+     * Returns whether readiness waits for the reload.
+     *
+     * @return true if the instance is not ready before the snapshot was restored
+     */
+    public boolean isWaitForRestore() {
+        return waitForRestore;
+    }
+
+    /**
+     * Sets whether readiness waits for the reload.
+     *
+     * @param waitForRestore true to hold readiness back until the snapshot was restored
+     */
+    public void setWaitForRestore(boolean waitForRestore) {
+        this.waitForRestore = waitForRestore;
+    }
+
+    // === Getter & Setter for caches ===
+    /**
+     * Returns the caches written to the snapshot.
+     *
+     * @return Cache names
+     */
+    public List<String> getCaches() {
+        return caches;
+    }
+
+    /**
+     * Sets the caches written to the snapshot - null-safe, an empty list snapshots nothing.
+     *
+     * @param caches Cache names
+     */
+    public void setCaches(List<String> caches) {
+        this.caches = (caches != null ? caches : new ArrayList<>());
+    }
+}
@@ -0,0 +1,583 @@
+// Package declaration - defines that this class belongs to the config package
+package com.zerox80.riotapi.config;
+
+// Import for the resolved value types of the snapshot entries
+import com.fasterxml.jackson.databind.JavaType;
+// Import for JSON (de)serialization of the cached values
+import com.fasterxml.jackson.databind.ObjectMapper;
+// Import for creating the constructor-bound models (ChampionDetail, ...) from JSON
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+// Import for Caffeine's variable expiry policy (remaining lifetime of restored entries)
+import com.github.benmanes.caffeine.cache.Policy;
+// Import for the compact match kept by the "matchDetails" cache
+import com.zerox80.riotapi.model.CompactMatch;
+// Import for the API shape compact matches are written in
+import com.zerox80.riotapi.model.MatchV5Dto;
+// Import for metrics registry
+import io.micrometer.core.instrument.MeterRegistry;
+// Import for the shutdown snapshot
+import jakarta.annotation.PreDestroy;
+// Import for logging interface
+import org.slf4j.Logger;
+// Import for logger factory to instantiate loggers
+import org.slf4j.LoggerFactory;
+// Import for selecting the application executor
+import org.springframework.beans.factory.annotation.Qualifier;
+// Import for the health status of the restore
+import org.springframework.boot.actuate.health.Health;
+// Import for the readiness contribution of the restore
+import org.springframework.boot.actuate.health.HealthIndicator;
+// Import for the startup event that triggers the restore
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+// Import for Spring's Cache interface
+import org.springframework.cache.Cache;
+// Import for Spring's CacheManager interface
+import org.springframework.cache.CacheManager;
+// Import for the key of parameterless cached methods
+import org.springframework.cache.interceptor.SimpleKey;
+// Import for the marker Spring caches store for null
+import org.springframework.cache.support.NullValue;
+// Import for the startup listener
+import org.springframework.context.event.EventListener;
+// Import for the periodic snapshot
+import org.springframework.scheduling.annotation.Scheduled;
+// Import for @Component for bean registration
+import org.springframework.stereotype.Component;
+
+// Import for buffered file reads
+import java.io.BufferedInputStream;
+// Import for buffered file writes
+import java.io.BufferedOutputStream;
+// Import for the binary entry format
+import java.io.DataInputStream;
+// Import for the binary entry format
+import java.io.DataOutputStream;
+// Import for I/O errors
+import java.io.IOException;
+// Import for the field walk of the schema fingerprints
+import java.lang.reflect.Field;
+// Import for skipping static and transient fields
+import java.lang.reflect.Modifier;
+// Import for the encoding of the fingerprinted descriptions
+import java.nio.charset.StandardCharsets;
+// Import for the snapshot file
+import java.nio.file.Files;
+// Import for the snapshot file
+import java.nio.file.Path;
+// Import for replacing the snapshot atomically
+import java.nio.file.StandardCopyOption;
+// Import for the remaining lifetime of entries
+import java.time.Duration;
+// Import for the time of the last snapshot
+import java.time.Instant;
+// Import for the type table
+import java.util.ArrayList;
+// Import for the type table of a write
+import java.util.HashMap;
+// Import for the visited classes of a fingerprint
+import java.util.HashSet;
+// Import for the health details
+import java.util.LinkedHashMap;
+// Import for the type table
+import java.util.List;
+// Import for the type table of a write and the health details
+import java.util.Map;
+// Import for the variable expiry policy of a cache
+import java.util.Optional;
+// Import for the value types
+import java.util.Set;
+// Import for the restore in the background
+import java.util.concurrent.Executor;
+// Import for the schema fingerprints
+import java.util.zip.CRC32;
+// Import for the compressed snapshot body
+import java.util.zip.DeflaterOutputStream;
+// Import for the compressed snapshot body
+import java.util.zip.InflaterInputStream;
+
+
+/**
+ * Writes selected caches to a local file and restores them after a restart.
+ *
+ * The snapshot is written periodically and on shutdown; on startup it is read in the
+ * background, entries already present are kept. A snapshot consists of a header
+ * (magic, format, cache.snapshot.version) and a deflated body of length-prefixed
+ * JSON values. Each distinct value type is written once with a fingerprint of its
+ * fields; entries whose type changed since the snapshot was written are skipped, as
+ * are snapshots with another format or version marker. Entries keep their remaining
+ * time to live in caches with a variable expiry; in caches with a fixed time to live
+ * they start a new one.
+ *
+ * As a health contributor it reports OUT_OF_SERVICE while the restore runs, if
+ * cache.snapshot.wait-for-restore is set, so readiness can wait for warm caches.
+ */
+// @Component - registered under the name "cacheSnapshot" (also the health contributor name)
+@Component("cacheSnapshot")
+public class CacheSnapshotter implements HealthIndicator {
+
+    // Logger instance for logging in this class
+    private static final Logger logger = LoggerFactory.getLogger(CacheSnapshotter.class);
+
+    // First bytes of a snapshot file ("RCSN")
+    private static final int MAGIC = 0x5243534E;
+
+    // Layout of the file; changes with the entry format below
+    private static final int FORMAT = 1;
+
+    // Entry key kinds
+    private static final byte KEY_STRING = 0;
+    private static final byte KEY_EMPTY = 1;
+
+    // Packages whose classes may be named in a snapshot
+    private static final List<String> ALLOWED_PACKAGES = List.of("java.lang.", "java.util.", "com.zerox80.");
+
+    // final: manager holding the caches
+    private final CacheManager cacheManager;
+    // final: snapshot settings
+    private final CacheSnapshotProperties properties;
+    // final: mapper for the values (with constructor parameter names)
+    private final ObjectMapper objectMapper;
+    // final: executor the restore runs on
+    private final Executor executor;
+    // final: metrics registry for the entry counters
+    private final MeterRegistry meterRegistry;
+    // final: serializes writes (periodic and shutdown)
+    private final Object writeLock = new Object();
+
+    // true while the restore runs; no snapshot is written meanwhile
+    private volatile boolean restoring;
+    // Entries restored on startup
+    private volatile int restoredEntries;
+    // Entries in the last snapshot written
+    private volatile int writtenEntries;
+    // Time of the last snapshot written
+    private volatile Instant writtenAt;
+
+    /**
+     * Constructor with dependency injection.
+     *
+     * @param cacheManager  Manager holding the caches
+     * @param properties    Snapshot settings
+     * @param objectMapper  Application mapper (copied)
+     * @param executor      Executor the restore runs on
+     * @param meterRegistry Registry for the entry counters
+     */
+    public CacheSnapshotter(CacheManager cacheManager, CacheSnapshotProperties properties, ObjectMapper objectMapper,
+            @Qualifier("appTaskExecutor") Executor executor, MeterRegistry meterRegistry) {
+        this.cacheManager = cacheManager;
+        this.properties = properties;
+        this.objectMapper = objectMapper.copy().registerModule(new ParameterNamesModule());
+        this.executor = executor;
+        this.meterRegistry = meterRegistry;
+        // Not ready before the restore ran, if readiness waits for it
+        this.restoring = properties.isEnabled();
+    }
+
+    /**
+     * Starts the restore in the background once the application context is up.
+     */
+    @EventListener(ApplicationStartedEvent.class)
+    public void restoreOnStartup() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                restoredEntries = restore();
+            } catch (Exception e) {
+                logger.warn("Could not restore cache snapshot {}: {}", properties.getPath(), e.getMessage());
+            } finally {
+                restoring = false;
+            }
+        });
+    }
+
+    /**
+     * Writes a snapshot every cache.snapshot.interval.
+     */
+    @Scheduled(fixedDelayString = "${cache.snapshot.interval:15m}",
+            initialDelayString = "${cache.snapshot.interval:15m}")
+    public void snapshotPeriodically() {
+        writeQuietly();
+    }
+
+    /**
+     * Writes a snapshot on graceful shutdown, before the caches are destroyed.
+     */
+    @PreDestroy
+    public void snapshotOnShutdown() {
+        writeQuietly();
+    }
+
+    @Override
+    public Health health() {
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("enabled", properties.isEnabled());
+        details.put("restoring", restoring);
+        details.put("restoredEntries", restoredEntries);
+        details.put("writtenEntries", writtenEntries);
+        if (writtenAt != null) {
+            details.put("writtenAt", writtenAt.toString());
+        }
+        Health.Builder health = restoring && properties.isWaitForRestore() ? Health.outOfService() : Health.up();
+        return health.withDetails(details).build();
+    }
+
+    /**
+     * Writes a snapshot unless snapshots are off or the restore is still running
+     * (a partial snapshot would replace the complete one).
+     */
+    private void writeQuietly() {
+        if (!properties.isEnabled() || restoring) {
+            return;
+        }
+        try {
+            write();
+        } catch (Exception e) {
+            logger.warn("Could not write cache snapshot {}: {}", properties.getPath(), e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the configured caches to the snapshot file, replacing it atomically.
+     *
+     * @return Number of entries written
+     * @throws IOException If the file cannot be written
+     */
+    int write() throws IOException {
+        synchronized (writeLock) {
+            Path target = Path.of(properties.getPath()).toAbsolutePath();
+            Files.createDirectories(target.getParent());
+            Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+            int written = 0;
+            try {
+                try (DataOutputStream out = new DataOutputStream(
+                        new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                    out.writeInt(MAGIC);
+                    out.writeInt(FORMAT);
+                    out.writeUTF(properties.getVersion());
+                    DataOutputStream body = new DataOutputStream(new DeflaterOutputStream(out));
+                    Map<String, Integer> types = new HashMap<>();
+                    for (String name : properties.getCaches()) {
+                        com.github.benmanes.caffeine.cache.Cache<Object, Object> cache = nativeCache(name);
+                        if (cache == null) {
+                            logger.debug("Cache '{}' is not a Caffeine cache of values, not included in the snapshot",
+                                    name);
+                            continue;
+                        }
+                        body.writeBoolean(true);
+                        body.writeUTF(name);
+                        written += writeEntries(body, cache, types);
+                        body.writeBoolean(false);
+                    }
+                    body.writeBoolean(false);
+                    body.close();
+                }
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            writtenEntries = written;
+            writtenAt = Instant.now();
+            meterRegistry.counter("riotapi.cache.snapshot.entries", "op", "written").increment(written);
+            logger.info("Wrote {} cache entries to {}", written, target);
+            return written;
+        }
+    }
+
+    /**
+     * Reads the snapshot file into the configured caches, keeping entries already present.
+     *
+     * @return Number of entries restored
+     * @throws IOException If the file cannot be read
+     */
+    int restore() throws IOException {
+        Path source = Path.of(properties.getPath()).toAbsolutePath();
+        if (!Files.isReadable(source)) {
+            return 0;
+        }
+        int restored = 0;
+        int skipped = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(source)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT) {
+                logger.info("Ignoring cache snapshot {} of another format", source);
+                return 0;
+            }
+            String version = in.readUTF();
+            if (!version.equals(properties.getVersion())) {
+                logger.info("Ignoring cache snapshot {} of version {}", source, version);
+                return 0;
+            }
+            DataInputStream body = new DataInputStream(new InflaterInputStream(in));
+            List<JavaType> types = new ArrayList<>();
+            long now = System.currentTimeMillis();
+            while (body.readBoolean()) {
+                String name = body.readUTF();
+                com.github.benmanes.caffeine.cache.Cache<Object, Object> cache =
+                        properties.getCaches().contains(name) ? nativeCache(name) : null;
+                while (body.readBoolean()) {
+                    Object key = body.readByte() == KEY_STRING ? body.readUTF() : SimpleKey.EMPTY;
+                    int typeRef = body.readInt();
+                    if (typeRef < 0) {
+                        String signature = body.readUTF();
+                        types.add(resolve(signature, body.readLong()));
+                        typeRef = types.size() - 1;
+                    }
+                    long expiresAt = body.readLong();
+                    byte[] json = body.readNBytes(body.readInt());
+                    JavaType type = typeRef < types.size() ? types.get(typeRef) : null;
+                    if (cache == null || type == null || (expiresAt != 0 && expiresAt <= now)) {
+                        skipped++;
+                        continue;
+                    }
+                    try {
+                        Object value = objectMapper.readValue(json, type);
+                        if (type.getRawClass() == MatchV5Dto.class) {
+                            value = CompactMatch.from((MatchV5Dto) value);
+                        }
+                        putIfAbsent(cache, key, value, expiresAt != 0 ? Duration.ofMillis(expiresAt - now) : null);
+                        restored++;
+                    } catch (IOException | RuntimeException e) {
+                        skipped++;
+                    }
+                }
+            }
+        }
+        meterRegistry.counter("riotapi.cache.snapshot.entries", "op", "restored").increment(restored);
+        meterRegistry.counter("riotapi.cache.snapshot.entries", "op", "skipped").increment(skipped);
+        logger.info("Restored {} cache entries from {} ({} skipped)", restored, source, skipped);
+        return restored;
+    }
+
+    /**
+     * Writes the entries of one cache.
+     *
+     * @param body  Snapshot body
+     * @param cache The cache
+     * @param types Type table of this snapshot (signature to index)
+     * @return Number of entries written
+     * @throws IOException If the body cannot be written
+     */
+    private int writeEntries(DataOutputStream body, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache,
+            Map<String, Integer> types) throws IOException {
+        int written = 0;
+        long now = System.currentTimeMillis();
+        for (Map.Entry<Object, Object> entry : cache.asMap().entrySet()) {
+            Object key = entry.getKey();
+            Object value = entry.getValue();
+            boolean stringKey = key instanceof String s && s.length() <= 8192;
+            if (value == null || value instanceof NullValue || (!stringKey && !SimpleKey.EMPTY.equals(key))) {
+                continue;
+            }
+            byte[] json;
+            try {
+                json = objectMapper.writeValueAsBytes(value instanceof CompactMatch match ? match.toDto() : value);
+            } catch (IOException | RuntimeException e) {
+                logger.debug("Cache entry {} not written to the snapshot: {}", key, e.getMessage());
+                continue;
+            }
+            body.writeBoolean(true);
+            body.writeByte(stringKey ? KEY_STRING : KEY_EMPTY);
+            if (stringKey) {
+                body.writeUTF((String) key);
+            }
+            String signature = signature(value);
+            Integer typeRef = types.get(signature);
+            if (typeRef == null) {
+                types.put(signature, types.size());
+                body.writeInt(-1);
+                body.writeUTF(signature);
+                body.writeLong(fingerprint(signature));
+            } else {
+                body.writeInt(typeRef);
+            }
+            Duration remaining = remaining(cache, key);
+            body.writeLong(remaining != null ? now + remaining.toMillis() : 0);
+            body.writeInt(json.length);
+            body.write(json);
+            written++;
+        }
+        return written;
+    }
+
+    /**
+     * Resolves a type of the snapshot, unless it is not allowed or its fields changed.
+     *
+     * @param signature   Canonical type name as written
+     * @param fingerprint Fingerprint of the type's fields when written
+     * @return Type to read the values as, null to skip its entries
+     */
+    private JavaType resolve(String signature, long fingerprint) {
+        for (String className : classNames(signature)) {
+            if (ALLOWED_PACKAGES.stream().noneMatch(className::startsWith)) {
+                logger.warn("Cache snapshot names disallowed type {}", className);
+                return null;
+            }
+        }
+        if (fingerprint(signature) != fingerprint) {
+            logger.info("Skipping cache snapshot entries of changed type {}", signature);
+            return null;
+        }
+        try {
+            return signature.equals(CompactMatch.class.getName())
+                    ? objectMapper.getTypeFactory().constructType(MatchV5Dto.class)
+                    : objectMapper.getTypeFactory().constructFromCanonical(signature);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Looks up the Caffeine cache behind a Spring cache (also behind its decorators).
+     * The off-heap match store is left out: its Caffeine index holds compressed buffers
+     * that only the store itself may add and account for, not cached values.
+     *
+     * @param name Cache name
+     * @return The native cache, null if the cache does not exist, is no Caffeine cache or is the match store
+     */
+    @SuppressWarnings("unchecked")
+    private com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache(String name) {
+        Cache cache = cacheManager.getCache(name);
+        Cache target = cache instanceof StaleRejectingCache decorator ? decorator.getTargetCache() : cache;
+        if (target instanceof CompressedMatchCache) {
+            return null;
+        }
+        if (cache != null && cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> c) {
+            return (com.github.benmanes.caffeine.cache.Cache<Object, Object>) c;
+        }
+        return null;
+    }
+
+    /**
+     * Reads the remaining lifetime of an entry.
+     *
+     * @param cache The cache
+     * @param key   Key of the entry
+     * @return Time until the entry expires, null if the cache does not expire entries
+     */
+    private static Duration remaining(com.github.benmanes.caffeine.cache.Cache<Object, Object> cache, Object key) {
+        Policy<Object, Object> policy = cache.policy();
+        if (policy.expireVariably().isPresent()) {
+            return policy.expireVariably().get().getExpiresAfter(key).orElse(null);
+        }
+        return policy.expireAfterWrite()
+                .flatMap(expiry -> expiry.ageOf(key).map(age -> expiry.getExpiresAfter().minus(age)))
+                .orElse(null);
+    }
+
+    /**
+     * Adds a restored entry unless the key is already present.
+     *
+     * @param cache     The cache
+     * @param key       Key of the entry
+     * @param value     Restored value
+     * @param remaining Remaining lifetime, null if unknown
+     */
+    private static void putIfAbsent(com.github.benmanes.caffeine.cache.Cache<Object, Object> cache, Object key,
+            Object value, Duration remaining) {
+        Optional<Policy.VarExpiration<Object, Object>> variable = cache.policy().expireVariably();
+        if (remaining != null && variable.isPresent()) {
+            variable.get().putIfAbsent(key, value, remaining);
+        } else {
+            cache.asMap().putIfAbsent(key, value);
+        }
+    }
+
+    /**
+     * Builds the canonical type name of a cached value, including the element types of
+     * collections and maps (taken from their first element).
+     *
+     * @param value Cached value
+     * @return Canonical type name, e.g. java.util.LinkedHashMap&lt;java.lang.Integer,java.lang.String&gt;
+     */
+    static String signature(Object value) {
+        if (value instanceof CompactMatch) {
+            return CompactMatch.class.getName();
+        }
+        if (value instanceof List<?> list) {
+            Object first = list.stream().filter(e -> e != null).findFirst().orElse(null);
+            return "java.util.ArrayList" + (first != null ? "<" + signature(first) + ">" : "");
+        }
+        if (value instanceof Set<?> set) {
+            Object first = set.stream().filter(e -> e != null).findFirst().orElse(null);
+            return "java.util.LinkedHashSet" + (first != null ? "<" + signature(first) + ">" : "");
+        }
+        if (value instanceof Map<?, ?> map) {
+            Map.Entry<?, ?> first = map.entrySet().stream()
+                    .filter(e -> e.getKey() != null && e.getValue() != null).findFirst().orElse(null);
+            return "java.util.LinkedHashMap"
+                    + (first != null ? "<" + signature(first.getKey()) + "," + signature(first.getValue()) + ">" : "");
+        }
+        return value.getClass().getName();
+    }
+
+    /**
+     * Computes a fingerprint of the fields of all application classes a type consists of,
+     * so a snapshot written before a model change is not read into the new model.
+     *
+     * @param signature Canonical type name
+     * @return CRC32 of the field declarations, -1 if a class no longer exists
+     */
+    static long fingerprint(String signature) {
+        StringBuilder description = new StringBuilder(signature);
+        Set<Class<?>> visited = new HashSet<>();
+        try {
+            for (String className : classNames(signature)) {
+                describe(Class.forName(className), description, visited);
+            }
+            if (signature.equals(CompactMatch.class.getName())) {
+                describe(MatchV5Dto.class, description, visited);
+            }
+        } catch (ClassNotFoundException | LinkageError e) {
+            return -1;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(description.toString().getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    /**
+     * Appends the field declarations of an application class and the classes it refers to.
+     *
+     * @param type        The class
+     * @param description Description being built
+     * @param visited     Classes already described
+     * @throws ClassNotFoundException If a referenced class no longer exists
+     */
+    private static void describe(Class<?> type, StringBuilder description, Set<Class<?>> visited)
+            throws ClassNotFoundException {
+        if (!type.getName().startsWith("com.zerox80.") || !visited.add(type)) {
+            return;
+        }
+        description.append('|').append(type.getName());
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || Modifier.isTransient(field.getModifiers())) {
+                    continue;
+                }
+                String fieldType = field.getGenericType().getTypeName();
+                description.append(';').append(field.getName()).append(':').append(fieldType);
+                for (String className : classNames(fieldType)) {
+                    describe(Class.forName(className, false, type.getClassLoader()), description, visited);
+                }
+            }
+        }
+    }
+
+    /**
+     * Splits a (generic) type name into the class names it contains.
+     *
+     * @param typeName e.g. java.util.List&lt;com.zerox80.riotapi.model.SpellSummary&gt;
+     * @return Class names, without primitives and arrays
+     */
+    private static List<String> classNames(String typeName) {
+        List<String> names = new ArrayList<>();
+        for (String part : typeName.split("[<>,\\s?]+")) {
+            String name = part.replace("[]", "");
+            if (name.contains(".")) {
+                names.add(name);
+            }
+        }
+        return names;
+    }
+}
@@ -0,0 +1,166 @@
+// Package declaration - defines that this class belongs to the config package
+package com.zerox80.riotapi.config;
+
+// Import for Caffeine's weigher interface
+import com.github.benmanes.caffeine.cache.Weigher;
+
+// Import for reading array elements of any component type
+import java.lang.reflect.Array;
+// Import for the fields of walked classes
+import java.lang.reflect.Field;
+// Import for skipping static fields
+import java.lang.reflect.Modifier;
+// Import for collecting the fields of a class
+import java.util.ArrayList;
+// Import for the collection sizes
+import java.util.Collection;
+// Import for the set view over an identity map
+import java.util.Collections;
+// Import for the identity set of visited objects
+import java.util.IdentityHashMap;
+// Import for the field lists
+import java.util.List;
+// Import for the map sizes
+import java.util.Map;
+// Import for the identity set of visited objects
+import java.util.Set;
+
+
+/**
+ * Estimates the heap bytes of cached values, for caches bounded by bytes.
+ *
+ * Strings, boxed values, arrays, collections and maps are sized directly; classes of
+ * this application (models, records) are walked field by field. Everything else counts
+ * with a flat guess. Shared objects such as interned strings are counted for every
+ * value that references them, so the estimate errs on the high side. It is computed
+ * once when an entry is written.
+ */
+public final class CacheWeigher implements Weigher<Object, Object> {
+
+    // Shared instance (stateless)
+    public static final CacheWeigher INSTANCE = new CacheWeigher();
+
+    // Object header + alignment slack on a 64-bit VM with compressed oops
+    private static final int HEADER = 16;
+
+    // Size of a reference with compressed oops
+    private static final int REFERENCE = 4;
+
+    // Guess for objects that are not walked (e.g. java.time, Jackson nodes)
+    private static final int OPAQUE = 64;
+
+    // Package prefix of the classes that are walked field by field
+    private static final String OWN_PACKAGE = "com.zerox80.";
+
+    // Instance fields per walked class, looked up once per class
+    private static final ClassValue<List<Field>> FIELDS = new ClassValue<>() {
+        @Override
+        protected List<Field> computeValue(Class<?> type) {
+            List<Field> fields = new ArrayList<>();
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers())) {
+                        field.setAccessible(true);
+                        fields.add(field);
+                    }
+                }
+            }
+            return fields;
+        }
+    };
+
+    private CacheWeigher() {
+    }
+
+    @Override
+    public int weigh(Object key, Object value) {
+        long bytes = estimate(key) + estimate(value);
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(1, bytes));
+    }
+
+    /**
+     * Estimates the heap bytes of an object graph.
+     *
+     * @param value Root of the graph
+     * @return Estimated bytes
+     */
+    public static long estimate(Object value) {
+        return estimate(value, Collections.newSetFromMap(new IdentityHashMap<>()));
+    }
+
+    private static long estimate(Object value, Set<Object> visited) {
+        if (value == null || !visited.add(value)) {
+            return 0;
+        }
+        if (value instanceof String s) {
+            // Compact strings: mostly Latin-1, one byte per char plus the backing array
+            return HEADER + 8 + HEADER + s.length();
+        }
+        if (value instanceof Number || value instanceof Boolean || value instanceof Character
+                || value instanceof Enum<?>) {
+            return HEADER;
+        }
+        Class<?> type = value.getClass();
+        if (type.isArray()) {
+            return estimateArray(value, type.getComponentType(), visited);
+        }
+        if (value instanceof Collection<?> collection) {
+            long bytes = HEADER + 16 + (long) collection.size() * REFERENCE;
+            for (Object element : collection) {
+                bytes += estimate(element, visited);
+            }
+            return bytes;
+        }
+        if (value instanceof Map<?, ?> map) {
+            // Table slot + node (hash, key, value, next) per entry
+            long bytes = HEADER + 32 + (long) map.size() * (REFERENCE + 32);
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                bytes += estimate(entry.getKey(), visited) + estimate(entry.getValue(), visited);
+            }
+            return bytes;
+        }
+        if (!type.getName().startsWith(OWN_PACKAGE)) {
+            return OPAQUE;
+        }
+        long bytes = HEADER;
+        for (Field field : FIELDS.get(type)) {
+            Class<?> fieldType = field.getType();
+            if (fieldType.isPrimitive()) {
+                bytes += primitiveSize(fieldType);
+                continue;
+            }
+            bytes += REFERENCE;
+            try {
+                bytes += estimate(field.get(value), visited);
+            } catch (IllegalAccessException e) {
+                bytes += OPAQUE;
+            }
+        }
+        return bytes;
+    }
+
+    private static long estimateArray(Object array, Class<?> componentType, Set<Object> visited) {
+        int length = Array.getLength(array);
+        if (componentType.isPrimitive()) {
+            return HEADER + (long) length * primitiveSize(componentType);
+        }
+        long bytes = HEADER + (long) length * REFERENCE;
+        for (int i = 0; i < length; i++) {
+            bytes += estimate(Array.get(array, i), visited);
+        }
+        return bytes;
+    }
+
+    private static int primitiveSize(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        }
+        if (type == int.class || type == float.class) {
+            return 4;
+        }
+        if (type == short.class || type == char.class) {
+            return 2;
+        }
+        return 1;
+    }
+}
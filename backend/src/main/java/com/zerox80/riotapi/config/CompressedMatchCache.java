@@ -0,0 +1,375 @@
+// Package declaration - defines that this class belongs to the config package
+package com.zerox80.riotapi.config;
+
+// Import for Jackson's InputStream view on a ByteBuffer
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+// Import for JSON (de)serialization of the stored matches
+import com.fasterxml.jackson.databind.ObjectMapper;
+// Import for Caffeine Cache Builder - index of the stored entries
+import com.github.benmanes.caffeine.cache.Caffeine;
+// Import for the removal cause passed to the byte accounting
+import com.github.benmanes.caffeine.cache.RemovalCause;
+// Import for the clock of the entry ages (replaceable in tests)
+import com.github.benmanes.caffeine.cache.Ticker;
+// Import for the compact match kept by the "matchDetails" cache
+import com.zerox80.riotapi.model.CompactMatch;
+// Import for the API shape the matches are serialized in
+import com.zerox80.riotapi.model.MatchV5Dto;
+// Import for the hit/miss counters
+import io.micrometer.core.instrument.Counter;
+// Import for the per-entry compression ratio
+import io.micrometer.core.instrument.DistributionSummary;
+// Import for the byte gauges
+import io.micrometer.core.instrument.Gauge;
+// Import for metrics registry
+import io.micrometer.core.instrument.MeterRegistry;
+// Import for the encode/decode timers
+import io.micrometer.core.instrument.Timer;
+// Import for logging interface
+import org.slf4j.Logger;
+// Import for logger factory to instantiate loggers
+import org.slf4j.LoggerFactory;
+// Import for Spring's Cache interface implemented here
+import org.springframework.cache.Cache;
+// Import for wrapping hits
+import org.springframework.cache.support.SimpleValueWrapper;
+
+// Import for collecting the compressed bytes
+import java.io.ByteArrayOutputStream;
+// Import for I/O errors of the codec
+import java.io.IOException;
+// Import for the decompressing stream
+import java.io.InputStream;
+// Import for the off-heap buffers
+import java.nio.ByteBuffer;
+// Import for time duration calculations
+import java.time.Duration;
+// Import for the synchronous value loader
+import java.util.concurrent.Callable;
+// Import for asynchronous/non-blocking operations
+import java.util.concurrent.CompletableFuture;
+// Import for the byte counters
+import java.util.concurrent.atomic.LongAdder;
+// Import for the asynchronous value loader
+import java.util.function.Supplier;
+// Import for the compressor
+import java.util.zip.Deflater;
+// Import for the compressing stream
+import java.util.zip.DeflaterOutputStream;
+// Import for the decompressor
+import java.util.zip.Inflater;
+// Import for the decompressing stream
+import java.util.zip.InflaterInputStream;
+
+
+/**
+ * Alternative "matchDetails" cache that keeps matches as deflated JSON in direct
+ * (off-heap) buffers instead of as object graphs on the heap.
+ *
+ * Only a small index (key, buffer object) stays on the heap, so the cached matches
+ * no longer fill the old generation. The cache is bounded by the total number of
+ * compressed bytes; every read inflates and deserializes the match again, which
+ * costs CPU per hit. The riotapi.cache.match-store.* metrics (hit rate, compression
+ * ratio, encode/decode time) show whether that trade-off pays off.
+ *
+ * Entries past their time to live are kept for a stale retention on top, within the
+ * same byte bound: they no longer answer lookups, but the client serves them through
+ * {@link #getStale(Object)} while Riot fails, so no last good copy of the match has
+ * to stay on the heap.
+ */
+public class CompressedMatchCache implements Cache {
+
+    // Logger instance for logging in this class
+    private static final Logger logger = LoggerFactory.getLogger(CompressedMatchCache.class);
+
+    // Metric prefix of this cache
+    private static final String METRIC = "riotapi.cache.match-store";
+
+    // final: cache name ("matchDetails")
+    private final String name;
+    // final: mapper for the JSON form of the matches
+    private final ObjectMapper objectMapper;
+    // final: time to live of an entry in nanoseconds, older entries are only served stale
+    private final long expireNanos;
+    // final: clock of the entry ages
+    private final Ticker ticker;
+    // final: index of the compressed entries, weighed by their compressed size
+    private final com.github.benmanes.caffeine.cache.Cache<Object, StoredMatch> entries;
+    // final: compressed bytes currently held
+    private final LongAdder compressedBytes = new LongAdder();
+    // final: uncompressed JSON bytes of the held entries
+    private final LongAdder rawBytes = new LongAdder();
+    // final: lookups answered from the store
+    private final Counter hits;
+    // final: lookups not found in the store
+    private final Counter misses;
+    // final: time to serialize and compress a match
+    private final Timer encodeTimer;
+    // final: time to decompress and deserialize a match
+    private final Timer decodeTimer;
+    // final: uncompressed/compressed size per stored match
+    private final DistributionSummary compressionRatio;
+
+    /**
+     * A stored match: deflated JSON in a direct buffer plus its uncompressed size.
+     *
+     * @param data     Read-only direct buffer with the compressed JSON
+     * @param rawSize  Size of the JSON before compression
+     * @param storedAt Ticker time the match was stored
+     */
+    private record StoredMatch(ByteBuffer data, int rawSize, long storedAt) {
+    }
+
+    /**
+     * Creates the store.
+     *
+     * @param name             Cache name
+     * @param maxBytes         Upper bound of the compressed bytes held
+     * @param expireAfterWrite Time an entry is kept
+     * @param objectMapper     Mapper for the JSON form
+     * @param meterRegistry    Registry for the store metrics
+     */
+    public CompressedMatchCache(String name, long maxBytes, Duration expireAfterWrite, ObjectMapper objectMapper,
+            MeterRegistry meterRegistry) {
+        this(name, maxBytes, expireAfterWrite, Duration.ZERO, objectMapper, meterRegistry, Ticker.systemTicker());
+    }
+
+    /**
+     * Creates the store with a stale retention and an explicit clock.
+     *
+     * @param name             Cache name
+     * @param maxBytes         Upper bound of the compressed bytes held
+     * @param expireAfterWrite Time an entry answers lookups
+     * @param staleRetention   Time an entry is kept on top for {@link #getStale(Object)}
+     * @param objectMapper     Mapper for the JSON form
+     * @param meterRegistry    Registry for the store metrics
+     * @param ticker           Clock of the entry ages
+     */
+    public CompressedMatchCache(String name, long maxBytes, Duration expireAfterWrite, Duration staleRetention,
+            ObjectMapper objectMapper, MeterRegistry meterRegistry, Ticker ticker) {
+        this.name = name;
+        this.objectMapper = objectMapper;
+        this.expireNanos = expireAfterWrite.toNanos();
+        this.ticker = ticker;
+        Duration retention = staleRetention != null && staleRetention.isPositive() ? staleRetention : Duration.ZERO;
+        this.entries = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Object key, StoredMatch value) -> value.data().capacity())
+                .expireAfterWrite(expireAfterWrite.plus(retention))
+                .ticker(ticker)
+                // Run the accounting on the removing thread, so the byte gauges stay exact
+                .executor(Runnable::run)
+                .removalListener((Object key, StoredMatch value, RemovalCause cause) -> {
+                    if (value != null) {
+                        compressedBytes.add(-value.data().capacity());
+                        rawBytes.add(-value.rawSize());
+                    }
+                })
+                .build();
+        this.hits = meterRegistry.counter(METRIC + ".requests", "outcome", "hit");
+        this.misses = meterRegistry.counter(METRIC + ".requests", "outcome", "miss");
+        this.encodeTimer = meterRegistry.timer(METRIC + ".codec", "op", "encode");
+        this.decodeTimer = meterRegistry.timer(METRIC + ".codec", "op", "decode");
+        this.compressionRatio = DistributionSummary.builder(METRIC + ".compression-ratio")
+                .description("Uncompressed JSON size divided by the stored size, per match")
+                .register(meterRegistry);
+        Gauge.builder(METRIC + ".bytes", compressedBytes, LongAdder::sum)
+                .tag("form", "compressed").baseUnit("bytes").register(meterRegistry);
+        Gauge.builder(METRIC + ".bytes", rawBytes, LongAdder::sum)
+                .tag("form", "raw").baseUnit("bytes").register(meterRegistry);
+        Gauge.builder(METRIC + ".entries", entries, c -> c.estimatedSize()).register(meterRegistry);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return entries;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        StoredMatch stored = entries.getIfPresent(key);
+        if (stored == null || ticker.read() - stored.storedAt() > expireNanos) {
+            // Past its time to live: only kept for getStale()
+            misses.increment();
+            return null;
+        }
+        CompactMatch match = decodeOrDrop(key, stored);
+        if (match == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return new SimpleValueWrapper(match);
+    }
+
+    /**
+     * Gets a stored match regardless of its time to live, for answering with the last
+     * good value while Riot fails. Not counted as hit or miss.
+     *
+     * @param key Cache key
+     * @return The match, or null if none is stored (any more)
+     */
+    public CompactMatch getStale(Object key) {
+        StoredMatch stored = entries.getIfPresent(key);
+        return stored != null ? decodeOrDrop(key, stored) : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        // Not atomic: concurrent loads of a match are already collapsed by the client's single flight
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+        T loaded;
+        try {
+            loaded = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        put(key, loaded);
+        return loaded;
+    }
+
+    @Override
+    public CompletableFuture<?> retrieve(Object key) {
+        ValueWrapper wrapper = get(key);
+        return wrapper != null ? CompletableFuture.completedFuture(wrapper) : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            return CompletableFuture.completedFuture((T) wrapper.get());
+        }
+        return valueLoader.get().thenApply(loaded -> {
+            put(key, loaded);
+            return loaded;
+        });
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (!(value instanceof CompactMatch match)) {
+            // Nothing worth keeping off-heap (e.g. a match that was not found)
+            entries.invalidate(key);
+            return;
+        }
+        StoredMatch stored;
+        try {
+            stored = encodeTimer.recordCallable(() -> encode(match));
+        } catch (Exception e) {
+            logger.warn("Could not store entry {} in cache '{}': {}", key, name, e.getMessage());
+            return;
+        }
+        compressedBytes.add(stored.data().capacity());
+        rawBytes.add(stored.rawSize());
+        compressionRatio.record((double) stored.rawSize() / Math.max(1, stored.data().capacity()));
+        entries.put(key, stored);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = get(key);
+        if (existing == null) {
+            put(key, value);
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        entries.invalidate(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        return entries.asMap().remove(key) != null;
+    }
+
+    @Override
+    public void clear() {
+        entries.invalidateAll();
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean notEmpty = entries.estimatedSize() > 0;
+        entries.invalidateAll();
+        return notEmpty;
+    }
+
+    /**
+     * Decodes a stored match, dropping it if it cannot be read.
+     *
+     * @param key    Cache key
+     * @param stored The stored form
+     * @return The match, or null if it was undecodable
+     */
+    private CompactMatch decodeOrDrop(Object key, StoredMatch stored) {
+        try {
+            return decodeTimer.recordCallable(() -> decode(stored));
+        } catch (Exception e) {
+            logger.warn("Dropping undecodable entry {} from cache '{}': {}", key, name, e.getMessage());
+            entries.invalidate(key);
+            return null;
+        }
+    }
+
+    /**
+     * Serializes a match to JSON and deflates it into a direct buffer.
+     *
+     * @param match The match
+     * @return The stored form
+     * @throws IOException If serialization fails
+     */
+    private StoredMatch encode(CompactMatch match) throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(match.toDto());
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 4);
+        try (DeflaterOutputStream out = new DeflaterOutputStream(compressed, deflater)) {
+            out.write(json);
+        } finally {
+            deflater.end();
+        }
+        ByteBuffer data = ByteBuffer.allocateDirect(compressed.size());
+        data.put(compressed.toByteArray()).flip();
+        return new StoredMatch(data.asReadOnlyBuffer(), json.length, ticker.read());
+    }
+
+    /**
+     * Inflates and deserializes a stored match.
+     *
+     * @param stored The stored form
+     * @return A new CompactMatch
+     * @throws IOException If the data cannot be read
+     */
+    private CompactMatch decode(StoredMatch stored) throws IOException {
+        Inflater inflater = new Inflater();
+        try (InputStream in = new InflaterInputStream(new ByteBufferBackedInputStream(stored.data().duplicate()),
+                inflater)) {
+            return CompactMatch.from(objectMapper.readValue(in, MatchV5Dto.class));
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -1,6 +1,8 @@
 // Package declaration - defines that this class belongs to the config package
 package com.zerox80.riotapi.config;
 
+// Import for the shared timer of the outbound Riot client
+import com.zerox80.riotapi.client.HashedWheelTimer;
 // Import for @Bean annotation to define Spring-managed objects
 import org.springframework.context.annotation.Bean;
 // Import for @Configuration annotation to mark this class as a configuration class
@@ -85,4 +87,20 @@ public class HttpClientConfig {
                 // Finalize configuration and create the HttpClient
                 .build();
     }
+
+    /**
+     * Creates the hashed-wheel timer shared by the Riot API client.
+     * Retry backoffs, rate limit waits and permit timeouts all run on this one thread
+     * instead of the common ForkJoinPool; the futures they complete are completed on
+     * the virtual-thread executor, so the callers' next steps never run on the timer thread.
+     *
+     * @param riotApiExecutorService The virtual-thread executor that completes the timer's futures
+     * @return Timer with 10 ms resolution
+     */
+    @Bean(destroyMethod = "stop")
+    public HashedWheelTimer riotApiTimer(ExecutorService riotApiExecutorService) {
+        // 10 ms ticks x 512 buckets = one wheel rotation every ~5 seconds
+        // Longer delays simply stay in their bucket for more rotations
+        return new HashedWheelTimer("riot-api-timer", Duration.ofMillis(10), 512, riotApiExecutorService);
+    }
 }
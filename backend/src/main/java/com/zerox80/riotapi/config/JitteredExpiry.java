@@ -0,0 +1,74 @@
+// Package declaration - defines that this class belongs to the config package
+package com.zerox80.riotapi.config;
+
+// Import for Caffeine's per-entry expiry policy
+import com.github.benmanes.caffeine.cache.Expiry;
+
+// Import for time duration calculations
+import java.time.Duration;
+// Import for the per-entry random offset
+import java.util.concurrent.ThreadLocalRandom;
+
+
+/**
+ * Expire-after-write policy with a random offset per entry.
+ *
+ * Each write picks a time to live within ttl * (1 ± jitter), so entries written in
+ * the same moment (e.g. the ten players of one match) do not all expire in the same
+ * moment and cause a burst of upstream calls. Reads do not extend the lifetime.
+ */
+public final class JitteredExpiry implements Expiry<Object, Object> {
+
+    // final: nominal time to live in nanoseconds
+    private final long ttlNanos;
+    // final: maximum relative deviation from the nominal time to live (0 = none)
+    private final double jitter;
+
+    /**
+     * Creates the policy.
+     *
+     * @param ttl    Nominal time to live
+     * @param jitter Maximum relative deviation, e.g. 0.1 for ±10%
+     */
+    public JitteredExpiry(Duration ttl, double jitter) {
+        this.ttlNanos = ttl.toNanos();
+        this.jitter = Math.max(0.0, Math.min(0.5, jitter));
+    }
+
+    /**
+     * Returns the nominal time to live.
+     *
+     * @return Time to live without jitter
+     */
+    public Duration ttl() {
+        return Duration.ofNanos(ttlNanos);
+    }
+
+    @Override
+    public long expireAfterCreate(Object key, Object value, long currentTime) {
+        return nextTtl();
+    }
+
+    @Override
+    public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+        return nextTtl();
+    }
+
+    @Override
+    public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+        return currentDuration;
+    }
+
+    /**
+     * Draws the time to live of a write.
+     *
+     * @return Nanoseconds until the entry expires
+     */
+    private long nextTtl() {
+        if (jitter == 0.0) {
+            return ttlNanos;
+        }
+        double factor = 1.0 + ThreadLocalRandom.current().nextDouble(-jitter, jitter);
+        return Math.max(1, (long) (ttlNanos * factor));
+    }
+}
@@ -0,0 +1,227 @@
+// Package declaration - defines that this class belongs to the config package
+package com.zerox80.riotapi.config;
+
+// Import for Caffeine's asynchronous cache (read for the remaining lifetime of entries)
+import com.github.benmanes.caffeine.cache.AsyncCache;
+// Import for running the reload without the reader's deadline
+import com.zerox80.riotapi.client.RequestDeadline;
+// Import for running the reload as cache warming, behind interactive calls
+import com.zerox80.riotapi.client.RequestPriority;
+// Import for metrics registry
+import io.micrometer.core.instrument.MeterRegistry;
+// Import for logging interface
+import org.slf4j.Logger;
+// Import for logger factory to instantiate loggers
+import org.slf4j.LoggerFactory;
+// Import for Spring's Cache interface that is decorated here
+import org.springframework.cache.Cache;
+
+// Import for time duration calculations
+import java.time.Duration;
+// Import for the keys with a reload in progress
+import java.util.Set;
+// Import for the synchronous value loader
+import java.util.concurrent.Callable;
+// Import for asynchronous/non-blocking operations
+import java.util.concurrent.CompletableFuture;
+// Import for the concurrent key set
+import java.util.concurrent.ConcurrentHashMap;
+// Import for the stale check of a reloaded value
+import java.util.function.Predicate;
+// Import for the asynchronous value loader
+import java.util.function.Supplier;
+
+
+/**
+ * Cache that reloads hot entries before they expire.
+ *
+ * A read through {@link #retrieve(Object, Supplier)} (a sync @Cacheable) that hits an
+ * entry past the configured fraction of its time to live is answered with the current
+ * value and starts one background reload with the same loader. The reload runs as
+ * PREFETCH without the reader's deadline, and its result replaces the entry - unless
+ * the reload failed or only produced a stale fallback value (Riot down), then the
+ * current entry stays until it expires. So a popular key never expires while it is
+ * being read, and no reader waits for the upstream fan-out.
+ */
+public class RefreshAheadCache implements Cache {
+
+    // Logger instance for logging in this class
+    private static final Logger logger = LoggerFactory.getLogger(RefreshAheadCache.class);
+
+    // final: the decorated cache
+    private final Cache delegate;
+    // final: native cache, read for the remaining lifetime of an entry
+    private final AsyncCache<Object, Object> nativeCache;
+    // final: remaining lifetime below which a hit triggers a reload
+    private final Duration refreshBelow;
+    // final: metrics registry for the refresh counters
+    private final MeterRegistry meterRegistry;
+    // final: tells whether a reloaded value is a stale fallback (never put)
+    private final Predicate<Object> stale;
+    // final: keys with a reload in progress (at most one per key)
+    private final Set<Object> refreshing = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Creates the decorator.
+     *
+     * @param delegate      The cache adapted from nativeCache
+     * @param nativeCache   The Caffeine cache (with a variable expiry policy)
+     * @param ttl           Nominal time to live of the entries
+     * @param aheadFraction Fraction of the time to live after which a hit reloads, e.g. 0.8
+     * @param meterRegistry Registry for the refresh counters
+     */
+    public RefreshAheadCache(Cache delegate, AsyncCache<Object, Object> nativeCache, Duration ttl,
+            double aheadFraction, MeterRegistry meterRegistry) {
+        this(delegate, nativeCache, ttl, aheadFraction, meterRegistry, value -> false);
+    }
+
+    /**
+     * Creates the decorator with a stale check for reloaded values.
+     *
+     * @param delegate      The cache adapted from nativeCache
+     * @param nativeCache   The Caffeine cache (with a variable expiry policy)
+     * @param ttl           Nominal time to live of the entries
+     * @param aheadFraction Fraction of the time to live after which a hit reloads, e.g. 0.8
+     * @param meterRegistry Registry for the refresh counters
+     * @param stale         Tells whether a reloaded value is a stale fallback
+     */
+    public RefreshAheadCache(Cache delegate, AsyncCache<Object, Object> nativeCache, Duration ttl,
+            double aheadFraction, MeterRegistry meterRegistry, Predicate<Object> stale) {
+        this.stale = stale;
+        this.delegate = delegate;
+        this.nativeCache = nativeCache;
+        double fraction = Math.max(0.0, Math.min(1.0, aheadFraction));
+        this.refreshBelow = Duration.ofNanos((long) (ttl.toNanos() * (1.0 - fraction)));
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return delegate.get(key);
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return delegate.get(key, type);
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return delegate.get(key, valueLoader);
+    }
+
+    @Override
+    public CompletableFuture<?> retrieve(Object key) {
+        return delegate.retrieve(key);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+        boolean[] loaded = new boolean[1];
+        CompletableFuture<T> result = delegate.retrieve(key, () -> {
+            loaded[0] = true;
+            return valueLoader.get();
+        });
+        if (!loaded[0] && result.isDone() && !result.isCompletedExceptionally() && dueForRefresh(key)) {
+            refresh(key, valueLoader);
+        }
+        return result;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return delegate.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        return delegate.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        return delegate.invalidate();
+    }
+
+    /**
+     * Checks whether an entry is close enough to its expiry to be reloaded.
+     *
+     * @param key Cache key
+     * @return true if the remaining lifetime is below the refresh threshold
+     */
+    private boolean dueForRefresh(Object key) {
+        return nativeCache.synchronous().policy().expireVariably()
+                .flatMap(expiry -> expiry.getExpiresAfter(key))
+                .map(remaining -> remaining.compareTo(refreshBelow) < 0)
+                .orElse(false);
+    }
+
+    /**
+     * Starts the background reload of a key, unless one is already running.
+     *
+     * @param key         Cache key
+     * @param valueLoader Loader of the key (the cached method)
+     * @param <T>         Value type
+     */
+    private <T> void refresh(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+        if (!refreshing.add(key)) {
+            return;
+        }
+        count("started");
+        CompletableFuture<T> reload;
+        try {
+            reload = RequestPriority.PREFETCH.call(() -> RequestDeadline.call(null, valueLoader));
+        } catch (RuntimeException e) {
+            reload = CompletableFuture.failedFuture(e);
+        }
+        reload.whenComplete((value, throwable) -> {
+            refreshing.remove(key);
+            if (throwable != null) {
+                // The current entry stays until it expires
+                logger.debug("Refresh-ahead of cache '{}' failed: {}", getName(), throwable.getMessage());
+                count("failed");
+            } else if (value != null && stale.test(value)) {
+                // Riot failed and the loader fell back to the last good value; putting it would
+                // replace the valid entry and restart its time to live. The entry stays as is.
+                count("stale");
+            } else if (value != null) {
+                delegate.put(key, value);
+                count("succeeded");
+            }
+        });
+    }
+
+    /**
+     * Counts a refresh event.
+     *
+     * @param outcome started, succeeded, failed or stale
+     */
+    private void count(String outcome) {
+        meterRegistry.counter("riotapi.cache.refresh", "cache", getName(), "outcome", outcome).increment();
+    }
+}
@@ -0,0 +1,86 @@
+// Package declaration - defines that this class belongs to the config package
+package com.zerox80.riotapi.config;
+
+// Import for the deadline carried down to the Riot calls
+import com.zerox80.riotapi.client.RequestDeadline;
+// Import for HTTP request object to keep the deadline with the request
+import jakarta.servlet.http.HttpServletRequest;
+// Import for request attribute scopes
+import org.springframework.web.context.request.RequestAttributes;
+// Import for the request as seen by async interceptors
+import org.springframework.web.context.request.NativeWebRequest;
+// Import for DeferredResult (async controller results, incl. CompletableFuture)
+import org.springframework.web.context.request.async.DeferredResult;
+// Import for the hook into async request processing
+import org.springframework.web.context.request.async.DeferredResultProcessingInterceptor;
+
+// Import for the deadline length
+import java.time.Duration;
+
+/**
+ * Cancels the deadline of an async API request once nobody waits for its response.
+ *
+ * Controllers start a deadline with {@link #start(HttpServletRequest, Duration)}. When
+ * the container reports that the client went away (async error) or the async request
+ * timed out, the deadline is cancelled, so queued Riot calls and pending retries of
+ * that request stop instead of finishing for a response that is never read.
+ */
+public class RequestDeadlineInterceptor implements DeferredResultProcessingInterceptor {
+
+    // Request attribute holding the deadline of the request
+    private static final String ATTRIBUTE = RequestDeadline.class.getName();
+
+    /**
+     * Creates the deadline of a request and registers it for cancellation.
+     *
+     * @param request The incoming HTTP request
+     * @param timeout Time budget of the request
+     * @return The deadline, to run the request's Riot calls with
+     */
+    public static RequestDeadline start(HttpServletRequest request, Duration timeout) {
+        RequestDeadline deadline = RequestDeadline.after(timeout);
+        if (request != null) {
+            request.setAttribute(ATTRIBUTE, deadline);
+        }
+        return deadline;
+    }
+
+    /**
+     * Cancels the deadline when the async request timed out.
+     *
+     * @param request        The current request
+     * @param deferredResult The pending result
+     * @return true to continue with the default timeout handling
+     */
+    @Override
+    public <T> boolean handleTimeout(NativeWebRequest request, DeferredResult<T> deferredResult) {
+        cancel(request);
+        return true;
+    }
+
+    /**
+     * Cancels the deadline when the connection failed, e.g. the client disconnected.
+     *
+     * @param request        The current request
+     * @param deferredResult The pending result
+     * @param t              The error reported by the container
+     * @return true to continue with the default error handling
+     */
+    @Override
+    public <T> boolean handleError(NativeWebRequest request, DeferredResult<T> deferredResult, Throwable t) {
+        cancel(request);
+        return true;
+    }
+
+    /**
+     * Cancels the deadline stored with the request, if there is one.
+     *
+     * @param request The current request
+     */
+    private static void cancel(NativeWebRequest request) {
+        Object deadline = request.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (deadline instanceof RequestDeadline requestDeadline) {
+            requestDeadline.cancel();
+        }
+    }
+}
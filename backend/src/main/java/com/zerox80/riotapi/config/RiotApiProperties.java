@@ -0,0 +1,1571 @@
+// Package declaration - defines that this class belongs to the config package
+package com.zerox80.riotapi.config;
+
+// Import for @ConfigurationProperties to bind from application.properties
+import org.springframework.boot.context.properties.ConfigurationProperties;
+// Import for @Component for bean registration
+import org.springframework.stereotype.Component;
+// Import for DataSize - bound from values like "128MB"
+import org.springframework.util.unit.DataSize;
+
+// Import for Duration - bound from values like "10s" or "500ms"
+import java.time.Duration;
+// Import for the mutable default of list properties
+import java.util.ArrayList;
+// Import for list properties (e.g. the hedged endpoints)
+import java.util.List;
+
+
+// @Component - marks this class as a Spring-managed bean
+@Component
+// @ConfigurationProperties - binds properties with prefix "riot.api" to this class
+// Only the tuning knobs of the outbound client live here; key and region stay plain @Value properties
+@ConfigurationProperties(prefix = "riot.api")
+/**
+ * RiotApiProperties holds tuning options for the outbound Riot API client.
+ * Binds to application.properties with prefix "riot.api".
+ * Grouped into nested sections, e.g. riot.api.rate-limit.* for the header-driven rate limiter.
+ */
+public class RiotApiProperties {
+
+    // Base URL that replaces the Riot API hosts, e.g. "http://localhost:8089" for a fake server; empty = Riot
+    private String baseUrl = "";
+
+    // Settings of the header-driven rate limiter (riot.api.rate-limit.*)
+    private RateLimit rateLimit = new RateLimit();
+
+    // Settings of the outbound permit queue (riot.api.permits.*)
+    private Permits permits = new Permits();
+
+    // Settings of the priority classes (riot.api.priority.*)
+    private Priority priority = new Priority();
+
+    // Settings of the per-endpoint circuit breakers (riot.api.circuit-breaker.*)
+    private CircuitBreaker circuitBreaker = new CircuitBreaker();
+
+    // Settings of the hedged requests (riot.api.hedging.*)
+    private Hedging hedging = new Hedging();
+
+    // Settings of the adaptive outbound concurrency (riot.api.concurrency.*)
+    private Concurrency concurrency = new Concurrency();
+
+    // Settings of the per-endpoint request timeouts (riot.api.timeouts.*)
+    private Timeouts timeouts = new Timeouts();
+
+    // Settings of the request coalescing (riot.api.coalescing.*)
+    private Coalescing coalescing = new Coalescing();
+
+    // Settings of the stored match ID timelines (riot.api.match-timeline.*)
+    private MatchTimeline matchTimeline = new MatchTimeline();
+
+    // Settings of the stored account and summoner lookups (riot.api.profile-store.*)
+    private ProfileStore profileStore = new ProfileStore();
+
+    // Settings of the compressed off-heap match store (riot.api.match-store.*)
+    private MatchStore matchStore = new MatchStore();
+
+    // Settings of the stale-while-revalidate cache of assembled profiles (riot.api.profile-cache.*)
+    private ProfileCache profileCache = new ProfileCache();
+
+    // Settings of the short-lived cache of 404 answers (riot.api.negative-cache.*)
+    private NegativeCache negativeCache = new NegativeCache();
+
+    // === Getter & Setter for baseUrl ===
+    /**
+     * Returns the base URL that replaces the Riot API hosts.
+     *
+     * @return Base URL, empty to call Riot directly
+     */
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    /**
+     * Sets the base URL that replaces the Riot API hosts - null-safe, null means Riot.
+     *
+     * @param baseUrl Base URL without path, e.g. "http://localhost:8089"
+     */
+    public void setBaseUrl(String baseUrl) {
+        this.baseUrl = baseUrl != null ? baseUrl : "";
+    }
+
+    // === Getter & Setter for rateLimit ===
+    /**
+     * Returns the rate limiter settings.
+     *
+     * @return Rate limiter configuration section
+     */
+    public RateLimit getRateLimit() {
+        return rateLimit;
+    }
+
+    /**
+     * Sets the rate limiter settings - null-safe, falls back to defaults.
+     *
+     * @param rateLimit Rate limiter configuration section
+     */
+    public void setRateLimit(RateLimit rateLimit) {
+        this.rateLimit = rateLimit != null ? rateLimit : new RateLimit();
+    }
+
+    // === Getter & Setter for permits ===
+    /**
+     * Returns the permit queue settings.
+     *
+     * @return Permit queue configuration section
+     */
+    public Permits getPermits() {
+        return permits;
+    }
+
+    /**
+     * Sets the permit queue settings - null-safe, falls back to defaults.
+     *
+     * @param permits Permit queue configuration section
+     */
+    public void setPermits(Permits permits) {
+        this.permits = permits != null ? permits : new Permits();
+    }
+
+    // === Getter & Setter for priority ===
+    /**
+     * Returns the priority class settings.
+     *
+     * @return Priority configuration section
+     */
+    public Priority getPriority() {
+        return priority;
+    }
+
+    /**
+     * Sets the priority class settings - null-safe, falls back to defaults.
+     *
+     * @param priority Priority configuration section
+     */
+    public void setPriority(Priority priority) {
+        this.priority = priority != null ? priority : new Priority();
+    }
+
+    // === Getter & Setter for circuitBreaker ===
+    /**
+     * Returns the circuit breaker settings.
+     *
+     * @return Circuit breaker configuration section
+     */
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * Sets the circuit breaker settings - null-safe, falls back to defaults.
+     *
+     * @param circuitBreaker Circuit breaker configuration section
+     */
+    public void setCircuitBreaker(CircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker != null ? circuitBreaker : new CircuitBreaker();
+    }
+
+    // === Getter & Setter for hedging ===
+    /**
+     * Returns the hedging settings.
+     *
+     * @return Hedging configuration section
+     */
+    public Hedging getHedging() {
+        return hedging;
+    }
+
+    /**
+     * Sets the hedging settings - null-safe, falls back to defaults.
+     *
+     * @param hedging Hedging configuration section
+     */
+    public void setHedging(Hedging hedging) {
+        this.hedging = hedging != null ? hedging : new Hedging();
+    }
+
+    // === Getter & Setter for concurrency ===
+    /**
+     * Returns the adaptive concurrency settings.
+     *
+     * @return Concurrency configuration section
+     */
+    public Concurrency getConcurrency() {
+        return concurrency;
+    }
+
+    /**
+     * Sets the adaptive concurrency settings - null-safe, falls back to defaults.
+     *
+     * @param concurrency Concurrency configuration section
+     */
+    public void setConcurrency(Concurrency concurrency) {
+        this.concurrency = concurrency != null ? concurrency : new Concurrency();
+    }
+
+    // === Getter & Setter for timeouts ===
+    /**
+     * Returns the request timeout settings.
+     *
+     * @return Timeouts configuration section
+     */
+    public Timeouts getTimeouts() {
+        return timeouts;
+    }
+
+    /**
+     * Sets the request timeout settings - null-safe, falls back to defaults.
+     *
+     * @param timeouts Timeouts configuration section
+     */
+    public void setTimeouts(Timeouts timeouts) {
+        this.timeouts = timeouts != null ? timeouts : new Timeouts();
+    }
+
+    // === Getter & Setter for coalescing ===
+    /**
+     * Returns the request coalescing settings.
+     *
+     * @return Coalescing configuration section
+     */
+    public Coalescing getCoalescing() {
+        return coalescing;
+    }
+
+    /**
+     * Sets the request coalescing settings - null-safe, falls back to defaults.
+     *
+     * @param coalescing Coalescing configuration section
+     */
+    public void setCoalescing(Coalescing coalescing) {
+        this.coalescing = coalescing != null ? coalescing : new Coalescing();
+    }
+
+    // === Getter & Setter for matchTimeline ===
+    /**
+     * Returns the match ID timeline settings.
+     *
+     * @return MatchTimeline configuration section
+     */
+    public MatchTimeline getMatchTimeline() {
+        return matchTimeline;
+    }
+
+    /**
+     * Sets the match ID timeline settings - null-safe, falls back to defaults.
+     *
+     * @param matchTimeline MatchTimeline configuration section
+     */
+    public void setMatchTimeline(MatchTimeline matchTimeline) {
+        this.matchTimeline = matchTimeline != null ? matchTimeline : new MatchTimeline();
+    }
+
+    // === Getter & Setter for profileStore ===
+    /**
+     * Returns the settings of the stored account and summoner lookups.
+     *
+     * @return ProfileStore configuration section
+     */
+    public ProfileStore getProfileStore() {
+        return profileStore;
+    }
+
+    /**
+     * Sets the settings of the stored account and summoner lookups - null-safe, falls back to defaults.
+     *
+     * @param profileStore ProfileStore configuration section
+     */
+    public void setProfileStore(ProfileStore profileStore) {
+        this.profileStore = profileStore != null ? profileStore : new ProfileStore();
+    }
+
+    // === Getter & Setter for matchStore ===
+    /**
+     * Returns the settings of the compressed off-heap match store.
+     *
+     * @return MatchStore configuration section
+     */
+    public MatchStore getMatchStore() {
+        return matchStore;
+    }
+
+    /**
+     * Sets the settings of the compressed off-heap match store - null-safe, falls back to defaults.
+     *
+     * @param matchStore MatchStore configuration section
+     */
+    public void setMatchStore(MatchStore matchStore) {
+        this.matchStore = matchStore != null ? matchStore : new MatchStore();
+    }
+
+    // === Getter & Setter for profileCache ===
+    /**
+     * Returns the settings of the cache of assembled profiles.
+     *
+     * @return ProfileCache configuration section
+     */
+    public ProfileCache getProfileCache() {
+        return profileCache;
+    }
+
+    /**
+     * Sets the settings of the cache of assembled profiles - null-safe, falls back to defaults.
+     *
+     * @param profileCache ProfileCache configuration section
+     */
+    public void setProfileCache(ProfileCache profileCache) {
+        this.profileCache = profileCache != null ? profileCache : new ProfileCache();
+    }
+
+    // === Getter & Setter for negativeCache ===
+    /**
+     * Returns the settings of the cache of 404 answers.
+     *
+     * @return NegativeCache configuration section
+     */
+    public NegativeCache getNegativeCache() {
+        return negativeCache;
+    }
+
+    /**
+     * Sets the settings of the cache of 404 answers - null-safe, falls back to defaults.
+     *
+     * @param negativeCache NegativeCache configuration section
+     */
+    public void setNegativeCache(NegativeCache negativeCache) {
+        this.negativeCache = negativeCache != null ? negativeCache : new NegativeCache();
+    }
+
+    /**
+     * Settings for the rate limiter that mirrors Riot's App and Method limits.
+     * The real limits are learned from X-App-Rate-Limit / X-Method-Rate-Limit response headers;
+     * the defaults below only apply until the first response for a routing host arrived.
+     */
+    public static class RateLimit {
+
+        // Master switch - false = requests are only bounded by riot.api.max-concurrent
+        private boolean enabled = true;
+
+        // App limits assumed before Riot told us the real ones, format "limit:seconds,limit:seconds"
+        // 20:1,100:120 = limits of a development key (20 per second, 100 per two minutes)
+        private String defaultAppLimits = "20:1,100:120";
+
+        // === Getter & Setter for enabled ===
+        /**
+         * Returns whether the rate limiter holds back requests.
+         *
+         * @return true if the rate limiter is active
+         */
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        /**
+         * Sets whether the rate limiter should hold back requests.
+         *
+         * @param enabled true to enable the rate limiter
+         */
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        // === Getter & Setter for defaultAppLimits ===
+        /**
+         * Returns the app limits assumed before the first response headers arrived.
+         *
+         * @return Limit specification in Riot header format
+         */
+        public String getDefaultAppLimits() {
+            return defaultAppLimits;
+        }
+
+        /**
+         * Sets the initial app limits - e.g. "500:10,30000:600" for a production key.
+         *
+         * @param defaultAppLimits Limit specification in Riot header format
+         */
+        public void setDefaultAppLimits(String defaultAppLimits) {
+            this.defaultAppLimits = defaultAppLimits;
+        }
+    }
+
+    /**
+     * Settings for the FIFO queue in front of the riot.api.max-concurrent permits.
+     * Callers that cannot get a permit in time fail with 503 instead of piling up.
+     */
+    public static class Permits {
+
+        // Maximum time a request waits for a free permit before it is rejected, and again for rate limit quota
+        private Duration maxWait = Duration.ofSeconds(10);
+
+        // Maximum number of waiting requests; further requests are rejected immediately
+        private int maxQueueSize = 1000;
+
+        // === Getter & Setter for maxWait ===
+        /**
+         * Returns the maximum time a request waits for a permit.
+         *
+         * @return Maximum permit wait
+         */
+        public Duration getMaxWait() {
+            return maxWait;
+        }
+
+        /**
+         * Sets the maximum permit wait - e.g. "10s".
+         *
+         * @param maxWait Maximum permit wait
+         */
+        public void setMaxWait(Duration maxWait) {
+            this.maxWait = maxWait;
+        }
+
+        // === Getter & Setter for maxQueueSize ===
+        /**
+         * Returns the maximum number of waiting requests.
+         *
+         * @return Maximum queue size
+         */
+        public int getMaxQueueSize() {
+            return maxQueueSize;
+        }
+
+        /**
+         * Sets the maximum number of waiting requests.
+         *
+         * @param maxQueueSize Maximum queue size
+         */
+        public void setMaxQueueSize(int maxQueueSize) {
+            this.maxQueueSize = maxQueueSize;
+        }
+    }
+
+    /**
+     * Settings for the priority classes of outbound calls.
+     * Prefetch and background calls may only use a share of the permits and of every
+     * rate limit window; the rest stays reserved for interactive requests.
+     */
+    public static class Priority {
+
+        // Share of permits and rate limit windows available to prefetch calls
+        private double prefetchShare = 0.8;
+
+        // Share of permits and rate limit windows available to background calls (build aggregation)
+        private double backgroundShare = 0.5;
+
+        // Background calls may wait longer for a permit (and quota) than interactive ones before failing
+        private Duration backgroundMaxWait = Duration.ofMinutes(2);
+
+        // === Getter & Setter for prefetchShare ===
+        /**
+         * Returns the share available to prefetch calls.
+         *
+         * @return Share between 0 and 1
+         */
+        public double getPrefetchShare() {
+            return prefetchShare;
+        }
+
+        /**
+         * Sets the share available to prefetch calls.
+         *
+         * @param prefetchShare Share between 0 and 1
+         */
+        public void setPrefetchShare(double prefetchShare) {
+            this.prefetchShare = prefetchShare;
+        }
+
+        // === Getter & Setter for backgroundShare ===
+        /**
+         * Returns the share available to background calls.
+         *
+         * @return Share between 0 and 1
+         */
+        public double getBackgroundShare() {
+            return backgroundShare;
+        }
+
+        /**
+         * Sets the share available to background calls.
+         *
+         * @param backgroundShare Share between 0 and 1
+         */
+        public void setBackgroundShare(double backgroundShare) {
+            this.backgroundShare = backgroundShare;
+        }
+
+        // === Getter & Setter for backgroundMaxWait ===
+        /**
+         * Returns the maximum permit wait of background calls.
+         *
+         * @return Maximum permit wait
+         */
+        public Duration getBackgroundMaxWait() {
+            return backgroundMaxWait;
+        }
+
+        /**
+         * Sets the maximum permit wait of background calls - e.g. "2m".
+         *
+         * @param backgroundMaxWait Maximum permit wait
+         */
+        public void setBackgroundMaxWait(Duration backgroundMaxWait) {
+            this.backgroundMaxWait = backgroundMaxWait;
+        }
+    }
+
+    /**
+     * Settings for the circuit breakers in front of the Riot endpoints (Account, Summoner,
+     * LeagueEntries, MatchIds, MatchDetails). An open breaker fails calls immediately instead
+     * of retrying into an outage; cached endpoints then answer with their last good value.
+     */
+    public static class CircuitBreaker {
+
+        // Master switch - false = every call goes to Riot, no fail-fast
+        private boolean enabled = true;
+
+        // Share of failed calls (5xx, timeouts, I/O errors) in the window that opens a breaker
+        private double failureRateThreshold = 0.5;
+
+        // Number of most recent calls per endpoint the failure rate is computed over
+        private int windowSize = 20;
+
+        // Calls needed in the window before the failure rate is judged at all
+        private int minimumCalls = 10;
+
+        // How long an open breaker fails fast before it lets trial calls through
+        private Duration openDuration = Duration.ofSeconds(30);
+
+        // Trial calls let through after the open period; all must succeed to close again
+        private int halfOpenCalls = 3;
+
+        // Last good values are kept this long after they were fetched, for serving stale on errors
+        private Duration maxStaleAge = Duration.ofHours(24);
+
+        // Maximum number of last good values kept per cache (cache.budget bounds them by bytes instead)
+        private int staleMaxEntries = 2000;
+
+        // === Getter & Setter for enabled ===
+        /**
+         * Returns whether the breakers may open.
+         *
+         * @return true if the breakers are active
+         */
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        /**
+         * Sets whether the breakers may open.
+         *
+         * @param enabled true to enable the breakers
+         */
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        // === Getter & Setter for failureRateThreshold ===
+        /**
+         * Returns the failure rate that opens a breaker.
+         *
+         * @return Share between 0 and 1
+         */
+        public double getFailureRateThreshold() {
+            return failureRateThreshold;
+        }
+
+        /**
+         * Sets the failure rate that opens a breaker.
+         *
+         * @param failureRateThreshold Share between 0 and 1
+         */
+        public void setFailureRateThreshold(double failureRateThreshold) {
+            this.failureRateThreshold = failureRateThreshold;
+        }
+
+        // === Getter & Setter for windowSize ===
+        /**
+         * Returns the number of calls in the sliding window.
+         *
+         * @return Window size
+         */
+        public int getWindowSize() {
+            return windowSize;
+        }
+
+        /**
+         * Sets the number of calls in the sliding window.
+         *
+         * @param windowSize Window size
+         */
+        public void setWindowSize(int windowSize) {
+            this.windowSize = windowSize;
+        }
+
+        // === Getter & Setter for minimumCalls ===
+        /**
+         * Returns the number of calls needed before a breaker may open.
+         *
+         * @return Minimum number of calls
+         */
+        public int getMinimumCalls() {
+            return minimumCalls;
+        }
+
+        /**
+         * Sets the number of calls needed before a breaker may open.
+         *
+         * @param minimumCalls Minimum number of calls
+         */
+        public void setMinimumCalls(int minimumCalls) {
+            this.minimumCalls = minimumCalls;
+        }
+
+        // === Getter & Setter for openDuration ===
+        /**
+         * Returns how long a breaker stays open.
+         *
+         * @return Open duration
+         */
+        public Duration getOpenDuration() {
+            return openDuration;
+        }
+
+        /**
+         * Sets how long a breaker stays open - e.g. "30s".
+         *
+         * @param openDuration Open duration
+         */
+        public void setOpenDuration(Duration openDuration) {
+            this.openDuration = openDuration;
+        }
+
+        // === Getter & Setter for halfOpenCalls ===
+        /**
+         * Returns the number of trial calls of a half-open breaker.
+         *
+         * @return Number of trial calls
+         */
+        public int getHalfOpenCalls() {
+            return halfOpenCalls;
+        }
+
+        /**
+         * Sets the number of trial calls of a half-open breaker.
+         *
+         * @param halfOpenCalls Number of trial calls
+         */
+        public void setHalfOpenCalls(int halfOpenCalls) {
+            this.halfOpenCalls = halfOpenCalls;
+        }
+
+        // === Getter & Setter for maxStaleAge ===
+        /**
+         * Returns how long last good values are kept.
+         *
+         * @return Maximum age of stale values
+         */
+        public Duration getMaxStaleAge() {
+            return maxStaleAge;
+        }
+
+        /**
+         * Sets how long last good values are kept - e.g. "24h".
+         *
+         * @param maxStaleAge Maximum age of stale values
+         */
+        public void setMaxStaleAge(Duration maxStaleAge) {
+            this.maxStaleAge = maxStaleAge;
+        }
+
+        // === Getter & Setter for staleMaxEntries ===
+        /**
+         * Returns the number of last good values kept per cache.
+         *
+         * @return Maximum entries per cache
+         */
+        public int getStaleMaxEntries() {
+            return staleMaxEntries;
+        }
+
+        /**
+         * Sets the number of last good values kept per cache.
+         *
+         * @param staleMaxEntries Maximum entries per cache
+         */
+        public void setStaleMaxEntries(int staleMaxEntries) {
+            this.staleMaxEntries = staleMaxEntries;
+        }
+    }
+
+    /**
+     * Settings for hedged requests. A call of a hedged endpoint that is still open after the
+     * observed latency percentile of its endpoint gets one duplicate; the first response wins
+     * and the other attempt is cancelled. Hedges only use spare quota and permits.
+     */
+    public static class Hedging {
+
+        // Master switch - off by default, operators opt in; false = never send a duplicate
+        private boolean enabled = false;
+
+        // Endpoint types (request types) that may be hedged; all are idempotent GETs
+        private List<String> endpoints = new ArrayList<>(List.of("MatchDetails"));
+
+        // Latency percentile after which a duplicate is sent
+        private double percentile = 0.95;
+
+        // Latency samples an endpoint needs before it is hedged at all
+        private int minSamples = 50;
+
+        // Lower bound of the hedge delay, so fast endpoints are not duplicated on jitter
+        private Duration minDelay = Duration.ofMillis(50);
+
+        // Hedges earned per primary call (0.05 = at most about 5 % extra calls)
+        private double budgetRatio = 0.05;
+
+        // Hedges that may be saved up for a burst of slow calls
+        private int maxBurst = 10;
+
+        // === Getter & Setter for enabled ===
+        /**
+         * Returns whether requests may be hedged.
+         *
+         * @return true if hedging is active
+         */
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        /**
+         * Sets whether requests may be hedged.
+         *
+         * @param enabled true to enable hedging
+         */
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        // === Getter & Setter for endpoints ===
+        /**
+         * Returns the request types that may be hedged.
+         *
+         * @return Request types, e.g. "MatchDetails"
+         */
+        public List<String> getEndpoints() {
+            return endpoints;
+        }
+
+        /**
+         * Sets the request types that may be hedged - null-safe, null means none.
+         *
+         * @param endpoints Request types, e.g. "MatchDetails,MatchIds"
+         */
+        public void setEndpoints(List<String> endpoints) {
+            this.endpoints = endpoints != null ? endpoints : new ArrayList<>();
+        }
+
+        // === Getter & Setter for percentile ===
+        /**
+         * Returns the latency percentile after which a duplicate is sent.
+         *
+         * @return Percentile between 0 and 1
+         */
+        public double getPercentile() {
+            return percentile;
+        }
+
+        /**
+         * Sets the latency percentile after which a duplicate is sent.
+         *
+         * @param percentile Percentile between 0 and 1, e.g. 0.95
+         */
+        public void setPercentile(double percentile) {
+            this.percentile = percentile;
+        }
+
+        // === Getter & Setter for minSamples ===
+        /**
+         * Returns the number of samples needed before an endpoint is hedged.
+         *
+         * @return Minimum number of latency samples
+         */
+        public int getMinSamples() {
+            return minSamples;
+        }
+
+        /**
+         * Sets the number of samples needed before an endpoint is hedged.
+         *
+         * @param minSamples Minimum number of latency samples
+         */
+        public void setMinSamples(int minSamples) {
+            this.minSamples = minSamples;
+        }
+
+        // === Getter & Setter for minDelay ===
+        /**
+         * Returns the lower bound of the hedge delay.
+         *
+         * @return Minimum hedge delay
+         */
+        public Duration getMinDelay() {
+            return minDelay;
+        }
+
+        /**
+         * Sets the lower bound of the hedge delay - e.g. "50ms".
+         *
+         * @param minDelay Minimum hedge delay
+         */
+        public void setMinDelay(Duration minDelay) {
+            this.minDelay = minDelay;
+        }
+
+        // === Getter & Setter for budgetRatio ===
+        /**
+         * Returns the hedges earned per primary call.
+         *
+         * @return Ratio between 0 and 1
+         */
+        public double getBudgetRatio() {
+            return budgetRatio;
+        }
+
+        /**
+         * Sets the hedges earned per primary call.
+         *
+         * @param budgetRatio Ratio between 0 and 1, e.g. 0.05
+         */
+        public void setBudgetRatio(double budgetRatio) {
+            this.budgetRatio = budgetRatio;
+        }
+
+        // === Getter & Setter for maxBurst ===
+        /**
+         * Returns the number of hedges that may be saved up.
+         *
+         * @return Maximum saved hedges
+         */
+        public int getMaxBurst() {
+            return maxBurst;
+        }
+
+        /**
+         * Sets the number of hedges that may be saved up.
+         *
+         * @param maxBurst Maximum saved hedges
+         */
+        public void setMaxBurst(int maxBurst) {
+            this.maxBurst = maxBurst;
+        }
+    }
+
+    /**
+     * Settings for the adaptive outbound concurrency. Each routing host starts at
+     * riot.api.max-concurrent permits; the limit grows by one per window of fast calls
+     * and shrinks multiplicatively once latency climbs over the observed minimum or
+     * Riot answers with 429/5xx/timeouts.
+     */
+    public static class Concurrency {
+
+        // Master switch - false = riot.api.max-concurrent stays a fixed limit
+        private boolean adaptive = true;
+
+        // Lower bound of the limit per routing host
+        private int minLimit = 2;
+
+        // Upper bound of the limit per routing host
+        private int maxLimit = 50;
+
+        // Average latency of a window above minimum latency x tolerance shrinks the limit
+        private double latencyTolerance = 2.0;
+
+        // Factor applied to the limit after a window with 429/5xx/timeouts
+        private double backoffRatio = 0.7;
+
+        // === Getter & Setter for adaptive ===
+        /**
+         * Returns whether the limit adapts at runtime.
+         *
+         * @return true if the limit adapts
+         */
+        public boolean isAdaptive() {
+            return adaptive;
+        }
+
+        /**
+         * Sets whether the limit adapts at runtime.
+         *
+         * @param adaptive true to adapt the limit
+         */
+        public void setAdaptive(boolean adaptive) {
+            this.adaptive = adaptive;
+        }
+
+        // === Getter & Setter for minLimit ===
+        /**
+         * Returns the lower bound of the limit.
+         *
+         * @return Minimum permits per routing host
+         */
+        public int getMinLimit() {
+            return minLimit;
+        }
+
+        /**
+         * Sets the lower bound of the limit.
+         *
+         * @param minLimit Minimum permits per routing host
+         */
+        public void setMinLimit(int minLimit) {
+            this.minLimit = minLimit;
+        }
+
+        // === Getter & Setter for maxLimit ===
+        /**
+         * Returns the upper bound of the limit.
+         *
+         * @return Maximum permits per routing host
+         */
+        public int getMaxLimit() {
+            return maxLimit;
+        }
+
+        /**
+         * Sets the upper bound of the limit.
+         *
+         * @param maxLimit Maximum permits per routing host
+         */
+        public void setMaxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+        }
+
+        // === Getter & Setter for latencyTolerance ===
+        /**
+         * Returns the latency increase that shrinks the limit.
+         *
+         * @return Factor over the minimum latency, e.g. 2.0
+         */
+        public double getLatencyTolerance() {
+            return latencyTolerance;
+        }
+
+        /**
+         * Sets the latency increase that shrinks the limit.
+         *
+         * @param latencyTolerance Factor over the minimum latency, e.g. 2.0
+         */
+        public void setLatencyTolerance(double latencyTolerance) {
+            this.latencyTolerance = latencyTolerance;
+        }
+
+        // === Getter & Setter for backoffRatio ===
+        /**
+         * Returns the factor applied to the limit after throttling or errors.
+         *
+         * @return Ratio between 0 and 1
+         */
+        public double getBackoffRatio() {
+            return backoffRatio;
+        }
+
+        /**
+         * Sets the factor applied to the limit after throttling or errors.
+         *
+         * @param backoffRatio Ratio between 0 and 1, e.g. 0.7
+         */
+        public void setBackoffRatio(double backoffRatio) {
+            this.backoffRatio = backoffRatio;
+        }
+    }
+
+    /**
+     * Settings for the per-endpoint request timeouts. Once an endpoint type has enough
+     * samples, its timeout is the measured latency percentile times the multiplier,
+     * bounded by min and max; until then (or with adaptive=false) max applies.
+     */
+    public static class Timeouts {
+
+        // Master switch - false = every request uses the max timeout
+        private boolean adaptive = true;
+
+        // Latency percentile the timeout is derived from
+        private double percentile = 0.99;
+
+        // Timeout = percentile latency x multiplier
+        private double multiplier = 2.0;
+
+        // Samples an endpoint type needs before its timeout adapts
+        private int minSamples = 100;
+
+        // Lower bound of an adapted timeout
+        private Duration min = Duration.ofSeconds(2);
+
+        // Upper bound, and the timeout before enough samples were seen
+        private Duration max = Duration.ofSeconds(15);
+
+        // === Getter & Setter for adaptive ===
+        /**
+         * Returns whether timeouts adapt to measured latency.
+         *
+         * @return true if timeouts adapt
+         */
+        public boolean isAdaptive() {
+            return adaptive;
+        }
+
+        /**
+         * Sets whether timeouts adapt to measured latency.
+         *
+         * @param adaptive true to adapt timeouts
+         */
+        public void setAdaptive(boolean adaptive) {
+            this.adaptive = adaptive;
+        }
+
+        // === Getter & Setter for percentile ===
+        /**
+         * Returns the latency percentile timeouts are derived from.
+         *
+         * @return Percentile between 0 and 1
+         */
+        public double getPercentile() {
+            return percentile;
+        }
+
+        /**
+         * Sets the latency percentile timeouts are derived from.
+         *
+         * @param percentile Percentile between 0 and 1, e.g. 0.99
+         */
+        public void setPercentile(double percentile) {
+            this.percentile = percentile;
+        }
+
+        // === Getter & Setter for multiplier ===
+        /**
+         * Returns the factor applied to the percentile latency.
+         *
+         * @return Multiplier
+         */
+        public double getMultiplier() {
+            return multiplier;
+        }
+
+        /**
+         * Sets the factor applied to the percentile latency.
+         *
+         * @param multiplier Multiplier, e.g. 2.0
+         */
+        public void setMultiplier(double multiplier) {
+            this.multiplier = multiplier;
+        }
+
+        // === Getter & Setter for minSamples ===
+        /**
+         * Returns the samples needed before a timeout adapts.
+         *
+         * @return Minimum number of latency samples
+         */
+        public int getMinSamples() {
+            return minSamples;
+        }
+
+        /**
+         * Sets the samples needed before a timeout adapts.
+         *
+         * @param minSamples Minimum number of latency samples
+         */
+        public void setMinSamples(int minSamples) {
+            this.minSamples = minSamples;
+        }
+
+        // === Getter & Setter for min ===
+        /**
+         * Returns the lower bound of an adapted timeout.
+         *
+         * @return Minimum timeout
+         */
+        public Duration getMin() {
+            return min;
+        }
+
+        /**
+         * Sets the lower bound of an adapted timeout - e.g. "2s".
+         *
+         * @param min Minimum timeout
+         */
+        public void setMin(Duration min) {
+            this.min = min;
+        }
+
+        // === Getter & Setter for max ===
+        /**
+         * Returns the upper bound of the timeouts.
+         *
+         * @return Maximum timeout
+         */
+        public Duration getMax() {
+            return max;
+        }
+
+        /**
+         * Sets the upper bound of the timeouts - e.g. "15s".
+         *
+         * @param max Maximum timeout
+         */
+        public void setMax(Duration max) {
+            this.max = max;
+        }
+    }
+
+    /**
+     * Settings for the request coalescing of identical concurrent lookups. Each lookup
+     * type tracks at most maxInFlight distinct keys; further keys are loaded without
+     * sharing. A shared load still running after the timeout is failed and cancelled,
+     * so a stuck call cannot hold its key for good.
+     */
+    public static class Coalescing {
+
+        // Distinct keys in flight per lookup type before new keys bypass coalescing
+        private int maxInFlight = 10000;
+
+        // Longest a shared load may run (covers permit waits of background calls)
+        private Duration timeout = Duration.ofMinutes(3);
+
+        // === Getter & Setter for maxInFlight ===
+        /**
+         * Returns the distinct keys in flight per lookup type.
+         *
+         * @return Maximum number of shared loads
+         */
+        public int getMaxInFlight() {
+            return maxInFlight;
+        }
+
+        /**
+         * Sets the distinct keys in flight per lookup type.
+         *
+         * @param maxInFlight Maximum number of shared loads
+         */
+        public void setMaxInFlight(int maxInFlight) {
+            this.maxInFlight = maxInFlight;
+        }
+
+        // === Getter & Setter for timeout ===
+        /**
+         * Returns how long a shared load may run.
+         *
+         * @return Timeout of a shared load
+         */
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        /**
+         * Sets how long a shared load may run - e.g. "3m".
+         *
+         * @param timeout Timeout of a shared load
+         */
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+    }
+
+    /**
+     * Settings for the stored per-player match ID timelines. A timeline is brought up
+     * to date at most once per refresh interval, by asking Riot only for matches started
+     * since the last sync; match history pages are then read from the timeline.
+     */
+    public static class MatchTimeline {
+
+        // Master switch - false = every page asks Riot for its match IDs
+        private boolean enabled = true;
+
+        // Minimum time between two syncs of one player's timeline
+        private Duration refreshInterval = Duration.ofMinutes(2);
+
+        // === Getter & Setter for enabled ===
+        /**
+         * Returns whether match history pages are served from the timelines.
+         *
+         * @return true if timelines are used
+         */
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        /**
+         * Sets whether match history pages are served from the timelines.
+         *
+         * @param enabled true to use timelines
+         */
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        // === Getter & Setter for refreshInterval ===
+        /**
+         * Returns the minimum time between two syncs of one timeline.
+         *
+         * @return Refresh interval
+         */
+        public Duration getRefreshInterval() {
+            return refreshInterval;
+        }
+
+        /**
+         * Sets the minimum time between two syncs of one timeline - e.g. "2m".
+         *
+         * @param refreshInterval Refresh interval
+         */
+        public void setRefreshInterval(Duration refreshInterval) {
+            this.refreshInterval = refreshInterval;
+        }
+    }
+
+    /**
+     * Settings for the database level behind the "accounts" and "summoners" caches.
+     * Riot IDs practically never move to another PUUID, so stored accounts stay valid for
+     * a fixed time. A summoner is considered fresh for half the time that had passed since
+     * its last change at Riot (revisionDate) when it was fetched, within the given bounds:
+     * players who just finished a game are asked again soon, idle ones much later.
+     */
+    public static class ProfileStore {
+
+        // Master switch - false = cache misses always go to Riot
+        private boolean enabled = true;
+
+        // How long a stored Riot ID lookup is served without asking Riot again
+        private Duration accountMaxAge = Duration.ofDays(3);
+
+        // Lower bound of the revisionDate-based summoner freshness
+        private Duration summonerMinAge = Duration.ofMinutes(30);
+
+        // Upper bound of the revisionDate-based summoner freshness
+        private Duration summonerMaxAge = Duration.ofDays(7);
+
+        // === Getter & Setter for enabled ===
+        /**
+         * Returns whether cache misses check the database first.
+         *
+         * @return true if the store is used
+         */
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        /**
+         * Sets whether cache misses check the database first.
+         *
+         * @param enabled true to use the store
+         */
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        // === Getter & Setter for accountMaxAge ===
+        /**
+         * Returns how long a stored Riot ID lookup stays valid.
+         *
+         * @return Maximum age of stored accounts
+         */
+        public Duration getAccountMaxAge() {
+            return accountMaxAge;
+        }
+
+        /**
+         * Sets how long a stored Riot ID lookup stays valid - e.g. "3d".
+         *
+         * @param accountMaxAge Maximum age of stored accounts
+         */
+        public void setAccountMaxAge(Duration accountMaxAge) {
+            this.accountMaxAge = accountMaxAge;
+        }
+
+        // === Getter & Setter for summonerMinAge ===
+        /**
+         * Returns the minimum time a stored summoner stays valid.
+         *
+         * @return Lower freshness bound
+         */
+        public Duration getSummonerMinAge() {
+            return summonerMinAge;
+        }
+
+        /**
+         * Sets the minimum time a stored summoner stays valid - e.g. "30m".
+         *
+         * @param summonerMinAge Lower freshness bound
+         */
+        public void setSummonerMinAge(Duration summonerMinAge) {
+            this.summonerMinAge = summonerMinAge;
+        }
+
+        // === Getter & Setter for summonerMaxAge ===
+        /**
+         * Returns the maximum time a stored summoner stays valid.
+         *
+         * @return Upper freshness bound
+         */
+        public Duration getSummonerMaxAge() {
+            return summonerMaxAge;
+        }
+
+        /**
+         * Sets the maximum time a stored summoner stays valid - e.g. "7d".
+         *
+         * @param summonerMaxAge Upper freshness bound
+         */
+        public void setSummonerMaxAge(Duration summonerMaxAge) {
+            this.summonerMaxAge = summonerMaxAge;
+        }
+    }
+
+    /**
+     * Settings for keeping the "matchDetails" cache as deflated JSON in off-heap buffers
+     * instead of object graphs on the heap. Trades CPU per hit (inflate + parse) for a
+     * much smaller, short-lived heap; bounded by the compressed bytes held.
+     */
+    public static class MatchStore {
+
+        // Switch - false = matches are cached on the heap (maximum 10000 entries)
+        private boolean enabled = false;
+
+        // Upper bound of the compressed bytes held off-heap
+        private DataSize maxSize = DataSize.ofMegabytes(128);
+
+        // How long a match is kept (match data never changes)
+        private Duration expireAfterWrite = Duration.ofDays(7);
+
+        // === Getter & Setter for enabled ===
+        /**
+         * Returns whether matches are cached compressed off-heap.
+         *
+         * @return true if the off-heap store is used
+         */
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        /**
+         * Sets whether matches are cached compressed off-heap.
+         *
+         * @param enabled true to use the off-heap store
+         */
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        // === Getter & Setter for maxSize ===
+        /**
+         * Returns the upper bound of the compressed bytes held.
+         *
+         * @return Maximum store size
+         */
+        public DataSize getMaxSize() {
+            return maxSize;
+        }
+
+        /**
+         * Sets the upper bound of the compressed bytes held - e.g. "128MB".
+         * Direct memory (-XX:MaxDirectMemorySize) must leave room for it.
+         *
+         * @param maxSize Maximum store size
+         */
+        public void setMaxSize(DataSize maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        // === Getter & Setter for expireAfterWrite ===
+        /**
+         * Returns how long a match is kept.
+         *
+         * @return Time to live of an entry
+         */
+        public Duration getExpireAfterWrite() {
+            return expireAfterWrite;
+        }
+
+        /**
+         * Sets how long a match is kept - e.g. "7d".
+         *
+         * @param expireAfterWrite Time to live of an entry
+         */
+        public void setExpireAfterWrite(Duration expireAfterWrite) {
+            this.expireAfterWrite = expireAfterWrite;
+        }
+    }
+
+    /**
+     * Settings for the stale-while-revalidate cache of assembled profiles.
+     * A profile younger than freshFor is served as is. An older one, up to maxStale, is
+     * served at once and marked as revalidating while a fresh one is assembled in the
+     * background. Older profiles are assembled while the caller waits.
+     */
+    public static class ProfileCache {
+
+        // Switch - false = every profile request assembles the profile
+        private boolean enabled = true;
+
+        // Age up to which a stored profile is served without a rebuild
+        private Duration freshFor = Duration.ofSeconds(30);
+
+        // Age up to which a stored profile is served while it is rebuilt
+        private Duration maxStale = Duration.ofMinutes(10);
+
+        // Upper bound of stored profiles
+        private int maxEntries = 5000;
+
+        // === Getter & Setter for enabled ===
+        /**
+         * Returns whether assembled profiles are reused.
+         *
+         * @return true if the profile cache is active
+         */
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        /**
+         * Sets whether assembled profiles are reused.
+         *
+         * @param enabled true to activate the profile cache
+         */
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        // === Getter & Setter for freshFor ===
+        /**
+         * Returns the age up to which a profile is served without a rebuild.
+         *
+         * @return Fresh period
+         */
+        public Duration getFreshFor() {
+            return freshFor;
+        }
+
+        /**
+         * Sets the age up to which a profile is served without a rebuild - e.g. "30s".
+         *
+         * @param freshFor Fresh period
+         */
+        public void setFreshFor(Duration freshFor) {
+            this.freshFor = freshFor;
+        }
+
+        // === Getter & Setter for maxStale ===
+        /**
+         * Returns the age up to which a profile is served while it is rebuilt.
+         *
+         * @return Staleness bound
+         */
+        public Duration getMaxStale() {
+            return maxStale;
+        }
+
+        /**
+         * Sets the age up to which a profile is served while it is rebuilt - e.g. "10m".
+         *
+         * @param maxStale Staleness bound
+         */
+        public void setMaxStale(Duration maxStale) {
+            this.maxStale = maxStale;
+        }
+
+        // === Getter & Setter for maxEntries ===
+        /**
+         * Returns the upper bound of stored profiles.
+         *
+         * @return Maximum entries
+         */
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+
+        /**
+         * Sets the upper bound of stored profiles.
+         *
+         * @param maxEntries Maximum entries
+         */
+        public void setMaxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+    }
+
+    /**
+     * Settings for the cache of 404 answers of account, summoner and match lookups.
+     * A lookup Riot answered with 404 is answered as not found for ttl without calling
+     * Riot again, so typos and deleted accounts do not use up the quota on every search.
+     */
+    public static class NegativeCache {
+
+        // Switch - false = every lookup of an unknown ID goes to Riot
+        private boolean enabled = true;
+
+        // How long a 404 answer is reused
+        private Duration ttl = Duration.ofSeconds(60);
+
+        // Upper bound of remembered 404 answers (a scan of random names cannot grow it further)
+        private int maxEntries = 10000;
+
+        // === Getter & Setter for enabled ===
+        /**
+         * Returns whether 404 answers are reused.
+         *
+         * @return true if the negative cache is active
+         */
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        /**
+         * Sets whether 404 answers are reused.
+         *
+         * @param enabled true to activate the negative cache
+         */
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        // === Getter & Setter for ttl ===
+        /**
+         * Returns how long a 404 answer is reused.
+         *
+         * @return Time to live
+         */
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        /**
+         * Sets how long a 404 answer is reused - e.g. "60s". Keep it short: a new account
+         * or a renamed Riot ID is not found until the entry expired.
+         *
+         * @param ttl Time to live
+         */
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        // === Getter & Setter for maxEntries ===
+        /**
+         * Returns the upper bound of remembered 404 answers.
+         *
+         * @return Maximum entries
+         */
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+
+        /**
+         * Sets the upper bound of remembered 404 answers.
+         *
+         * @param maxEntries Maximum entries
+         */
+        public void setMaxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+// Package declaration - defines that this class belongs to the config package
+package com.zerox80.riotapi.config;
+
+// Import for the Riot API client owning the breakers
+import com.zerox80.riotapi.client.RiotApiClient;
+// Import for the breaker snapshots returned by the endpoint
+import com.zerox80.riotapi.client.RiotCircuitBreaker;
+// Import for @Endpoint - declares a custom actuator endpoint
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+// Import for @ReadOperation - maps the endpoint to HTTP GET
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+// Import for @Component for bean registration
+import org.springframework.stereotype.Component;
+
+// Import for map interface
+import java.util.Map;
+// Import for sorted map (stable output order)
+import java.util.TreeMap;
+
+
+// @Component - marks this class as a Spring-managed bean
+@Component
+// @Endpoint - available as /actuator/riotcircuits once exposed via management.endpoints.web.exposure.include
+@Endpoint(id = "riotcircuits")
+/**
+ * Actuator view of the circuit breakers in front of the Riot endpoints.
+ * Shows state, sliding window and remaining open time per endpoint type.
+ */
+public class RiotCircuitBreakerEndpoint {
+
+    // Riot API client owning the breakers
+    private final RiotApiClient riotApiClient;
+
+    /**
+     * Constructor with dependency injection.
+     *
+     * @param riotApiClient Riot API client owning the breakers
+     */
+    public RiotCircuitBreakerEndpoint(RiotApiClient riotApiClient) {
+        this.riotApiClient = riotApiClient;
+    }
+
+    /**
+     * Lists all breakers.
+     *
+     * @return Snapshot per endpoint type, sorted by name
+     */
+    @ReadOperation
+    public Map<String, RiotCircuitBreaker.Snapshot> circuits() {
+        Map<String, RiotCircuitBreaker.Snapshot> result = new TreeMap<>();
+        riotApiClient.getCircuitBreakers().forEach((endpoint, breaker) -> result.put(endpoint, breaker.snapshot()));
+        return result;
+    }
+}
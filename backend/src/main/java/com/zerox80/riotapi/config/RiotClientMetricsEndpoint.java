@@ -0,0 +1,243 @@
+// Package declaration - defines that this class belongs to the config package
+package com.zerox80.riotapi.config;
+
+// Import for counters (coalescing outcomes)
+import io.micrometer.core.instrument.Counter;
+// Import for distribution summaries (response sizes)
+import io.micrometer.core.instrument.DistributionSummary;
+// Import for gauges (permits, in-flight maps)
+import io.micrometer.core.instrument.Gauge;
+// Import for the registry the summary is read from
+import io.micrometer.core.instrument.MeterRegistry;
+// Import for timers (permit wait, network time)
+import io.micrometer.core.instrument.Timer;
+// Import for percentile snapshots of timers and summaries
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+// Import for a single percentile value of a snapshot
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+// Import for @Endpoint - declares a custom actuator endpoint
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+// Import for @ReadOperation - maps the endpoint to HTTP GET
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+// Import for @Component for bean registration
+import org.springframework.stereotype.Component;
+
+// Import for map interface
+import java.util.Map;
+// Import for ordered maps (percentiles in ascending order)
+import java.util.LinkedHashMap;
+// Import for sorted maps (stable output order)
+import java.util.TreeMap;
+// Import for time unit conversion of timer values
+import java.util.concurrent.TimeUnit;
+
+
+// @Component - marks this class as a Spring-managed bean
+@Component
+// @Endpoint - available as /actuator/riotclient once exposed via management.endpoints.web.exposure.include
+@Endpoint(id = "riotclient")
+/**
+ * Actuator summary of the outbound Riot API client, read from its metrics.
+ * Shows per routing host the permits in use and the time calls waited for one,
+ * per request type the network time and response sizes, and per coalescing map
+ * how many calls were deduplicated.
+ */
+public class RiotClientMetricsEndpoint {
+
+    // Registry holding the client metrics
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Constructor with dependency injection.
+     *
+     * @param meterRegistry Registry holding the client metrics
+     */
+    public RiotClientMetricsEndpoint(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Summarizes the client metrics.
+     *
+     * @return Permit pools by route, network time and response sizes by type, coalescing by map
+     */
+    @ReadOperation
+    public Summary summary() {
+        return new Summary(permits(), network(), responseSizes(), coalescing());
+    }
+
+    /**
+     * Collects the permit pools.
+     *
+     * @return Pool summary per routing host
+     */
+    private Map<String, PermitPool> permits() {
+        Map<String, PermitPool> result = new TreeMap<>();
+        for (Gauge gauge : meterRegistry.find("riotapi.client.permits.in-flight").gauges()) {
+            String route = gauge.getId().getTag("route");
+            Map<String, Integer> queued = new TreeMap<>();
+            for (Gauge depth : meterRegistry.find("riotapi.client.permits.queue.depth").tag("route", route).gauges()) {
+                queued.put(depth.getId().getTag("priority"), (int) depth.value());
+            }
+            Map<String, Distribution> wait = new TreeMap<>();
+            for (Timer timer : meterRegistry.find("riotapi.client.permits.wait").tag("route", route).timers()) {
+                wait.put(timer.getId().getTag("priority"), Distribution.of(timer.takeSnapshot(), true));
+            }
+            result.put(route, new PermitPool(gaugeValue("riotapi.client.permits.limit", "route", route),
+                    (int) gauge.value(), gaugeValue("riotapi.client.permits.available", "route", route), queued,
+                    wait));
+        }
+        return result;
+    }
+
+    /**
+     * Collects the network time per request type and outcome ("response" or "error").
+     *
+     * @return Network time per request type, in milliseconds
+     */
+    private Map<String, Map<String, Distribution>> network() {
+        Map<String, Map<String, Distribution>> result = new TreeMap<>();
+        for (Timer timer : meterRegistry.find("riotapi.client.network").timers()) {
+            result.computeIfAbsent(timer.getId().getTag("type"), type -> new TreeMap<>())
+                    .put(timer.getId().getTag("outcome"), Distribution.of(timer.takeSnapshot(), true));
+        }
+        return result;
+    }
+
+    /**
+     * Collects the response body sizes per request type.
+     *
+     * @return Size distribution per request type, in bytes
+     */
+    private Map<String, Distribution> responseSizes() {
+        Map<String, Distribution> result = new TreeMap<>();
+        for (DistributionSummary summary : meterRegistry.find("riotapi.client.response.size").summaries()) {
+            result.put(summary.getId().getTag("type"), Distribution.of(summary.takeSnapshot(), false));
+        }
+        return result;
+    }
+
+    /**
+     * Collects the coalescing maps.
+     *
+     * @return Calls in flight and deduplication counts per map
+     */
+    private Map<String, Coalescing> coalescing() {
+        Map<String, Coalescing> result = new TreeMap<>();
+        for (Gauge gauge : meterRegistry.find("riotapi.client.coalescing.in-flight").gauges()) {
+            String map = gauge.getId().getTag("map");
+            long originated = count(map, "originated");
+            long coalesced = count(map, "coalesced");
+            long bypassed = count(map, "bypassed");
+            double ratio = originated + coalesced + bypassed > 0
+                    ? (double) coalesced / (originated + coalesced + bypassed) : 0.0;
+            result.put(map, new Coalescing((int) gauge.value(), originated, coalesced, bypassed,
+                    count(map, "timeout"), count(map, "cancelled"), ratio));
+        }
+        return result;
+    }
+
+    /**
+     * Reads a gauge of one routing host.
+     *
+     * @param name     Gauge name
+     * @param tagKey   Tag key
+     * @param tagValue Tag value
+     * @return Gauge value, -1 if the gauge does not exist
+     */
+    private int gaugeValue(String name, String tagKey, String tagValue) {
+        Gauge gauge = meterRegistry.find(name).tag(tagKey, tagValue).gauge();
+        return gauge != null ? (int) gauge.value() : -1;
+    }
+
+    /**
+     * Reads a coalescing counter.
+     *
+     * @param map     Name of the coalescing map
+     * @param outcome "originated", "coalesced", "bypassed", "timeout" or "cancelled"
+     * @return Count, 0 if nothing was counted yet
+     */
+    private long count(String map, String outcome) {
+        Counter counter = meterRegistry.find("riotapi.client.coalescing.calls")
+                .tags("map", map, "outcome", outcome).counter();
+        return counter != null ? (long) counter.count() : 0;
+    }
+
+    /**
+     * Complete summary returned by the endpoint.
+     *
+     * @param permits       Permit pools by routing host
+     * @param network       Network time by request type and outcome
+     * @param responseSizes Response sizes by request type
+     * @param coalescing    Coalescing maps by name
+     */
+    public record Summary(Map<String, PermitPool> permits, Map<String, Map<String, Distribution>> network,
+            Map<String, Distribution> responseSizes, Map<String, Coalescing> coalescing) {
+    }
+
+    /**
+     * State of the permit pool of one routing host.
+     *
+     * @param limit     Current number of permits
+     * @param inFlight  Permits in use
+     * @param available Free permits
+     * @param queued    Waiting calls by priority
+     * @param waitTime  Time calls waited for a permit by priority, in milliseconds
+     */
+    public record PermitPool(int limit, int inFlight, int available, Map<String, Integer> queued,
+            Map<String, Distribution> waitTime) {
+    }
+
+    /**
+     * Deduplication by one coalescing map.
+     *
+     * @param inFlight       Distinct calls in flight right now
+     * @param originated     Calls that went to Riot
+     * @param coalesced      Calls that joined a call already in flight
+     * @param bypassed       Calls that went to Riot unshared because the map was full
+     * @param timedOut       Shared calls failed after running too long
+     * @param cancelled      Shared calls cancelled because all of their callers cancelled
+     * @param coalescedRatio Share of the calls that were deduplicated
+     */
+    public record Coalescing(int inFlight, long originated, long coalesced, long bypassed, long timedOut,
+            long cancelled, double coalescedRatio) {
+    }
+
+    /**
+     * Distribution of a timer (in milliseconds) or a size summary (in bytes).
+     *
+     * @param count       Number of recorded values
+     * @param mean        Mean value
+     * @param max         Largest value in the recent window
+     * @param percentiles Values by percentile, e.g. "p95"
+     */
+    public record Distribution(long count, double mean, double max, Map<String, Double> percentiles) {
+
+        /**
+         * Converts a histogram snapshot.
+         *
+         * @param snapshot Snapshot of the meter
+         * @param time     true for timers (values converted to milliseconds)
+         * @return The distribution
+         */
+        static Distribution of(HistogramSnapshot snapshot, boolean time) {
+            Map<String, Double> percentiles = new LinkedHashMap<>();
+            for (ValueAtPercentile value : snapshot.percentileValues()) {
+                percentiles.put("p" + trim(value.percentile() * 100), time ? value.value(TimeUnit.MILLISECONDS) : value.value());
+            }
+            return new Distribution(snapshot.count(),
+                    time ? snapshot.mean(TimeUnit.MILLISECONDS) : snapshot.mean(),
+                    time ? snapshot.max(TimeUnit.MILLISECONDS) : snapshot.max(), percentiles);
+        }
+
+        /**
+         * Formats a percentile without trailing zeros ("95", "99.9").
+         *
+         * @param percent Percentile times 100
+         * @return Short form
+         */
+        private static String trim(double percent) {
+            return percent == Math.rint(percent) ? String.valueOf((long) percent) : String.valueOf(percent);
+        }
+    }
+}
@@ -1,6 +1,10 @@
 // Package-Deklaration: Definiert die Zugehörigkeit dieser Klasse zum config-Paket
 package com.zerox80.riotapi.config;
 
+// Import für HttpServletRequest zum Lesen des Actuator-Tokens
+import jakarta.servlet.http.HttpServletRequest;
+// Import für @Value zum Einlesen des Actuator-Tokens
+import org.springframework.beans.factory.annotation.Value;
 // Import für FilterRegistrationBean zur manuellen Filter-Registrierung
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 // Import für @Bean Annotation zum Definieren von Spring-verwalteten Objekten
@@ -15,6 +19,8 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 // Import für AbstractHttpConfigurer zum Deaktivieren von Features
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+// Import für AuthorizationDecision - Ergebnis der Token-Prüfung
+import org.springframework.security.authorization.AuthorizationDecision;
 // Import für SecurityFilterChain - definiert Security-Filter-Kette
 import org.springframework.security.web.SecurityFilterChain;
 // Import für HeaderWriterFilter - filtert und schreibt Security-Header
@@ -25,6 +31,13 @@ import org.springframework.security.web.header.writers.ReferrerPolicyHeaderWrite
 import org.springframework.security.web.header.writers.StaticHeadersWriter;
 // Import für ForwardedHeaderFilter - verarbeitet X-Forwarded-* Header
 import org.springframework.web.filter.ForwardedHeaderFilter;
+// Import für StringUtils.hasText()
+import org.springframework.util.StringUtils;
+
+// Import für den konstanten Zeitvergleich des Tokens
+import java.nio.charset.StandardCharsets;
+// Import für MessageDigest.isEqual (Timing-sicherer Vergleich)
+import java.security.MessageDigest;
 
 // @Configuration: Markiert diese Klasse als Quelle von Bean-Definitionen
 @Configuration
@@ -50,14 +63,18 @@ public class SecurityConfig {
                         "/api/summoner-suggestions", // Summoner-Vorschlags-Endpoint (Autocomplete)
                         "/api/champions/**", // Alle Champion-API-Endpoints
                         "/actuator/health", // Health-Check Endpoint (Monitoring)
+                        "/actuator/health/**", // Liveness-/Readiness-Probes
                         "/actuator/info" // Info-Endpoint (Application-Metadata)
         };
 
+        // Header, der das Actuator-Token trägt
+        static final String ACTUATOR_TOKEN_HEADER = "X-Actuator-Token";
+
         // @Bean: Registriert SecurityFilterChain als Spring Bean
         // Hauptkonfiguration für Web-Security: CSRF, Header, Autorisierung
         @Bean
-        public SecurityFilterChain securityFilterChain(HttpSecurity http, RateLimitingFilter rateLimitingFilter)
-                        throws Exception {
+        public SecurityFilterChain securityFilterChain(HttpSecurity http, RateLimitingFilter rateLimitingFilter,
+                        @Value("${app.actuator-token:}") String actuatorToken) throws Exception {
                 // Konfiguriert HttpSecurity mit Fluent Builder Pattern
                 http
                                 // CSRF deaktiviert (Spring Boot 4 Kompatibilität - AntPathRequestMatcher nicht
@@ -108,6 +125,13 @@ public class SecurityConfig {
                                 .authorizeHttpRequests(auth -> auth
                                                 // Erlaubt PUBLIC_ENDPOINTS ohne Authentifizierung
                                                 .requestMatchers(PUBLIC_ENDPOINTS).permitAll()
+                                                // Riot-Actuator-Endpoints (Circuits, Client-Status, Cache-Verwaltung)
+                                                // nur mit X-Actuator-Token; ohne konfiguriertes Token gesperrt (403).
+                                                // /actuator/metrics bleibt wie bisher frei (Scraper)
+                                                .requestMatchers("/actuator/riotcircuits/**", "/actuator/riotclient/**",
+                                                                "/actuator/riotcaches/**")
+                                                .access((authentication, context) -> new AuthorizationDecision(
+                                                                hasActuatorToken(context.getRequest(), actuatorToken)))
                                                 // Erlaubt Endpoints mit manueller Authentifizierung
                                                 .requestMatchers("/api/me", "/api/champions/*/aggregate").permitAll()
                                                 // Erlaubt alle anderen Requests (für SPA-Routing)
@@ -125,6 +149,22 @@ public class SecurityConfig {
                 return http.build();
         }
 
+        /**
+         * Prüft das Actuator-Token einer Anfrage (Timing-sicherer Vergleich).
+         *
+         * @param request       Die Anfrage
+         * @param actuatorToken Konfiguriertes Token (app.actuator-token), leer = gesperrt
+         * @return true, wenn ein Token konfiguriert ist und der Header es enthält
+         */
+        static boolean hasActuatorToken(HttpServletRequest request, String actuatorToken) {
+                if (!StringUtils.hasText(actuatorToken)) {
+                        return false;
+                }
+                String provided = request.getHeader(ACTUATOR_TOKEN_HEADER);
+                return provided != null && MessageDigest.isEqual(actuatorToken.getBytes(StandardCharsets.UTF_8),
+                                provided.getBytes(StandardCharsets.UTF_8));
+        }
+
         // @Bean: Registriert FilterRegistrationBean für manuelle
         // Rate-Limiting-Filter-Kontrolle
         // Deaktiviert automatische Registrierung des RateLimitingFilter durch Spring
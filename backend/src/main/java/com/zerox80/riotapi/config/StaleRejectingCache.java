@@ -0,0 +1,162 @@
+// Package declaration - defines that this class belongs to the config package
+package com.zerox80.riotapi.config;
+
+// Import for Spring's Cache interface that is decorated here
+import org.springframework.cache.Cache;
+
+// Import for the synchronous value loader
+import java.util.concurrent.Callable;
+// Import for the failure Caffeine drops without logging it
+import java.util.concurrent.CancellationException;
+// Import for asynchronous/non-blocking operations
+import java.util.concurrent.CompletableFuture;
+// Import for unwrapping failures of dependent futures
+import java.util.concurrent.CompletionException;
+// Import for the stale check
+import java.util.function.Predicate;
+// Import for the asynchronous value loader
+import java.util.function.Supplier;
+
+
+/**
+ * Cache that never stores values marked as stale.
+ *
+ * When Riot fails, the client answers with the last good value, marked as stale (see
+ * RiotApiClient#isStale). That answer goes to the caller, but it must not replace or
+ * become a cache entry - the next request should ask Riot again. A put of a stale
+ * value is dropped; a load through {@link #retrieve(Object, Supplier)} (a sync
+ * @Cacheable) that yields a stale value fails inside the cache, so Caffeine removes
+ * the entry, and every caller waiting on it still gets the stale value.
+ */
+public class StaleRejectingCache implements Cache {
+
+    // final: the decorated cache
+    private final Cache delegate;
+    // final: tells whether a value is stale
+    private final Predicate<Object> stale;
+
+    /**
+     * Creates the decorator.
+     *
+     * @param delegate The decorated cache
+     * @param stale    Tells whether a value is stale
+     */
+    public StaleRejectingCache(Cache delegate, Predicate<Object> stale) {
+        this.delegate = delegate;
+        this.stale = stale;
+    }
+
+    /**
+     * Returns the decorated cache.
+     *
+     * @return The decorated cache
+     */
+    public Cache getTargetCache() {
+        return delegate;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return delegate.get(key);
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return delegate.get(key, type);
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return delegate.get(key, valueLoader);
+    }
+
+    @Override
+    public CompletableFuture<?> retrieve(Object key) {
+        return delegate.retrieve(key);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+        return delegate.<T>retrieve(key, () -> {
+            CompletableFuture<T> checked = new CompletableFuture<>();
+            valueLoader.get().whenComplete((value, throwable) -> {
+                if (throwable != null) {
+                    checked.completeExceptionally(throwable);
+                } else if (value != null && stale.test(value)) {
+                    checked.completeExceptionally(new StaleValueException(value));
+                } else {
+                    checked.complete(value);
+                }
+            });
+            return checked;
+        }).exceptionallyCompose(throwable -> {
+            Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+                    ? throwable.getCause()
+                    : throwable;
+            return cause instanceof StaleValueException staleValue
+                    ? CompletableFuture.completedFuture((T) staleValue.value)
+                    : CompletableFuture.failedFuture(throwable);
+        });
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (value == null || !stale.test(value)) {
+            delegate.put(key, value);
+        }
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        if (value != null && stale.test(value)) {
+            return delegate.get(key);
+        }
+        return delegate.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        return delegate.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        return delegate.invalidate();
+    }
+
+    /**
+     * Carries a stale load result past the cache. A cancellation, because Caffeine drops
+     * cancelled loads without logging them as errors.
+     */
+    private static final class StaleValueException extends CancellationException {
+
+        // final: the stale value handed to the callers
+        private final transient Object value;
+
+        StaleValueException(Object value) {
+            super("stale value");
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,288 @@
+// Package declaration - defines that this class belongs to the config package
+package com.zerox80.riotapi.config;
+
+// Import for Caffeine Cache Builder - used for the identity set of written values
+import com.github.benmanes.caffeine.cache.Caffeine;
+// Import for carrying the caller's deadline to the loader
+import com.zerox80.riotapi.client.RequestDeadline;
+// Import for carrying the caller's priority to the loader
+import com.zerox80.riotapi.client.RequestPriority;
+// Import for logging interface
+import org.slf4j.Logger;
+// Import for logger factory to instantiate loggers
+import org.slf4j.LoggerFactory;
+// Import for Spring's Cache interface that is decorated here
+import org.springframework.cache.Cache;
+// Import for wrapping second-level hits
+import org.springframework.cache.support.SimpleValueWrapper;
+
+// Import for the synchronous value loader
+import java.util.concurrent.Callable;
+// Import for asynchronous/non-blocking operations
+import java.util.concurrent.CompletableFuture;
+// Import for the executor the second-level lookups run on
+import java.util.concurrent.Executor;
+// Import for the write-through callback
+import java.util.function.BiConsumer;
+// Import for the second-level deletion by key
+import java.util.function.Consumer;
+// Import for the second-level lookup
+import java.util.function.Function;
+// Import for the asynchronous value loader
+import java.util.function.Supplier;
+
+
+/**
+ * Cache with a second level behind an in-memory cache.
+ *
+ * A miss in the first level checks the second level (e.g. the database) before the
+ * value is loaded; a hit there is copied into the first level. Values put into the
+ * cache are handed to the write-through callback once per instance, so a value that
+ * came from the second level, or an old instance served again as stale fallback, is
+ * not written back. Errors of the second level count as a miss.
+ *
+ * Evicting or clearing deletes from the second level as well, so an evicted entry is
+ * loaded again rather than served from the second level. The deletion runs on the
+ * executor; the first level is evicted once more afterwards, in case a lookup copied
+ * the old value back in the meantime.
+ *
+ * The asynchronous lookups ({@link #retrieve}) query the second level on the given
+ * executor: their callers are mostly steps of a Riot call chain, running on HTTP client
+ * or timer threads that must not block on the database.
+ */
+public class TieredCache implements Cache {
+
+    // Logger instance for logging in this class
+    private static final Logger logger = LoggerFactory.getLogger(TieredCache.class);
+
+    // final: the first level all operations go to first
+    private final Cache delegate;
+    // final: second-level lookup by cache key, null on a miss
+    private final Function<Object, Object> lookup;
+    // final: write-through of a freshly loaded value (expected to return quickly)
+    private final BiConsumer<Object, Object> writeThrough;
+    // final: second-level deletion by cache key
+    private final Consumer<Object> delete;
+    // final: deletion of all second-level entries
+    private final Runnable deleteAll;
+    // final: executor the second-level lookups of retrieve() run on
+    private final Executor executor;
+    // final: value instances that are already in the second level (identity, weakly held)
+    private final com.github.benmanes.caffeine.cache.Cache<Object, Boolean> stored =
+            Caffeine.newBuilder().weakKeys().build();
+
+    /**
+     * Creates a tiered cache.
+     *
+     * @param delegate     The first level
+     * @param lookup       Second-level lookup by cache key, returning null on a miss
+     * @param writeThrough Stores a freshly loaded value in the second level
+     */
+    public TieredCache(Cache delegate, Function<Object, Object> lookup, BiConsumer<Object, Object> writeThrough) {
+        this(delegate, lookup, writeThrough, key -> { }, () -> { }, Runnable::run);
+    }
+
+    /**
+     * Creates a tiered cache whose second-level work runs on an executor.
+     *
+     * @param delegate     The first level
+     * @param lookup       Second-level lookup by cache key, returning null on a miss
+     * @param writeThrough Stores a freshly loaded value in the second level
+     * @param delete       Deletes the second-level entry of a cache key
+     * @param deleteAll    Deletes all second-level entries
+     * @param executor     Executor the second-level lookups of retrieve() and the deletions run on
+     */
+    public TieredCache(Cache delegate, Function<Object, Object> lookup, BiConsumer<Object, Object> writeThrough,
+            Consumer<Object> delete, Runnable deleteAll, Executor executor) {
+        this.delegate = delegate;
+        this.lookup = lookup;
+        this.writeThrough = writeThrough;
+        this.delete = delete;
+        this.deleteAll = deleteAll;
+        this.executor = executor;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper cached = delegate.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        Object value = lookupAndPromote(key);
+        return value != null ? new SimpleValueWrapper(value) : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return delegate.get(key, () -> {
+            Object value = lookupQuietly(key);
+            if (value != null) {
+                stored.put(value, Boolean.TRUE);
+                return (T) value;
+            }
+            T loaded = valueLoader.call();
+            store(key, loaded);
+            return loaded;
+        });
+    }
+
+    @Override
+    public CompletableFuture<?> retrieve(Object key) {
+        CompletableFuture<?> cached = delegate.retrieve(key);
+        if (cached != null) {
+            return cached;
+        }
+        // Like the first level, a hit completes with a ValueWrapper; a miss completes with null
+        return CompletableFuture.supplyAsync(() -> lookupAndPromote(key), executor)
+                .thenApply(value -> value != null ? new SimpleValueWrapper(value) : null);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+        RequestDeadline deadline = RequestDeadline.current();
+        RequestPriority priority = RequestPriority.current();
+        return delegate.retrieve(key, () -> CompletableFuture.supplyAsync(() -> lookupQuietly(key), executor)
+                .thenCompose(value -> {
+                    if (value != null) {
+                        stored.put(value, Boolean.TRUE);
+                        return CompletableFuture.completedFuture((T) value);
+                    }
+                    // The loader runs on the lookup thread, with the caller's deadline and priority
+                    return priority.call(() -> RequestDeadline.call(deadline, valueLoader)).thenApply(loaded -> {
+                        store(key, loaded);
+                        return loaded;
+                    });
+                }));
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, value);
+        store(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = delegate.putIfAbsent(key, value);
+        if (existing == null) {
+            store(key, value);
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+        deleteFromSecondLevel(() -> delete.accept(key), () -> delegate.evict(key));
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean present = delegate.evictIfPresent(key);
+        deleteFromSecondLevel(() -> delete.accept(key), () -> delegate.evict(key));
+        return present;
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+        stored.invalidateAll();
+        deleteFromSecondLevel(deleteAll, delegate::clear);
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean present = delegate.invalidate();
+        stored.invalidateAll();
+        deleteFromSecondLevel(deleteAll, delegate::clear);
+        return present;
+    }
+
+    /**
+     * Deletes from the second level on the executor, then evicts the first level again:
+     * a lookup that ran before the deletion may have copied the old value back.
+     *
+     * @param deletion   The second-level deletion
+     * @param evictAgain The repeated first-level eviction
+     */
+    private void deleteFromSecondLevel(Runnable deletion, Runnable evictAgain) {
+        executor.execute(() -> {
+            try {
+                deletion.run();
+            } catch (RuntimeException e) {
+                logger.warn("Second-level delete in cache '{}' failed: {}", getName(), e.getMessage());
+            }
+            evictAgain.run();
+        });
+    }
+
+    /**
+     * Looks a key up in the second level and copies a hit into the first level.
+     *
+     * @param key Cache key
+     * @return The value, or null on a miss
+     */
+    private Object lookupAndPromote(Object key) {
+        Object value = lookupQuietly(key);
+        if (value != null) {
+            stored.put(value, Boolean.TRUE);
+            delegate.put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Looks a key up in the second level; failures count as a miss.
+     *
+     * @param key Cache key
+     * @return The value, or null on a miss or error
+     */
+    private Object lookupQuietly(Object key) {
+        try {
+            return lookup.apply(key);
+        } catch (RuntimeException e) {
+            logger.warn("Second-level lookup in cache '{}' failed: {}", getName(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Hands a value to the write-through, unless this instance is already stored.
+     *
+     * @param key   Cache key
+     * @param value The value
+     */
+    private void store(Object key, Object value) {
+        if (value == null || stored.asMap().putIfAbsent(value, Boolean.TRUE) != null) {
+            return;
+        }
+        try {
+            writeThrough.accept(key, value);
+        } catch (RuntimeException e) {
+            logger.warn("Second-level write in cache '{}' failed: {}", getName(), e.getMessage());
+        }
+    }
+}
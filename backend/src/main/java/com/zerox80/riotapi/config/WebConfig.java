@@ -17,6 +17,8 @@ import org.springframework.http.CacheControl;
 import org.springframework.util.unit.DataSize;
 // Import für ShallowEtagHeaderFilter zum automatischen ETag-Generation
 import org.springframework.web.filter.ShallowEtagHeaderFilter;
+// Import für AsyncSupportConfigurer zur Konfiguration asynchroner Requests
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 // Import für ResourceHandlerRegistry zur Konfiguration statischer Ressourcen
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 // Import für WebMvcConfigurer zum Konfigurieren von Spring MVC
@@ -67,8 +69,22 @@ public class WebConfig implements WebMvcConfigurer {
                 .setCacheControl(CacheControl.maxAge(Duration.ofDays(7)).cachePublic());
     }
 
+    /**
+     * Registriert den Interceptor, der Request-Deadlines abbricht, sobald ein
+     * asynchroner Request abläuft oder der Client die Verbindung trennt.
+     *
+     * @param configurer AsyncSupportConfigurer für asynchrone Requests
+     */
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        // Abgebrochene Requests stoppen wartende Riot-Calls und Retries
+        configurer.registerDeferredResultInterceptors(new RequestDeadlineInterceptor());
+    }
+
     /**
      * Create a ShallowEtagHeaderFilter bean.
+     * Endpoints mit eigenen Validatoren (Profil, Matches, Champions, Builds) schalten die
+     * Pufferung pro Request per ShallowEtagHeaderFilter.disableContentCaching ab.
      *
      * @return ShallowEtagHeaderFilter
      */
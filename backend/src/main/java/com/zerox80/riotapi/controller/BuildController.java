@@ -1,16 +1,22 @@
 // Package declaration - defines the namespace for the controller class
 package com.zerox80.riotapi.controller;
 
-// Import for ChampionBuildDto (Data Transfer Object for champion build data)
+// Import for ObjectMapper (serializes the cached responses)
+import com.fasterxml.jackson.databind.ObjectMapper;
+// Import for ChampionBuildDto (checks whether a build has stats before it is cached)
 import com.zerox80.riotapi.dto.ChampionBuildDto;
 // Import for BuildAggregationService (service for aggregating build data)
 import com.zerox80.riotapi.service.BuildAggregationService;
 // Import for Value annotation (injects configuration values from application.properties)
 import org.springframework.beans.factory.annotation.Value;
+// Import for CacheControl (builds carry no Cache-Control header)
+import org.springframework.http.CacheControl;
 // Import for HttpStatus enum (defines HTTP status codes like 200, 403, 404)
 import org.springframework.http.HttpStatus;
 // Import for ResponseEntity (enables HTTP status code and header control)
 import org.springframework.http.ResponseEntity;
+// Import for CollectionUtils (null-safe empty checks of the build stats)
+import org.springframework.util.CollectionUtils;
 // Import for StringUtils (helps with string validation and manipulation)
 import org.springframework.util.StringUtils;
 // Import for various web annotations (REST controller and mappings)
@@ -19,6 +25,8 @@ import org.springframework.web.bind.annotation.*;
 // Import for HttpServletRequest (represents incoming HTTP request)
 import jakarta.servlet.http.HttpServletRequest;
 
+// Import for Duration (time to live of cached responses)
+import java.time.Duration;
 // Import for Locale (represents language/region for internationalization)
 import java.util.Locale;
 
@@ -31,12 +39,18 @@ import java.util.Locale;
  * Provides functionality for fetching champion builds and triggering build
  * aggregation.
  * Admin-protected aggregation endpoint requires token authentication.
+ * Finished build responses are kept per patch, aggregation run, queue, role and locale
+ * as JSON and gzip bytes with a strong ETag. Builds without stats (not aggregated yet)
+ * are not kept, so the first aggregation shows up right away.
  */
 public class BuildController {
 
     // Service instance for build aggregation (provided via dependency injection)
     private final BuildAggregationService agg;
 
+    // Finished JSON build responses by champion, patch, queue, role and locale
+    private final JsonResponseCache responses;
+
     // Configuration value: enables or disables the aggregation trigger endpoint
     @Value("${build.agg.trigger-enabled:false}") // Default: false (disabled)
     private boolean triggerEnabled;
@@ -46,13 +60,19 @@ public class BuildController {
     private String triggerToken;
 
     /**
-     * Constructor with dependency injection for BuildAggregationService.
+     * Constructor with dependency injection and response cache settings.
      *
-     * @param agg Service for build aggregation
+     * @param agg          Service for build aggregation
+     * @param objectMapper Serializes the cached responses
+     * @param maxEntries   Upper bound of cached responses (app.response-cache.max-entries)
+     * @param ttl          How long a response is reused (app.response-cache.ttl)
      */
-    public BuildController(BuildAggregationService agg) {
+    public BuildController(BuildAggregationService agg, ObjectMapper objectMapper,
+            @Value("${app.response-cache.max-entries:2000}") int maxEntries,
+            @Value("${app.response-cache.ttl:10m}") Duration ttl) {
         // Assign BuildAggregationService to instance variable
         this.agg = agg;
+        this.responses = new JsonResponseCache(objectMapper, maxEntries, ttl);
     }
 
     // @GetMapping defines HTTP GET endpoint at /api/champions/{id}/build
@@ -64,19 +84,35 @@ public class BuildController {
      * @param queueId Queue ID (optional, e.g. 420 for Solo/Duo)
      * @param role    Role (optional, e.g. "MIDDLE")
      * @param locale  User's language/region setting
-     * @return ResponseEntity with build data
+     * @param request HTTP request (If-None-Match, Accept-Encoding)
+     * @return ResponseEntity with the JSON build data
+     * @throws Exception if loading the build fails
      */
-    public ResponseEntity<ChampionBuildDto> getBuild(@PathVariable("id") String id,
+    public ResponseEntity<byte[]> getBuild(@PathVariable("id") String id,
             @RequestParam(value = "queueId", required = false) Integer queueId,
             @RequestParam(value = "role", required = false) String role,
-            Locale locale) {
-        // Load champion build from service (filters by champion, queue, and role)
-        ChampionBuildDto dto = agg.loadBuild(id, queueId, role, locale);
-        // Return build DTO with HTTP 200 OK status, or 404 if not found
-        if (dto == null) {
-            return ResponseEntity.notFound().build();
-        }
-        return ResponseEntity.ok(dto);
+            Locale locale, HttpServletRequest request) throws Exception {
+        // Key by everything the build depends on (loadBuild defaults to SoloQ and all roles),
+        // including the aggregation run, so a finished aggregation replaces the cached builds
+        String key = "build|" + id.toLowerCase(Locale.ROOT) + "|" + agg.currentPatch() + "|"
+                + agg.buildGeneration(id) + "|" + (queueId != null ? queueId : 420) + "|"
+                + (StringUtils.hasText(role) ? role.toUpperCase(Locale.ROOT) : "ALL") + "|"
+                + (locale != null ? locale.toLanguageTag() : "");
+        // Load champion build from service on a miss (filters by champion, queue, and role)
+        // Return build JSON with HTTP 200 OK status, or 404 if not found
+        return responses.respond(request, key, CacheControl.empty(), () -> agg.loadBuild(id, queueId, role, locale),
+                BuildController::hasStats);
+    }
+
+    /**
+     * Checks whether a build has any stats; empty builds are not cached.
+     *
+     * @param body The loaded build
+     * @return true if it has items, runes or spells
+     */
+    private static boolean hasStats(Object body) {
+        return body instanceof ChampionBuildDto build && !(CollectionUtils.isEmpty(build.getItems())
+                && CollectionUtils.isEmpty(build.getRunes()) && CollectionUtils.isEmpty(build.getSpells()));
     }
 
     // @PostMapping defines HTTP POST endpoint at /api/champions/{id}/aggregate
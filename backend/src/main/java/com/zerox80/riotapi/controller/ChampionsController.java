@@ -1,12 +1,14 @@
 // Package declaration - defines the namespace for the controller class
 package com.zerox80.riotapi.controller;
 
-// Import for ChampionDetail (model with detailed champion information)
-import com.zerox80.riotapi.model.ChampionDetail;
-// Import for ChampionSummary (model with champion overview data)
-import com.zerox80.riotapi.model.ChampionSummary;
+// Import for ObjectMapper (serializes the cached responses)
+import com.fasterxml.jackson.databind.ObjectMapper;
 // Import for DataDragonService (service for Data Dragon API access)
 import com.zerox80.riotapi.service.DataDragonService;
+// Import for HttpServletRequest (conditional and encoding headers)
+import jakarta.servlet.http.HttpServletRequest;
+// Import for Value annotation (injects configuration values from application.properties)
+import org.springframework.beans.factory.annotation.Value;
 // Import for CacheControl (defines browser caching behavior)
 import org.springframework.http.CacheControl;
 // Import for HttpStatus enum (defines HTTP status codes like 200, 404, 500)
@@ -26,10 +28,6 @@ import org.springframework.web.bind.annotation.RestController;
 import org.slf4j.Logger;
 // Import for LoggerFactory (creates Logger instances)
 import org.slf4j.LoggerFactory;
-// Import for Collections utility (provides static methods for collections)
-import java.util.Collections;
-// Import for List interface (generic collection for lists)
-import java.util.List;
 // Import for Locale (represents language/region for internationalization)
 import java.util.Locale;
 // Import for Duration (represents time duration for cache expiration)
@@ -43,12 +41,15 @@ import java.time.Duration;
  * ChampionsController handles champion data API endpoints.
  * Provides functionality for fetching champion lists and detailed champion
  * information.
- * Implements caching for improved performance and reduced API calls.
+ * Implements caching for improved performance and reduced API calls; finished responses
+ * are kept per locale and patch as JSON and gzip bytes with a strong ETag.
  */
 public class ChampionsController {
 
     // Service instance for Data Dragon access (provided via dependency injection)
     private final DataDragonService dataDragonService;
+    // Finished JSON responses (champion list and details) by locale and patch
+    private final JsonResponseCache responses;
     // Logger instance for structured log output of this class
     private static final Logger log = LoggerFactory.getLogger(ChampionsController.class);
 
@@ -56,10 +57,16 @@ public class ChampionsController {
      * Constructor with dependency injection for DataDragonService.
      *
      * @param dataDragonService Service for Data Dragon data
+     * @param objectMapper      Serializes the cached responses
+     * @param maxEntries        Upper bound of cached responses (app.response-cache.max-entries)
+     * @param ttl               How long a response is reused (app.response-cache.ttl)
      */
-    public ChampionsController(DataDragonService dataDragonService) {
+    public ChampionsController(DataDragonService dataDragonService, ObjectMapper objectMapper,
+            @Value("${app.response-cache.max-entries:2000}") int maxEntries,
+            @Value("${app.response-cache.ttl:10m}") Duration ttl) {
         // Assign DataDragonService to instance variable
         this.dataDragonService = dataDragonService;
+        this.responses = new JsonResponseCache(objectMapper, maxEntries, ttl);
     }
 
     // @GetMapping defines HTTP GET endpoint at /api/champions
@@ -69,20 +76,21 @@ public class ChampionsController {
      *
      * @param localeParam Optional locale parameter from query string
      * @param locale      Fallback locale from Accept-Language header
-     * @return ResponseEntity with list of champion summaries
+     * @param request     HTTP request (If-None-Match, Accept-Encoding)
+     * @return ResponseEntity with the JSON list of champion summaries
      */
-    public ResponseEntity<List<ChampionSummary>> apiChampions(
+    public ResponseEntity<byte[]> apiChampions(
             @org.springframework.web.bind.annotation.RequestParam(value = "locale", required = false) String localeParam,
-            Locale locale) {
+            Locale locale, HttpServletRequest request) {
         // Try block for exception handling during champion loading
         try {
-            // Fetch champion summaries with resolved locale
-            List<ChampionSummary> champions = dataDragonService
-                    .getChampionSummaries(resolveLocaleOverride(localeParam, locale));
+            Locale resolved = resolveLocaleOverride(localeParam, locale);
+            String key = "champions|" + dataDragonService.resolveLocale(resolved) + "|"
+                    + dataDragonService.getLatestVersion();
             // Create Cache-Control header (30 minutes cache, publicly cacheable)
             CacheControl cc = CacheControl.maxAge(Duration.ofMinutes(30)).cachePublic();
-            // Return champion list with HTTP 200 OK and cache headers
-            return ResponseEntity.ok().cacheControl(cc).body(champions);
+            // Return champion list with HTTP 200 OK and cache headers (fetched only on a miss)
+            return responses.respond(request, key, cc, () -> dataDragonService.getChampionSummaries(resolved));
             // Catch block for all exceptions during loading
         } catch (Exception e) {
             // Log warning (not error, for graceful degradation)
@@ -100,23 +108,22 @@ public class ChampionsController {
      * @param id          Champion ID from URL path (e.g. "Ahri")
      * @param localeParam Optional locale parameter from query string
      * @param locale      Fallback locale from Accept-Language header
-     * @return ResponseEntity with champion details or 404 if not found
+     * @param request     HTTP request (If-None-Match, Accept-Encoding)
+     * @return ResponseEntity with the JSON champion details or 404 if not found
      */
-    public ResponseEntity<ChampionDetail> apiChampion(
+    public ResponseEntity<byte[]> apiChampion(
             @PathVariable("id") String id,
             @org.springframework.web.bind.annotation.RequestParam(value = "locale", required = false) String localeParam,
-            Locale locale) {
+            Locale locale, HttpServletRequest request) {
         // Try block for exception handling during champion detail loading
         try {
-            // Fetch champion details with resolved locale
-            ChampionDetail detail = dataDragonService.getChampionDetail(id, resolveLocaleOverride(localeParam, locale));
-            // Validation: check if champion was found
-            if (detail == null)
-                return ResponseEntity.status(HttpStatus.NOT_FOUND).build(); // 404 Not Found if champion doesn't exist
+            Locale resolved = resolveLocaleOverride(localeParam, locale);
+            String key = "champion|" + DataDragonService.safeLower(id) + "|" + dataDragonService.resolveLocale(resolved)
+                    + "|" + dataDragonService.getLatestVersion();
             // Create Cache-Control header (30 minutes cache, publicly cacheable)
             CacheControl cc = CacheControl.maxAge(Duration.ofMinutes(30)).cachePublic();
-            // Return champion details with HTTP 200 OK and cache headers
-            return ResponseEntity.ok().cacheControl(cc).body(detail);
+            // Return champion details with HTTP 200 OK and cache headers, 404 if the champion doesn't exist
+            return responses.respond(request, key, cc, () -> dataDragonService.getChampionDetail(id, resolved));
             // Catch block for all exceptions during loading
         } catch (java.io.IOException e) {
             // Return 404 Not Found if the resource is missing (e.g. file not found)
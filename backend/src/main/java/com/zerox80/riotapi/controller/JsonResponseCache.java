@@ -0,0 +1,246 @@
+// Package declaration - defines the namespace for the controller class
+package com.zerox80.riotapi.controller;
+
+// Import for the Caffeine cache of serialized responses
+import com.github.benmanes.caffeine.cache.Cache;
+// Import for the Caffeine cache builder
+import com.github.benmanes.caffeine.cache.Caffeine;
+// Import for ObjectMapper (serializes the response once)
+import com.fasterxml.jackson.databind.ObjectMapper;
+// Import for HttpServletRequest (conditional and encoding headers)
+import jakarta.servlet.http.HttpServletRequest;
+// Import for CacheControl (defines browser caching behavior)
+import org.springframework.http.CacheControl;
+// Import for HTTP header names
+import org.springframework.http.HttpHeaders;
+// Import for HttpStatus enum (404 and 304)
+import org.springframework.http.HttpStatus;
+// Import for the JSON content type
+import org.springframework.http.MediaType;
+// Import for ResponseEntity (enables HTTP status code and header control)
+import org.springframework.http.ResponseEntity;
+// Import for switching off the body buffering of the ETag filter
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+// Import for the in-memory gzip output
+import java.io.ByteArrayOutputStream;
+// Import for IOException (gzip and serialization failures)
+import java.io.IOException;
+// Import for the ETag hash
+import java.security.MessageDigest;
+// Import for the missing hash algorithm
+import java.security.NoSuchAlgorithmException;
+// Import for Duration (time to live of a response)
+import java.time.Duration;
+// Import for the hex encoding of the ETag
+import java.util.HexFormat;
+// Import for the loader of a missing response
+import java.util.concurrent.Callable;
+// Import for deciding whether a loaded body is stored
+import java.util.function.Predicate;
+// Import for the gzip variant
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache of finished JSON responses for endpoints whose data only changes with the patch
+ * (champion list, champion details, builds).
+ *
+ * Each entry holds the JSON bytes, a gzip variant and their strong ETags, all computed once.
+ * The gzip variant has its own ETag (suffix "-gz"), since a strong ETag promises
+ * byte-identical bodies and caches must not mix up the two encodings.
+ * A hit is written as bytes - no Jackson, no server compression (the Content-Encoding
+ * header makes the server skip it), no buffering in the ETag filter - and a matching
+ * If-None-Match is answered with 304 before the data is loaded. Callers put everything
+ * the response depends on (endpoint, ID, locale, patch, queue, role) into the key.
+ */
+final class JsonResponseCache {
+
+    // Responses below this size are not compressed (like server.compression.min-response-size)
+    private static final int MIN_GZIP_SIZE = 1024;
+
+    // final: Serializes the response bodies like Spring MVC would
+    private final ObjectMapper objectMapper;
+
+    // final: Finished responses by key
+    private final Cache<String, CachedResponse> responses;
+
+    /**
+     * Creates a response cache.
+     *
+     * @param objectMapper Serializes the response bodies
+     * @param maxEntries   Upper bound of cached responses
+     * @param ttl          How long a response is reused
+     */
+    JsonResponseCache(ObjectMapper objectMapper, int maxEntries, Duration ttl) {
+        this.objectMapper = objectMapper;
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(Math.max(1, maxEntries))
+                .expireAfterWrite(ttl != null && ttl.isPositive() ? ttl : Duration.ofMinutes(10))
+                .build();
+    }
+
+    /**
+     * Answers a request from the cache, loading and storing the response on a miss.
+     *
+     * @param request      The request (If-None-Match, Accept-Encoding)
+     * @param key          Everything the response depends on
+     * @param cacheControl Cache-Control of the response
+     * @param loader       Loads the body; null means 404 (not cached)
+     * @return 200 with the JSON (gzip if accepted), 304, or 404
+     * @throws Exception if the loader fails
+     */
+    ResponseEntity<byte[]> respond(HttpServletRequest request, String key, CacheControl cacheControl,
+            Callable<?> loader) throws Exception {
+        return respond(request, key, cacheControl, loader, body -> true);
+    }
+
+    /**
+     * Answers a request from the cache, storing a loaded response only if it is worth keeping.
+     *
+     * @param request      The request (If-None-Match, Accept-Encoding)
+     * @param key          Everything the response depends on
+     * @param cacheControl Cache-Control of the response
+     * @param loader       Loads the body; null means 404 (not cached)
+     * @param cacheable    Whether a loaded body is stored, e.g. false for a placeholder
+     * @return 200 with the JSON (gzip if accepted), 304, or 404
+     * @throws Exception if the loader fails
+     */
+    ResponseEntity<byte[]> respond(HttpServletRequest request, String key, CacheControl cacheControl,
+            Callable<?> loader, Predicate<Object> cacheable) throws Exception {
+        // The body is complete and has its ETag; buffering it in the filter would only copy it
+        ShallowEtagHeaderFilter.disableContentCaching(request);
+        CachedResponse cached = responses.getIfPresent(key);
+        if (cached == null) {
+            Object body = loader.call();
+            if (body == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).cacheControl(CacheControl.noStore()).build();
+            }
+            cached = CachedResponse.of(objectMapper.writeValueAsBytes(body));
+            if (cacheable.test(body)) {
+                responses.put(key, cached);
+            }
+        }
+        boolean gzip = cached.gzip() != null && acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        String etag = gzip ? cached.gzipEtag() : cached.etag();
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(cacheControl)
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(cached.gzip());
+        }
+        return response.body(cached.json());
+    }
+
+    /**
+     * Checks an If-None-Match header against an ETag (weak comparison, as for GET).
+     *
+     * @param ifNoneMatch Header value, may be null
+     * @param etag        Current ETag (quoted, may be weak)
+     * @return true if the client's copy is current
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String current = etag.startsWith("W/") ? etag.substring(2) : etag;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(current)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether the client accepts gzip (and did not rule it out with q=0).
+     *
+     * @param acceptEncoding Header value, may be null
+     * @return true if a gzip body may be sent
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String candidate : acceptEncoding.split(",")) {
+            String[] parts = candidate.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                for (int i = 1; i < parts.length; i++) {
+                    String parameter = parts[i].trim().replace(" ", "");
+                    if (parameter.equals("q=0") || parameter.matches("q=0\\.0*")) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A finished response.
+     *
+     * @param json JSON bytes
+     * @param gzip Gzip variant, null if compressing does not pay off
+     * @param etag Strong ETag (quoted) of the JSON
+     */
+    private record CachedResponse(byte[] json, byte[] gzip, String etag) {
+
+        /**
+         * Strong ETag of the gzip variant: the JSON's ETag with a "-gz" suffix.
+         *
+         * @return Quoted ETag
+         */
+        String gzipEtag() {
+            return etag.substring(0, etag.length() - 1) + "-gz\"";
+        }
+
+        /**
+         * Computes the gzip variant and the ETag of a JSON body.
+         *
+         * @param json JSON bytes
+         * @return The finished response
+         * @throws IOException if compressing fails
+         */
+        static CachedResponse of(byte[] json) throws IOException {
+            byte[] gzip = null;
+            if (json.length >= MIN_GZIP_SIZE) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4);
+                try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+                    gz.write(json);
+                }
+                if (out.size() < json.length) {
+                    gzip = out.toByteArray();
+                }
+            }
+            return new CachedResponse(json, gzip, etag(json));
+        }
+
+        /**
+         * Strong ETag of a body: the first 128 bits of its SHA-256, in hex.
+         *
+         * @param json JSON bytes
+         * @return Quoted ETag
+         */
+        private static String etag(byte[] json) {
+            try {
+                byte[] hash = MessageDigest.getInstance("SHA-256").digest(json);
+                return "\"" + HexFormat.of().formatHex(hash, 0, 16) + "\"";
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 not available", e);
+            }
+        }
+    }
+}
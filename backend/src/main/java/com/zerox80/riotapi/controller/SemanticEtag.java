@@ -0,0 +1,102 @@
+// Package declaration - defines the namespace for the controller class
+package com.zerox80.riotapi.controller;
+
+// Import for the league entries of a profile
+import com.zerox80.riotapi.model.LeagueEntryDTO;
+// Import for the matches of a profile or page
+import com.zerox80.riotapi.model.MatchV5Dto;
+
+// Import for the charset of the hashed parts
+import java.nio.charset.StandardCharsets;
+// Import for the ETag hash
+import java.security.MessageDigest;
+// Import for the missing hash algorithm
+import java.security.NoSuchAlgorithmException;
+// Import for the hex encoding of the ETag
+import java.util.HexFormat;
+// Import for the league entry and match lists
+import java.util.List;
+
+/**
+ * Builds a weak ETag from the data versions a response is made of - league points and
+ * tier, the newest match ID, the Data Dragon version, ... - instead of hashing the
+ * serialized body. The parts are known before the body is built, so a matching
+ * If-None-Match can be answered with 304 without building or serializing it.
+ *
+ * Weak, because two responses with the same versions may still differ in bytes
+ * (the parts do not cover every serialized detail of the body).
+ */
+final class SemanticEtag {
+
+    // Parts of the ETag, separated by a unit separator
+    private final StringBuilder parts = new StringBuilder();
+
+    /**
+     * Starts an ETag for one kind of response.
+     *
+     * @param kind Response kind, e.g. "profile"
+     */
+    SemanticEtag(String kind) {
+        add(kind);
+    }
+
+    /**
+     * Adds a part the response depends on.
+     *
+     * @param part The part, may be null
+     * @return this, for chaining
+     */
+    SemanticEtag add(Object part) {
+        parts.append(part).append('\u001f');
+        return this;
+    }
+
+    /**
+     * Adds the rank of every league entry (queue, tier, division, LP, games).
+     *
+     * @param entries League entries, may be null
+     * @return this, for chaining
+     */
+    SemanticEtag addLeagueEntries(List<LeagueEntryDTO> entries) {
+        if (entries != null) {
+            for (LeagueEntryDTO entry : entries) {
+                add(entry.getQueueType()).add(entry.getTier()).add(entry.getRank()).add(entry.getLeaguePoints())
+                        .add(entry.getWins()).add(entry.getLosses());
+            }
+        }
+        return add(entries != null ? entries.size() : -1);
+    }
+
+    /**
+     * Adds the matches of a match list: the match ID (matches never change once played,
+     * so the ID stands for the content) and the LP change, which is computed from the
+     * player's LP records and changes when a new record arrives.
+     *
+     * @param matches Matches, may be null
+     * @return this, for chaining
+     */
+    SemanticEtag addMatches(List<MatchV5Dto> matches) {
+        if (matches != null) {
+            for (MatchV5Dto match : matches) {
+                add(match != null && match.getMetadata() != null ? match.getMetadata().getMatchId() : null);
+                add(match != null && match.getInfo() != null ? match.getInfo().getLpChange() : null);
+            }
+        }
+        return add(matches != null ? matches.size() : -1);
+    }
+
+    /**
+     * Finishes the ETag: the first 64 bits of the SHA-256 of the parts, in hex.
+     *
+     * @return Weak ETag, e.g. W/"3f2a..."
+     */
+    String build() {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                    .digest(parts.toString().getBytes(StandardCharsets.UTF_8));
+            return "W/\"" + HexFormat.of().formatHex(hash, 0, 8) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
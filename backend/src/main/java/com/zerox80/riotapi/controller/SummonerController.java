@@ -11,8 +11,12 @@ import com.zerox80.riotapi.model.MatchV5Dto;
 import com.zerox80.riotapi.model.SummonerSuggestionDTO;
 // Import for Riot API Service (communicates with Riot Games API)
 import com.zerox80.riotapi.service.RiotApiService;
-// Import for Riot API client (for configured region/platform)
-import com.zerox80.riotapi.client.RiotApiClient;
+// Import for the region a request is served from
+import com.zerox80.riotapi.client.RiotRegion;
+// Import for the time budget carried down to the Riot calls of a request
+import com.zerox80.riotapi.client.RequestDeadline;
+// Import for registering the deadline for cancellation on disconnect
+import com.zerox80.riotapi.config.RequestDeadlineInterceptor;
 // Import for Data Dragon Service (loads champion and item data)
 import com.zerox80.riotapi.service.DataDragonService;
 // Import for Summoner profile data (aggregates various game data)
@@ -41,10 +45,14 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.http.ResponseCookie;
 // Import for CacheControl (defines browser caching behavior)
 import org.springframework.http.CacheControl;
+// Import for the standard Age header name
+import org.springframework.http.HttpHeaders;
 // Import for ResponseBody annotation (converts return value to JSON)
 import org.springframework.web.bind.annotation.ResponseBody;
 // Import for RestController annotation (marks class as REST controller)
 import org.springframework.web.bind.annotation.RestController;
+// Import for switching off the body buffering of the ETag filter (these endpoints set their own ETags)
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
 
 // Import for List interface (generic collection for lists)
 import java.util.List;
@@ -85,6 +93,8 @@ import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 // Import for Duration (represents time duration for cookie expiration)
 import java.time.Duration;
+// Import for the age of a stored profile
+import java.time.Instant;
 
 // @RestController marks this class as a REST API controller
 @RestController
@@ -102,8 +112,8 @@ public class SummonerController {
     // Service instance for Riot API communication (provided via dependency
     // injection)
     private final RiotApiService riotApiService;
-    // Riot API client for configured platform region
-    private final RiotApiClient riotApiClient;
+    // Region used when a request does not name one (riot.api.region)
+    private final RiotRegion defaultRegion;
     // Service instance for Data Dragon access (champion/item images and data)
     private final DataDragonService dataDragonService;
     // ObjectMapper for JSON serialization/deserialization of cookie data
@@ -114,6 +124,8 @@ public class SummonerController {
     private final int maxMatchesPageSize;
     // Maximum start offset for match pagination (prevents overly large offsets)
     private final int maxMatchesStartOffset;
+    // Time budget of a profile/matches request for its Riot calls
+    private final Duration requestDeadline;
     // Cookie name for user's search history
     private static final String SEARCH_HISTORY_COOKIE = "searchHistory";
     // Maximum number of entries in search history
@@ -126,24 +138,24 @@ public class SummonerController {
      * configuration values.
      *
      * @param riotApiService        Service for Riot API access
-     * @param riotApiClient         Riot API client for platform region
      * @param dataDragonService     Service for champion/item data
      * @param objectMapper          JSON mapper for cookie serialization
      * @param matchesPageSize       Page size from config (default: 10)
      * @param maxMatchesPageSize    Max page size (default: 40)
      * @param maxMatchesStartOffset Max offset (default: 1000)
+     * @param defaultRegion         Platform used without region parameter (default: euw1)
+     * @param requestDeadline       Time budget of a request for its Riot calls (default: 10s)
      */
     public SummonerController(RiotApiService riotApiService,
-            RiotApiClient riotApiClient,
             DataDragonService dataDragonService,
             ObjectMapper objectMapper,
             @Value("${ui.matches.page-size:10}") int matchesPageSize,
             @Value("${ui.matches.max-page-size:40}") int maxMatchesPageSize,
-            @Value("${ui.matches.max-start-offset:1000}") int maxMatchesStartOffset) {
+            @Value("${ui.matches.max-start-offset:1000}") int maxMatchesStartOffset,
+            @Value("${riot.api.region:euw1}") String defaultRegion,
+            @Value("${riot.api.request-deadline:10s}") Duration requestDeadline) {
         // Assign RiotApiService to instance variable
         this.riotApiService = riotApiService;
-        // Assign RiotApiClient to instance variable
-        this.riotApiClient = riotApiClient;
         // Assign DataDragonService to instance variable
         this.dataDragonService = dataDragonService;
         // Assign ObjectMapper to instance variable
@@ -156,6 +168,57 @@ public class SummonerController {
         this.maxMatchesPageSize = pageLimit > 0 ? pageLimit : this.matchesPageSize;
         // Set maximum start offset (minimum 0)
         this.maxMatchesStartOffset = Math.max(0, maxMatchesStartOffset);
+        // Parse default region (fails fast on a misconfigured platform)
+        this.defaultRegion = RiotRegion.fromPlatformId(defaultRegion);
+        // Set request deadline (non-positive values fall back to 10 seconds)
+        this.requestDeadline = requestDeadline != null && requestDeadline.isPositive() ? requestDeadline
+                : Duration.ofSeconds(10);
+    }
+
+    /**
+     * Resolves the optional region request parameter.
+     *
+     * @param region Platform ID from the request (e.g., "na1"), may be null
+     * @return The requested region, the default region, or null if the value is unknown
+     */
+    private RiotRegion resolveRegion(String region) {
+        try {
+            return RiotRegion.resolve(region, defaultRegion);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Builds the 400 response for an unknown region parameter.
+     *
+     * @param region The rejected value
+     * @return ResponseEntity with error message
+     */
+    private static ResponseEntity<Map<String, String>> unknownRegion(String region) {
+        return ResponseEntity.badRequest()
+                .cacheControl(CacheControl.noStore()) // No browser caching
+                .body(Map.of("error", "Unknown region '" + region.trim() + "'."));
+    }
+
+    /**
+     * Cache-Control of profile and match responses: kept by the browser only, and
+     * revalidated with their ETag on every use.
+     *
+     * @return Cache-Control "private, no-cache"
+     */
+    private static CacheControl revalidate() {
+        return CacheControl.noCache().cachePrivate();
+    }
+
+    /**
+     * Builds the 304 response for a client whose copy is current.
+     *
+     * @param etag Current ETag
+     * @return ResponseEntity without body
+     */
+    private static ResponseEntity<?> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(revalidate()).build();
     }
 
     // @GetMapping defines HTTP GET endpoint at /api/matches
@@ -168,11 +231,23 @@ public class SummonerController {
      * @param riotId Riot ID in format Name#TAG (required)
      * @param start  Start index for pagination (default: 0)
      * @param count  Number of matches to load (default: 10)
+     * @param region  Platform ID of the player (default: configured region)
+     * @param request HTTP request the deadline of the Riot calls is kept with
      * @return CompletableFuture with ResponseEntity containing match list or error
      */
     public CompletableFuture<ResponseEntity<?>> getMoreMatches(@RequestParam("riotId") String riotId,
             @RequestParam(value = "start", defaultValue = "0") int start,
-            @RequestParam(value = "count", defaultValue = "10") int count) {
+            @RequestParam(value = "count", defaultValue = "10") int count,
+            @RequestParam(value = "region", required = false) String region,
+            HttpServletRequest request) {
+        // The ETag comes from the match IDs; buffering the body in the filter to hash it is not needed
+        ShallowEtagHeaderFilter.disableContentCaching(request);
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        // Resolve the region the player plays in
+        RiotRegion riotRegion = resolveRegion(region);
+        if (riotRegion == null) {
+            return CompletableFuture.completedFuture(unknownRegion(region));
+        }
         // Trim the Riot ID and remove leading/trailing spaces
         String trimmedRiotId = riotId != null ? riotId.trim() : null;
         // Validation: check if Riot ID is present and in correct format (must contain
@@ -225,8 +300,10 @@ public class SummonerController {
                                                                                                              // message
         }
 
+        // Riot calls stop once the client went away or the deadline passed
+        RequestDeadline deadline = RequestDeadlineInterceptor.start(request, requestDeadline);
         // Asynchronous call: fetch summoner data by Riot ID
-        return riotApiService.getSummonerByRiotId(gameName, tagLine)
+        return deadline.call(() -> riotApiService.getSummonerByRiotId(riotRegion, gameName, tagLine))
                 // After successfully loading summoner: load match history
                 .thenCompose(summoner -> {
                     // Validation: check if summoner was found and has PUUID
@@ -237,12 +314,24 @@ public class SummonerController {
                                 .body(Map.of("error", "Summoner not found."))); // Error message
                     }
                     // Asynchronous call: load match history with pagination
-                    return riotApiService.getMatchHistoryPaged(summoner.getPuuid(), sanitizedStart, count)
+                    return deadline.call(() -> riotApiService.getMatchHistoryPaged(riotRegion, summoner.getPuuid(),
+                            sanitizedStart, count))
                             // After successful loading: create response with match list
-                            .thenApply(list -> ResponseEntity.ok() // HTTP 200 OK status
-                                    .cacheControl(CacheControl.noStore()) // No browser caching (live data)
-                                    .body(list != null ? list : Collections.emptyList())); // Return list (empty if
-                                                                                           // null)
+                            .thenApply(list -> {
+                                List<MatchV5Dto> matches = list != null ? list : Collections.emptyList();
+                                // Played matches never change, so the page is identified by its match IDs
+                                String etag = new SemanticEtag("matches").add(riotRegion.platformId())
+                                        .add(summoner.getPuuid()).add(sanitizedStart).add(count)
+                                        .addMatches(matches).build();
+                                if (JsonResponseCache.matches(ifNoneMatch, etag)) {
+                                    // The client's page is current: 304 without serializing the matches
+                                    return notModified(etag);
+                                }
+                                return (ResponseEntity<?>) ResponseEntity.ok() // HTTP 200 OK status
+                                        .eTag(etag)
+                                        .cacheControl(revalidate()) // Browser revalidates with the ETag
+                                        .body(matches); // Return list (empty if null)
+                            });
                 })
                 // Exception handling for all errors in async chain
                 .exceptionally(ex -> {
@@ -286,10 +375,12 @@ public class SummonerController {
      * Fetches the user's own summoner profile via RSO (Riot Sign-On) token.
      *
      * @param authorizationHeader Authorization header with Bearer token (optional)
+     * @param region              Platform ID of the player (default: configured region)
      * @return Callable with ResponseEntity containing summoner data or error
      */
     public Callable<ResponseEntity<?>> getMySummoner(
-            @RequestHeader(value = "Authorization", required = false) String authorizationHeader) {
+            @RequestHeader(value = "Authorization", required = false) String authorizationHeader,
+            @RequestParam(value = "region", required = false) String region) {
         // Validation: check if Authorization header is present and starts with "Bearer
         // "
         if (!StringUtils.hasText(authorizationHeader) || !authorizationHeader.startsWith("Bearer ")) {
@@ -310,12 +401,18 @@ public class SummonerController {
                     .body(Map.of("error", "Empty bearer token.")); // Error message
         }
 
+        // Resolve the region the signed-in player plays in
+        RiotRegion riotRegion = resolveRegion(region);
+        if (riotRegion == null) {
+            return () -> unknownRegion(region);
+        }
+
         // Return lambda function (Callable) for asynchronous processing
         return () -> {
             // Try block for exception handling
             try {
                 // Asynchronous call: fetch summoner via RSO token (join() blocks until done)
-                Summoner summoner = riotApiService.getSummonerViaRso(bearerToken).join();
+                Summoner summoner = riotApiService.getSummonerViaRso(riotRegion, bearerToken).join();
                 // Validation: check if summoner was found
                 if (summoner == null) {
                     // Return 404 Not Found if token is invalid or summoner doesn't exist
@@ -348,6 +445,7 @@ public class SummonerController {
      *
      * @param riotId         Riot ID in format Name#TAG (required)
      * @param includeMatches Flag whether to include match history (default: true)
+     * @param region         Platform ID of the player (default: configured region)
      * @param request        HTTP request for cookie access
      * @param response       HTTP response for setting cookies
      * @param locale         User's language/region setting
@@ -355,9 +453,13 @@ public class SummonerController {
      */
     public CompletableFuture<ResponseEntity<?>> getSummonerProfile(@RequestParam("riotId") String riotId,
             @RequestParam(value = "includeMatches", defaultValue = "true") boolean includeMatches,
+            @RequestParam(value = "region", required = false) String region,
             HttpServletRequest request,
             HttpServletResponse response,
             Locale locale) {
+        // The ETag comes from data versions; buffering the body in the filter to hash it is not needed
+        ShallowEtagHeaderFilter.disableContentCaching(request);
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
         // Normalize Riot ID by trimming leading/trailing spaces
         String normalizedRiotId = riotId != null ? riotId.trim() : null;
         // Validation: check if Riot ID is present and in correct format (must contain
@@ -384,8 +486,17 @@ public class SummonerController {
                     .body(Map.of("error", "Invalid Riot ID. Name and Tagline cannot be empty."))); // Error message
         }
 
+        // Resolve the region the player plays in
+        RiotRegion riotRegion = resolveRegion(region);
+        if (riotRegion == null) {
+            return CompletableFuture.completedFuture(unknownRegion(region));
+        }
+
+        // Riot calls stop once the client went away or the deadline passed
+        RequestDeadline deadline = RequestDeadlineInterceptor.start(request, requestDeadline);
         // Asynchronous call: fetch complete profile data
-        return riotApiService.getSummonerProfileDataAsync(gameName, tagLine, includeMatches)
+        return deadline.call(() -> riotApiService.getSummonerProfileDataAsync(riotRegion, gameName, tagLine,
+                includeMatches))
                 .thenApply(profileData -> {
                     // Validation: check if profile data was found
                     if (profileData == null) {
@@ -403,6 +514,19 @@ public class SummonerController {
                                 .body(Map.of("error", profileData.errorMessage())); // Error text from profile data
                     }
 
+                    // Conditionally update search history cookie (only if suggestion is present)
+                    if (profileData.suggestion() != null) {
+                        // Update search history cookie with current search
+                        updateSearchHistoryCookie(request, response, normalizedRiotId, profileData.suggestion());
+                    }
+
+                    // ETag from the versions of the data the payload is built from
+                    String etag = profileEtag(profileData, riotRegion, includeMatches, locale);
+                    if (JsonResponseCache.matches(ifNoneMatch, etag)) {
+                        // The client's profile is current: 304 without building or serializing the payload
+                        return notModified(etag);
+                    }
+
                     // Create LinkedHashMap for response payload (preserves order)
                     Map<String, Object> payload = new LinkedHashMap<>();
                     // Add summoner object to payload
@@ -418,11 +542,14 @@ public class SummonerController {
                     // Add Riot ID (from suggestion if available, otherwise normalized ID)
                     payload.put("riotId",
                             profileData.suggestion() != null ? profileData.suggestion().getRiotId() : normalizedRiotId);
-                    // Add configured platform region (e.g., euw1, na1)
-                    payload.put("platformRegion",
-                            riotApiClient != null ? riotApiClient.getPlatformRegion() : null);
+                    // Add platform region the profile was loaded from (e.g., euw1, na1)
+                    payload.put("platformRegion", riotRegion.platformId());
                     // Add configured match page size
                     payload.put("matchesPageSize", matchesPageSize);
+                    // Flag data served from last good values while Riot was unavailable
+                    payload.put("stale", profileData.stale());
+                    // Flag a stored profile served while a fresh one is being assembled
+                    payload.put("revalidating", profileData.revalidating());
                     // Conditionally add match history (only if includeMatches parameter = true)
                     if (includeMatches) {
                         // Add match history to payload
@@ -458,16 +585,16 @@ public class SummonerController {
                         logger.warn("Failed to load champion square URLs: {}", ex.getMessage());
                     }
 
-                    // Conditionally update search history cookie (only if suggestion is present)
-                    if (profileData.suggestion() != null) {
-                        // Update search history cookie with current search
-                        updateSearchHistoryCookie(request, response, normalizedRiotId, profileData.suggestion());
-                    }
-
                     // Return complete payload with HTTP 200 OK status
-                    return (ResponseEntity<?>) ResponseEntity.ok()
-                            .cacheControl(CacheControl.noStore()) // No browser caching (live data)
-                            .body(payload); // Payload with all profile data as JSON response
+                    ResponseEntity.BodyBuilder ok = ResponseEntity.ok()
+                            .eTag(etag)
+                            .cacheControl(revalidate()); // Browser revalidates with the ETag
+                    if (profileData.revalidating() && profileData.assembledAt() != null) {
+                        // Age of the stored profile in seconds
+                        ok.header(HttpHeaders.AGE, String.valueOf(Math.max(0,
+                                Duration.between(profileData.assembledAt(), Instant.now()).toSeconds())));
+                    }
+                    return (ResponseEntity<?>) ok.body(payload); // Payload with all profile data as JSON response
                 })
                 .exceptionally(ex -> {
                     // Extract original exception from CompletionException
@@ -482,6 +609,37 @@ public class SummonerController {
                 });
     }
 
+    /**
+     * Builds the ETag of a profile from what its payload is made of: summoner, league
+     * entries (tier, LP, games), match IDs and LP changes, page size, Data Dragon version and locale,
+     * and the stale/revalidating flags.
+     *
+     * @param profileData    The profile
+     * @param region         Platform the profile was loaded from
+     * @param includeMatches Whether the payload carries the match history
+     * @param locale         Locale of the champion images
+     * @return Weak ETag
+     */
+    private String profileEtag(SummonerProfileData profileData, RiotRegion region, boolean includeMatches,
+            Locale locale) {
+        SemanticEtag etag = new SemanticEtag("profile").add(region.platformId());
+        Summoner summoner = profileData.summoner();
+        if (summoner != null) {
+            etag.add(summoner.getPuuid()).add(summoner.getSummonerLevel()).add(summoner.getProfileIconId())
+                    .add(summoner.getRevisionDate());
+        }
+        return etag.add(profileData.suggestion() != null ? profileData.suggestion().getRiotId() : null)
+                .addLeagueEntries(profileData.leagueEntries())
+                .addMatches(profileData.matchHistory())
+                .add(includeMatches)
+                .add(matchesPageSize)
+                .add(dataDragonService.getLatestVersion())
+                .add(dataDragonService.resolveLocale(locale))
+                .add(profileData.stale())
+                .add(profileData.revalidating())
+                .build();
+    }
+
     /**
      * Private helper method to load search history from browser cookie.
      *
@@ -0,0 +1,138 @@
+// Package declaration: Defines that this class belongs to the model package
+package com.zerox80.riotapi.model;
+
+// Import for JPA Entity annotation to mark this as a database entity
+import jakarta.persistence.*;
+// Import for Java Instant to handle timestamp storage
+import java.time.Instant;
+
+
+/**
+ * JPA Entity representing a stored Riot ID to PUUID lookup, the second level behind the
+ * "accounts" cache.
+ *
+ * Keyed like the cache: the regional route and the lower-case "gamename#tagline".
+ * Keeps the fields of {@link AccountDto} and the time they were fetched from Riot.
+ */
+@Entity
+@Table(name = "riot_account",
+       uniqueConstraints = @UniqueConstraint(name = "uk_riot_account_route_key", columnNames = {"regional_route", "riot_id_key"}))
+public class AccountRecord {
+
+    // Primary key - auto-generated unique identifier for each record
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // The regional route of the lookup (e.g., "europe")
+    @Column(name = "regional_route", nullable = false, length = 16)
+    private String regionalRoute;
+
+    // The lower-case Riot ID the lookup was made with ("gamename#tagline")
+    @Column(name = "riot_id_key", nullable = false, length = 128)
+    private String riotIdKey;
+
+    // The player's unique universal identifier (PUUID)
+    @Column(name = "puuid", nullable = false, length = 128)
+    private String puuid;
+
+    // The game name in its original spelling
+    @Column(name = "game_name", length = 64)
+    private String gameName;
+
+    // The tag line in its original spelling
+    @Column(name = "tag_line", length = 16)
+    private String tagLine;
+
+    // When this copy was fetched from Riot
+    @Column(name = "fetched_at", nullable = false)
+    private Instant fetchedAt;
+
+    /**
+     * No-argument constructor required by JPA.
+     */
+    public AccountRecord() {
+    }
+
+    /**
+     * Creates a record for a Riot ID; the data is set with {@link #update}.
+     *
+     * @param regionalRoute The regional route
+     * @param riotIdKey     The lower-case Riot ID
+     */
+    public AccountRecord(String regionalRoute, String riotIdKey) {
+        this.regionalRoute = regionalRoute;
+        this.riotIdKey = riotIdKey;
+    }
+
+    /**
+     * Copies a freshly fetched account into this record.
+     *
+     * @param account   Account-V1 response
+     * @param fetchedAt When it was fetched
+     */
+    public void update(AccountDto account, Instant fetchedAt) {
+        this.puuid = account.getPuuid();
+        this.gameName = account.getGameName();
+        this.tagLine = account.getTagLine();
+        this.fetchedAt = fetchedAt;
+    }
+
+    /**
+     * Converts the record back into the API model.
+     *
+     * @return A new AccountDto with the stored fields
+     */
+    public AccountDto toAccount() {
+        AccountDto account = new AccountDto();
+        account.setPuuid(puuid);
+        account.setGameName(gameName);
+        account.setTagLine(tagLine);
+        return account;
+    }
+
+    /**
+     * Gets the primary key ID.
+     *
+     * @return The record ID
+     */
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Gets the regional route.
+     *
+     * @return The regional route
+     */
+    public String getRegionalRoute() {
+        return regionalRoute;
+    }
+
+    /**
+     * Gets the lower-case Riot ID.
+     *
+     * @return The Riot ID key
+     */
+    public String getRiotIdKey() {
+        return riotIdKey;
+    }
+
+    /**
+     * Gets the player PUUID.
+     *
+     * @return The PUUID
+     */
+    public String getPuuid() {
+        return puuid;
+    }
+
+    /**
+     * Gets when this copy was fetched.
+     *
+     * @return The fetch time
+     */
+    public Instant getFetchedAt() {
+        return fetchedAt;
+    }
+}
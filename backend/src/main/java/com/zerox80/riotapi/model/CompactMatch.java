@@ -0,0 +1,200 @@
+// Package declaration: Defines that this class belongs to the model package
+package com.zerox80.riotapi.model;
+
+// Import for resizable list implementation
+import java.util.ArrayList;
+// Import for array to list views
+import java.util.Arrays;
+// Import for unmodifiable list views
+import java.util.Collections;
+// Import for list data structure
+import java.util.List;
+
+
+/**
+ * Immutable, compact form of a {@link MatchV5Dto}, used for the match caches and
+ * all internal processing (champion stats, build aggregation).
+ *
+ * Mode, type, version and platform strings are interned, participants are held in
+ * a plain array of {@link CompactParticipant} and the metadata participant list is
+ * not stored at all, since it repeats the participants' PUUIDs. Match data is
+ * converted back into the mutable API shape with {@link #toDto()} only where it
+ * leaves the service layer.
+ */
+public final class CompactMatch {
+
+    // Match identity
+    private final String matchId;
+    private final String dataVersion;
+
+    // Game timing (timestamps in epoch millis, duration in seconds)
+    private final long gameCreation;
+    private final long gameDuration;
+    private final long gameEndTimestamp;
+    private final long gameStartTimestamp;
+    private final long gameId;
+
+    // Interned game metadata
+    private final String gameMode;
+    private final String gameType;
+    private final String gameVersion;
+    private final String platformId;
+
+    // Per-match strings (unique, therefore not interned)
+    private final String gameName;
+    private final String tournamentCode;
+
+    private final int mapId;
+    private final int queueId;
+
+    // Participants in API order
+    private final CompactParticipant[] participants;
+
+    private CompactMatch(MetadataDto metadata, InfoDto info) {
+        this.matchId = metadata != null ? metadata.getMatchId() : null;
+        this.dataVersion = metadata != null ? CompactParticipant.intern(metadata.getDataVersion()) : null;
+        this.gameCreation = info.getGameCreation();
+        this.gameDuration = info.getGameDuration();
+        this.gameEndTimestamp = info.getGameEndTimestamp();
+        this.gameStartTimestamp = info.getGameStartTimestamp();
+        this.gameId = info.getGameId();
+        this.gameMode = CompactParticipant.intern(info.getGameMode());
+        this.gameType = CompactParticipant.intern(info.getGameType());
+        this.gameVersion = CompactParticipant.intern(info.getGameVersion());
+        this.platformId = CompactParticipant.intern(info.getPlatformId());
+        this.gameName = info.getGameName();
+        this.tournamentCode = info.getTournamentCode();
+        this.mapId = info.getMapId();
+        this.queueId = info.getQueueId();
+        List<ParticipantDto> source = info.getParticipants();
+        this.participants = source != null
+                ? source.stream().map(CompactParticipant::from).toArray(CompactParticipant[]::new)
+                : new CompactParticipant[0];
+    }
+
+    /**
+     * Creates the compact form of a match.
+     *
+     * @param dto Match as parsed from the Match-V5 API
+     * @return Compact match, or null if dto or its info section is null
+     */
+    public static CompactMatch from(MatchV5Dto dto) {
+        if (dto == null || dto.getInfo() == null) {
+            return null;
+        }
+        return new CompactMatch(dto.getMetadata(), dto.getInfo());
+    }
+
+    /**
+     * Converts back to the API shape for JSON responses.
+     * Every call returns a new object tree, so callers may modify it (e.g. set the LP change).
+     *
+     * @return A new, mutable MatchV5Dto
+     */
+    public MatchV5Dto toDto() {
+        List<ParticipantDto> participantDtos = new ArrayList<>(participants.length);
+        List<String> puuids = new ArrayList<>(participants.length);
+        for (CompactParticipant participant : participants) {
+            participantDtos.add(participant != null ? participant.toDto() : null);
+            puuids.add(participant != null ? participant.getPuuid() : null);
+        }
+
+        MetadataDto metadata = new MetadataDto();
+        metadata.setMatchId(matchId);
+        metadata.setDataVersion(dataVersion);
+        metadata.setParticipants(puuids);
+
+        InfoDto info = new InfoDto();
+        info.setGameCreation(gameCreation);
+        info.setGameDuration(gameDuration);
+        info.setGameEndTimestamp(gameEndTimestamp);
+        info.setGameStartTimestamp(gameStartTimestamp);
+        info.setGameId(gameId);
+        info.setGameMode(gameMode);
+        info.setGameType(gameType);
+        info.setGameVersion(gameVersion);
+        info.setPlatformId(platformId);
+        info.setGameName(gameName);
+        info.setTournamentCode(tournamentCode);
+        info.setMapId(mapId);
+        info.setQueueId(queueId);
+        info.setParticipants(participantDtos);
+
+        MatchV5Dto dto = new MatchV5Dto();
+        dto.setMetadata(metadata);
+        dto.setInfo(info);
+        return dto;
+    }
+
+    /**
+     * Gets the match ID.
+     *
+     * @return The match ID (e.g., "EUW1_6234567890")
+     */
+    public String getMatchId() {
+        return matchId;
+    }
+
+    /**
+     * Gets the game creation timestamp.
+     *
+     * @return Unix timestamp in milliseconds
+     */
+    public long getGameCreation() {
+        return gameCreation;
+    }
+
+    /**
+     * Gets the game duration.
+     *
+     * @return Duration in seconds
+     */
+    public long getGameDuration() {
+        return gameDuration;
+    }
+
+    /**
+     * Gets the game end timestamp.
+     *
+     * @return Unix timestamp in milliseconds
+     */
+    public long getGameEndTimestamp() {
+        return gameEndTimestamp;
+    }
+
+    /**
+     * Gets the game mode.
+     *
+     * @return Interned game mode (e.g., "CLASSIC")
+     */
+    public String getGameMode() {
+        return gameMode;
+    }
+
+    /**
+     * Gets the game version.
+     *
+     * @return Interned game version (e.g., "14.1.555.1234")
+     */
+    public String getGameVersion() {
+        return gameVersion;
+    }
+
+    /**
+     * Gets the queue ID.
+     *
+     * @return The queue ID
+     */
+    public int getQueueId() {
+        return queueId;
+    }
+
+    /**
+     * Gets the participants.
+     *
+     * @return Read-only view of the participants in API order
+     */
+    public List<CompactParticipant> getParticipants() {
+        return Collections.unmodifiableList(Arrays.asList(participants));
+    }
+}
@@ -0,0 +1,435 @@
+// Package declaration: Defines that this class belongs to the model package
+package com.zerox80.riotapi.model;
+
+// Import for resizable list implementation
+import java.util.ArrayList;
+// Import for list data structure
+import java.util.List;
+
+
+/**
+ * Immutable, compact form of a {@link ParticipantDto} as held in the match caches.
+ *
+ * Scalar stats and the seven item slots share one int array, the team position is
+ * a small code, champion names and tag lines are interned (shared by all matches)
+ * and the PerksDto tree is flattened into a second int array:
+ *
+ * <pre>
+ * [styleCount, (style, descriptionCode, selectionCount, (perk, var1, var2, var3) * selectionCount) * styleCount]
+ * </pre>
+ *
+ * A count of -1 stands for a null list. Use {@link #toDto()} to get the API shape back.
+ */
+public final class CompactParticipant {
+
+    // Team positions by code; code 0 = null, unknown values are stored as null as well
+    private static final String[] POSITIONS = { null, "", "TOP", "JUNGLE", "MIDDLE", "BOTTOM", "UTILITY" };
+
+    // Rune style descriptions by code; code 0 = null or unknown
+    private static final String[] PERK_DESCRIPTIONS = { null, "primaryStyle", "subStyle" };
+
+    // Offsets into the stats array
+    private static final int KILLS = 0;
+    private static final int DEATHS = 1;
+    private static final int ASSISTS = 2;
+    private static final int CHAMPION_ID = 3;
+    private static final int SUMMONER_LEVEL = 4;
+    private static final int TEAM_ID = 5;
+    private static final int DAMAGE_TO_CHAMPIONS = 6;
+    private static final int MINIONS_KILLED = 7;
+    private static final int NEUTRAL_MINIONS_KILLED = 8;
+    private static final int GOLD_EARNED = 9;
+    private static final int VISION_SCORE = 10;
+    private static final int SUMMONER1_ID = 11;
+    private static final int SUMMONER2_ID = 12;
+    private static final int ITEM0 = 13;
+
+    // Number of item slots (item0..item6, slot 6 = trinket)
+    public static final int ITEM_SLOTS = 7;
+
+    // Player identity (unique per player, therefore not interned)
+    private final String puuid;
+    private final String summonerId;
+    private final String summonerName;
+    private final String riotIdGameName;
+
+    // Interned tag line (few distinct values, e.g. "EUW")
+    private final String riotIdTagline;
+
+    // Interned champion name
+    private final String championName;
+
+    // Scalar stats followed by the item IDs of slots 0..6, see the offsets above
+    private final int[] stats;
+
+    // Flattened runes, null if the participant had no perks
+    private final int[] perks;
+
+    // Team position code, index into POSITIONS
+    private final byte position;
+
+    // Match outcome for this participant
+    private final boolean win;
+
+    private CompactParticipant(ParticipantDto dto) {
+        this.puuid = dto.getPuuid();
+        this.summonerId = dto.getSummonerId();
+        this.riotIdGameName = dto.getRiotIdGameName();
+        // The legacy summoner name is usually equal to the game name, share the instance then
+        this.summonerName = riotIdGameName != null && riotIdGameName.equals(dto.getSummonerName())
+                ? riotIdGameName
+                : dto.getSummonerName();
+        this.riotIdTagline = intern(dto.getRiotIdTagline());
+        this.championName = intern(dto.getChampionName());
+        this.stats = new int[ITEM0 + ITEM_SLOTS];
+        stats[KILLS] = dto.getKills();
+        stats[DEATHS] = dto.getDeaths();
+        stats[ASSISTS] = dto.getAssists();
+        stats[CHAMPION_ID] = dto.getChampionId();
+        stats[SUMMONER_LEVEL] = dto.getSummonerLevel();
+        stats[TEAM_ID] = dto.getTeamId();
+        stats[DAMAGE_TO_CHAMPIONS] = dto.getTotalDamageDealtToChampions();
+        stats[MINIONS_KILLED] = dto.getTotalMinionsKilled();
+        stats[NEUTRAL_MINIONS_KILLED] = dto.getNeutralMinionsKilled();
+        stats[GOLD_EARNED] = dto.getGoldEarned();
+        stats[VISION_SCORE] = dto.getVisionScore();
+        stats[SUMMONER1_ID] = dto.getSummoner1Id();
+        stats[SUMMONER2_ID] = dto.getSummoner2Id();
+        stats[ITEM0] = dto.getItem0();
+        stats[ITEM0 + 1] = dto.getItem1();
+        stats[ITEM0 + 2] = dto.getItem2();
+        stats[ITEM0 + 3] = dto.getItem3();
+        stats[ITEM0 + 4] = dto.getItem4();
+        stats[ITEM0 + 5] = dto.getItem5();
+        stats[ITEM0 + 6] = dto.getItem6();
+        this.perks = flattenPerks(dto.getPerks());
+        this.position = (byte) codeOf(POSITIONS, dto.getTeamPosition());
+        this.win = dto.isWin();
+    }
+
+    /**
+     * Creates the compact form of a participant.
+     *
+     * @param dto Participant as parsed from the Match-V5 API
+     * @return Compact participant, or null if dto is null
+     */
+    public static CompactParticipant from(ParticipantDto dto) {
+        return dto != null ? new CompactParticipant(dto) : null;
+    }
+
+    /**
+     * Converts back to the API shape, e.g. for JSON responses.
+     *
+     * @return A new, mutable ParticipantDto
+     */
+    public ParticipantDto toDto() {
+        ParticipantDto dto = new ParticipantDto();
+        dto.setPuuid(puuid);
+        dto.setSummonerId(summonerId);
+        dto.setSummonerName(summonerName);
+        dto.setRiotIdGameName(riotIdGameName);
+        dto.setRiotIdTagline(riotIdTagline);
+        dto.setChampionName(championName);
+        dto.setKills(stats[KILLS]);
+        dto.setDeaths(stats[DEATHS]);
+        dto.setAssists(stats[ASSISTS]);
+        dto.setChampionId(stats[CHAMPION_ID]);
+        dto.setSummonerLevel(stats[SUMMONER_LEVEL]);
+        dto.setTeamId(stats[TEAM_ID]);
+        dto.setTotalDamageDealtToChampions(stats[DAMAGE_TO_CHAMPIONS]);
+        dto.setTotalMinionsKilled(stats[MINIONS_KILLED]);
+        dto.setNeutralMinionsKilled(stats[NEUTRAL_MINIONS_KILLED]);
+        dto.setGoldEarned(stats[GOLD_EARNED]);
+        dto.setVisionScore(stats[VISION_SCORE]);
+        dto.setSummoner1Id(stats[SUMMONER1_ID]);
+        dto.setSummoner2Id(stats[SUMMONER2_ID]);
+        dto.setItem0(stats[ITEM0]);
+        dto.setItem1(stats[ITEM0 + 1]);
+        dto.setItem2(stats[ITEM0 + 2]);
+        dto.setItem3(stats[ITEM0 + 3]);
+        dto.setItem4(stats[ITEM0 + 4]);
+        dto.setItem5(stats[ITEM0 + 5]);
+        dto.setItem6(stats[ITEM0 + 6]);
+        dto.setPerks(expandPerks(perks));
+        dto.setTeamPosition(POSITIONS[position]);
+        dto.setWin(win);
+        return dto;
+    }
+
+    /**
+     * Gets the player's PUUID.
+     *
+     * @return The PUUID
+     */
+    public String getPuuid() {
+        return puuid;
+    }
+
+    /**
+     * Gets the champion name.
+     *
+     * @return Interned champion name (e.g., "Ahri")
+     */
+    public String getChampionName() {
+        return championName;
+    }
+
+    /**
+     * Gets the champion ID.
+     *
+     * @return Numeric champion key
+     */
+    public int getChampionId() {
+        return stats[CHAMPION_ID];
+    }
+
+    /**
+     * Gets the number of kills.
+     *
+     * @return Kill count
+     */
+    public int getKills() {
+        return stats[KILLS];
+    }
+
+    /**
+     * Gets the number of deaths.
+     *
+     * @return Death count
+     */
+    public int getDeaths() {
+        return stats[DEATHS];
+    }
+
+    /**
+     * Gets the number of assists.
+     *
+     * @return Assist count
+     */
+    public int getAssists() {
+        return stats[ASSISTS];
+    }
+
+    /**
+     * Gets the team ID.
+     *
+     * @return 100 (blue) or 200 (red)
+     */
+    public int getTeamId() {
+        return stats[TEAM_ID];
+    }
+
+    /**
+     * Checks if the participant won.
+     *
+     * @return true if the participant's team won
+     */
+    public boolean isWin() {
+        return win;
+    }
+
+    /**
+     * Gets the item in a slot.
+     *
+     * @param slot Slot 0..6 (6 = trinket)
+     * @return Item ID, or 0 if empty
+     */
+    public int getItem(int slot) {
+        if (slot < 0 || slot >= ITEM_SLOTS) {
+            throw new IndexOutOfBoundsException("Item slot " + slot);
+        }
+        return stats[ITEM0 + slot];
+    }
+
+    /**
+     * Gets the first summoner spell.
+     *
+     * @return Summoner spell ID
+     */
+    public int getSummoner1Id() {
+        return stats[SUMMONER1_ID];
+    }
+
+    /**
+     * Gets the second summoner spell.
+     *
+     * @return Summoner spell ID
+     */
+    public int getSummoner2Id() {
+        return stats[SUMMONER2_ID];
+    }
+
+    /**
+     * Gets the team position.
+     *
+     * @return TOP, JUNGLE, MIDDLE, BOTTOM, UTILITY, "" or null
+     */
+    public String getTeamPosition() {
+        return POSITIONS[position];
+    }
+
+    /**
+     * Gets the number of rune styles.
+     *
+     * @return Number of styles (usually 2), 0 if unknown
+     */
+    public int getPerkStyleCount() {
+        return perks != null ? Math.max(0, perks[0]) : 0;
+    }
+
+    /**
+     * Gets a rune style (tree) ID.
+     *
+     * @param styleIndex 0 = primary, 1 = secondary
+     * @return Style ID, or 0 if not present
+     */
+    public int getPerkStyle(int styleIndex) {
+        int offset = styleOffset(styleIndex);
+        return offset >= 0 ? perks[offset] : 0;
+    }
+
+    /**
+     * Gets a selected rune of a style.
+     *
+     * @param styleIndex     0 = primary, 1 = secondary
+     * @param selectionIndex Index of the selection within the style (0 = keystone of the primary style)
+     * @return Perk ID, or 0 if not present
+     */
+    public int getPerkSelection(int styleIndex, int selectionIndex) {
+        int offset = styleOffset(styleIndex);
+        if (offset < 0 || selectionIndex < 0 || selectionIndex >= perks[offset + 2]) {
+            return 0;
+        }
+        return perks[offset + 3 + selectionIndex * 4];
+    }
+
+    /**
+     * Finds the start of a style in the flattened perks.
+     *
+     * @param styleIndex Index of the style
+     * @return Offset of the style ID, or -1 if the style does not exist
+     */
+    private int styleOffset(int styleIndex) {
+        if (styleIndex < 0 || styleIndex >= getPerkStyleCount()) {
+            return -1;
+        }
+        int offset = 1;
+        for (int i = 0; i < styleIndex; i++) {
+            offset += 3 + Math.max(0, perks[offset + 2]) * 4;
+        }
+        return offset;
+    }
+
+    /**
+     * Flattens the PerksDto tree into an int array (layout see class comment).
+     *
+     * @param dto Perks of the participant
+     * @return Flattened perks, or null if dto is null
+     */
+    private static int[] flattenPerks(PerksDto dto) {
+        if (dto == null) {
+            return null;
+        }
+        List<PerkStyleDto> styles = dto.getStyles();
+        if (styles == null) {
+            return new int[] { -1 };
+        }
+        int length = 1;
+        for (PerkStyleDto style : styles) {
+            List<PerkStyleSelectionDto> selections = style != null ? style.getSelections() : null;
+            length += 3 + (selections != null ? selections.size() * 4 : 0);
+        }
+        int[] flat = new int[length];
+        int i = 0;
+        flat[i++] = styles.size();
+        for (PerkStyleDto style : styles) {
+            List<PerkStyleSelectionDto> selections = style != null ? style.getSelections() : null;
+            flat[i++] = style != null ? style.getStyle() : 0;
+            flat[i++] = style != null ? codeOf(PERK_DESCRIPTIONS, style.getDescription()) : 0;
+            flat[i++] = selections != null ? selections.size() : -1;
+            if (selections != null) {
+                for (PerkStyleSelectionDto selection : selections) {
+                    if (selection != null) {
+                        flat[i] = selection.getPerk();
+                        flat[i + 1] = selection.getVar1();
+                        flat[i + 2] = selection.getVar2();
+                        flat[i + 3] = selection.getVar3();
+                    }
+                    i += 4;
+                }
+            }
+        }
+        return flat;
+    }
+
+    /**
+     * Rebuilds the PerksDto tree from the flattened form.
+     *
+     * @param flat Flattened perks
+     * @return A new PerksDto, or null if flat is null
+     */
+    private static PerksDto expandPerks(int[] flat) {
+        if (flat == null) {
+            return null;
+        }
+        PerksDto dto = new PerksDto();
+        int styleCount = flat[0];
+        if (styleCount < 0) {
+            return dto;
+        }
+        List<PerkStyleDto> styles = new ArrayList<>(styleCount);
+        int i = 1;
+        for (int s = 0; s < styleCount; s++) {
+            PerkStyleDto style = new PerkStyleDto();
+            style.setStyle(flat[i]);
+            style.setDescription(PERK_DESCRIPTIONS[flat[i + 1]]);
+            int selectionCount = flat[i + 2];
+            i += 3;
+            if (selectionCount >= 0) {
+                List<PerkStyleSelectionDto> selections = new ArrayList<>(selectionCount);
+                for (int k = 0; k < selectionCount; k++) {
+                    PerkStyleSelectionDto selection = new PerkStyleSelectionDto();
+                    selection.setPerk(flat[i]);
+                    selection.setVar1(flat[i + 1]);
+                    selection.setVar2(flat[i + 2]);
+                    selection.setVar3(flat[i + 3]);
+                    selections.add(selection);
+                    i += 4;
+                }
+                style.setSelections(selections);
+            }
+            styles.add(style);
+        }
+        dto.setStyles(styles);
+        return dto;
+    }
+
+    /**
+     * Looks up the code of a value in a code table.
+     *
+     * @param table Values by code, code 0 = null
+     * @param value Value to encode
+     * @return Code of the value, 0 if null or unknown
+     */
+    private static int codeOf(String[] table, String value) {
+        if (value == null) {
+            return 0;
+        }
+        for (int i = 1; i < table.length; i++) {
+            if (table[i].equals(value)) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Interns low-cardinality strings so all cached matches share one instance.
+     *
+     * @param value String to intern
+     * @return Canonical instance, or null
+     */
+    static String intern(String value) {
+        return value != null ? value.intern() : null;
+    }
+}
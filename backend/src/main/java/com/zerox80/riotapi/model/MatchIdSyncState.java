@@ -0,0 +1,125 @@
+// Package declaration: Defines that this class belongs to the model package
+package com.zerox80.riotapi.model;
+
+// Import for JPA Entity annotation to mark this as a database entity
+import jakarta.persistence.*;
+// Import for Java Instant to handle timestamp storage
+import java.time.Instant;
+
+
+/**
+ * JPA Entity representing the sync state of one player's match ID timeline.
+ *
+ * Records when Riot was last asked for the player's newest matches, so the next
+ * refresh only asks for matches started since then, and whether the timeline
+ * already reaches back to the player's oldest match, so windows past its end are
+ * known to be empty.
+ */
+@Entity
+@Table(name = "match_id_sync_state",
+       uniqueConstraints = @UniqueConstraint(name = "uk_match_id_sync_state", columnNames = {"regional_route", "puuid"}))
+public class MatchIdSyncState {
+
+    // Primary key - auto-generated unique identifier for each state
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // The regional route of the timeline (e.g., "europe")
+    @Column(name = "regional_route", nullable = false, length = 16)
+    private String regionalRoute;
+
+    // The player's unique universal identifier (PUUID)
+    @Column(name = "puuid", nullable = false, length = 128)
+    private String puuid;
+
+    // When Riot was last asked for newer matches
+    @Column(name = "synced_at", nullable = false)
+    private Instant syncedAt;
+
+    // true once Riot returned the player's oldest match
+    @Column(name = "history_complete", nullable = false)
+    private boolean historyComplete;
+
+    /**
+     * No-argument constructor required by JPA.
+     */
+    public MatchIdSyncState() {
+    }
+
+    /**
+     * Constructs the sync state of a new timeline.
+     *
+     * @param regionalRoute The regional route
+     * @param puuid         The player's PUUID
+     * @param syncedAt      When Riot was asked
+     */
+    public MatchIdSyncState(String regionalRoute, String puuid, Instant syncedAt) {
+        this.regionalRoute = regionalRoute;
+        this.puuid = puuid;
+        this.syncedAt = syncedAt;
+    }
+
+    /**
+     * Gets the primary key ID.
+     *
+     * @return The state ID
+     */
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Gets the regional route.
+     *
+     * @return The regional route
+     */
+    public String getRegionalRoute() {
+        return regionalRoute;
+    }
+
+    /**
+     * Gets the player PUUID.
+     *
+     * @return The PUUID
+     */
+    public String getPuuid() {
+        return puuid;
+    }
+
+    /**
+     * Gets when Riot was last asked for newer matches.
+     *
+     * @return The sync time
+     */
+    public Instant getSyncedAt() {
+        return syncedAt;
+    }
+
+    /**
+     * Sets when Riot was last asked for newer matches.
+     *
+     * @param syncedAt The sync time
+     */
+    public void setSyncedAt(Instant syncedAt) {
+        this.syncedAt = syncedAt;
+    }
+
+    /**
+     * Checks whether the timeline reaches back to the player's oldest match.
+     *
+     * @return true if no older matches exist
+     */
+    public boolean isHistoryComplete() {
+        return historyComplete;
+    }
+
+    /**
+     * Sets whether the timeline reaches back to the player's oldest match.
+     *
+     * @param historyComplete true if no older matches exist
+     */
+    public void setHistoryComplete(boolean historyComplete) {
+        this.historyComplete = historyComplete;
+    }
+}
@@ -0,0 +1,110 @@
+// Package declaration: Defines that this class belongs to the model package
+package com.zerox80.riotapi.model;
+
+// Import for JPA Entity annotation to mark this as a database entity
+import jakarta.persistence.*;
+
+
+/**
+ * JPA Entity representing one known match ID of a player's match timeline.
+ *
+ * The timeline holds the player's match IDs in the order Riot lists them: newer
+ * matches get a higher sequence number, older matches found while paging further
+ * back get a lower one. A (start, count) window of the match history is then the
+ * entries ordered by sequence descending, without asking Riot again.
+ */
+@Entity
+@Table(name = "match_id_timeline",
+       uniqueConstraints = @UniqueConstraint(name = "uk_match_id_timeline", columnNames = {"regional_route", "puuid", "match_id"}),
+       indexes = {
+           @Index(name = "idx_match_id_timeline_seq", columnList = "regional_route,puuid,seq")
+       })
+public class MatchIdTimelineEntry {
+
+    // Primary key - auto-generated unique identifier for each entry
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // The regional route the match IDs were listed on (e.g., "europe")
+    @Column(name = "regional_route", nullable = false, length = 16)
+    private String regionalRoute;
+
+    // The player's unique universal identifier (PUUID)
+    @Column(name = "puuid", nullable = false, length = 128)
+    private String puuid;
+
+    // The match ID (e.g., "EUW1_6234567890")
+    @Column(name = "match_id", nullable = false, length = 32)
+    private String matchId;
+
+    // Position in the timeline, higher = newer
+    @Column(name = "seq", nullable = false)
+    private long seq;
+
+    /**
+     * No-argument constructor required by JPA.
+     */
+    public MatchIdTimelineEntry() {
+    }
+
+    /**
+     * Constructs a timeline entry.
+     *
+     * @param regionalRoute The regional route
+     * @param puuid         The player's PUUID
+     * @param matchId       The match ID
+     * @param seq           Position in the timeline
+     */
+    public MatchIdTimelineEntry(String regionalRoute, String puuid, String matchId, long seq) {
+        this.regionalRoute = regionalRoute;
+        this.puuid = puuid;
+        this.matchId = matchId;
+        this.seq = seq;
+    }
+
+    /**
+     * Gets the primary key ID.
+     *
+     * @return The entry ID
+     */
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Gets the regional route.
+     *
+     * @return The regional route
+     */
+    public String getRegionalRoute() {
+        return regionalRoute;
+    }
+
+    /**
+     * Gets the player PUUID.
+     *
+     * @return The PUUID
+     */
+    public String getPuuid() {
+        return puuid;
+    }
+
+    /**
+     * Gets the match ID.
+     *
+     * @return The match ID
+     */
+    public String getMatchId() {
+        return matchId;
+    }
+
+    /**
+     * Gets the position in the timeline.
+     *
+     * @return The sequence number, higher = newer
+     */
+    public long getSeq() {
+        return seq;
+    }
+}
@@ -1,6 +1,8 @@
 // Package declaration: Defines that this class belongs to the model package
 package com.zerox80.riotapi.model;
 
+// Import for the time the profile was assembled
+import java.time.Instant;
 // Import for Java List collection to hold league entries and match history
 import java.util.List;
 // Import for Java Map to hold champion play counts
@@ -25,6 +27,9 @@ import java.util.Map;
  * @param championPlayCounts Map of champion IDs to number of games played
  * @param profileIconUrl URL to the summoner's profile icon image
  * @param errorMessage Optional error message if profile fetch failed, null on success
+ * @param stale true if parts of the profile are last good values served while Riot was unavailable
+ * @param assembledAt When the profile was assembled, null for error profiles
+ * @param revalidating true if this is a stored profile served while a fresh one is being assembled
  */
 public record SummonerProfileData(
     Summoner summoner,
@@ -33,7 +38,10 @@ public record SummonerProfileData(
     SummonerSuggestionDTO suggestion,
     Map<String, Long> championPlayCounts,
     String profileIconUrl,
-    String errorMessage // Optional: to transport error details from service to controller
+    String errorMessage, // Optional: to transport error details from service to controller
+    boolean stale,
+    Instant assembledAt,
+    boolean revalidating
 ) {
 
     /**
@@ -48,7 +56,7 @@ public record SummonerProfileData(
      * @param profileIconUrl URL to profile icon
      */
     public SummonerProfileData(Summoner summoner, List<LeagueEntryDTO> leagueEntries, List<MatchV5Dto> matchHistory, SummonerSuggestionDTO suggestion, Map<String, Long> championPlayCounts, String profileIconUrl) {
-        this(summoner, leagueEntries, matchHistory, suggestion, championPlayCounts, profileIconUrl, null);
+        this(summoner, leagueEntries, matchHistory, suggestion, championPlayCounts, profileIconUrl, null, false, Instant.now(), false);
     }
 
     /**
@@ -58,7 +66,7 @@ public record SummonerProfileData(
      * @param errorMessage The error message explaining what went wrong
      */
     public SummonerProfileData(String errorMessage) {
-        this(null, List.of(), List.of(), null, Map.of(), null, errorMessage);
+        this(null, List.of(), List.of(), null, Map.of(), null, errorMessage, false, null, false);
     }
 
     /**
@@ -69,4 +77,14 @@ public record SummonerProfileData(
     public boolean hasError() {
         return errorMessage != null && !errorMessage.isEmpty();
     }
+
+    /**
+     * Returns this profile marked as served while a fresh one is being assembled.
+     *
+     * @return Copy with revalidating set
+     */
+    public SummonerProfileData asRevalidating() {
+        return new SummonerProfileData(summoner, leagueEntries, matchHistory, suggestion, championPlayCounts,
+                profileIconUrl, errorMessage, stale, assembledAt, true);
+    }
 }
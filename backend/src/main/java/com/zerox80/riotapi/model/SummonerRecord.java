@@ -0,0 +1,150 @@
+// Package declaration: Defines that this class belongs to the model package
+package com.zerox80.riotapi.model;
+
+// Import for JPA Entity annotation to mark this as a database entity
+import jakarta.persistence.*;
+// Import for Java Instant to handle timestamp storage
+import java.time.Instant;
+
+
+/**
+ * JPA Entity representing a stored Summoner-V4 response, the second level behind the
+ * "summoners" cache.
+ *
+ * Holds the fields of {@link Summoner} per platform and PUUID, plus the time it was
+ * fetched from Riot. Together with the summoner's revision date that time decides how
+ * long the stored copy may be served without asking Riot again.
+ */
+@Entity
+@Table(name = "summoner",
+       uniqueConstraints = @UniqueConstraint(name = "uk_summoner_platform_puuid", columnNames = {"platform_id", "puuid"}))
+public class SummonerRecord {
+
+    // Primary key - auto-generated unique identifier for each record
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // The platform the summoner plays on (e.g., "euw1")
+    @Column(name = "platform_id", nullable = false, length = 16)
+    private String platformId;
+
+    // The player's unique universal identifier (PUUID)
+    @Column(name = "puuid", nullable = false, length = 128)
+    private String puuid;
+
+    // Encrypted summoner ID (may be absent in newer Riot responses)
+    @Column(name = "summoner_id", length = 128)
+    private String summonerId;
+
+    // Encrypted account ID (legacy identifier)
+    @Column(name = "account_id", length = 128)
+    private String accountId;
+
+    // Summoner name (legacy field)
+    @Column(name = "name", length = 64)
+    private String name;
+
+    // Profile icon ID
+    @Column(name = "profile_icon_id", nullable = false)
+    private int profileIconId;
+
+    // Unix timestamp (milliseconds) when the summoner was last modified at Riot
+    @Column(name = "revision_date", nullable = false)
+    private long revisionDate;
+
+    // The summoner's level
+    @Column(name = "summoner_level", nullable = false)
+    private long summonerLevel;
+
+    // When this copy was fetched from Riot
+    @Column(name = "fetched_at", nullable = false)
+    private Instant fetchedAt;
+
+    /**
+     * No-argument constructor required by JPA.
+     */
+    public SummonerRecord() {
+    }
+
+    /**
+     * Creates a record for a platform and PUUID; the data is set with {@link #update}.
+     *
+     * @param platformId The platform
+     * @param puuid      The player's PUUID
+     */
+    public SummonerRecord(String platformId, String puuid) {
+        this.platformId = platformId;
+        this.puuid = puuid;
+    }
+
+    /**
+     * Copies a freshly fetched summoner into this record.
+     *
+     * @param summoner  Summoner-V4 response
+     * @param fetchedAt When it was fetched
+     */
+    public void update(Summoner summoner, Instant fetchedAt) {
+        this.summonerId = summoner.getId();
+        this.accountId = summoner.getAccountId();
+        this.name = summoner.getName();
+        this.profileIconId = summoner.getProfileIconId();
+        this.revisionDate = summoner.getRevisionDate();
+        this.summonerLevel = summoner.getSummonerLevel();
+        this.fetchedAt = fetchedAt;
+    }
+
+    /**
+     * Converts the record back into the API model.
+     *
+     * @return A new Summoner with the stored fields
+     */
+    public Summoner toSummoner() {
+        return new Summoner(summonerId, accountId, puuid, name, profileIconId, revisionDate, summonerLevel);
+    }
+
+    /**
+     * Gets the primary key ID.
+     *
+     * @return The record ID
+     */
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Gets the platform.
+     *
+     * @return The platform ID
+     */
+    public String getPlatformId() {
+        return platformId;
+    }
+
+    /**
+     * Gets the player PUUID.
+     *
+     * @return The PUUID
+     */
+    public String getPuuid() {
+        return puuid;
+    }
+
+    /**
+     * Gets the revision date.
+     *
+     * @return Epoch milliseconds of the last change at Riot
+     */
+    public long getRevisionDate() {
+        return revisionDate;
+    }
+
+    /**
+     * Gets when this copy was fetched.
+     *
+     * @return The fetch time
+     */
+    public Instant getFetchedAt() {
+        return fetchedAt;
+    }
+}
@@ -0,0 +1,29 @@
+// Package declaration: Defines that this class belongs to the repository package
+package com.zerox80.riotapi.repository;
+
+// Import for the AccountRecord entity that this repository manages
+import com.zerox80.riotapi.model.AccountRecord;
+// Import for JPA repository base interface providing CRUD operations
+import org.springframework.data.jpa.repository.JpaRepository;
+// Import for Spring's repository stereotype annotation
+import org.springframework.stereotype.Repository;
+
+// Import for Optional to handle potentially null query results
+import java.util.Optional;
+
+/**
+ * JPA Repository for AccountRecord entities.
+ * Provides database access for the stored Riot ID lookups behind the "accounts" cache.
+ */
+@Repository
+public interface AccountRecordRepository extends JpaRepository<AccountRecord, Long> {
+
+        /**
+         * Finds the stored lookup of a Riot ID.
+         *
+         * @param regionalRoute The regional route (e.g., "europe")
+         * @param riotIdKey     The lower-case "gamename#tagline"
+         * @return Optional containing the record, empty if never stored
+         */
+        Optional<AccountRecord> findByRegionalRouteAndRiotIdKey(String regionalRoute, String riotIdKey);
+}
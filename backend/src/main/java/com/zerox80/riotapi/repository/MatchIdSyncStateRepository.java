@@ -0,0 +1,29 @@
+// Package declaration: Defines that this class belongs to the repository package
+package com.zerox80.riotapi.repository;
+
+// Import for the MatchIdSyncState entity that this repository manages
+import com.zerox80.riotapi.model.MatchIdSyncState;
+// Import for JPA repository base interface providing CRUD operations
+import org.springframework.data.jpa.repository.JpaRepository;
+// Import for Spring's repository stereotype annotation
+import org.springframework.stereotype.Repository;
+
+// Import for Optional to handle potentially null query results
+import java.util.Optional;
+
+/**
+ * JPA Repository for MatchIdSyncState entities.
+ * Provides database access for the sync state of the per-player match ID timelines.
+ */
+@Repository
+public interface MatchIdSyncStateRepository extends JpaRepository<MatchIdSyncState, Long> {
+
+        /**
+         * Finds the sync state of a player's timeline.
+         *
+         * @param regionalRoute The regional route
+         * @param puuid         The player's PUUID
+         * @return Optional containing the state, empty if the timeline was never synced
+         */
+        Optional<MatchIdSyncState> findByRegionalRouteAndPuuid(String regionalRoute, String puuid);
+}
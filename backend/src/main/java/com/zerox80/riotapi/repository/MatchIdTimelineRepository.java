@@ -0,0 +1,97 @@
+// Package declaration: Defines that this class belongs to the repository package
+package com.zerox80.riotapi.repository;
+
+// Import for the MatchIdTimelineEntry entity that this repository manages
+import com.zerox80.riotapi.model.MatchIdTimelineEntry;
+// Import for JPA repository base interface providing CRUD operations
+import org.springframework.data.jpa.repository.JpaRepository;
+// Import for bulk delete queries
+import org.springframework.data.jpa.repository.Modifying;
+// Import for custom JPQL/SQL queries
+import org.springframework.data.jpa.repository.Query;
+// Import for named query parameters
+import org.springframework.data.repository.query.Param;
+// Import for Spring's repository stereotype annotation
+import org.springframework.stereotype.Repository;
+
+// Import for the match IDs checked against the timeline
+import java.util.Collection;
+// Import for Java List collection
+import java.util.List;
+
+/**
+ * JPA Repository for MatchIdTimelineEntry entities.
+ * Provides database access for the per-player match ID timelines.
+ *
+ * Entries are ordered by their sequence number (higher = newer), so a page of the
+ * match history is a window of that order.
+ */
+@Repository
+public interface MatchIdTimelineRepository extends JpaRepository<MatchIdTimelineEntry, Long> {
+
+        /**
+         * Reads a window of a player's timeline, newest first.
+         *
+         * @param regionalRoute The regional route
+         * @param puuid         The player's PUUID
+         * @param offset        Entries to skip (the page start)
+         * @param limit         Entries to return at most (the page size)
+         * @return Match IDs of the window, newest first
+         */
+        @Query(value = "SELECT match_id FROM match_id_timeline WHERE regional_route = :route AND puuid = :puuid "
+                        + "ORDER BY seq DESC LIMIT :limit OFFSET :offset", nativeQuery = true)
+        List<String> findWindow(@Param("route") String regionalRoute, @Param("puuid") String puuid,
+                        @Param("offset") int offset, @Param("limit") int limit);
+
+        /**
+         * Finds which of the given match IDs the timeline already holds.
+         *
+         * @param regionalRoute The regional route
+         * @param puuid         The player's PUUID
+         * @param matchIds      Match IDs to check
+         * @return The known match IDs among them
+         */
+        @Query("SELECT e.matchId FROM MatchIdTimelineEntry e WHERE e.regionalRoute = :route AND e.puuid = :puuid "
+                        + "AND e.matchId IN :matchIds")
+        List<String> findKnown(@Param("route") String regionalRoute, @Param("puuid") String puuid,
+                        @Param("matchIds") Collection<String> matchIds);
+
+        /**
+         * Counts the entries of a player's timeline.
+         *
+         * @param regionalRoute The regional route
+         * @param puuid         The player's PUUID
+         * @return Number of known match IDs
+         */
+        long countByRegionalRouteAndPuuid(String regionalRoute, String puuid);
+
+        /**
+         * Gets the highest sequence number of a player's timeline.
+         *
+         * @param regionalRoute The regional route
+         * @param puuid         The player's PUUID
+         * @return Sequence number of the newest entry, null for an empty timeline
+         */
+        @Query("SELECT MAX(e.seq) FROM MatchIdTimelineEntry e WHERE e.regionalRoute = :route AND e.puuid = :puuid")
+        Long findMaxSeq(@Param("route") String regionalRoute, @Param("puuid") String puuid);
+
+        /**
+         * Gets the lowest sequence number of a player's timeline.
+         *
+         * @param regionalRoute The regional route
+         * @param puuid         The player's PUUID
+         * @return Sequence number of the oldest entry, null for an empty timeline
+         */
+        @Query("SELECT MIN(e.seq) FROM MatchIdTimelineEntry e WHERE e.regionalRoute = :route AND e.puuid = :puuid")
+        Long findMinSeq(@Param("route") String regionalRoute, @Param("puuid") String puuid);
+
+        /**
+         * Deletes a player's timeline, e.g. when too many new matches were missed to merge.
+         *
+         * @param regionalRoute The regional route
+         * @param puuid         The player's PUUID
+         */
+        @Modifying
+        @Query("DELETE FROM MatchIdTimelineEntry e WHERE e.regionalRoute = :route AND e.puuid = :puuid")
+        void deleteTimeline(@Param("route") String regionalRoute, @Param("puuid") String puuid);
+}
@@ -0,0 +1,29 @@
+// Package declaration: Defines that this class belongs to the repository package
+package com.zerox80.riotapi.repository;
+
+// Import for the SummonerRecord entity that this repository manages
+import com.zerox80.riotapi.model.SummonerRecord;
+// Import for JPA repository base interface providing CRUD operations
+import org.springframework.data.jpa.repository.JpaRepository;
+// Import for Spring's repository stereotype annotation
+import org.springframework.stereotype.Repository;
+
+// Import for Optional to handle potentially null query results
+import java.util.Optional;
+
+/**
+ * JPA Repository for SummonerRecord entities.
+ * Provides database access for the stored Summoner-V4 responses behind the "summoners" cache.
+ */
+@Repository
+public interface SummonerRecordRepository extends JpaRepository<SummonerRecord, Long> {
+
+        /**
+         * Finds the stored summoner of a player on a platform.
+         *
+         * @param platformId The platform (e.g., "euw1")
+         * @param puuid      The player's PUUID
+         * @return Optional containing the record, empty if never stored
+         */
+        Optional<SummonerRecord> findByPlatformIdAndPuuid(String platformId, String puuid);
+}
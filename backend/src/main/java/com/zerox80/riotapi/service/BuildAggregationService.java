@@ -3,6 +3,10 @@ package com.zerox80.riotapi.service;
 
 // Import of the Riot API client for external API calls
 import com.zerox80.riotapi.client.RiotApiClient;
+// Import for the scheduling class of crawl requests
+import com.zerox80.riotapi.client.RequestPriority;
+// Import for the platform the aggregation samples
+import com.zerox80.riotapi.client.RiotRegion;
 // Import for champion build response DTO
 import com.zerox80.riotapi.dto.ChampionBuildDto;
 // Import for item statistics DTO
@@ -44,8 +48,14 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 // Import for thread-safe integer operations
 import java.util.concurrent.atomic.AtomicInteger;
+// Import for the per-champion aggregation generation
+import java.util.concurrent.atomic.AtomicLong;
+// Import for the generations by champion
+import java.util.concurrent.ConcurrentHashMap;
 // Import for supplier functional interface
 import java.util.function.BooleanSupplier;
+// Import for supplier of deferred client calls
+import java.util.function.Supplier;
 // Import for stream collectors
 import java.util.stream.Collectors;
 // Import for future exception handling
@@ -82,6 +92,8 @@ public class BuildAggregationService {
     private final ChampionSpellPairStatRepository spellRepo;
     // Template for programmatic transaction management
     private final TransactionTemplate transactionTemplate;
+    // Finished aggregations per champion (lower-case ID), so cached build responses can tell old stats apart
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
 
     /**
      * Constructor with dependency injection of all required services/repositories.
@@ -174,6 +186,27 @@ public class BuildAggregationService {
         return spellRepo.findTop10ByChampionIdAndPatchAndQueueIdOrderByCountDesc(championId, patch, queueId);
     }
 
+    /**
+     * Returns the patch builds are currently loaded for (major.minor of the latest version).
+     *
+     * @return Current patch, e.g. "15.18"
+     */
+    public String currentPatch() {
+        return dd.getLatestShortPatch();
+    }
+
+    /**
+     * Returns how often the stored stats of a champion were replaced by an aggregation
+     * since startup; cached build responses include it in their key.
+     *
+     * @param championId The champion identifier (case-insensitive)
+     * @return Generation of the champion's stats, 0 before the first aggregation
+     */
+    public long buildGeneration(String championId) {
+        AtomicLong generation = generations.get(championId.toLowerCase(Locale.ROOT));
+        return generation != null ? generation.get() : 0;
+    }
+
     /**
      * Public method to load aggregated champion build data from database.
      *
@@ -350,6 +383,9 @@ public class BuildAggregationService {
             return;
         }
 
+        // Ladder and matches are sampled from the configured platform
+        RiotRegion region = riot.getDefaultRegion();
+
         List<String> tiers = Arrays.asList("EMERALD", "DIAMOND");
         List<String> divisions = Arrays.asList("I", "II", "III", "IV");
         String queueStr = (q == 440) ? "RANKED_FLEX_SR" : "RANKED_SOLO_5x5";
@@ -370,7 +406,7 @@ public class BuildAggregationService {
                         break outer;
                     }
                     int finalPage = page;
-                    futures.add(riot.getEntriesByQueueTierDivision(queueStr, tier, div, page)
+                    futures.add(background(() -> riot.getEntriesByQueueTierDivision(region, queueStr, tier, div, finalPage))
                             .thenAccept(entries -> {
                                 if (entries != null) {
                                     entries.stream()
@@ -409,7 +445,7 @@ public class BuildAggregationService {
 
         List<CompletableFuture<String>> puuidFutures = uniqueSummonerIds.stream()
                 .limit(maxSummoners)
-                .map(id -> riot.getSummonerById(id)
+                .map(id -> background(() -> riot.getSummonerById(region, id))
                         .thenApply(s -> s != null ? s.getPuuid() : null)
                         .exceptionally(ex -> null))
                 .collect(Collectors.toList());
@@ -440,30 +476,29 @@ public class BuildAggregationService {
             CompletableFuture<Void> chunkFuture = CompletableFuture.runAsync(() -> {
                 List<CompletableFuture<Void>> chunkFutures = new ArrayList<>();
                 for (String puuid : chunk) {
-                    chunkFutures.add(riot.getMatchIdsByPuuid(puuid, matchesPerSummoner)
+                    chunkFutures.add(background(() -> riot.getMatchIdsByPuuid(region, puuid, matchesPerSummoner))
                             .thenCompose(ids -> {
                                 if (ids == null || ids.isEmpty())
-                                    return CompletableFuture.completedFuture(Collections.<MatchV5Dto>emptyList());
-                                List<CompletableFuture<MatchV5Dto>> mdFuts = ids.stream().map(riot::getMatchDetails)
+                                    return CompletableFuture.completedFuture(Collections.<CompactMatch>emptyList());
+                                List<CompletableFuture<CompactMatch>> mdFuts = ids.stream()
+                                        .map(id -> background(() -> riot.getMatchDetails(region, id)))
                                         .collect(Collectors.toList());
                                 return CompletableFuture.allOf(mdFuts.toArray(new CompletableFuture[0]))
                                         .thenApply(v -> mdFuts.stream().map(CompletableFuture::join)
                                                 .filter(Objects::nonNull).collect(Collectors.toList()));
                             })
                             .thenAccept(matches -> {
-                                for (MatchV5Dto m : matches) {
+                                for (CompactMatch m : matches) {
                                     try {
-                                        if (m.getInfo() == null || m.getInfo().getParticipants() == null)
-                                            continue;
-                                        if (m.getInfo().getQueueId() != q)
+                                        if (m.getQueueId() != q)
                                             continue;
-                                        String mv = m.getInfo().getGameVersion();
+                                        String mv = m.getGameVersion();
                                         if (!StringUtils.hasText(mv) || !mv.startsWith(patch + "."))
                                             continue;
-                                        long gd = m.getInfo().getGameDuration();
+                                        long gd = m.getGameDuration();
                                         if (gd > 0 && gd < 300)
                                             continue;
-                                        for (ParticipantDto p : m.getInfo().getParticipants()) {
+                                        for (CompactParticipant p : m.getParticipants()) {
                                             if (p == null || p.getChampionId() != championKey.intValue())
                                                 continue;
                                             boolean win = p.isWin();
@@ -471,9 +506,9 @@ public class BuildAggregationService {
 
                                             Map<Integer, StatCounter> allItemsBucket = itemCounts.computeIfAbsent("ALL",
                                                     key -> new java.util.concurrent.ConcurrentHashMap<>());
-                                            int[] slots = { p.getItem0(), p.getItem1(), p.getItem2(), p.getItem3(),
-                                                    p.getItem4(), p.getItem5() };
-                                            for (int itemId : slots) {
+                                            // Slots 0..5 only, the trinket (slot 6) is not part of the build
+                                            for (int slot = 0; slot < 6; slot++) {
+                                                int itemId = p.getItem(slot);
                                                 if (itemId > 0) {
                                                     incrementCounter(allItemsBucket, itemId, win);
                                                     if (roleKey != null) {
@@ -484,17 +519,9 @@ public class BuildAggregationService {
                                                 }
                                             }
 
-                                            PerksDto perks = p.getPerks();
-                                            if (perks != null && perks.getStyles() != null
-                                                    && perks.getStyles().size() >= 2) {
-                                                PerkStyleDto primary = perks.getStyles().get(0);
-                                                PerkStyleDto sub = perks.getStyles().get(1);
-                                                int keystone = 0;
-                                                if (primary != null && primary.getSelections() != null
-                                                        && !primary.getSelections().isEmpty()) {
-                                                    keystone = primary.getSelections().get(0).getPerk();
-                                                }
-                                                String runeKey = primary.getStyle() + "|" + sub.getStyle() + "|"
+                                            if (p.getPerkStyleCount() >= 2) {
+                                                int keystone = p.getPerkSelection(0, 0);
+                                                String runeKey = p.getPerkStyle(0) + "|" + p.getPerkStyle(1) + "|"
                                                         + keystone;
                                                 Map<String, StatCounter> allRunesBucket = runeCounts.computeIfAbsent(
                                                         "ALL", key -> new java.util.concurrent.ConcurrentHashMap<>());
@@ -590,6 +617,8 @@ public class BuildAggregationService {
                 spellRepo.saveAll(spellEntities);
             }
         });
+        // Responses cached for the old stats are no longer served
+        generations.computeIfAbsent(championId.toLowerCase(Locale.ROOT), k -> new AtomicLong()).incrementAndGet();
 
         int distinctItems = itemCounts.getOrDefault("ALL", Collections.emptyMap()).size();
         int distinctRunes = runeCounts.getOrDefault("ALL", Collections.emptyMap()).size();
@@ -598,6 +627,18 @@ public class BuildAggregationService {
                 (System.currentTimeMillis() - t0), distinctItems, distinctRunes, distinctSpells);
     }
 
+    /**
+     * Issues a Riot API call as background work, so the crawl only uses the
+     * permits and rate limit quota that interactive requests leave idle.
+     *
+     * @param call The client call to issue
+     * @param <T>  Result type
+     * @return The future returned by the client
+     */
+    private static <T> CompletableFuture<T> background(Supplier<CompletableFuture<T>> call) {
+        return RequestPriority.BACKGROUND.call(call);
+    }
+
     /**
      * Helper method to increment counter arrays for aggregation statistics.
      *
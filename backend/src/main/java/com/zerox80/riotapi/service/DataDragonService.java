@@ -3,15 +3,20 @@ package com.zerox80.riotapi.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zerox80.riotapi.client.SingleFlight;
 import com.zerox80.riotapi.model.ChampionDetail;
 import com.zerox80.riotapi.model.ChampionSummary;
 import com.zerox80.riotapi.model.PassiveSummary;
 import com.zerox80.riotapi.model.SpellSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.HtmlUtils;
 import org.owasp.html.HtmlPolicyBuilder;
@@ -39,7 +44,10 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.HashMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Service responsible for interacting with Riot's static content APIs (Data
@@ -66,11 +74,19 @@ import java.util.concurrent.ConcurrentMap;
 @Service
 public class DataDragonService {
 
-    // Base URL for the official Riot Data Dragon CDN
-    private static final String DDRAGON_BASE = "https://ddragon.leagueoflegends.com";
+    // Default base URL of the official Riot Data Dragon CDN
+    private static final String DEFAULT_DDRAGON_BASE = "https://ddragon.leagueoflegends.com";
+    // Default base URL of CommunityDragon (raw game data)
+    private static final String DEFAULT_CDRAGON_BASE = "https://raw.communitydragon.org";
 
     private static final Logger logger = LoggerFactory.getLogger(DataDragonService.class);
 
+    // Longest a caller waits on a JSON download started by another caller: primary
+    // attempt plus HTTP/1.1 fallback
+    private static final Duration JSON_LOAD_TIMEOUT = Duration.ofSeconds(45);
+    // Distinct URLs downloaded at once before further URLs skip deduplication
+    private static final int MAX_JSON_LOADS_IN_FLIGHT = 256;
+
     // Primary HTTP/2 client shared with the Riot API client
     private final HttpClient httpClient;
     // Fallback HTTP/1.1 client for legacy/community endpoints that reject HTTP/2
@@ -84,6 +100,15 @@ public class DataDragonService {
     // Provider used to obtain the proxied (AOP-aware) instance for
     // cacheable/self-invoking methods
     private final ObjectProvider<DataDragonService> selfProvider;
+    // Provider of the background-polled version registry (null outside the
+    // application context, e.g. tests)
+    private final ObjectProvider<DataDragonVersionRegistry> versionRegistryProvider;
+    // Data Dragon base URL (ddragon.base-url), e.g. a local fake server in load tests
+    private final String ddragonBase;
+    // CommunityDragon base URL (ddragon.community-dragon-base-url)
+    private final String cdragonBase;
+    // Deduplicates concurrent downloads of the same URL (e.g. a cold cache hit by many requests)
+    private final SingleFlight<String, JsonNode> jsonLoads;
     // Tracks last successful patch version to offer a deterministic fallback
     private volatile String lastKnownVersion;
 
@@ -137,8 +162,7 @@ public class DataDragonService {
     private static final Pattern PERCENT_PATTERN = Pattern.compile(".*\\d+(?:[\\s\\u00A0])*%.*");
 
     /**
-     * Constructs the service with HTTP client dependencies and runtime
-     * configuration.
+     * Constructs the service with configurable upstream hosts and metrics.
      *
      * @param riotApiHttpClient shared HTTP client configured with tracing/executor
      *                          propagation
@@ -148,11 +172,22 @@ public class DataDragonService {
      *                          CommunityDragon
      * @param selfProvider      ObjectProvider that allows the bean to call its own
      *                          proxied methods
+     * @param ddragonBaseUrl    base URL of Data Dragon (without trailing slash)
+     * @param cdragonBaseUrl    base URL of CommunityDragon (without trailing slash)
+     * @param meterRegistry     registry for the deduplication metrics of the downloads
+     * @param versionRegistryProvider provider of the version registry the latest
+     *                          version is read from; null resolves it through the
+     *                          cached version list instead
      */
+    @Autowired
     public DataDragonService(HttpClient riotApiHttpClient,
             @Value("${ddragon.default-locale:en_US}") String defaultLocale,
             @Value("${app.user-agent:SummonerAPI/2.0 (github.com/zerox80/SummonerAPI)}") String userAgent,
-            ObjectProvider<DataDragonService> selfProvider) {
+            ObjectProvider<DataDragonService> selfProvider,
+            @Value("${ddragon.base-url:" + DEFAULT_DDRAGON_BASE + "}") String ddragonBaseUrl,
+            @Value("${ddragon.community-dragon-base-url:" + DEFAULT_CDRAGON_BASE + "}") String cdragonBaseUrl,
+            MeterRegistry meterRegistry,
+            ObjectProvider<DataDragonVersionRegistry> versionRegistryProvider) {
         this.httpClient = riotApiHttpClient;
         this.fallbackHttp1 = HttpClient.newBuilder()
                 .version(HttpClient.Version.HTTP_1_1)
@@ -162,6 +197,22 @@ public class DataDragonService {
         this.userAgent = (userAgent == null || userAgent.isBlank()) ? "SummonerAPI/2.0 (github.com/zerox80/SummonerAPI)"
                 : userAgent;
         this.selfProvider = selfProvider;
+        this.versionRegistryProvider = versionRegistryProvider;
+        this.ddragonBase = stripTrailingSlash(ddragonBaseUrl, DEFAULT_DDRAGON_BASE);
+        this.cdragonBase = stripTrailingSlash(cdragonBaseUrl, DEFAULT_CDRAGON_BASE);
+        this.jsonLoads = new SingleFlight<>("ddragon", MAX_JSON_LOADS_IN_FLIGHT, JSON_LOAD_TIMEOUT, meterRegistry);
+    }
+
+    /**
+     * Normalizes a configured base URL: blank falls back to the default, a trailing
+     * slash is removed so paths can be appended directly.
+     */
+    private static String stripTrailingSlash(String url, String fallback) {
+        if (url == null || url.isBlank()) {
+            return fallback;
+        }
+        String trimmed = url.trim();
+        return trimmed.endsWith("/") ? trimmed.substring(0, trimmed.length() - 1) : trimmed;
     }
 
     /**
@@ -175,6 +226,22 @@ public class DataDragonService {
         return proxy != null ? proxy : this;
     }
 
+    /**
+     * Returns the version registry, or null when running without one.
+     */
+    private DataDragonVersionRegistry versionRegistry() {
+        return versionRegistryProvider != null ? versionRegistryProvider.getIfAvailable() : null;
+    }
+
+    /**
+     * Returns the version the registry currently holds, or null before its first
+     * successful poll (or when running without a registry).
+     */
+    private DataDragonVersionRegistry.Snapshot registeredVersion() {
+        DataDragonVersionRegistry registry = versionRegistry();
+        return registry != null ? registry.current() : null;
+    }
+
     /**
      * Sanitizes tooltips/lore snippets using the allow-list policy defined above.
      * Falls back to a safe plain-text rendering when sanitization fails.
@@ -329,21 +396,54 @@ public class DataDragonService {
 
     /**
      * Loads the complete list of Data Dragon patch versions and caches the result
-     * for twelve hours.
+     * for twelve hours, or until the version registry reports a new version.
+     * Answered from the version registry once it has polled; while the registry
+     * polls but has no version yet, the list is left to the poll (empty result).
      * The first entry is stored as {@link #lastKnownVersion} for subsequent
      * fallbacks.
      */
     @Cacheable(cacheNames = "ddragonVersions", unless = "#result == null || #result.isEmpty()")
     public List<String> getAllVersions() {
-        String url = DDRAGON_BASE + "/api/versions.json";
+        DataDragonVersionRegistry registry = versionRegistry();
+        DataDragonVersionRegistry.Snapshot current = registry != null ? registry.current() : null;
+        if (current != null) {
+            return current.versions();
+        }
+        if (registry != null && registry.isPolling()) {
+            return Collections.emptyList();
+        }
+        List<String> versions = fetchVersions();
+        if (!versions.isEmpty()) {
+            lastKnownVersion = versions.get(0);
+        }
+        return versions;
+    }
+
+    /**
+     * Drops the version list cached by {@link #getAllVersions()} when the registry
+     * polled a new version, so a list cached before the poll does not outlive it.
+     *
+     * @param event The version change
+     */
+    @EventListener
+    @CacheEvict(cacheNames = "ddragonVersions", allEntries = true)
+    public void onVersionChanged(DataDragonVersionChangedEvent event) {
+        logger.debug("Evicting cached Data Dragon versions after the change to {}", event.version());
+    }
+
+    /**
+     * Downloads the list of Data Dragon patch versions (newest first), bypassing
+     * every cache. Used by the version registry's background poll.
+     *
+     * @return versions, or an empty list if Data Dragon cannot be reached
+     */
+    public List<String> fetchVersions() {
+        String url = ddragonBase + "/api/versions.json";
         try {
             JsonNode node = getJson(url);
             if (node.isArray()) {
                 List<String> versions = new ArrayList<>();
                 node.forEach(n -> versions.add(n.asText()));
-                if (!versions.isEmpty()) {
-                    lastKnownVersion = versions.get(0);
-                }
                 return versions;
             }
         } catch (Exception e) {
@@ -353,13 +453,27 @@ public class DataDragonService {
     }
 
     /**
-     * Convenience accessor that returns the newest Data Dragon version. When the
-     * remote
-     * endpoint cannot be reached, the method falls back to
-     * {@link #lastKnownVersion}.
+     * Convenience accessor that returns the newest Data Dragon version. Reads the
+     * version registry, which polls Data Dragon in the background, so request paths
+     * do no network I/O for it. Until the registry's first poll succeeded the
+     * version persisted in the ddragonVersions cache is served, else
+     * {@link #lastKnownVersion}. Only without a polling registry (tests, outside
+     * the application context) the version list is loaded through the proxy.
      */
     public String getLatestVersion() {
-        List<String> versions = getAllVersions();
+        DataDragonVersionRegistry registry = versionRegistry();
+        if (registry != null && registry.isPolling()) {
+            String known = registry.knownVersion();
+            if (known != null) {
+                return known;
+            }
+            return (lastKnownVersion != null && !lastKnownVersion.isBlank()) ? lastKnownVersion : "latest";
+        }
+        DataDragonVersionRegistry.Snapshot current = registry != null ? registry.current() : null;
+        if (current != null) {
+            return current.version();
+        }
+        List<String> versions = self().getAllVersions();
         if (!versions.isEmpty()) {
             lastKnownVersion = versions.get(0);
             return versions.get(0);
@@ -372,12 +486,8 @@ public class DataDragonService {
      * so that downstream code can reference aggregated statistics per patch.
      */
     public String getLatestShortPatch() {
-        String v = getLatestVersion();
         // e.g., 15.18.1 -> 15.18
-        String[] parts = v.split("\\.");
-        if (parts.length >= 2)
-            return parts[0] + "." + parts[1];
-        return v;
+        return DataDragonVersionRegistry.shortPatch(getLatestVersion());
     }
 
     /**
@@ -440,7 +550,7 @@ public class DataDragonService {
     @Cacheable(cacheNames = "ddragonChampionList", key = "#version + '|' + #localeTag")
     public List<ChampionSummary> getChampionSummariesCached(String version, String localeTag)
             throws IOException, InterruptedException {
-        String url = DDRAGON_BASE + "/cdn/" + version + "/data/" + localeTag + "/champion.json";
+        String url = ddragonBase + "/cdn/" + version + "/data/" + localeTag + "/champion.json";
         JsonNode root = getJson(url);
         JsonNode data = root.path("data");
         if (data.isMissingNode() || !data.isObject())
@@ -494,7 +604,7 @@ public class DataDragonService {
         if (canonicalId != null) {
             cid = canonicalId;
         }
-        JsonNode root = getJson(DDRAGON_BASE + "/cdn/" + version + "/data/" + localeTag + "/champion/" + cid + ".json");
+        JsonNode root = getJson(ddragonBase + "/cdn/" + version + "/data/" + localeTag + "/champion/" + cid + ".json");
         JsonNode data = root.path("data").path(cid);
         if (data.isMissingNode()) {
             return null;
@@ -522,7 +632,7 @@ public class DataDragonService {
         if ((generated == null || generated.spells == null || generated.spells.isEmpty())
                 && !"en_US".equalsIgnoreCase(localeTag)) {
             try {
-                JsonNode enRoot = getJson(DDRAGON_BASE + "/cdn/" + version + "/data/en_US/champion/" + cid + ".json");
+                JsonNode enRoot = getJson(ddragonBase + "/cdn/" + version + "/data/en_US/champion/" + cid + ".json");
                 JsonNode enData = enRoot.path("data").path(cid);
                 if (!enData.isMissingNode()) {
                     generated = buildChampionAbilities(enData, "en_US");
@@ -1424,7 +1534,7 @@ public class DataDragonService {
     private List<String> fetchCDragonResolvedTooltips(int championKey, String ddragonLocale)
             throws IOException, InterruptedException {
         String loc = cdragonLocale(ddragonLocale);
-        String url = "https://raw.communitydragon.org/latest/plugins/rcp-be-lol-game-data/global/" + loc
+        String url = cdragonBase + "/latest/plugins/rcp-be-lol-game-data/global/" + loc
                 + "/v1/champions/" + championKey + ".json";
         JsonNode node = getJson(url);
         if (node == null || node.isMissingNode())
@@ -1438,7 +1548,7 @@ public class DataDragonService {
         JsonNode defNode = null;
         JsonNode defSpells = null;
         try {
-            String defUrl = "https://raw.communitydragon.org/latest/plugins/rcp-be-lol-game-data/global/default/v1/champions/"
+            String defUrl = cdragonBase + "/latest/plugins/rcp-be-lol-game-data/global/default/v1/champions/"
                     + championKey + ".json";
             defNode = getJson(defUrl);
             defSpells = defNode != null ? defNode.path("spells") : null;
@@ -1630,12 +1740,12 @@ public class DataDragonService {
     @Cacheable(cacheNames = "ddragonChampionList", key = "'keyToImg|' + #version + '|' + #localeTag")
     public Map<Integer, String> getChampionKeyToSquareUrlCached(String version, String localeTag)
             throws IOException, InterruptedException {
-        String url = DDRAGON_BASE + "/cdn/" + version + "/data/" + localeTag + "/champion.json";
+        String url = ddragonBase + "/cdn/" + version + "/data/" + localeTag + "/champion.json";
         JsonNode root = getJson(url);
         JsonNode data = root.path("data");
         if (!data.isObject())
             return Collections.emptyMap();
-        String base = DDRAGON_BASE + "/cdn/" + version + "/img/champion/";
+        String base = ddragonBase + "/cdn/" + version + "/img/champion/";
         Map<Integer, String> map = new java.util.HashMap<>();
         data.fields().forEachRemaining(e -> {
             JsonNode n = e.getValue();
@@ -1860,7 +1970,7 @@ public class DataDragonService {
         if (canonicalId != null) {
             cid = canonicalId;
         }
-        JsonNode root = getJson(DDRAGON_BASE + "/cdn/" + version + "/data/" + localeTag + "/champion/" + cid + ".json");
+        JsonNode root = getJson(ddragonBase + "/cdn/" + version + "/data/" + localeTag + "/champion/" + cid + ".json");
         JsonNode data = root.path("data").path(cid);
         if (data.isMissingNode()) {
             return null;
@@ -1875,6 +1985,46 @@ public class DataDragonService {
         }
     }
 
+    /**
+     * Downloads and parses a JSON document. Concurrent calls for the same URL share
+     * one download: the first caller performs it on its own thread, the others wait
+     * for its result (at most {@link #JSON_LOAD_TIMEOUT}).
+     * The flight's timeout only covers those joiners: the loader completes before
+     * execute() returns, so the first caller is bounded by the request timeout of
+     * fetchJson (20 seconds per attempt, two attempts) instead.
+     */
+    private JsonNode getJson(String url) throws IOException, InterruptedException {
+        CompletableFuture<JsonNode> load = jsonLoads.execute(url, () -> {
+            try {
+                return CompletableFuture.completedFuture(fetchJson(url));
+            } catch (IOException e) {
+                return CompletableFuture.failedFuture(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return CompletableFuture.failedFuture(e);
+            }
+        });
+        try {
+            return load.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof RuntimeException re) {
+                throw re;
+            }
+            if (cause instanceof TimeoutException) {
+                throw new IOException("Timed out loading " + url, cause);
+            }
+            if (cause instanceof InterruptedException ie && Thread.interrupted()) {
+                throw ie;
+            }
+            // The caller performing the download was interrupted; this one was not
+            throw new IOException("Shared download of " + url + " failed", cause);
+        }
+    }
+
     /**
      * Executes an HTTP GET request (preferring HTTP/2) and parses the response body
      * as JSON.
@@ -1882,7 +2032,7 @@ public class DataDragonService {
      * retries once with
      * the fallback HTTP/1.1 client before surfacing an {@link IOException}.
      */
-    private JsonNode getJson(String url) throws IOException, InterruptedException {
+    private JsonNode fetchJson(String url) throws IOException, InterruptedException {
         HttpRequest req = HttpRequest.newBuilder(URI.create(url))
                 .timeout(Duration.ofSeconds(20))
                 .GET()
@@ -1925,7 +2075,9 @@ public class DataDragonService {
         boolean needsResolve = requested == null || requested.isBlank() || "latest".equalsIgnoreCase(requested);
         String ver;
         if (needsResolve) {
-            String fallback = lastKnownVersion;
+            // The registry knows about a new patch; lastKnownVersion may still hold the old one
+            DataDragonVersionRegistry.Snapshot current = registeredVersion();
+            String fallback = current != null ? current.version() : lastKnownVersion;
             if (fallback == null || fallback.isBlank()) {
                 fallback = getLatestVersion();
             }
@@ -1946,13 +2098,13 @@ public class DataDragonService {
     public Map<String, String> getImageBasesCached(String version) {
         Map<String, String> map = new LinkedHashMap<>();
         map.put("version", version);
-        map.put("cdn", DDRAGON_BASE + "/cdn/");
-        map.put("img", DDRAGON_BASE + "/cdn/" + version + "/img/");
-        map.put("champSquare", DDRAGON_BASE + "/cdn/" + version + "/img/champion/");
-        map.put("item", DDRAGON_BASE + "/cdn/" + version + "/img/item/");
-        map.put("spell", DDRAGON_BASE + "/cdn/" + version + "/img/spell/");
-        map.put("passive", DDRAGON_BASE + "/cdn/" + version + "/img/passive/");
-        map.put("splash", DDRAGON_BASE + "/cdn/img/champion/splash/");
+        map.put("cdn", ddragonBase + "/cdn/");
+        map.put("img", ddragonBase + "/cdn/" + version + "/img/");
+        map.put("champSquare", ddragonBase + "/cdn/" + version + "/img/champion/");
+        map.put("item", ddragonBase + "/cdn/" + version + "/img/item/");
+        map.put("spell", ddragonBase + "/cdn/" + version + "/img/spell/");
+        map.put("passive", ddragonBase + "/cdn/" + version + "/img/passive/");
+        map.put("splash", ddragonBase + "/cdn/img/champion/splash/");
         // Ranked emblems from CommunityDragon static assets (CDN-only)
         map.put("rankedMiniCrest",
                 "https://raw.communitydragon.org/latest/plugins/rcp-fe-lol-static-assets/global/default/images/ranked-mini-crests/");
@@ -1971,7 +2123,7 @@ public class DataDragonService {
     @Cacheable(cacheNames = "ddragonItems", key = "#version + '|' + #localeTag")
     public Map<Integer, com.zerox80.riotapi.model.ItemSummary> getItemsCached(String version, String localeTag)
             throws IOException, InterruptedException {
-        String url = DDRAGON_BASE + "/cdn/" + version + "/data/" + localeTag + "/item.json";
+        String url = ddragonBase + "/cdn/" + version + "/data/" + localeTag + "/item.json";
         JsonNode root = getJson(url);
         JsonNode data = root.path("data");
         if (!data.isObject())
@@ -2030,7 +2182,7 @@ public class DataDragonService {
     }
 
     private JsonNode getRunesArray(String version, String localeTag) throws IOException, InterruptedException {
-        String url = DDRAGON_BASE + "/cdn/" + version + "/data/" + localeTag + "/runesReforged.json";
+        String url = ddragonBase + "/cdn/" + version + "/data/" + localeTag + "/runesReforged.json";
         return getJson(url);
     }
 
@@ -2044,7 +2196,7 @@ public class DataDragonService {
     @Cacheable(cacheNames = "ddragonSummonerSpells", key = "#version + '|' + #localeTag")
     public Map<Integer, com.zerox80.riotapi.model.SummonerSpellInfo> getSummonerSpellsCached(String version,
             String localeTag) throws IOException, InterruptedException {
-        String url = DDRAGON_BASE + "/cdn/" + version + "/data/" + localeTag + "/summoner.json";
+        String url = ddragonBase + "/cdn/" + version + "/data/" + localeTag + "/summoner.json";
         JsonNode root = getJson(url);
         JsonNode data = root.path("data");
         if (!data.isObject())
@@ -0,0 +1,16 @@
+// Package declaration: Defines that this class belongs to the service layer
+package com.zerox80.riotapi.service;
+
+/**
+ * Published by {@link DataDragonVersionRegistry} when Data Dragon announces a new
+ * version (also for the first version loaded after startup).
+ *
+ * Listeners can warm up caches for the new patch; everything keyed by version
+ * (champion data, response caches, builds) switches over on its own.
+ *
+ * @param previousVersion Version held before, null on the first load
+ * @param version         New version, e.g. "15.19.1"
+ * @param patch           Short patch of the new version, e.g. "15.19"
+ */
+public record DataDragonVersionChangedEvent(String previousVersion, String version, String patch) {
+}
@@ -0,0 +1,251 @@
+// Package declaration: Defines that this class belongs to the service layer
+package com.zerox80.riotapi.service;
+
+// Import for logging interface
+import org.slf4j.Logger;
+// Import for logger factory to instantiate loggers
+import org.slf4j.LoggerFactory;
+// Import for selecting the application executor
+import org.springframework.beans.factory.annotation.Qualifier;
+// Import for the switch that turns the poll off
+import org.springframework.beans.factory.annotation.Value;
+// Import for the health status of the first poll
+import org.springframework.boot.actuate.health.Health;
+// Import for the readiness contribution of the first poll
+import org.springframework.boot.actuate.health.HealthIndicator;
+// Import for the startup event that triggers the first poll
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+// Import for Spring's Cache interface
+import org.springframework.cache.Cache;
+// Import for the manager holding the persisted version list
+import org.springframework.cache.CacheManager;
+// Import for the key of the cached version list (getAllVersions has no parameters)
+import org.springframework.cache.interceptor.SimpleKey;
+// Import for publishing the version changed event
+import org.springframework.context.ApplicationEventPublisher;
+// Import for the startup listener
+import org.springframework.context.event.EventListener;
+// Import for the periodic poll
+import org.springframework.scheduling.annotation.Scheduled;
+// Import for @Component for bean registration
+import org.springframework.stereotype.Component;
+
+// Import for the time of the last poll
+import java.time.Instant;
+// Import for the health details
+import java.util.LinkedHashMap;
+// Import for the version list
+import java.util.List;
+// Import for the health details
+import java.util.Map;
+// Import for the executor the first poll runs on
+import java.util.concurrent.Executor;
+// Import for the current version, swapped atomically by the poll
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the current Data Dragon version, so request paths never fetch versions.json.
+ *
+ * The version list is polled in the background - once right after startup, then every
+ * ddragon.version-refresh-interval - and swapped in atomically. When the newest version
+ * changes, a {@link DataDragonVersionChangedEvent} is published. A failed poll keeps the
+ * version held before. Until the first poll succeeded, request paths get the version
+ * persisted in the ddragonVersions cache (e.g. restored from the cache snapshot), never
+ * a download. With ddragon.version-refresh-enabled=false (tests) nothing is polled and
+ * DataDragonService loads the versions itself.
+ *
+ * As a health contributor it reports OUT_OF_SERVICE until the first poll succeeded, so
+ * readiness can hold traffic back while no current version is known.
+ */
+// @Component - registered under the name "ddragonVersion" (also the health contributor name)
+@Component("ddragonVersion")
+public class DataDragonVersionRegistry implements HealthIndicator {
+
+    // Logger instance for logging in this component
+    private static final Logger logger = LoggerFactory.getLogger(DataDragonVersionRegistry.class);
+
+    // final: Downloads the version list
+    private final DataDragonService dataDragonService;
+
+    // final: Publishes the version changed event
+    private final ApplicationEventPublisher eventPublisher;
+
+    // final: Executor the first poll runs on
+    private final Executor executor;
+
+    // final: Manager holding the persisted version list (ddragonVersions cache), may be null
+    private final CacheManager cacheManager;
+
+    // final: Whether the version list is polled at all
+    private final boolean enabled;
+
+    // final: Current version, null before the first successful poll
+    private final AtomicReference<Snapshot> current = new AtomicReference<>();
+
+    /**
+     * Constructor with dependency injection.
+     *
+     * @param dataDragonService Downloads the version list
+     * @param eventPublisher    Publishes the version changed event
+     * @param executor          Executor the first poll runs on
+     * @param cacheManager      Manager holding the persisted version list, may be null
+     * @param enabled           Whether the version list is polled at all
+     */
+    public DataDragonVersionRegistry(DataDragonService dataDragonService, ApplicationEventPublisher eventPublisher,
+            @Qualifier("appTaskExecutor") Executor executor, CacheManager cacheManager,
+            @Value("${ddragon.version-refresh-enabled:true}") boolean enabled) {
+        this.dataDragonService = dataDragonService;
+        this.eventPublisher = eventPublisher;
+        this.executor = executor;
+        this.cacheManager = cacheManager;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Returns whether the version list is polled, i.e. whether request paths must
+     * leave the download to the poll.
+     *
+     * @return true if the version list is polled
+     */
+    public boolean isPolling() {
+        return enabled;
+    }
+
+    /**
+     * Returns the current version.
+     *
+     * @return Current version, or null before the first successful poll
+     */
+    public Snapshot current() {
+        return current.get();
+    }
+
+    /**
+     * Returns the newest version known without network I/O: the polled one, or before
+     * the first successful poll the one persisted in the ddragonVersions cache.
+     *
+     * @return Newest known version, or null if none is known yet
+     */
+    public String knownVersion() {
+        Snapshot snapshot = current.get();
+        if (snapshot != null) {
+            return snapshot.version();
+        }
+        List<?> persisted = persistedVersions();
+        if (persisted != null && !persisted.isEmpty() && persisted.get(0) instanceof String version
+                && !version.isBlank()) {
+            return version;
+        }
+        return null;
+    }
+
+    /**
+     * Starts the first poll in the background once the application context is up.
+     */
+    @EventListener(ApplicationStartedEvent.class)
+    public void pollOnStartup() {
+        if (!enabled) {
+            return;
+        }
+        executor.execute(this::refresh);
+    }
+
+    /**
+     * Polls the version list every ddragon.version-refresh-interval.
+     */
+    @Scheduled(fixedDelayString = "${ddragon.version-refresh-interval:10m}",
+            initialDelayString = "${ddragon.version-refresh-interval:10m}")
+    public void pollPeriodically() {
+        if (!enabled) {
+            return;
+        }
+        refresh();
+    }
+
+    /**
+     * Downloads the version list and swaps it in, publishing an event if the newest
+     * version changed.
+     *
+     * @return true if the newest version changed
+     */
+    public boolean refresh() {
+        List<String> versions = dataDragonService.fetchVersions();
+        if (versions.isEmpty() || versions.get(0) == null || versions.get(0).isBlank()) {
+            logger.warn("Could not load Data Dragon versions; keeping {}", describe(current.get()));
+            return false;
+        }
+        Snapshot next = new Snapshot(versions.get(0), shortPatch(versions.get(0)), List.copyOf(versions),
+                Instant.now());
+        Snapshot previous = current.getAndSet(next);
+        if (previous != null && previous.version().equals(next.version())) {
+            return false;
+        }
+        logger.info("Data Dragon version changed from {} to {}", describe(previous), next.version());
+        eventPublisher.publishEvent(new DataDragonVersionChangedEvent(
+                previous != null ? previous.version() : null, next.version(), next.patch()));
+        return true;
+    }
+
+    /**
+     * Reports OUT_OF_SERVICE while the version list is polled but no poll succeeded yet.
+     *
+     * @return Health of the version registry
+     */
+    @Override
+    public Health health() {
+        Snapshot snapshot = current.get();
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("enabled", enabled);
+        details.put("version", snapshot != null ? snapshot.version() : knownVersion());
+        if (snapshot != null) {
+            details.put("fetchedAt", snapshot.fetchedAt().toString());
+        }
+        Health.Builder health = enabled && snapshot == null ? Health.outOfService() : Health.up();
+        return health.withDetails(details).build();
+    }
+
+    /**
+     * Reads the version list persisted in the ddragonVersions cache, without loading it.
+     */
+    private List<?> persistedVersions() {
+        Cache cache = cacheManager != null ? cacheManager.getCache("ddragonVersions") : null;
+        if (cache == null) {
+            return null;
+        }
+        try {
+            return cache.get(SimpleKey.EMPTY, List.class);
+        } catch (RuntimeException e) {
+            logger.debug("Could not read the persisted Data Dragon versions: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Derives the short patch (major.minor) of a version, e.g. 15.18.1 -> 15.18.
+     *
+     * @param version Full version
+     * @return Short patch, or the version itself if it has no minor part
+     */
+    static String shortPatch(String version) {
+        String[] parts = version.split("\\.");
+        return parts.length >= 2 ? parts[0] + "." + parts[1] : version;
+    }
+
+    /**
+     * Describes a snapshot for the log.
+     */
+    private static String describe(Snapshot snapshot) {
+        return snapshot != null ? snapshot.version() : "no version";
+    }
+
+    /**
+     * A polled version list.
+     *
+     * @param version   Newest version, e.g. "15.18.1"
+     * @param patch     Short patch of the newest version, e.g. "15.18"
+     * @param versions  All versions, newest first
+     * @param fetchedAt Time of the poll that found this list
+     */
+    public record Snapshot(String version, String patch, List<String> versions, Instant fetchedAt) {
+    }
+}
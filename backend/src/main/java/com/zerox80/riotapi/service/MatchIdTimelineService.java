@@ -0,0 +1,425 @@
+// Package declaration: Defines that this class belongs to the service layer of the Riot API
+package com.zerox80.riotapi.service;
+
+// Import of the Riot API client for external API calls
+import com.zerox80.riotapi.client.RiotApiClient;
+// Import for the platform/regional routing of a request
+import com.zerox80.riotapi.client.RiotRegion;
+// Import for the request deadline, re-applied to calls issued in async steps
+import com.zerox80.riotapi.client.RequestDeadline;
+// Import for the request priority, re-applied to calls issued in async steps
+import com.zerox80.riotapi.client.RequestPriority;
+// Import for collapsing concurrent syncs of the same timeline
+import com.zerox80.riotapi.client.SingleFlight;
+// Import for the timeline settings (riot.api.match-timeline.*)
+import com.zerox80.riotapi.config.RiotApiProperties;
+// Import for the sync state entity
+import com.zerox80.riotapi.model.MatchIdSyncState;
+// Import for the timeline entry entity
+import com.zerox80.riotapi.model.MatchIdTimelineEntry;
+// Import for the sync state repository (database)
+import com.zerox80.riotapi.repository.MatchIdSyncStateRepository;
+// Import for the timeline repository (database)
+import com.zerox80.riotapi.repository.MatchIdTimelineRepository;
+// Import for metrics registry for the sync coalescing
+import io.micrometer.core.instrument.MeterRegistry;
+// Import for logging interface
+import org.slf4j.Logger;
+// Import for logger factory to instantiate loggers
+import org.slf4j.LoggerFactory;
+// Import for selecting the application executor
+import org.springframework.beans.factory.annotation.Qualifier;
+// Import for recognizing a merge that raced with another instance
+import org.springframework.dao.DataIntegrityViolationException;
+// Import for service component annotation
+import org.springframework.stereotype.Service;
+// Import for programmatic transaction management
+import org.springframework.transaction.PlatformTransactionManager;
+// Import for transactional code blocks
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Import for time duration calculations
+import java.time.Duration;
+// Import for timestamp management
+import java.time.Instant;
+// Import for ArrayList implementation
+import java.util.ArrayList;
+// Import for HashSet implementation
+import java.util.HashSet;
+// Import for list collections
+import java.util.List;
+// Import for set interface
+import java.util.Set;
+// Import for asynchronous/non-blocking operations
+import java.util.concurrent.CompletableFuture;
+// Import for the executor the database steps run on
+import java.util.concurrent.Executor;
+// Import for the actions run with the caller's deadline and priority
+import java.util.function.Supplier;
+
+/**
+ * Service for the stored match ID timeline of each player.
+ *
+ * Instead of asking Riot for every page of a match history, the known match IDs of a
+ * player are kept in the database in Riot's order. At most once per refresh interval
+ * Riot is asked for matches started since the last sync (startTime), and the new IDs
+ * are put in front. A page further back than the timeline reaches is filled by paging
+ * Riot from the timeline's end, 100 IDs per call. Every (start, count) window is then read locally, so
+ * scrolling through a match history mostly causes no upstream calls at all.
+ *
+ * The database steps run on the application executor: the steps after a Riot call
+ * would otherwise run on the thread that completed it (HTTP client, timer), which
+ * must not block on JDBC.
+ */
+@Service
+public class MatchIdTimelineService {
+
+    // Logger instance for logging in this service
+    private static final Logger logger = LoggerFactory.getLogger(MatchIdTimelineService.class);
+
+    // Most match IDs Riot returns per call
+    private static final int RIOT_MAX_COUNT = 100;
+
+    // IDs fetched at least when a timeline is created, so the first pages are served locally
+    private static final int INITIAL_COUNT = 20;
+
+    // Looked back past the last sync, so games running during it are not missed
+    private static final Duration SYNC_OVERLAP = Duration.ofHours(2);
+
+    // Client for HTTP calls to the Riot API
+    private final RiotApiClient riotApiClient;
+    // Database repository for the timeline entries
+    private final MatchIdTimelineRepository timelineRepository;
+    // Database repository for the sync states
+    private final MatchIdSyncStateRepository syncStateRepository;
+    // Template for programmatic transaction management
+    private final TransactionTemplate transactionTemplate;
+    // Master switch (riot.api.match-timeline.enabled)
+    private final boolean enabled;
+    // Minimum time between two syncs of one timeline
+    private final Duration refreshInterval;
+    // Collapses concurrent syncs of the same timeline, so IDs are merged once
+    private final SingleFlight<String, Void> syncs;
+    // Executor the database reads and writes run on
+    private final Executor executor;
+
+    /**
+     * Constructor with dependency injection.
+     *
+     * @param riotApiClient       Injected Riot API client
+     * @param timelineRepository  Injected timeline repository
+     * @param syncStateRepository Injected sync state repository
+     * @param transactionManager  Injected transaction manager for database transactions
+     * @param riotApiProperties   Timeline and coalescing settings
+     * @param meterRegistry       Metrics registry for the sync coalescing
+     * @param executor            Executor the database steps run on
+     */
+    public MatchIdTimelineService(RiotApiClient riotApiClient,
+            MatchIdTimelineRepository timelineRepository,
+            MatchIdSyncStateRepository syncStateRepository,
+            PlatformTransactionManager transactionManager,
+            RiotApiProperties riotApiProperties,
+            MeterRegistry meterRegistry,
+            @Qualifier("appTaskExecutor") Executor executor) {
+        this.riotApiClient = riotApiClient;
+        this.timelineRepository = timelineRepository;
+        this.syncStateRepository = syncStateRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        RiotApiProperties.MatchTimeline config = riotApiProperties.getMatchTimeline();
+        this.enabled = config.isEnabled();
+        this.refreshInterval = config.getRefreshInterval();
+        RiotApiProperties.Coalescing coalescing = riotApiProperties.getCoalescing();
+        this.syncs = new SingleFlight<>("matchTimeline", coalescing.getMaxInFlight(), coalescing.getTimeout(),
+                meterRegistry);
+        this.executor = executor;
+    }
+
+    /**
+     * Checks whether match history pages are served from the timelines.
+     *
+     * @return true if enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Gets a window of a player's match IDs, newest first. The timeline is synced
+     * first if it is older than the refresh interval or does not reach the window.
+     * If Riot fails, the window is served from the timeline as it is, marked stale.
+     *
+     * @param region Region whose regional route lists the matches
+     * @param puuid  Player's PUUID
+     * @param start  Index of the first match ID (0 = newest)
+     * @param count  Number of match IDs
+     * @return CompletableFuture containing the match IDs of the window (may be empty)
+     */
+    public CompletableFuture<List<String>> getMatchIds(RiotRegion region, String puuid, int start, int count) {
+        String route = region.regionalRoute();
+        String key = route + ":" + puuid;
+        int depth = start + count;
+        RequestDeadline deadline = RequestDeadline.current();
+        RequestPriority priority = RequestPriority.current();
+        return syncs.execute(key, () -> sync(region, puuid, depth))
+                // A caller that joined a shallower sync pages further back itself
+                .thenComposeAsync(v -> covers(route, puuid, depth) ? CompletableFuture.<Void>completedFuture(null)
+                        : inContext(deadline, priority, () -> syncs.execute(key, () -> sync(region, puuid, depth))),
+                        executor)
+                .handleAsync((v, ex) -> {
+                    List<String> ids = timelineRepository.findWindow(route, puuid, start, count);
+                    if (ex == null) {
+                        return ids;
+                    }
+                    if (syncStateRepository.findByRegionalRouteAndPuuid(route, puuid).isEmpty()) {
+                        throw ex instanceof RuntimeException re ? re : new IllegalStateException(ex);
+                    }
+                    logger.warn("Match ID sync for PUUID {} failed, serving the stored timeline: {}",
+                            maskPuuid(puuid), ex.getMessage());
+                    return riotApiClient.markStale(ids);
+                }, executor);
+    }
+
+    /**
+     * Checks whether the timeline reaches the given depth (or the player's oldest match).
+     *
+     * @param route Regional route
+     * @param puuid Player's PUUID
+     * @param depth Number of newest match IDs needed
+     * @return true if no Riot call is needed for the depth
+     */
+    private boolean covers(String route, String puuid, int depth) {
+        MatchIdSyncState state = syncStateRepository.findByRegionalRouteAndPuuid(route, puuid).orElse(null);
+        return state != null
+                && (state.isHistoryComplete() || timelineRepository.countByRegionalRouteAndPuuid(route, puuid) >= depth);
+    }
+
+    /**
+     * Brings a timeline up to date and deep enough: creates it, fetches newer matches
+     * once the refresh interval passed, then pages Riot further back if needed.
+     *
+     * @param region Region whose regional route lists the matches
+     * @param puuid  Player's PUUID
+     * @param depth  Number of newest match IDs needed
+     * @return CompletableFuture completing once the timeline is synced
+     */
+    private CompletableFuture<Void> sync(RiotRegion region, String puuid, int depth) {
+        String route = region.regionalRoute();
+        RequestDeadline deadline = RequestDeadline.current();
+        RequestPriority priority = RequestPriority.current();
+        return CompletableFuture.supplyAsync(
+                () -> syncStateRepository.findByRegionalRouteAndPuuid(route, puuid).orElse(null), executor)
+                .thenCompose(state -> inContext(deadline, priority, () -> refresh(region, puuid, depth, state)))
+                .thenComposeAsync(v -> inContext(deadline, priority, () -> backfill(region, puuid, depth)), executor);
+    }
+
+    /**
+     * Fetches the matches newer than the timeline, or creates it, once the refresh
+     * interval passed.
+     *
+     * @param region Region whose regional route lists the matches
+     * @param puuid  Player's PUUID
+     * @param depth  Number of newest match IDs needed
+     * @param state  Sync state of the timeline, null if there is none yet
+     * @return CompletableFuture completing once the newer IDs are stored
+     */
+    private CompletableFuture<Void> refresh(RiotRegion region, String puuid, int depth, MatchIdSyncState state) {
+        String route = region.regionalRoute();
+        Instant now = Instant.now();
+        CompletableFuture<Void> refreshed;
+        if (state == null) {
+            int wanted = Math.min(RIOT_MAX_COUNT, Math.max(INITIAL_COUNT, depth));
+            refreshed = riotApiClient.getMatchIdsByPuuidSince(region, puuid, 0, 0, wanted)
+                    .thenAcceptAsync(ids -> replace(route, puuid, ids, ids.size() < wanted, now), executor);
+        } else if (state.getSyncedAt().plus(refreshInterval).isBefore(now)) {
+            long startTime = state.getSyncedAt().minus(SYNC_OVERLAP).getEpochSecond();
+            refreshed = riotApiClient.getMatchIdsByPuuidSince(region, puuid, startTime, 0, RIOT_MAX_COUNT)
+                    .thenAcceptAsync(ids -> {
+                        if (ids.size() >= RIOT_MAX_COUNT) {
+                            // More new matches than one call returns: start the timeline afresh
+                            replace(route, puuid, ids, false, now);
+                        } else {
+                            mergeNewer(route, puuid, ids, now);
+                        }
+                    }, executor);
+        } else {
+            refreshed = CompletableFuture.completedFuture(null);
+        }
+        return refreshed;
+    }
+
+    /**
+     * Pages Riot further back until the timeline reaches the depth, up to 100 IDs per
+     * call, or until Riot has no older matches. Runs on the executor (it reads the timeline).
+     *
+     * @param region Region whose regional route lists the matches
+     * @param puuid  Player's PUUID
+     * @param depth  Number of newest match IDs needed
+     * @return CompletableFuture completing once the older IDs are stored
+     */
+    private CompletableFuture<Void> backfill(RiotRegion region, String puuid, int depth) {
+        String route = region.regionalRoute();
+        if (covers(route, puuid, depth)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        RequestDeadline deadline = RequestDeadline.current();
+        RequestPriority priority = RequestPriority.current();
+        int known = (int) timelineRepository.countByRegionalRouteAndPuuid(route, puuid);
+        int wanted = Math.min(RIOT_MAX_COUNT, depth - known);
+        // Newer matches since the last sync shift Riot's offsets: that only repeats known IDs
+        return riotApiClient.getMatchIdsByPuuidSince(region, puuid, 0, known, wanted)
+                .thenComposeAsync(ids -> {
+                    appendOlder(route, puuid, ids, ids.size() < wanted);
+                    if (ids.size() < wanted || timelineRepository.countByRegionalRouteAndPuuid(route, puuid) <= known) {
+                        // No older matches, or only known ones: another page would not get further
+                        return CompletableFuture.<Void>completedFuture(null);
+                    }
+                    return inContext(deadline, priority, () -> backfill(region, puuid, depth));
+                }, executor);
+    }
+
+    /**
+     * Replaces a timeline with a fresh list of the newest match IDs.
+     *
+     * @param route    Regional route
+     * @param puuid    Player's PUUID
+     * @param ids      Match IDs, newest first
+     * @param complete true if the list reaches the player's oldest match
+     * @param syncedAt When Riot was asked
+     */
+    private void replace(String route, String puuid, List<String> ids, boolean complete, Instant syncedAt) {
+        write(puuid, () -> {
+            timelineRepository.deleteTimeline(route, puuid);
+            timelineRepository.flush();
+            List<MatchIdTimelineEntry> entries = new ArrayList<>();
+            Set<String> seen = new HashSet<>();
+            for (int i = 0; i < ids.size(); i++) {
+                if (seen.add(ids.get(i))) {
+                    entries.add(new MatchIdTimelineEntry(route, puuid, ids.get(i), ids.size() - i));
+                }
+            }
+            timelineRepository.saveAll(entries);
+            MatchIdSyncState state = syncStateRepository.findByRegionalRouteAndPuuid(route, puuid)
+                    .orElseGet(() -> new MatchIdSyncState(route, puuid, syncedAt));
+            state.setSyncedAt(syncedAt);
+            state.setHistoryComplete(complete);
+            syncStateRepository.save(state);
+        });
+    }
+
+    /**
+     * Puts match IDs newer than the timeline in front of it.
+     *
+     * @param route    Regional route
+     * @param puuid    Player's PUUID
+     * @param ids      Match IDs since the last sync, newest first (may repeat known ones)
+     * @param syncedAt When Riot was asked
+     */
+    private void mergeNewer(String route, String puuid, List<String> ids, Instant syncedAt) {
+        write(puuid, () -> {
+            List<String> fresh = unknown(route, puuid, ids);
+            Long maxSeq = timelineRepository.findMaxSeq(route, puuid);
+            long top = (maxSeq != null ? maxSeq : 0) + fresh.size();
+            List<MatchIdTimelineEntry> entries = new ArrayList<>();
+            for (int i = 0; i < fresh.size(); i++) {
+                entries.add(new MatchIdTimelineEntry(route, puuid, fresh.get(i), top - i));
+            }
+            timelineRepository.saveAll(entries);
+            syncStateRepository.findByRegionalRouteAndPuuid(route, puuid).ifPresent(state -> {
+                state.setSyncedAt(syncedAt);
+                syncStateRepository.save(state);
+            });
+        });
+    }
+
+    /**
+     * Appends match IDs older than the timeline behind it.
+     *
+     * @param route    Regional route
+     * @param puuid    Player's PUUID
+     * @param ids      Older match IDs, newest first (may repeat known ones)
+     * @param complete true if Riot has no older matches
+     */
+    private void appendOlder(String route, String puuid, List<String> ids, boolean complete) {
+        write(puuid, () -> {
+            List<String> fresh = unknown(route, puuid, ids);
+            Long minSeq = timelineRepository.findMinSeq(route, puuid);
+            long bottom = (minSeq != null ? minSeq : 1) - 1;
+            List<MatchIdTimelineEntry> entries = new ArrayList<>();
+            for (int i = 0; i < fresh.size(); i++) {
+                entries.add(new MatchIdTimelineEntry(route, puuid, fresh.get(i), bottom - i));
+            }
+            timelineRepository.saveAll(entries);
+            if (complete) {
+                syncStateRepository.findByRegionalRouteAndPuuid(route, puuid).ifPresent(state -> {
+                    state.setHistoryComplete(true);
+                    syncStateRepository.save(state);
+                });
+            }
+        });
+    }
+
+    /**
+     * Filters the match IDs the timeline does not hold yet, keeping their order.
+     *
+     * @param route Regional route
+     * @param puuid Player's PUUID
+     * @param ids   Match IDs from Riot
+     * @return The unknown ones, without duplicates
+     */
+    private List<String> unknown(String route, String puuid, List<String> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Set<String> known = new HashSet<>(timelineRepository.findKnown(route, puuid, ids));
+        List<String> fresh = new ArrayList<>();
+        for (String id : ids) {
+            if (known.add(id)) {
+                fresh.add(id);
+            }
+        }
+        return fresh;
+    }
+
+    /**
+     * Runs a timeline update in one transaction. Losing a race against another
+     * instance merging the same IDs is harmless: the next sync repeats the merge.
+     *
+     * @param puuid  Player's PUUID, for logging
+     * @param update The update
+     */
+    private void write(String puuid, Runnable update) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> update.run());
+        } catch (DataIntegrityViolationException e) {
+            logger.debug("Concurrent match ID timeline update for PUUID {} skipped: {}", maskPuuid(puuid),
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * Runs an action with the caller's deadline and priority, for Riot calls issued in
+     * an async step on another thread.
+     *
+     * @param deadline Deadline of the caller, may be null
+     * @param priority Priority of the caller
+     * @param action   Action issuing the calls
+     * @param <T>      Result type
+     * @return The result of the action
+     */
+    private static <T> T inContext(RequestDeadline deadline, RequestPriority priority, Supplier<T> action) {
+        return priority.call(() -> RequestDeadline.call(deadline, action));
+    }
+
+    /**
+     * Masks PUUID for logging to protect sensitive data.
+     *
+     * @param puuid The PUUID to mask
+     * @return Masked PUUID string
+     */
+    private static String maskPuuid(String puuid) {
+        if (puuid == null || puuid.length() <= 10) {
+            return "***";
+        }
+        return puuid.substring(0, 6) + "..." + puuid.substring(puuid.length() - 4);
+    }
+}
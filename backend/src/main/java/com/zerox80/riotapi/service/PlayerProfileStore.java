@@ -0,0 +1,291 @@
+// Package declaration: Defines that this class belongs to the service layer of the Riot API
+package com.zerox80.riotapi.service;
+
+// Import for the store settings (riot.api.profile-store.*)
+import com.zerox80.riotapi.config.RiotApiProperties;
+// Import for the Account-V1 response model
+import com.zerox80.riotapi.model.AccountDto;
+// Import for the stored account entity
+import com.zerox80.riotapi.model.AccountRecord;
+// Import for the Summoner-V4 response model
+import com.zerox80.riotapi.model.Summoner;
+// Import for the stored summoner entity
+import com.zerox80.riotapi.model.SummonerRecord;
+// Import for the account repository (database)
+import com.zerox80.riotapi.repository.AccountRecordRepository;
+// Import for the summoner repository (database)
+import com.zerox80.riotapi.repository.SummonerRecordRepository;
+// Import for metrics registry for hit/miss counters
+import io.micrometer.core.instrument.MeterRegistry;
+// Import for logging interface
+import org.slf4j.Logger;
+// Import for logger factory to instantiate loggers
+import org.slf4j.LoggerFactory;
+// Import for recognizing an insert that raced with another instance
+import org.springframework.dao.DataIntegrityViolationException;
+// Import for running the write-through on the application executor
+import org.springframework.scheduling.annotation.Async;
+// Import for service component annotation
+import org.springframework.stereotype.Service;
+// Import for programmatic transaction management
+import org.springframework.transaction.PlatformTransactionManager;
+// Import for transactional code blocks
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Import for time duration calculations
+import java.time.Duration;
+// Import for timestamp management
+import java.time.Instant;
+
+/**
+ * Database level behind the "accounts" and "summoners" caches.
+ *
+ * On a cache miss the stored lookup is served if it is still fresh, so a restart or an
+ * evicted entry does not cost an account-v1 and summoner-v4 call for every returning
+ * player. Values fetched from Riot are written through asynchronously.
+ *
+ * Stored accounts are fresh for a fixed time. A stored summoner is fresh for half the
+ * time that had passed between its last change at Riot (revisionDate) and the fetch,
+ * bounded by the configured minimum and maximum.
+ */
+@Service
+public class PlayerProfileStore {
+
+    // Logger instance for logging in this service
+    private static final Logger logger = LoggerFactory.getLogger(PlayerProfileStore.class);
+
+    // Database repository for the stored accounts
+    private final AccountRecordRepository accountRepository;
+    // Database repository for the stored summoners
+    private final SummonerRecordRepository summonerRepository;
+    // Template for programmatic transaction management
+    private final TransactionTemplate transactionTemplate;
+    // Metrics registry for the hit/miss counters
+    private final MeterRegistry meterRegistry;
+    // Master switch (riot.api.profile-store.enabled)
+    private final boolean enabled;
+    // How long a stored account is served
+    private final Duration accountMaxAge;
+    // Lower bound of the summoner freshness
+    private final Duration summonerMinAge;
+    // Upper bound of the summoner freshness
+    private final Duration summonerMaxAge;
+
+    /**
+     * Constructor with dependency injection.
+     *
+     * @param accountRepository  Injected account repository
+     * @param summonerRepository Injected summoner repository
+     * @param transactionManager Injected transaction manager for database transactions
+     * @param riotApiProperties  Store settings
+     * @param meterRegistry      Metrics registry for the hit/miss counters
+     */
+    public PlayerProfileStore(AccountRecordRepository accountRepository,
+            SummonerRecordRepository summonerRepository,
+            PlatformTransactionManager transactionManager,
+            RiotApiProperties riotApiProperties,
+            MeterRegistry meterRegistry) {
+        this.accountRepository = accountRepository;
+        this.summonerRepository = summonerRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        RiotApiProperties.ProfileStore config = riotApiProperties.getProfileStore();
+        this.enabled = config.isEnabled();
+        this.accountMaxAge = config.getAccountMaxAge();
+        this.summonerMinAge = config.getSummonerMinAge();
+        this.summonerMaxAge = config.getSummonerMaxAge();
+    }
+
+    /**
+     * Gets a stored Riot ID lookup, if it is still fresh.
+     *
+     * @param regionalRoute Regional route of the lookup
+     * @param riotIdKey     Lower-case "gamename#tagline"
+     * @return The stored account, or null if unknown, expired or the store is disabled
+     */
+    public AccountDto findAccount(String regionalRoute, String riotIdKey) {
+        if (!enabled) {
+            return null;
+        }
+        AccountRecord record = accountRepository.findByRegionalRouteAndRiotIdKey(regionalRoute, riotIdKey)
+                .orElse(null);
+        if (record == null) {
+            count("accounts", "miss");
+            return null;
+        }
+        if (record.getFetchedAt().plus(accountMaxAge).isBefore(Instant.now())) {
+            count("accounts", "expired");
+            return null;
+        }
+        count("accounts", "hit");
+        return record.toAccount();
+    }
+
+    /**
+     * Gets a stored summoner, if it is still fresh.
+     *
+     * @param platformId Platform of the summoner
+     * @param puuid      Player's PUUID
+     * @return The stored summoner, or null if unknown, expired or the store is disabled
+     */
+    public Summoner findSummoner(String platformId, String puuid) {
+        if (!enabled) {
+            return null;
+        }
+        SummonerRecord record = summonerRepository.findByPlatformIdAndPuuid(platformId, puuid).orElse(null);
+        if (record == null) {
+            count("summoners", "miss");
+            return null;
+        }
+        Duration freshFor = summonerFreshness(record.getFetchedAt(), record.getRevisionDate());
+        if (record.getFetchedAt().plus(freshFor).isBefore(Instant.now())) {
+            count("summoners", "expired");
+            return null;
+        }
+        count("summoners", "hit");
+        return record.toSummoner();
+    }
+
+    /**
+     * Stores a Riot ID lookup fetched from Riot (runs asynchronously).
+     *
+     * @param regionalRoute Regional route of the lookup
+     * @param riotIdKey     Lower-case "gamename#tagline"
+     * @param account       The fetched account
+     */
+    @Async("appTaskExecutor")
+    public void saveAccount(String regionalRoute, String riotIdKey, AccountDto account) {
+        if (!enabled || account.getPuuid() == null) {
+            return;
+        }
+        write("account", () -> {
+            AccountRecord record = accountRepository.findByRegionalRouteAndRiotIdKey(regionalRoute, riotIdKey)
+                    .orElseGet(() -> new AccountRecord(regionalRoute, riotIdKey));
+            record.update(account, Instant.now());
+            accountRepository.save(record);
+        });
+    }
+
+    /**
+     * Stores a summoner fetched from Riot (runs asynchronously).
+     *
+     * @param platformId Platform of the summoner
+     * @param summoner   The fetched summoner
+     */
+    @Async("appTaskExecutor")
+    public void saveSummoner(String platformId, Summoner summoner) {
+        if (!enabled || summoner.getPuuid() == null) {
+            return;
+        }
+        write("summoner", () -> {
+            SummonerRecord record = summonerRepository.findByPlatformIdAndPuuid(platformId, summoner.getPuuid())
+                    .orElseGet(() -> new SummonerRecord(platformId, summoner.getPuuid()));
+            record.update(summoner, Instant.now());
+            summonerRepository.save(record);
+        });
+    }
+
+    /**
+     * Deletes a stored Riot ID lookup, e.g. after its cache entry was evicted.
+     *
+     * @param regionalRoute Regional route of the lookup
+     * @param riotIdKey     Lower-case "gamename#tagline"
+     */
+    public void deleteAccount(String regionalRoute, String riotIdKey) {
+        if (!enabled) {
+            return;
+        }
+        delete("account", () -> accountRepository.findByRegionalRouteAndRiotIdKey(regionalRoute, riotIdKey)
+                .ifPresent(accountRepository::delete));
+    }
+
+    /**
+     * Deletes a stored summoner, e.g. after its cache entry was evicted.
+     *
+     * @param platformId Platform of the summoner
+     * @param puuid      Player's PUUID
+     */
+    public void deleteSummoner(String platformId, String puuid) {
+        if (!enabled) {
+            return;
+        }
+        delete("summoner", () -> summonerRepository.findByPlatformIdAndPuuid(platformId, puuid)
+                .ifPresent(summonerRepository::delete));
+    }
+
+    /**
+     * Deletes all stored Riot ID lookups, e.g. after the "accounts" cache was cleared.
+     */
+    public void deleteAccounts() {
+        if (enabled) {
+            delete("accounts", accountRepository::deleteAllInBatch);
+        }
+    }
+
+    /**
+     * Deletes all stored summoners, e.g. after the "summoners" cache was cleared.
+     */
+    public void deleteSummoners() {
+        if (enabled) {
+            delete("summoners", summonerRepository::deleteAllInBatch);
+        }
+    }
+
+    /**
+     * Computes how long a stored summoner stays fresh: half its age since the last
+     * change at Riot when it was fetched, within the configured bounds.
+     *
+     * @param fetchedAt    When the summoner was fetched
+     * @param revisionDate Epoch milliseconds of its last change at Riot
+     * @return Time after the fetch during which the stored copy is served
+     */
+    Duration summonerFreshness(Instant fetchedAt, long revisionDate) {
+        Duration idle = Duration.ofMillis(Math.max(0, fetchedAt.toEpochMilli() - revisionDate));
+        Duration freshFor = idle.dividedBy(2);
+        if (freshFor.compareTo(summonerMinAge) < 0) {
+            return summonerMinAge;
+        }
+        return freshFor.compareTo(summonerMaxAge) > 0 ? summonerMaxAge : freshFor;
+    }
+
+    /**
+     * Runs an upsert in a transaction. A write that lost a race against another
+     * instance is dropped, that instance stored the same data.
+     *
+     * @param what   Description for the log
+     * @param upsert The upsert
+     */
+    private void write(String what, Runnable upsert) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> upsert.run());
+        } catch (DataIntegrityViolationException e) {
+            logger.debug("Concurrent write of stored {} skipped: {}", what, e.getMessage());
+        } catch (RuntimeException e) {
+            logger.warn("Failed to store {}: {}", what, e.getMessage());
+        }
+    }
+
+    /**
+     * Runs a deletion in a transaction; failures are only logged.
+     *
+     * @param what     Description for the log
+     * @param deletion The deletion
+     */
+    private void delete(String what, Runnable deletion) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> deletion.run());
+        } catch (RuntimeException e) {
+            logger.warn("Failed to delete stored {}: {}", what, e.getMessage());
+        }
+    }
+
+    /**
+     * Counts a lookup of the store.
+     *
+     * @param cache   Cache the store backs
+     * @param outcome hit, miss or expired
+     */
+    private void count(String cache, String outcome) {
+        meterRegistry.counter("riotapi.cache.l2", "cache", cache, "outcome", outcome).increment();
+    }
+}
@@ -0,0 +1,202 @@
+// Package declaration: Defines that this class belongs to the service layer of the Riot API
+package com.zerox80.riotapi.service;
+
+// Import for Caffeine Cache Builder - bounded store of the assembled profiles
+import com.github.benmanes.caffeine.cache.Caffeine;
+// Import for running rebuilds without the reader's deadline
+import com.zerox80.riotapi.client.RequestDeadline;
+// Import for running rebuilds as cache warming, behind interactive calls
+import com.zerox80.riotapi.client.RequestPriority;
+// Import for collapsing concurrent rebuilds of one profile
+import com.zerox80.riotapi.client.SingleFlight;
+// Import for the profile cache and coalescing settings
+import com.zerox80.riotapi.config.RiotApiProperties;
+// Import for the assembled profile
+import com.zerox80.riotapi.model.SummonerProfileData;
+// Import for metrics registry
+import io.micrometer.core.instrument.MeterRegistry;
+// Import for logging interface
+import org.slf4j.Logger;
+// Import for logger factory to instantiate loggers
+import org.slf4j.LoggerFactory;
+// Import for dependency injection
+import org.springframework.beans.factory.annotation.Autowired;
+// Import for service component annotation
+import org.springframework.stereotype.Service;
+
+// Import for time duration calculations
+import java.time.Duration;
+// Import for the keys being revalidated
+import java.util.Set;
+// Import for asynchronous/non-blocking operations
+import java.util.concurrent.CompletableFuture;
+// Import for the concurrent key set
+import java.util.concurrent.ConcurrentHashMap;
+// Import for the clock in milliseconds
+import java.util.function.LongSupplier;
+// Import for the profile assembly
+import java.util.function.Supplier;
+
+
+/**
+ * Stale-while-revalidate cache of assembled summoner profiles.
+ *
+ * A stored profile younger than the fresh period is served as is. An older one, up to
+ * the staleness bound, is served at once, marked as revalidating, and a fresh profile
+ * is assembled in the background (PREFETCH, without the reader's deadline). Only
+ * complete profiles are stored: a rebuild that fails or falls back to last good values
+ * keeps the previous profile until it ages out.
+ *
+ * Metrics: riotapi.profile.cache{outcome=fresh|revalidating|miss} and
+ * riotapi.profile.cache.revalidations{outcome=succeeded|failed}.
+ */
+@Service
+public class ProfileSnapshotCache {
+
+    // Logger instance for logging in this service
+    private static final Logger logger = LoggerFactory.getLogger(ProfileSnapshotCache.class);
+
+    // final: master switch (riot.api.profile-cache.enabled)
+    private final boolean enabled;
+    // final: age up to which a profile is served without a rebuild (milliseconds)
+    private final long freshMillis;
+    // final: clock in milliseconds
+    private final LongSupplier clock;
+    // final: stored profiles by key, dropped after the staleness bound
+    private final com.github.benmanes.caffeine.cache.Cache<String, SummonerProfileData> profiles;
+    // final: collapses concurrent builds of one profile (readers on a miss and revalidations)
+    private final SingleFlight<String, SummonerProfileData> builds;
+    // final: metrics registry for the counters
+    private final MeterRegistry meterRegistry;
+    // final: keys with a revalidation in progress (at most one per key)
+    private final Set<String> revalidating = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Constructor with dependency injection.
+     *
+     * @param riotApiProperties Profile cache and coalescing settings
+     * @param meterRegistry     Metrics registry for the counters
+     */
+    @Autowired
+    public ProfileSnapshotCache(RiotApiProperties riotApiProperties, MeterRegistry meterRegistry) {
+        this(riotApiProperties, meterRegistry, System::currentTimeMillis);
+    }
+
+    /**
+     * Constructor with an explicit clock (for tests).
+     *
+     * @param riotApiProperties Profile cache and coalescing settings
+     * @param meterRegistry     Metrics registry for the counters
+     * @param clock             Clock in milliseconds
+     */
+    ProfileSnapshotCache(RiotApiProperties riotApiProperties, MeterRegistry meterRegistry, LongSupplier clock) {
+        RiotApiProperties.ProfileCache config = riotApiProperties.getProfileCache();
+        Duration maxStale = config.getMaxStale();
+        this.enabled = config.isEnabled() && maxStale != null && maxStale.isPositive();
+        this.freshMillis = config.getFreshFor() != null ? config.getFreshFor().toMillis() : 0;
+        this.clock = clock;
+        this.profiles = Caffeine.newBuilder()
+                .maximumSize(Math.max(1, config.getMaxEntries()))
+                .expireAfterWrite(enabled ? maxStale : Duration.ofMillis(1))
+                .ticker(() -> clock.getAsLong() * 1_000_000L)
+                .build();
+        RiotApiProperties.Coalescing coalescing = riotApiProperties.getCoalescing();
+        this.builds = new SingleFlight<>("profiles", coalescing.getMaxInFlight(), coalescing.getTimeout(),
+                meterRegistry);
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Gets a profile, from the store when possible.
+     *
+     * @param key     Key of the profile (region, Riot ID and variant)
+     * @param builder Assembles the profile
+     * @return The stored or freshly assembled profile
+     */
+    public CompletableFuture<SummonerProfileData> get(String key,
+            Supplier<CompletableFuture<SummonerProfileData>> builder) {
+        if (!enabled) {
+            return builder.get();
+        }
+        SummonerProfileData stored = profiles.getIfPresent(key);
+        if (stored == null) {
+            count("miss");
+            return builds.execute(key, () -> build(key, builder));
+        }
+        long age = clock.getAsLong() - stored.assembledAt().toEpochMilli();
+        if (age <= freshMillis) {
+            count("fresh");
+            return CompletableFuture.completedFuture(stored);
+        }
+        count("revalidating");
+        revalidate(key, builder);
+        return CompletableFuture.completedFuture(stored.asRevalidating());
+    }
+
+    /**
+     * Assembles a profile in the background, unless a revalidation of the key is running.
+     * Joins a build of the key started by a reader on a miss.
+     *
+     * @param key     Key of the profile
+     * @param builder Assembles the profile
+     */
+    private void revalidate(String key, Supplier<CompletableFuture<SummonerProfileData>> builder) {
+        if (!revalidating.add(key)) {
+            return;
+        }
+        CompletableFuture<SummonerProfileData> rebuild;
+        try {
+            rebuild = RequestPriority.PREFETCH.call(() -> RequestDeadline.call(null,
+                    () -> builds.execute(key, () -> build(key, builder))));
+        } catch (RuntimeException e) {
+            rebuild = CompletableFuture.failedFuture(e);
+        }
+        rebuild.whenComplete((profile, throwable) -> {
+            revalidating.remove(key);
+            boolean stored = throwable == null && storable(profile);
+            if (!stored) {
+                // The previous profile stays until it ages out
+                logger.debug("Revalidation of a profile failed: {}",
+                        throwable != null ? throwable.getMessage() : "incomplete profile");
+            }
+            meterRegistry.counter("riotapi.profile.cache.revalidations", "outcome", stored ? "succeeded" : "failed")
+                    .increment();
+        });
+    }
+
+    /**
+     * Assembles a profile and stores it if it is complete.
+     *
+     * @param key     Key of the profile
+     * @param builder Assembles the profile
+     * @return The assembled profile
+     */
+    private CompletableFuture<SummonerProfileData> build(String key,
+            Supplier<CompletableFuture<SummonerProfileData>> builder) {
+        return builder.get().thenApply(profile -> {
+            if (storable(profile)) {
+                profiles.put(key, profile);
+            }
+            return profile;
+        });
+    }
+
+    /**
+     * Checks whether a profile may be stored: complete, and not built from last good values.
+     *
+     * @param profile The profile
+     * @return true if it may be served to later readers
+     */
+    private static boolean storable(SummonerProfileData profile) {
+        return profile != null && !profile.hasError() && !profile.stale() && profile.assembledAt() != null;
+    }
+
+    /**
+     * Counts a lookup.
+     *
+     * @param outcome fresh, revalidating or miss
+     */
+    private void count(String outcome) {
+        meterRegistry.counter("riotapi.profile.cache", "outcome", outcome).increment();
+    }
+}
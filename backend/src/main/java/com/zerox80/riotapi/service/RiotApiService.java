@@ -3,6 +3,10 @@ package com.zerox80.riotapi.service;
 
 // Import of the Riot API client for external API calls
 import com.zerox80.riotapi.client.RiotApiClient;
+// Import for the platform/regional routing of a request
+import com.zerox80.riotapi.client.RiotRegion;
+// Import for the request deadline, re-applied to calls issued in async steps
+import com.zerox80.riotapi.client.RequestDeadline;
 // Import of all model classes (DTOs and entities)
 import com.zerox80.riotapi.model.*;
 // Import of the service for LP history management
@@ -11,6 +15,8 @@ import com.zerox80.riotapi.service.PlayerLpRecordService;
 import org.slf4j.Logger;
 // Import for logger factory to instantiate loggers
 import org.slf4j.LoggerFactory;
+// Import for the lazy self-reference to the proxied bean
+import org.springframework.beans.factory.ObjectProvider;
 // Import for dependency injection
 import org.springframework.beans.factory.annotation.Autowired;
 // Import for property injection (unused in this service)
@@ -65,7 +71,8 @@ import com.zerox80.riotapi.util.ListUtils;
  * - Summoner search suggestions
  *
  * All methods work asynchronously using CompletableFuture for non-blocking
- * operations.
+ * operations. The request deadline of the caller is captured on entry and applied
+ * to Riot calls issued later from async steps (on other threads).
  */
 @Service
 public class RiotApiService {
@@ -79,28 +86,87 @@ public class RiotApiService {
     // Service for LP history and LP change calculations
     private final PlayerLpRecordService playerLpRecordService;
 
+    // Stored match ID timelines, null = every page asks Riot for its match IDs
+    private final MatchIdTimelineService matchIdTimelineService;
+
+    // Stale-while-revalidate cache of assembled profiles, null = every request assembles the profile
+    private final ProfileSnapshotCache profileSnapshotCache;
+
+    // Proxied bean, so internal calls go through the caches; null = calls stay on this instance
+    private final ObjectProvider<RiotApiService> selfProvider;
+
+    /**
+     * Constructor without match ID timelines.
+     *
+     * @param riotApiClient         Riot API client
+     * @param playerLpRecordService LP record service
+     */
+    public RiotApiService(RiotApiClient riotApiClient,
+            PlayerLpRecordService playerLpRecordService) {
+        this(riotApiClient, playerLpRecordService, null, null, null);
+    }
+
     /**
      * Constructor with dependency injection through Spring.
      *
-     * @param riotApiClient         Injected Riot API client
-     * @param playerLpRecordService Injected LP record service
+     * @param riotApiClient          Injected Riot API client
+     * @param playerLpRecordService  Injected LP record service
+     * @param matchIdTimelineService Injected match ID timeline service
+     * @param profileSnapshotCache   Injected cache of assembled profiles
+     * @param selfProvider           Proxied bean, for internal calls of cached methods
      */
     @Autowired
     public RiotApiService(RiotApiClient riotApiClient,
-            PlayerLpRecordService playerLpRecordService) {
+            PlayerLpRecordService playerLpRecordService,
+            MatchIdTimelineService matchIdTimelineService,
+            ProfileSnapshotCache profileSnapshotCache,
+            ObjectProvider<RiotApiService> selfProvider) {
         this.riotApiClient = riotApiClient;
         this.playerLpRecordService = playerLpRecordService;
+        this.matchIdTimelineService = matchIdTimelineService;
+        this.profileSnapshotCache = profileSnapshotCache;
+        this.selfProvider = selfProvider;
+    }
+
+    /**
+     * Returns the proxied bean, so calls of the @Cacheable methods from inside this
+     * class use the caches. Falls back to this instance outside a Spring context.
+     *
+     * @return The bean to call cached methods on
+     */
+    private RiotApiService self() {
+        RiotApiService proxy = selfProvider != null ? selfProvider.getIfAvailable() : null;
+        return proxy != null ? proxy : this;
+    }
+
+    /**
+     * Gets a window of a player's match IDs, from the stored timeline when enabled.
+     *
+     * @param region Region the player plays in
+     * @param puuid  Player's PUUID
+     * @param start  Index of the first match ID (0 = newest)
+     * @param count  Number of match IDs
+     * @return CompletableFuture containing the match IDs (may be empty)
+     */
+    private CompletableFuture<List<String>> getMatchIds(RiotRegion region, String puuid, int start, int count) {
+        if (matchIdTimelineService != null && matchIdTimelineService.isEnabled()) {
+            return matchIdTimelineService.getMatchIds(region, puuid, start, count);
+        }
+        return start == 0 ? riotApiClient.getMatchIdsByPuuid(region, puuid, count)
+                : riotApiClient.getMatchIdsByPuuid(region, puuid, start, count);
     }
 
     /**
      * Retrieves paginated match history for a player.
      *
+     * @param region Region the player plays in
      * @param puuid Player's PUUID
      * @param start Starting index for pagination
      * @param count Number of matches to fetch
      * @return CompletableFuture containing list of matches
      */
-    public CompletableFuture<List<MatchV5Dto>> getMatchHistoryPaged(String puuid, int start, int count) {
+    public CompletableFuture<List<MatchV5Dto>> getMatchHistoryPaged(RiotRegion region, String puuid, int start,
+            int count) {
         // Validation: Check if PUUID is not null/empty
         if (!StringUtils.hasText(puuid)) {
             logger.error("Error: PUUID cannot be empty when fetching match history.");
@@ -119,9 +185,10 @@ public class RiotApiService {
         final int from = start;
         final int limit = count;
         logger.info("Fetching paged match IDs for PUUID: {}, start={}, count={}...", maskPuuid(puuid), from, limit);
+        RequestDeadline deadline = RequestDeadline.current();
 
         // Asynchronous API call to fetch match IDs
-        return riotApiClient.getMatchIdsByPuuid(puuid, from, limit)
+        return getMatchIds(region, puuid, from, limit)
                 .thenCompose(matchIds -> {
                     if (matchIds == null || matchIds.isEmpty()) {
                         return CompletableFuture.completedFuture(Collections.<MatchV5Dto>emptyList());
@@ -129,19 +196,20 @@ public class RiotApiService {
                     // Split match IDs into batches of 5 for parallel processing
                     List<List<String>> batches = ListUtils.partition(matchIds, 5);
                     // Fetch match details for each batch asynchronously
-                    List<CompletableFuture<List<MatchV5Dto>>> batchFutures = batches.stream()
-                            .map(this::fetchMatchBatch)
+                    List<CompletableFuture<List<CompactMatch>>> batchFutures = batches.stream()
+                            .map(batch -> RequestDeadline.call(deadline, () -> fetchMatchBatch(region, batch)))
                             .collect(Collectors.toList());
                     // Wait for all batches to complete
                     CompletableFuture<Void> allDone = CompletableFuture
                             .allOf(batchFutures.toArray(new CompletableFuture[0]));
-                    // Transform results after completion
+                    // Transform results after completion, converting to the API shape for the response
                     return allDone.thenApply(v -> batchFutures.stream()
                             .flatMap(f -> {
-                                List<MatchV5Dto> list = f.join();
-                                return list != null ? list.stream() : Stream.<MatchV5Dto>empty();
+                                List<CompactMatch> list = f.join();
+                                return list != null ? list.stream() : Stream.<CompactMatch>empty();
                             })
                             .filter(java.util.Objects::nonNull)
+                            .map(CompactMatch::toDto)
                             .collect(Collectors.toList()));
                 });
     }
@@ -149,11 +217,12 @@ public class RiotApiService {
     /**
      * Retrieves summoner data by Riot ID (game name + tag line).
      *
+     * @param region   Region the player plays in
      * @param gameName Player's in-game name
      * @param tagLine  Player's tag line (e.g., "EUW", "NA1")
      * @return CompletableFuture containing Summoner data, or null if not found
      */
-    public CompletableFuture<Summoner> getSummonerByRiotId(String gameName, String tagLine) {
+    public CompletableFuture<Summoner> getSummonerByRiotId(RiotRegion region, String gameName, String tagLine) {
         // Trim leading/trailing whitespace from game name (null-safe)
         String trimmedGameName = gameName != null ? gameName.trim() : null;
         // Trim leading/trailing whitespace from tag line (null-safe)
@@ -173,16 +242,18 @@ public class RiotApiService {
         String cacheFriendlyTagLine = normalizedTagLine.toLowerCase(Locale.ROOT);
 
         logger.info("Searching for account: {}#{}...", normalizedGameName, normalizedTagLine);
+        RequestDeadline deadline = RequestDeadline.current();
 
         // Asynchronous API call to fetch account data
-        return riotApiClient.getAccountByRiotId(cacheFriendlyGameName, cacheFriendlyTagLine)
+        return riotApiClient.getAccountByRiotId(region, cacheFriendlyGameName, cacheFriendlyTagLine)
                 .thenCompose(account -> {
                     // Check if account exists and has PUUID
                     if (account != null && StringUtils.hasText(account.getPuuid())) {
                         logger.info("Account found, PUUID: {}. Fetching summoner data...",
                                 maskPuuid(account.getPuuid()));
                         // Asynchronous API call to fetch summoner details via PUUID
-                        return riotApiClient.getSummonerByPuuid(account.getPuuid())
+                        return RequestDeadline.call(deadline,
+                                () -> riotApiClient.getSummonerByPuuid(region, account.getPuuid()))
                                 .thenApply(summoner -> {
                                     if (summoner != null) {
                                         // Check if game name is present in account object
@@ -213,10 +284,11 @@ public class RiotApiService {
     /**
      * Retrieves ranked league entries for a player by PUUID.
      *
+     * @param region Platform the player plays on
      * @param puuid Player's PUUID
      * @return CompletableFuture containing list of league entries (may be empty)
      */
-    public CompletableFuture<List<LeagueEntryDTO>> getLeagueEntries(String puuid) {
+    public CompletableFuture<List<LeagueEntryDTO>> getLeagueEntries(RiotRegion region, String puuid) {
         // Validation: Check if PUUID is not null/empty
         if (!StringUtils.hasText(puuid)) {
             logger.error("Error: PUUID cannot be empty.");
@@ -225,7 +297,7 @@ public class RiotApiService {
         logger.info("Fetching league entries (by PUUID) for PUUID: {}...", maskPuuid(puuid));
 
         // Asynchronous API call to fetch league entries via PUUID
-        return riotApiClient.getLeagueEntriesByPuuid(puuid)
+        return riotApiClient.getLeagueEntriesByPuuid(region, puuid)
                 .thenApply(leagueEntries -> {
                     // Check if league entries are present
                     if (leagueEntries != null && !leagueEntries.isEmpty()) {
@@ -251,8 +323,9 @@ public class RiotApiService {
      * @param numberOfMatches Number of matches to fetch
      * @return CompletableFuture containing list of matches
      */
-    @Cacheable(value = "matchHistory", key = "#puuid + '-' + #numberOfMatches")
-    public CompletableFuture<List<MatchV5Dto>> getMatchHistory(String puuid, int numberOfMatches) {
+    @Cacheable(value = "matchHistory", key = "#region.regionalRoute() + ':' + #puuid + '-' + #numberOfMatches", sync = true)
+    public CompletableFuture<List<CompactMatch>> getMatchHistory(RiotRegion region, String puuid,
+            int numberOfMatches) {
         // Validation: Check if PUUID is not null/empty
         if (!StringUtils.hasText(puuid)) {
             logger.error("Error: PUUID cannot be empty when fetching match history.");
@@ -265,13 +338,14 @@ public class RiotApiService {
         }
 
         logger.info("Fetching last {} match IDs for PUUID: {}...", numberOfMatches, maskPuuid(puuid));
+        RequestDeadline deadline = RequestDeadline.current();
 
         // Asynchronous API call to fetch match IDs
-        return riotApiClient.getMatchIdsByPuuid(puuid, numberOfMatches)
+        return getMatchIds(region, puuid, 0, numberOfMatches)
                 .thenCompose(matchIds -> {
                     if (matchIds.isEmpty()) {
                         logger.info("No match IDs found for PUUID: {}", maskPuuid(puuid));
-                        return CompletableFuture.completedFuture(Collections.<MatchV5Dto>emptyList());
+                        return CompletableFuture.completedFuture(Collections.<CompactMatch>emptyList());
                     }
                     logger.info("Fetching details for {} matches in batches...", matchIds.size());
 
@@ -279,21 +353,25 @@ public class RiotApiService {
                     // protection)
                     List<List<String>> batches = ListUtils.partition(matchIds, 5);
                     // Fetch match details for each batch asynchronously
-                    List<CompletableFuture<List<MatchV5Dto>>> batchFutures = batches.stream()
-                            .map(this::fetchMatchBatch)
+                    List<CompletableFuture<List<CompactMatch>>> batchFutures = batches.stream()
+                            .map(batch -> RequestDeadline.call(deadline, () -> fetchMatchBatch(region, batch)))
                             .collect(Collectors.toList());
 
                     // Wait for all batches to complete
                     CompletableFuture<Void> allDone = CompletableFuture
                             .allOf(batchFutures.toArray(new CompletableFuture[0]));
                     // Transform results after all batches complete
-                    return allDone.thenApply(v -> batchFutures.stream()
-                            .flatMap(f -> {
-                                List<MatchV5Dto> list = f.join();
-                                return list != null ? list.stream() : Stream.<MatchV5Dto>empty();
-                            })
-                            .filter(java.util.Objects::nonNull)
-                            .collect(Collectors.toList()));
+                    return allDone.thenApply(v -> {
+                        List<CompactMatch> matches = batchFutures.stream()
+                                .flatMap(f -> {
+                                    List<CompactMatch> list = f.join();
+                                    return list != null ? list.stream() : Stream.<CompactMatch>empty();
+                                })
+                                .filter(java.util.Objects::nonNull)
+                                .collect(Collectors.toList());
+                        // Match details never change, so only a stale ID list makes the history stale
+                        return riotApiClient.isStale(matchIds) ? riotApiClient.markStale(matches) : matches;
+                    });
                 }).exceptionally(ex -> {
                     logger.error("Error fetching match history for puuid {}: {}", maskPuuid(puuid), ex.getMessage(),
                             ex);
@@ -304,13 +382,14 @@ public class RiotApiService {
     /**
      * Private helper method to fetch a batch of match details asynchronously.
      *
+     * @param region       Region whose regional route serves the matches
      * @param matchIdBatch List of match IDs to fetch
      * @return CompletableFuture containing list of match details
      */
-    private CompletableFuture<List<MatchV5Dto>> fetchMatchBatch(List<String> matchIdBatch) {
+    private CompletableFuture<List<CompactMatch>> fetchMatchBatch(RiotRegion region, List<String> matchIdBatch) {
         // Stream over all match IDs in the batch
-        List<CompletableFuture<MatchV5Dto>> matchDetailFutures = matchIdBatch.stream()
-                .map(matchId -> riotApiClient.getMatchDetails(matchId)
+        List<CompletableFuture<CompactMatch>> matchDetailFutures = matchIdBatch.stream()
+                .map(matchId -> riotApiClient.getMatchDetails(region, matchId)
                         .exceptionally(ex -> {
                             logger.error("Error fetching details for match ID {}: {}", matchId, ex.getMessage(), ex);
                             return null;
@@ -332,7 +411,7 @@ public class RiotApiService {
      * @param searchedPuuid PUUID of the player to analyze
      * @return Map of champion name to play count, sorted by frequency
      */
-    public Map<String, Long> getChampionPlayCounts(List<MatchV5Dto> matches, String searchedPuuid) {
+    public Map<String, Long> getChampionPlayCounts(List<CompactMatch> matches, String searchedPuuid) {
         // Validation: Check if matches and PUUID are present
         if (matches == null || matches.isEmpty() || !StringUtils.hasText(searchedPuuid)) {
             return Collections.emptyMap();
@@ -340,14 +419,14 @@ public class RiotApiService {
 
         return matches.stream()
                 // Filter null matches and matches without participant data
-                .filter(match -> match != null && match.getInfo() != null && match.getInfo().getParticipants() != null)
+                .filter(java.util.Objects::nonNull)
                 // FlatMap: Create stream of all participants from all matches
-                .flatMap(match -> match.getInfo().getParticipants().stream())
+                .flatMap(match -> match.getParticipants().stream())
                 // Filter for the searched player (PUUID match) and valid champion name
                 .filter(participant -> participant != null && searchedPuuid.equals(participant.getPuuid())
                         && StringUtils.hasText(participant.getChampionName()))
                 // Business logic: Group by champion name and count occurrences
-                .collect(Collectors.groupingBy(ParticipantDto::getChampionName, Collectors.counting()))
+                .collect(Collectors.groupingBy(CompactParticipant::getChampionName, Collectors.counting()))
                 .entrySet().stream()
                 // Sorting: By play count descending (most played first)
                 .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
@@ -410,16 +489,40 @@ public class RiotApiService {
 
     /**
      * Retrieves complete summoner profile data including matches and league
-     * entries.
+     * entries. A recently assembled profile is served from the profile cache;
+     * an older one is served marked as revalidating while it is rebuilt.
      *
+     * @param region   Region the player plays in
      * @param gameName Player's in-game name
      * @param tagLine  Player's tag line
      * @return CompletableFuture containing complete profile data
      */
-    public CompletableFuture<SummonerProfileData> getSummonerProfileDataAsync(String gameName, String tagLine,
-            boolean includeMatches) {
+    public CompletableFuture<SummonerProfileData> getSummonerProfileDataAsync(RiotRegion region, String gameName,
+            String tagLine, boolean includeMatches) {
+        if (profileSnapshotCache == null || gameName == null || tagLine == null) {
+            return buildSummonerProfileData(region, gameName, tagLine, includeMatches);
+        }
+        // Riot IDs are case-insensitive
+        String key = region.platformId() + ":" + gameName.trim().toLowerCase(Locale.ROOT) + "#"
+                + tagLine.trim().toLowerCase(Locale.ROOT) + (includeMatches ? ":matches" : "");
+        return profileSnapshotCache.get(key,
+                () -> buildSummonerProfileData(region, gameName, tagLine, includeMatches));
+    }
+
+    /**
+     * Assembles complete summoner profile data from the (cached) Riot calls.
+     *
+     * @param region         Region the player plays in
+     * @param gameName       Player's in-game name
+     * @param tagLine        Player's tag line
+     * @param includeMatches Whether to include the match history
+     * @return CompletableFuture containing complete profile data
+     */
+    private CompletableFuture<SummonerProfileData> buildSummonerProfileData(RiotRegion region, String gameName,
+            String tagLine, boolean includeMatches) {
+        RequestDeadline deadline = RequestDeadline.current();
         // Asynchronous call: First fetch basic summoner data
-        return getSummonerByRiotId(gameName, tagLine)
+        return getSummonerByRiotId(region, gameName, tagLine)
                 .thenCompose(summoner -> {
                     // Validation: Check if summoner found and PUUID present
                     if (summoner == null || !StringUtils.hasText(summoner.getPuuid())) {
@@ -437,8 +540,8 @@ public class RiotApiService {
                             summoner.getProfileIconId(), summoner.getSummonerLevel(), iconUrl);
 
                     // Fetch league entries (by PUUID) and match history concurrently
-                    CompletableFuture<List<LeagueEntryDTO>> leagueEntriesFuture = riotApiClient
-                            .getLeagueEntriesByPuuid(summoner.getPuuid())
+                    CompletableFuture<List<LeagueEntryDTO>> leagueEntriesFuture = RequestDeadline
+                            .call(deadline, () -> riotApiClient.getLeagueEntriesByPuuid(region, summoner.getPuuid()))
                             .thenApply(leagueEntries -> {
                                 // Check if league data present
                                 if (leagueEntries != null && !leagueEntries.isEmpty()) {
@@ -453,9 +556,11 @@ public class RiotApiService {
                                         summoner.getPuuid(), ex.getMessage(), ex);
                                 return Collections.emptyList();
                             });
-                    // Load more matches initially for better statistics (only if requested)
-                    CompletableFuture<List<MatchV5Dto>> matchHistoryFuture = includeMatches
-                            ? getMatchHistory(summoner.getPuuid(), 50)
+                    // Load more matches initially for better statistics (only if requested).
+                    // Through the proxy so the matchHistory cache is used; the cached load is shared
+                    // by every concurrent reader, so it runs without this caller's deadline
+                    CompletableFuture<List<CompactMatch>> matchHistoryFuture = includeMatches
+                            ? RequestDeadline.call(null, () -> self().getMatchHistory(region, summoner.getPuuid(), 50))
                             : CompletableFuture.completedFuture(Collections.emptyList());
 
                     // Combine both parallel futures (league + matches)
@@ -468,18 +573,27 @@ public class RiotApiService {
 
                                 if (includeMatches) {
                                     // Extract match results (blocking but safe)
-                                    matchHistory = matchHistoryFuture.join();
+                                    List<CompactMatch> matches = matchHistoryFuture.join();
+
+                                    // Business logic: Calculate champion statistics
+                                    championPlayCounts = getChampionPlayCounts(matches, summoner.getPuuid());
+
+                                    // Convert to the API shape; these copies are per request and may be modified
+                                    matchHistory = matches.stream().map(CompactMatch::toDto)
+                                            .collect(Collectors.toList());
 
                                     // Business logic: Calculate LP changes for each match based on saved LP records
                                     playerLpRecordService.calculateAndSetLpChangesForMatches(summoner, matchHistory);
-
-                                    // Business logic: Calculate champion statistics
-                                    championPlayCounts = getChampionPlayCounts(matchHistory, summoner.getPuuid());
                                 }
 
+                                // Served from last good values because Riot failed or a breaker is open
+                                boolean stale = riotApiClient.isStale(summoner)
+                                        || riotApiClient.isStale(leagueEntries)
+                                        || (includeMatches && riotApiClient.isStale(matchHistoryFuture.join()));
+
                                 // Create complete profile data object
                                 return new SummonerProfileData(summoner, leagueEntries, matchHistory, suggestionDTO,
-                                        championPlayCounts, iconUrl);
+                                        championPlayCounts, iconUrl, null, stale, Instant.now(), false);
                             });
                 })
                 .exceptionally(ex -> {
@@ -493,10 +607,11 @@ public class RiotApiService {
     /**
      * Retrieves summoner data via RSO (Riot Sign-On) Bearer token.
      *
+     * @param region      Platform the signed-in player plays on
      * @param bearerToken RSO Bearer token from OAuth flow
      * @return CompletableFuture containing authenticated summoner data
      */
-    public CompletableFuture<Summoner> getSummonerViaRso(String bearerToken) {
+    public CompletableFuture<Summoner> getSummonerViaRso(RiotRegion region, String bearerToken) {
         // Validation: Check if bearer token is present
         if (!StringUtils.hasText(bearerToken)) {
             logger.error("Error: bearerToken is empty for RSO summoner request.");
@@ -504,7 +619,7 @@ public class RiotApiService {
         }
         // Asynchronous API call: Fetch summoner data via RSO token (OAuth
         // authentication)
-        return riotApiClient.getSummonerMeWithBearer(bearerToken)
+        return riotApiClient.getSummonerMeWithBearer(region, bearerToken)
                 .exceptionally(ex -> {
                     logger.error("Error fetching RSO summoner via /me: {}", ex.getMessage(), ex);
                     return null;
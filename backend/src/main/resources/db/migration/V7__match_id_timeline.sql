@@ -0,0 +1,23 @@
+-- Per-player match ID timeline: the known match IDs of a player, newest with the highest seq,
+-- so /api/matches pages are served locally and refreshes only ask Riot for newer matches
+
+CREATE TABLE IF NOT EXISTS match_id_timeline (
+    id              BIGSERIAL PRIMARY KEY,
+    regional_route  VARCHAR(16)  NOT NULL,
+    puuid           VARCHAR(128) NOT NULL,
+    match_id        VARCHAR(32)  NOT NULL,
+    seq             BIGINT       NOT NULL,
+    CONSTRAINT uk_match_id_timeline UNIQUE (regional_route, puuid, match_id)
+);
+CREATE INDEX IF NOT EXISTS idx_match_id_timeline_seq ON match_id_timeline (regional_route, puuid, seq);
+
+-- Sync state per timeline: when Riot was last asked for newer matches, and whether the
+-- timeline already reaches back to the player's oldest match
+CREATE TABLE IF NOT EXISTS match_id_sync_state (
+    id                BIGSERIAL PRIMARY KEY,
+    regional_route    VARCHAR(16)              NOT NULL,
+    puuid             VARCHAR(128)             NOT NULL,
+    synced_at         TIMESTAMP WITH TIME ZONE NOT NULL,
+    history_complete  BOOLEAN                  NOT NULL,
+    CONSTRAINT uk_match_id_sync_state UNIQUE (regional_route, puuid)
+);
@@ -0,0 +1,31 @@
+-- Durable second-level store behind the "accounts" and "summoners" caches.
+-- The V2 summoner table was never written (Summoner was not mapped) and keyed by the encrypted
+-- summoner ID, which Summoner-V4 no longer returns; recreate it keyed by platform and PUUID.
+
+DROP TABLE IF EXISTS summoner;
+
+CREATE TABLE IF NOT EXISTS summoner (
+    id               BIGSERIAL PRIMARY KEY,
+    platform_id      VARCHAR(16)              NOT NULL,
+    puuid            VARCHAR(128)             NOT NULL,
+    summoner_id      VARCHAR(128),
+    account_id       VARCHAR(128),
+    name             VARCHAR(64),
+    profile_icon_id  INTEGER                  NOT NULL,
+    revision_date    BIGINT                   NOT NULL,
+    summoner_level   BIGINT                   NOT NULL,
+    fetched_at       TIMESTAMP WITH TIME ZONE NOT NULL,
+    CONSTRAINT uk_summoner_platform_puuid UNIQUE (platform_id, puuid)
+);
+
+-- Riot ID -> PUUID lookups per regional route; riot_id_key is the lower-case "gamename#tagline"
+CREATE TABLE IF NOT EXISTS riot_account (
+    id              BIGSERIAL PRIMARY KEY,
+    regional_route  VARCHAR(16)              NOT NULL,
+    riot_id_key     VARCHAR(128)             NOT NULL,
+    puuid           VARCHAR(128)             NOT NULL,
+    game_name       VARCHAR(64),
+    tag_line        VARCHAR(16),
+    fetched_at      TIMESTAMP WITH TIME ZONE NOT NULL,
+    CONSTRAINT uk_riot_account_route_key UNIQUE (regional_route, riot_id_key)
+);
@@ -6,6 +6,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.web.servlet.MockMvc;
 
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
@@ -38,6 +39,23 @@ class RiotApiApplicationTests {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    void actuatorMetricsStayPublic() throws Exception {
+        // Security must not block metrics scrapers (exposure itself depends on the active profile)
+        mockMvc.perform(get("/actuator/metrics"))
+                .andExpect(status().is(org.hamcrest.Matchers.not(403)));
+    }
+
+    @Test
+    void riotActuatorEndpointsRequireToken() throws Exception {
+        mockMvc.perform(get("/actuator/riotclient"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/actuator/riotcircuits"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(delete("/actuator/riotcaches/summoners"))
+                .andExpect(status().isForbidden());
+    }
+
     @Test
     void apiMeWithoutBearerIsUnauthorized() throws Exception {
         var mvcResult = mockMvc.perform(get("/api/me"))
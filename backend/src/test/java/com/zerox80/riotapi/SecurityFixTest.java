@@ -1,5 +1,6 @@
 package com.zerox80.riotapi;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.zerox80.riotapi.config.RateLimitProperties;
 import com.zerox80.riotapi.config.RateLimitingFilter;
 import com.zerox80.riotapi.controller.BuildController;
@@ -11,6 +12,7 @@ import org.springframework.util.ReflectionUtils;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
 
@@ -22,7 +24,7 @@ public class SecurityFixTest {
 
     @Test
     public void testBuildControllerConstantTimeComparison() throws Exception {
-        BuildController controller = new BuildController(null);
+        BuildController controller = new BuildController(null, new ObjectMapper(), 2000, Duration.ofMinutes(10));
 
         // Inject trigger token
         Field tokenField = BuildController.class.getDeclaredField("triggerToken");
@@ -0,0 +1,85 @@
+package com.zerox80.riotapi.client;
+
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimitTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(20);
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final HashedWheelTimer timer = new HashedWheelTimer("test-timer", Duration.ofMillis(10), 64);
+    private final AsyncPermitPool pool = new AsyncPermitPool(10, 100, Duration.ofSeconds(5), timer, registry);
+
+    @AfterEach
+    void stopTimer() {
+        timer.stop();
+    }
+
+    @Test
+    void growsWhileLatencyStaysFlatAndTheLimitIsUsed() {
+        AdaptiveConcurrencyLimit limit = limit(10);
+
+        window(limit, 10, FAST, 10);
+        window(limit, 11, FAST, 11);
+
+        assertThat(limit.getLimit()).isEqualTo(12);
+        assertThat(pool.getLimit()).isEqualTo(12);
+        assertThat(registry.get("riotapi.client.concurrency.limit").gauge().value()).isEqualTo(12);
+        assertThat(registry.counter("riotapi.client.concurrency.changes",
+                "route", "europe", "direction", "up", "reason", "probe").count()).isEqualTo(2);
+    }
+
+    @Test
+    void doesNotGrowAnIdleLimit() {
+        AdaptiveConcurrencyLimit limit = limit(10);
+
+        window(limit, 10, FAST, 2);
+
+        assertThat(limit.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    void throttlingCutsTheLimitAtOnce() {
+        AdaptiveConcurrencyLimit limit = limit(10);
+
+        limit.onSample(FAST, true, 10);
+
+        assertThat(limit.getLimit()).isEqualTo(7);
+        assertThat(pool.getLimit()).isEqualTo(7);
+        assertThat(registry.counter("riotapi.client.concurrency.changes",
+                "route", "europe", "direction", "down", "reason", "throttled").count()).isEqualTo(1);
+    }
+
+    @Test
+    void risingLatencyShrinksTheLimitButNotBelowTheMinimum() {
+        AdaptiveConcurrencyLimit limit = limit(10);
+        window(limit, 10, FAST, 10);
+
+        // Average four times the baseline with a tolerance of two halves the limit
+        window(limit, 11, FAST * 4, 11);
+        assertThat(limit.getLimit()).isEqualTo(5);
+
+        for (int i = 0; i < 5; i++) {
+            window(limit, 5, FAST * 4, 5);
+        }
+        assertThat(limit.getLimit()).isEqualTo(2);
+    }
+
+    private AdaptiveConcurrencyLimit limit(int initial) {
+        return new AdaptiveConcurrencyLimit(pool, initial, 2, 50, 2.0, 0.7, Tags.of("route", "europe"), registry);
+    }
+
+    private static void window(AdaptiveConcurrencyLimit limit, int calls, long rttNanos, int inFlight) {
+        for (int i = 0; i < calls; i++) {
+            limit.onSample(rttNanos, false, inFlight);
+        }
+    }
+}
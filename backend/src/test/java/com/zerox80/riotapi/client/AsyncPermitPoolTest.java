@@ -0,0 +1,186 @@
+package com.zerox80.riotapi.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AsyncPermitPoolTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final HashedWheelTimer timer = new HashedWheelTimer("test-timer", Duration.ofMillis(10), 64);
+
+    @AfterEach
+    void stopTimer() {
+        timer.stop();
+    }
+
+    @Test
+    void releaseHandsPermitToOldestWaiter() {
+        AsyncPermitPool pool = new AsyncPermitPool(1, 100, Duration.ofSeconds(5), timer, registry);
+        pool.acquire().join();
+
+        List<Integer> order = new CopyOnWriteArrayList<>();
+        List<CompletableFuture<Void>> waiters = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            int id = i;
+            waiters.add(pool.acquire().thenRun(() -> order.add(id)));
+        }
+        assertThat(pool.queueDepth()).isEqualTo(5);
+
+        for (int i = 0; i < 5; i++) {
+            pool.release();
+        }
+
+        assertThat(order).containsExactly(0, 1, 2, 3, 4);
+        assertThat(pool.availablePermits()).isZero();
+        pool.release();
+        assertThat(pool.availablePermits()).isEqualTo(1);
+        assertThat(registry.timer("riotapi.client.permits.wait", "priority", "interactive").count()).isEqualTo(6);
+    }
+
+    @Test
+    void waiterFailsAfterMaxWait() {
+        AsyncPermitPool pool = new AsyncPermitPool(1, 100, Duration.ofMillis(50), timer, registry);
+        pool.acquire().join();
+
+        CompletableFuture<Void> waiter = pool.acquire();
+
+        assertThatThrownBy(() -> waiter.get(2, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(RiotApiRequestException.class)
+                .hasMessageContaining("status code: 503");
+        assertThat(pool.queueDepth()).isZero();
+
+        // The permit goes back to the pool instead of the timed out waiter
+        pool.release();
+        assertThat(pool.availablePermits()).isEqualTo(1);
+    }
+
+    @Test
+    void timedOutWaiterIsFailedOffTheTimerThread() {
+        AsyncPermitPool pool = new AsyncPermitPool(1, 100, Duration.ofMillis(50), timer, registry);
+        pool.acquire().join();
+
+        CompletableFuture<String> thread = pool.acquire()
+                .handle((ignored, throwable) -> Thread.currentThread().getName());
+
+        assertThat(thread.orTimeout(2, TimeUnit.SECONDS).join()).isNotEqualTo("test-timer");
+    }
+
+    @Test
+    void rejectsCallersWhenQueueIsFull() {
+        AsyncPermitPool pool = new AsyncPermitPool(1, 1, Duration.ofSeconds(5), timer, registry);
+        pool.acquire().join();
+        CompletableFuture<Void> queued = pool.acquire();
+
+        CompletableFuture<Void> rejected = pool.acquire();
+
+        assertThat(rejected).isCompletedExceptionally();
+        assertThat(queued).isNotDone();
+        assertThat(registry.counter("riotapi.client.permits.rejected", "reason", "queue-full", "priority",
+                "interactive").count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void cancelledWaiterIsSkipped() {
+        AsyncPermitPool pool = new AsyncPermitPool(1, 100, Duration.ofSeconds(5), timer, registry);
+        pool.acquire().join();
+        CompletableFuture<Void> first = pool.acquire();
+        CompletableFuture<Void> second = pool.acquire();
+
+        first.cancel(false);
+        pool.release();
+
+        assertThat(second).isDone();
+        assertThat(pool.availablePermits()).isZero();
+    }
+
+    @Test
+    void cancelledWaiterLeavesTheQueueRightAway() {
+        AsyncPermitPool pool = new AsyncPermitPool(1, 1, Duration.ofSeconds(5), timer, registry);
+        pool.acquire().join();
+        CompletableFuture<Void> cancelled = pool.acquire();
+
+        cancelled.cancel(false);
+
+        assertThat(pool.queueDepth()).isZero();
+        assertThat(pool.acquire()).isNotDone();
+        assertThat(registry.counter("riotapi.client.permits.rejected", "reason", "cancelled", "priority",
+                "interactive").count())
+                .isEqualTo(1.0);
+        assertThat(registry.counter("riotapi.client.permits.rejected", "reason", "queue-full", "priority",
+                "interactive").count())
+                .isZero();
+    }
+
+    @Test
+    void interactiveWaitersGoBeforeEarlierBackgroundWaiters() {
+        AsyncPermitPool pool = new AsyncPermitPool(2, 100, Duration.ofSeconds(5), Duration.ofSeconds(5), 1.0, 1.0,
+                timer, registry);
+        pool.acquire(RequestPriority.INTERACTIVE).join();
+        pool.acquire(RequestPriority.INTERACTIVE).join();
+
+        CompletableFuture<Void> background = pool.acquire(RequestPriority.BACKGROUND);
+        CompletableFuture<Void> interactive = pool.acquire(RequestPriority.INTERACTIVE);
+        pool.release(RequestPriority.INTERACTIVE);
+
+        assertThat(interactive).isDone();
+        assertThat(background).isNotDone();
+        pool.release(RequestPriority.INTERACTIVE);
+        assertThat(background).isDone();
+    }
+
+    @Test
+    void backgroundCallsOnlyUseTheirShareOfPermits() {
+        AsyncPermitPool pool = new AsyncPermitPool(4, 100, Duration.ofSeconds(5), Duration.ofSeconds(5), 1.0, 0.5,
+                timer, registry);
+
+        assertThat(pool.acquire(RequestPriority.BACKGROUND)).isDone();
+        assertThat(pool.acquire(RequestPriority.BACKGROUND)).isDone();
+        CompletableFuture<Void> third = pool.acquire(RequestPriority.BACKGROUND);
+        assertThat(third).isNotDone();
+
+        // The remaining permits stay free for interactive requests
+        assertThat(pool.acquire(RequestPriority.INTERACTIVE)).isDone();
+        assertThat(pool.acquire(RequestPriority.INTERACTIVE)).isDone();
+
+        pool.release(RequestPriority.BACKGROUND);
+        assertThat(third).isDone();
+        assertThat(pool.queueDepth(RequestPriority.BACKGROUND)).isZero();
+    }
+
+    @Test
+    void setLimitWakesWaitersAndShrinksAsPermitsReturn() {
+        AsyncPermitPool pool = new AsyncPermitPool(2, 100, Duration.ofSeconds(5), timer, registry);
+        pool.acquire().join();
+        pool.acquire().join();
+        CompletableFuture<Void> waiter = pool.acquire();
+
+        pool.setLimit(3);
+        assertThat(waiter).isDone();
+        assertThat(pool.inFlight()).isEqualTo(3);
+
+        pool.setLimit(1);
+        CompletableFuture<Void> next = pool.acquire();
+        pool.release();
+        pool.release();
+        assertThat(next).isNotDone();
+        assertThat(pool.availablePermits()).isZero();
+
+        pool.release();
+        assertThat(next).isDone();
+        assertThat(pool.getLimit()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,62 @@
+package com.zerox80.riotapi.client;
+
+import com.zerox80.riotapi.config.RiotApiProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EndpointTimeoutsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void usesMaxUntilEnoughSamplesThenTheScaledPercentile() {
+        EndpointTimeouts timeouts = new EndpointTimeouts(config(true), registry);
+
+        record(timeouts, "Summoner", 9, 1_500);
+        assertThat(timeouts.timeoutFor("Summoner")).isEqualTo(Duration.ofSeconds(15));
+
+        record(timeouts, "Summoner", 1, 1_500);
+        assertThat(timeouts.timeoutFor("Summoner")).isEqualTo(Duration.ofSeconds(3));
+        assertThat(registry.get("riotapi.client.timeout").tag("type", "Summoner").gauge().value())
+                .isEqualTo(3_000);
+        assertThat(timeouts.timeoutFor("MatchDetails")).isEqualTo(Duration.ofSeconds(15));
+    }
+
+    @Test
+    void clampsToTheConfiguredBounds() {
+        EndpointTimeouts timeouts = new EndpointTimeouts(config(true), registry);
+
+        record(timeouts, "Fast", 10, 20);
+        record(timeouts, "Slow", 10, 12_000);
+
+        assertThat(timeouts.timeoutFor("Fast")).isEqualTo(Duration.ofSeconds(2));
+        assertThat(timeouts.timeoutFor("Slow")).isEqualTo(Duration.ofSeconds(15));
+    }
+
+    @Test
+    void staysFixedWhenNotAdaptive() {
+        EndpointTimeouts timeouts = new EndpointTimeouts(config(false), registry);
+
+        record(timeouts, "Summoner", 10, 1_500);
+
+        assertThat(timeouts.timeoutFor("Summoner")).isEqualTo(Duration.ofSeconds(15));
+    }
+
+    private static RiotApiProperties.Timeouts config(boolean adaptive) {
+        RiotApiProperties.Timeouts config = new RiotApiProperties.Timeouts();
+        config.setAdaptive(adaptive);
+        config.setMinSamples(10);
+        return config;
+    }
+
+    private static void record(EndpointTimeouts timeouts, String type, int count, long millis) {
+        for (int i = 0; i < count; i++) {
+            timeouts.record(type, TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.zerox80.riotapi.client;
+
+import com.zerox80.riotapi.config.RiotApiProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class NegativeCacheTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicLong nanos = new AtomicLong();
+    private final HashedWheelTimer timer = new HashedWheelTimer("test-timer", Duration.ofMillis(10), 64);
+
+    @AfterEach
+    void stopTimer() {
+        timer.stop();
+    }
+
+    @Test
+    void notFoundAnswerExpiresAfterItsTimeToLive() {
+        NegativeCache cache = cache(Duration.ofSeconds(60), 100);
+        cache.rememberNotFound("Account", "europe:nobody#none");
+
+        nanos.addAndGet(Duration.ofSeconds(59).toNanos());
+        assertThat(cache.isNotFound("Account", "europe:nobody#none")).isTrue();
+
+        nanos.addAndGet(Duration.ofSeconds(2).toNanos());
+        assertThat(cache.isNotFound("Account", "europe:nobody#none")).isFalse();
+    }
+
+    @Test
+    void storeIsBoundedInSize() {
+        NegativeCache cache = cache(Duration.ofSeconds(60), 3);
+        IntStream.range(0, 10).forEach(i -> cache.rememberNotFound("Account", "europe:name" + i));
+
+        long remembered = IntStream.range(0, 10).filter(i -> cache.isNotFound("Account", "europe:name" + i))
+                .count();
+
+        assertThat(remembered).isEqualTo(3);
+        assertThat(registry.get("riotapi.client.negative.size").gauge().value()).isEqualTo(3);
+    }
+
+    @Test
+    void countsHitsMissesAndStoredAnswersPerType() {
+        NegativeCache cache = cache(Duration.ofSeconds(60), 100);
+
+        cache.isNotFound("Summoner", "euw1:P1");
+        cache.rememberNotFound("Summoner", "euw1:P1");
+        cache.isNotFound("Summoner", "euw1:P1");
+        cache.isNotFound("Summoner", "euw1:P1");
+        // Same key, other request type: its own key space
+        cache.isNotFound("Account", "euw1:P1");
+
+        assertThat(count("Summoner", "miss")).isEqualTo(1);
+        assertThat(count("Summoner", "stored")).isEqualTo(1);
+        assertThat(count("Summoner", "hit")).isEqualTo(2);
+        assertThat(count("Account", "miss")).isEqualTo(1);
+    }
+
+    @Test
+    void disabledCacheRemembersNothing() {
+        RiotApiProperties.NegativeCache config = new RiotApiProperties.NegativeCache();
+        config.setEnabled(false);
+        NegativeCache cache = new NegativeCache(config, registry, nanos::get);
+
+        cache.rememberNotFound("Account", "europe:nobody#none");
+
+        assertThat(cache.isNotFound("Account", "europe:nobody#none")).isFalse();
+        assertThat(count("Account", "stored")).isZero();
+    }
+
+    @Test
+    void clientOnlyRemembers404Answers() {
+        Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+        HttpClient httpClient = RiotApiClientRetryTest.StubHttpClient.answering(request -> {
+            String path = request.uri().getPath();
+            calls.computeIfAbsent(path, p -> new AtomicInteger()).incrementAndGet();
+            if (path.contains("/Missing/")) {
+                return RiotApiClientRetryTest.Reply.of(404, "{\"status\":{\"status_code\":404}}");
+            }
+            if (path.contains("/Invalid/")) {
+                return RiotApiClientRetryTest.Reply.of(400, "{\"status\":{\"status_code\":400}}");
+            }
+            return RiotApiClientRetryTest.Reply.of(200,
+                    "{\"puuid\":\"P1\",\"gameName\":\"Found\",\"tagLine\":\"EUW\"}");
+        });
+        RiotApiClient client = RiotApiClientRetryTest.newClient(httpClient, 5, new RiotApiProperties(), registry,
+                timer);
+
+        for (int i = 0; i < 2; i++) {
+            assertThat(client.getAccountByRiotId(RiotRegion.EUW1, "Missing", "EUW").join()).isNull();
+            assertThat(catchThrowable(() -> client.getAccountByRiotId(RiotRegion.EUW1, "Invalid", "EUW").join()))
+                    .isNotNull();
+            assertThat(client.getAccountByRiotId(RiotRegion.EUW1, "Found", "EUW").join()).isNotNull();
+        }
+
+        // Only the 404 is answered from the negative cache the second time
+        assertThat(calls.get("/riot/account/v1/accounts/by-riot-id/Missing/EUW")).hasValue(1);
+        assertThat(calls.get("/riot/account/v1/accounts/by-riot-id/Invalid/EUW")).hasValue(2);
+        assertThat(calls.get("/riot/account/v1/accounts/by-riot-id/Found/EUW")).hasValue(2);
+        assertThat(count("Account", "stored")).isEqualTo(1);
+    }
+
+    private NegativeCache cache(Duration ttl, int maxEntries) {
+        RiotApiProperties.NegativeCache config = new RiotApiProperties.NegativeCache();
+        config.setTtl(ttl);
+        config.setMaxEntries(maxEntries);
+        return new NegativeCache(config, registry, nanos::get);
+    }
+
+    private double count(String type, String outcome) {
+        return registry.counter("riotapi.client.negative", "type", type, "outcome", outcome).count();
+    }
+}
@@ -0,0 +1,82 @@
+package com.zerox80.riotapi.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.WeakReference;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestDeadlineTest {
+
+    @Test
+    void expiresByItselfAndCancelsBoundFutures() {
+        RequestDeadline deadline = RequestDeadline.after(Duration.ofMillis(50));
+        CompletableFuture<Void> step = deadline.bind(new CompletableFuture<>());
+
+        assertThat(deadline.isDone()).isFalse();
+        assertThat(step.handle((v, t) -> t).join()).isNotNull();
+        assertThat(step).isCancelled();
+        assertThat(deadline.isDone()).isTrue();
+        assertThat(deadline.isCancelled()).isFalse();
+        assertThat(deadline.remaining()).isZero();
+    }
+
+    @Test
+    void completedStepIsNotKeptUntilTheDeadlineEnds() throws InterruptedException {
+        RequestDeadline deadline = RequestDeadline.after(Duration.ofMinutes(1));
+        CompletableFuture<byte[]> step = deadline.bind(new CompletableFuture<>());
+        WeakReference<CompletableFuture<byte[]>> ref = new WeakReference<>(step);
+        step.complete(new byte[1 << 20]);
+        step = null;
+
+        for (int i = 0; i < 50 && ref.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+
+        assertThat(ref.get()).isNull();
+        assertThat(deadline.isDone()).isFalse();
+    }
+
+    @Test
+    void groupEndsOnlyWithItsLastCaller() {
+        RequestDeadline first = RequestDeadline.after(Duration.ofSeconds(10));
+        RequestDeadline second = RequestDeadline.after(Duration.ofSeconds(20));
+        RequestDeadline group = RequestDeadline.group(first);
+        assertThat(group.join(second)).isTrue();
+        assertThat(group.remaining()).isGreaterThan(Duration.ofSeconds(15));
+
+        first.cancel();
+        assertThat(group.isDone()).isFalse();
+
+        second.cancel();
+        assertThat(group.isDone()).isTrue();
+        assertThat(group.isCancelled()).isTrue();
+        assertThat(group.join(RequestDeadline.after(Duration.ofSeconds(5)))).isFalse();
+    }
+
+    @Test
+    void callerWithoutDeadlineKeepsTheGroupRunning() {
+        RequestDeadline first = RequestDeadline.after(Duration.ofSeconds(10));
+        RequestDeadline group = RequestDeadline.group(first);
+        group.join(null);
+
+        first.cancel();
+
+        assertThat(group.isDone()).isFalse();
+    }
+
+    @Test
+    void callRestoresThePreviousDeadline() {
+        RequestDeadline outer = RequestDeadline.after(Duration.ofSeconds(10));
+        RequestDeadline inner = RequestDeadline.after(Duration.ofSeconds(5));
+
+        RequestDeadline seen = outer.call(() -> inner.call(RequestDeadline::current));
+
+        assertThat(seen).isSameAs(inner);
+        assertThat(outer.call(RequestDeadline::current)).isSameAs(outer);
+        assertThat(RequestDeadline.current()).isNull();
+    }
+}
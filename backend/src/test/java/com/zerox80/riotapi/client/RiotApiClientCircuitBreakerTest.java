@@ -0,0 +1,70 @@
+package com.zerox80.riotapi.client;
+
+import com.zerox80.riotapi.config.RiotApiProperties;
+import com.zerox80.riotapi.model.Summoner;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RiotApiClientCircuitBreakerTest {
+
+    private final HashedWheelTimer timer = new HashedWheelTimer("test-timer", Duration.ofMillis(10), 64);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicInteger status = new AtomicInteger(200);
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @AfterEach
+    void stopTimer() {
+        timer.stop();
+    }
+
+    @Test
+    void servesLastGoodValueAndFailsFastWhileBreakerIsOpen() {
+        RiotApiClient client = client();
+
+        Summoner fresh = client.getSummonerByPuuid(RiotRegion.EUW1, "P1").join();
+        assertThat(client.isStale(fresh)).isFalse();
+
+        status.set(503);
+        Summoner stale = client.getSummonerByPuuid(RiotRegion.EUW1, "P1").join();
+
+        assertThat(stale).isSameAs(fresh);
+        assertThat(client.isStale(stale)).isTrue();
+        // One failed call opened the breaker, so no retries with backoff followed
+        assertThat(calls.get()).isEqualTo(2);
+        assertThat(client.getCircuitBreakers().get("Summoner").getState())
+                .isEqualTo(RiotCircuitBreaker.State.OPEN);
+        assertThat(registry.counter("riotapi.client.stale.served", "cache", "summoners").count()).isEqualTo(1);
+
+        // Nothing to fall back to: fail fast without calling Riot
+        assertThatThrownBy(() -> client.getSummonerByPuuid(RiotRegion.EUW1, "P2").join())
+                .hasCauseInstanceOf(RiotCircuitOpenException.class)
+                .hasMessageContaining("status code: 503");
+        assertThat(calls.get()).isEqualTo(2);
+
+        // Other endpoint types are not affected
+        assertThat(client.getCircuitBreakers().get("MatchDetails").getState())
+                .isEqualTo(RiotCircuitBreaker.State.CLOSED);
+    }
+
+    private RiotApiClient client() {
+        RiotApiProperties properties = new RiotApiProperties();
+        properties.getCircuitBreaker().setWindowSize(1);
+        properties.getCircuitBreaker().setMinimumCalls(1);
+        properties.getCircuitBreaker().setOpenDuration(Duration.ofMinutes(1));
+        HttpClient httpClient = RiotApiClientRetryTest.StubHttpClient.answering(request -> {
+            calls.incrementAndGet();
+            int code = status.get();
+            return RiotApiClientRetryTest.Reply.of(code,
+                    code == 200 ? "{\"puuid\":\"P1\",\"summonerLevel\":30}" : "{\"status\":{}}");
+        });
+        return RiotApiClientRetryTest.newClient(httpClient, 5, properties, registry, timer);
+    }
+}
@@ -1,25 +1,29 @@
 package com.zerox80.riotapi.client;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zerox80.riotapi.config.CacheBudgetProperties;
+import com.zerox80.riotapi.config.RiotApiProperties;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.cache.support.NoOpCacheManager;
 
-import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.net.http.HttpClient;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class RiotApiClientConcurrencyTest {
 
     @Test
     void acquirePermitAsyncHandlesHighLoad() throws Exception {
+        HashedWheelTimer timer = new HashedWheelTimer("test-timer", Duration.ofMillis(10), 64);
         RiotApiClient client = new RiotApiClient(
                 "test-key",
                 "na1",
@@ -29,29 +33,73 @@ class RiotApiClientConcurrencyTest {
                 new SimpleMeterRegistry(),
                 HttpClient.newHttpClient(),
                 1,
-                new NoOpCacheManager()
+                new NoOpCacheManager(),
+                new RiotApiProperties(),
+                timer,
+                new CacheBudgetProperties()
         );
 
-        Field limiterField = RiotApiClient.class.getDeclaredField("outboundLimiter");
-        limiterField.setAccessible(true);
-        Semaphore limiter = (Semaphore) limiterField.get(client);
+        Method permitsFor = RiotApiClient.class.getDeclaredMethod("permitsFor", String.class);
+        permitsFor.setAccessible(true);
+        AsyncPermitPool permits = (AsyncPermitPool) permitsFor.invoke(client, "na1");
 
-        limiter.acquire();
+        permits.acquire().join();
 
-        Method acquireMethod = RiotApiClient.class.getDeclaredMethod("acquirePermitAsync");
+        Method acquireMethod = RiotApiClient.class.getDeclaredMethod("acquirePermitAsync", String.class,
+                RequestPriority.class);
         acquireMethod.setAccessible(true);
 
         int requestCount = 50;
         List<CompletableFuture<Void>> futures = new ArrayList<>();
         for (int i = 0; i < requestCount; i++) {
-            CompletableFuture<Void> cf = (CompletableFuture<Void>) acquireMethod.invoke(client);
-            futures.add(cf.thenRun(limiter::release));
+            @SuppressWarnings("unchecked")
+            CompletableFuture<Void> cf = (CompletableFuture<Void>) acquireMethod.invoke(client, "na1",
+                    RequestPriority.INTERACTIVE);
+            futures.add(cf.thenRun(permits::release));
         }
+        assertEquals(requestCount, permits.queueDepth());
 
-        CompletableFuture.delayedExecutor(100, TimeUnit.MILLISECONDS).execute(limiter::release);
+        CompletableFuture.delayedExecutor(100, TimeUnit.MILLISECONDS).execute(permits::release);
 
         CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
 
-        assertEquals(1, limiter.availablePermits());
+        assertEquals(1, permits.availablePermits());
+        assertEquals(0, permits.queueDepth());
+        timer.stop();
+    }
+
+    @Test
+    void eachRouteHasItsOwnPermits() throws Exception {
+        HashedWheelTimer timer = new HashedWheelTimer("test-timer", Duration.ofMillis(10), 64);
+        RiotApiClient client = new RiotApiClient(
+                "test-key",
+                "na1",
+                "https://example.com",
+                "JUnit/ConcurrencyTest",
+                new ObjectMapper(),
+                new SimpleMeterRegistry(),
+                HttpClient.newHttpClient(),
+                1,
+                new NoOpCacheManager(),
+                new RiotApiProperties(),
+                timer,
+                new CacheBudgetProperties()
+        );
+        Method acquireMethod = RiotApiClient.class.getDeclaredMethod("acquirePermitAsync", String.class,
+                RequestPriority.class);
+        acquireMethod.setAccessible(true);
+
+        // Exhaust the only permit for NA, then queue another NA request behind it
+        ((CompletableFuture<?>) acquireMethod.invoke(client, "na1", RequestPriority.INTERACTIVE)).join();
+        CompletableFuture<?> queuedNa = (CompletableFuture<?>) acquireMethod.invoke(client, "na1",
+                RequestPriority.INTERACTIVE);
+
+        // A busy NA platform must not hold back requests for EUW
+        CompletableFuture<?> euw = (CompletableFuture<?>) acquireMethod.invoke(client, "euw1",
+                RequestPriority.INTERACTIVE);
+
+        assertTrue(euw.isDone());
+        assertFalse(queuedNa.isDone());
+        timer.stop();
     }
 }
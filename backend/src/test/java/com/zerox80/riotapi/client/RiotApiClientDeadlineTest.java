@@ -0,0 +1,179 @@
+package com.zerox80.riotapi.client;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zerox80.riotapi.config.RiotApiProperties;
+import com.zerox80.riotapi.model.LeagueEntryDTO;
+import com.zerox80.riotapi.model.Summoner;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RiotApiClientDeadlineTest {
+
+    private final HashedWheelTimer timer = new HashedWheelTimer("test-timer", Duration.ofMillis(10), 64);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    // Every call that went out over the wire; pending ones hang until completed by the test
+    private final List<HttpRequest> sent = new CopyOnWriteArrayList<>();
+    private final List<CompletableFuture<?>> pending = new CopyOnWriteArrayList<>();
+    // Completes the pending call with the same index with its response
+    private final List<Runnable> answers = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void stopTimer() {
+        timer.stop();
+    }
+
+    @Test
+    void cancelledCallerGivesUpItsQueuedCall() {
+        RiotApiClient client = client(1, 200);
+        RequestDeadline other = RequestDeadline.after(Duration.ofSeconds(10));
+        CompletableFuture<Summoner> busy = other.call(() -> client.getSummonerByPuuid(RiotRegion.EUW1, "P1"));
+        RequestDeadline deadline = RequestDeadline.after(Duration.ofSeconds(10));
+        CompletableFuture<Summoner> queued = deadline.call(() -> client.getSummonerByPuuid(RiotRegion.EUW1, "P2"));
+
+        deadline.cancel();
+
+        assertThatThrownBy(() -> queued.get(2, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(RiotDeadlineExceededException.class)
+                .hasMessageContaining("caller went away");
+        // Freeing the permit must not send the abandoned call any more
+        other.cancel();
+        assertThatThrownBy(() -> busy.get(2, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(RiotDeadlineExceededException.class);
+        assertThat(sent).hasSize(1);
+        assertThat(registry.counter("riotapi.client.deadline.abandoned", "type", "Summoner", "stage", "queued")
+                .count()).isEqualTo(1);
+    }
+
+    @Test
+    void callGivenUpWhileWaitingForAPermitDoesNotUseRateLimitQuota() {
+        RiotApiProperties properties = new RiotApiProperties();
+        properties.getConcurrency().setAdaptive(false);
+        properties.getRateLimit().setDefaultAppLimits("2:10");
+        RiotApiClient client = client(properties, 1, 200);
+        RequestDeadline busy = RequestDeadline.after(Duration.ofSeconds(10));
+        busy.call(() -> client.getSummonerByPuuid(RiotRegion.EUW1, "P1"));
+        RequestDeadline queued = RequestDeadline.after(Duration.ofSeconds(10));
+        queued.call(() -> client.getSummonerByPuuid(RiotRegion.EUW1, "P2"));
+
+        queued.cancel();
+        busy.cancel();
+        client.getSummonerByPuuid(RiotRegion.EUW1, "P3");
+
+        // The second request of the window is still free for P3
+        assertThat(sent).hasSize(2);
+        assertThat(sent.get(1).uri().getPath()).endsWith("/P3");
+    }
+
+    @Test
+    void permitGoesBackWhenNoQuotaComesWithinTheMaxWait() {
+        RiotApiProperties properties = new RiotApiProperties();
+        properties.getConcurrency().setAdaptive(false);
+        properties.getRateLimit().setDefaultAppLimits("1:10");
+        properties.getPermits().setMaxWait(Duration.ofSeconds(1));
+        RiotApiClient client = client(properties, 1, 200);
+        client.getSummonerByPuuid(RiotRegion.EUW1, "P1");
+        answers.get(0).run();
+
+        CompletableFuture<Summoner> throttled = client.getSummonerByPuuid(RiotRegion.EUW1, "P2");
+
+        assertThatThrownBy(() -> throttled.get(2, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(RiotApiRequestException.class);
+        assertThat(sent).hasSize(1);
+        assertThat(registry.get("riotapi.client.permits.available").tag("route", "euw1").gauge().value())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void coalescedCallIsOnlyCancelledWhenTheLastCallerIsGone() {
+        RiotApiClient client = client(5, 200);
+        RequestDeadline first = RequestDeadline.after(Duration.ofSeconds(10));
+        RequestDeadline second = RequestDeadline.after(Duration.ofSeconds(10));
+        first.call(() -> client.getSummonerByPuuid(RiotRegion.EUW1, "P1"));
+        CompletableFuture<Summoner> joined = second.call(() -> client.getSummonerByPuuid(RiotRegion.EUW1, "P1"));
+        assertThat(sent).hasSize(1);
+
+        first.cancel();
+        assertThat(pending.get(0)).isNotCancelled();
+
+        second.cancel();
+        assertThat(pending.get(0)).isCancelled();
+        assertThatThrownBy(() -> joined.get(2, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(RiotDeadlineExceededException.class);
+    }
+
+    @Test
+    void syncCacheLoadOutlivesTheCallerThatStartedIt() {
+        RiotApiClient client = client(5, 200);
+        CaffeineCache cache = new CaffeineCache("leagueEntries", Caffeine.newBuilder().buildAsync(), true);
+        RequestDeadline first = RequestDeadline.after(Duration.ofSeconds(10));
+        RequestDeadline second = RequestDeadline.after(Duration.ofSeconds(10));
+        // What @Cacheable(sync = true) does: the second reader gets the first reader's load
+        first.call(() -> cache.retrieve("euw1:puuid:P1",
+                () -> client.getLeagueEntriesByPuuid(RiotRegion.EUW1, "P1")));
+        CompletableFuture<List<LeagueEntryDTO>> joined = second.call(() -> cache.retrieve("euw1:puuid:P1",
+                () -> client.getLeagueEntriesByPuuid(RiotRegion.EUW1, "P1")));
+
+        first.cancel();
+        answers.get(0).run();
+
+        assertThat(joined.orTimeout(2, TimeUnit.SECONDS).join()).isEmpty();
+        assertThat(pending.get(0)).isNotCancelled();
+        assertThat(sent).hasSize(1);
+    }
+
+    @Test
+    void retryIsNotStartedIfItCannotFinishInTime() {
+        RiotApiClient client = client(5, 503);
+        RequestDeadline deadline = RequestDeadline.after(Duration.ofSeconds(1));
+
+        CompletableFuture<Summoner> call = deadline.call(() -> client.getSummonerByPuuid(RiotRegion.EUW1, "P1"));
+
+        assertThatThrownBy(() -> call.get(2, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(RiotApiRequestException.class)
+                .hasMessageContaining("503");
+        assertThat(sent).hasSize(1);
+        assertThat(registry.counter("riotapi.client.deadline.abandoned", "type", "Summoner", "stage", "retry")
+                .count()).isEqualTo(1);
+    }
+
+    /**
+     * Client whose HTTP stub answers every call with the given status: 200 calls hang until
+     * the test completes or cancels them, other statuses are answered at once.
+     */
+    private RiotApiClient client(int maxConcurrent, int status) {
+        RiotApiProperties properties = new RiotApiProperties();
+        properties.getConcurrency().setAdaptive(false);
+        return client(properties, maxConcurrent, status);
+    }
+
+    private RiotApiClient client(RiotApiProperties properties, int maxConcurrent, int status) {
+        HttpClient httpClient = RiotApiClientRetryTest.StubHttpClient.answering(request -> {
+            sent.add(request);
+            String body = request.uri().getPath().contains("/league/") ? "[]" : "{\"puuid\":\"P1\"}";
+            if (status != 200) {
+                return RiotApiClientRetryTest.Reply.of(status, body);
+            }
+            return new RiotApiClientRetryTest.Reply(status, body, response -> {
+                CompletableFuture<HttpResponse<?>> hanging = new CompletableFuture<>();
+                pending.add(hanging);
+                answers.add(() -> hanging.complete(response));
+                return hanging;
+            });
+        });
+        return RiotApiClientRetryTest.newClient(httpClient, maxConcurrent, properties, registry, timer);
+    }
+}
@@ -0,0 +1,159 @@
+package com.zerox80.riotapi.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zerox80.riotapi.config.CacheBudgetProperties;
+import com.zerox80.riotapi.config.RiotApiProperties;
+import com.zerox80.riotapi.fake.FakeRiotServer;
+import com.zerox80.riotapi.model.AccountDto;
+import com.zerox80.riotapi.model.CompactMatch;
+import com.zerox80.riotapi.model.LeagueEntryDTO;
+import com.zerox80.riotapi.model.Summoner;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.support.NoOpCacheManager;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives the real client and JDK HTTP stack against the embedded fake Riot server.
+ */
+class RiotApiClientFakeServerTest {
+
+    private final HashedWheelTimer timer = new HashedWheelTimer("test-timer", Duration.ofMillis(10), 64);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private FakeRiotServer fake;
+
+    @AfterEach
+    void tearDown() {
+        timer.stop();
+        if (fake != null) {
+            fake.close();
+        }
+    }
+
+    @Test
+    void replaysFixturesForProfileLookups() {
+        fake = FakeRiotServer.builder().appRateLimit("500:1").start();
+        RiotApiClient client = client(5);
+
+        AccountDto account = client.getAccountByRiotId(RiotRegion.EUW1, "Fake Player", "EUW").join();
+        Summoner summoner = client.getSummonerByPuuid(RiotRegion.EUW1, account.getPuuid()).join();
+        List<LeagueEntryDTO> entries = client.getLeagueEntriesByPuuid(RiotRegion.EUW1, account.getPuuid()).join();
+        List<String> ids = client.getMatchIdsByPuuid(RiotRegion.EUW1, account.getPuuid(), 5, 10).join();
+        CompactMatch match = client.getMatchDetails(RiotRegion.EUW1, ids.get(0)).join();
+
+        assertThat(account.getPuuid()).isEqualTo("fake-puuid-0001");
+        assertThat(account.getGameName()).isEqualTo("Fake Player");
+        assertThat(summoner.getPuuid()).isEqualTo(account.getPuuid());
+        assertThat(entries).extracting(LeagueEntryDTO::getQueueType).contains("RANKED_SOLO_5x5");
+        assertThat(ids).hasSize(10).first().isEqualTo("EUW1_7000000006");
+        assertThat(match.getMatchId()).isEqualTo("EUW1_7000000006");
+        assertThat(match.getParticipants()).hasSize(10);
+    }
+
+    @Test
+    void retriesAfterThrottleWithRetryAfter() {
+        fake = FakeRiotServer.builder().start();
+        fake.throttleNext(1, 1);
+        RiotApiClient client = client(5);
+
+        Summoner summoner = client.getSummonerByPuuid(RiotRegion.EUW1, "P1").orTimeout(10, TimeUnit.SECONDS).join();
+
+        assertThat(summoner.getPuuid()).isEqualTo("P1");
+        assertThat(fake.hits("/lol/summoner/v4/summoners/by-puuid/P1")).isEqualTo(2);
+        assertThat(registry.counter("riotapi.client.retries", "type", "Summoner").count()).isEqualTo(1);
+    }
+
+    @Test
+    void retriesThroughServerErrorBurst() {
+        fake = FakeRiotServer.builder().start();
+        fake.failNext(1, 503);
+        RiotApiClient client = client(5);
+
+        CompactMatch match = client.getMatchDetails(RiotRegion.EUW1, "EUW1_1").orTimeout(10, TimeUnit.SECONDS).join();
+
+        assertThat(match.getMatchId()).isEqualTo("EUW1_1");
+        assertThat(fake.hits("/lol/match/v5/matches/EUW1_1")).isEqualTo(2);
+    }
+
+    @Test
+    void answersRepeated404FromNegativeCache() {
+        fake = FakeRiotServer.builder().start();
+        fake.failNext(1, 404);
+        RiotApiClient client = client(5);
+
+        assertThat(client.getAccountByRiotId(RiotRegion.EUW1, "Nobody", "NONE").join()).isNull();
+        assertThat(client.getAccountByRiotId(RiotRegion.EUW1, "nobody", "none").join()).isNull();
+        AccountDto other = client.getAccountByRiotId(RiotRegion.EUW1, "Somebody", "EUW").join();
+
+        // The second lookup has the same key and is answered without a call
+        assertThat(fake.hits("/riot/account/v1/accounts/by-riot-id/Nobody/NONE")).isEqualTo(1);
+        assertThat(fake.hits("/riot/account/v1/accounts/by-riot-id/nobody/none")).isZero();
+        assertThat(other.getGameName()).isEqualTo("Somebody");
+        assertThat(registry.counter("riotapi.client.negative", "type", "Account", "outcome", "hit").count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void coalescesConcurrentIdenticalLookups() {
+        fake = FakeRiotServer.builder().latency(FakeRiotServer.Latency.fixed(Duration.ofMillis(200))).start();
+        RiotApiClient client = client(5);
+
+        List<CompletableFuture<CompactMatch>> futures = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            futures.add(client.getMatchDetails(RiotRegion.EUW1, "EUW1_42"));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+
+        assertThat(fake.hits("/lol/match/v5/matches/EUW1_42")).isEqualTo(1);
+    }
+
+    @Test
+    void throughputStaysWithinOutboundPermits() {
+        fake = FakeRiotServer.builder()
+                .latency(FakeRiotServer.Latency.logNormal(Duration.ofMillis(20), Duration.ofMillis(80)))
+                .appRateLimit("1000:1")
+                .methodRateLimit("1000:1")
+                .start();
+        RiotApiClient client = client(8);
+
+        long started = System.nanoTime();
+        List<CompletableFuture<CompactMatch>> futures = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            futures.add(client.getMatchDetails(RiotRegion.EUW1, "EUW1_" + i));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).orTimeout(30, TimeUnit.SECONDS).join();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        assertThat(futures).allMatch(f -> f.join() != null);
+        assertThat(fake.totalHits()).isEqualTo(200);
+        assertThat(fake.maxConcurrent()).isLessThanOrEqualTo(8);
+        // 200 calls of ~20 ms over 8 permits take about half a second; serial would be 4+ s
+        assertThat(elapsedMillis).isLessThan(4_000);
+    }
+
+    private RiotApiClient client(int maxConcurrent) {
+        RiotApiProperties properties = new RiotApiProperties();
+        properties.setBaseUrl(fake.baseUrl());
+        properties.getRateLimit().setDefaultAppLimits("1000:1");
+        // Exact hit counts below; hedges would add duplicates
+        properties.getHedging().setEnabled(false);
+        // Fixed permits so the concurrency bound below is exact
+        properties.getConcurrency().setAdaptive(false);
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(2))
+                .build();
+        return new RiotApiClient("test-key", "euw1", "https://example.com", "JUnit/FakeServerTest",
+                new ObjectMapper(), registry, httpClient, maxConcurrent, new NoOpCacheManager(), properties, timer,
+                new CacheBudgetProperties());
+    }
+}
@@ -0,0 +1,96 @@
+package com.zerox80.riotapi.client;
+
+import com.zerox80.riotapi.config.RiotApiProperties;
+import com.zerox80.riotapi.model.CompactMatch;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RiotApiClientHedgingTest {
+
+    private final HashedWheelTimer timer = new HashedWheelTimer("test-timer", Duration.ofMillis(10), 64);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicInteger calls = new AtomicInteger();
+    // Calls with a number in here hang until a later call answers (or for one second)
+    private final List<Integer> slowCalls = new CopyOnWriteArrayList<>();
+    private final List<CompletableFuture<?>> slowFutures = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void stopTimer() {
+        timer.stop();
+    }
+
+    @Test
+    void slowCallIsHedgedAndTheFasterResponseWins() {
+        RiotApiClient client = client(1.0);
+        warmUp(client);
+        slowCalls.add(6);
+
+        CompactMatch match = client.getMatchDetails(RiotRegion.EUW1, "EUW1_99").orTimeout(5, TimeUnit.SECONDS).join();
+
+        assertThat(match.getMatchId()).isEqualTo("EUW1_99");
+        assertThat(calls.get()).isEqualTo(6 + 1);
+        assertThat(registry.counter("riotapi.client.hedge.fired", "type", "MatchDetails").count()).isEqualTo(1);
+        // The loser is cancelled right after the winner completed the result
+        Throwable primaryOutcome = slowFutures.get(0).handle((response, throwable) -> throwable).join();
+        assertThat(primaryOutcome).isInstanceOf(CancellationException.class);
+        assertThat(registry.counter("riotapi.client.hedge.won", "type", "MatchDetails").count()).isEqualTo(1);
+    }
+
+    @Test
+    void noHedgeWithoutBudget() {
+        RiotApiClient client = client(0.0);
+        warmUp(client);
+        slowCalls.add(6);
+
+        CompactMatch match = client.getMatchDetails(RiotRegion.EUW1, "EUW1_99").orTimeout(5, TimeUnit.SECONDS).join();
+
+        assertThat(match.getMatchId()).isEqualTo("EUW1_99");
+        assertThat(calls.get()).isEqualTo(6);
+        assertThat(registry.counter("riotapi.client.hedge.fired", "type", "MatchDetails").count()).isZero();
+        assertThat(registry.counter("riotapi.client.hedge.skipped", "type", "MatchDetails", "reason", "budget")
+                .count()).isEqualTo(1);
+    }
+
+    private void warmUp(RiotApiClient client) {
+        for (int i = 1; i <= 5; i++) {
+            client.getMatchDetails(RiotRegion.EUW1, "EUW1_" + i).join();
+        }
+    }
+
+    private RiotApiClient client(double budgetRatio) {
+        RiotApiProperties properties = new RiotApiProperties();
+        properties.getHedging().setEnabled(true);
+        properties.getHedging().setMinSamples(5);
+        properties.getHedging().setMinDelay(Duration.ofMillis(30));
+        properties.getHedging().setBudgetRatio(budgetRatio);
+        HttpClient httpClient = RiotApiClientRetryTest.StubHttpClient.answering(request -> {
+            int call = calls.incrementAndGet();
+            String path = request.uri().getPath();
+            String matchId = path.substring(path.lastIndexOf('/') + 1);
+            String body = "{\"metadata\":{\"matchId\":\"" + matchId + "\"},\"info\":{\"participants\":[]}}";
+            if (!slowCalls.contains(call)) {
+                return RiotApiClientRetryTest.Reply.of(200, body);
+            }
+            return new RiotApiClientRetryTest.Reply(200, body, response -> {
+                CompletableFuture<HttpResponse<?>> slow = new CompletableFuture<>();
+                slowFutures.add(slow);
+                timer.schedule(() -> slow.complete(response), 1, TimeUnit.SECONDS);
+                return slow;
+            });
+        });
+        return RiotApiClientRetryTest.newClient(httpClient, 5, properties, registry, timer);
+    }
+}
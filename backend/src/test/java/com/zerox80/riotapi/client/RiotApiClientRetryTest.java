@@ -1,9 +1,14 @@
 package com.zerox80.riotapi.client;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zerox80.riotapi.config.CacheBudgetProperties;
+import com.zerox80.riotapi.config.RiotApiProperties;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cache.support.NoOpCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.test.context.TestPropertySource;
 
@@ -17,13 +22,17 @@ import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.net.http.HttpResponse.PushPromiseHandler;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLParameters;
 import javax.net.ssl.SSLSession;
@@ -51,7 +60,7 @@ class RiotApiClientRetryTest {
     @Test
     void shouldRetryOn429AndSucceed() {
         // First response will be 429 with Retry-After, second will be 200 with JSON body
-        var result = client.getMatchIdsByPuuid("PUUID-TEST", 2).join();
+        var result = client.getMatchIdsByPuuid(RiotRegion.EUW1, "PUUID-TEST", 2).join();
         assertThat(result).isNotNull();
         assertThat(result).containsExactly("match1", "match2");
     }
@@ -64,38 +73,92 @@ class RiotApiClientRetryTest {
         }
     }
 
+    /**
+     * Client for unit tests: no caches, test key and host, stubbed HTTP.
+     */
+    static RiotApiClient newClient(HttpClient httpClient, int maxConcurrent, RiotApiProperties properties,
+            MeterRegistry registry, HashedWheelTimer timer) {
+        return new RiotApiClient("test-key", "euw1", "https://example.com", "JUnit/RiotApiClientTest",
+                new ObjectMapper(), registry, httpClient, maxConcurrent, new NoOpCacheManager(), properties, timer,
+                new CacheBudgetProperties());
+    }
+
+    /**
+     * Reply of a stubbed call. The delivery gets the finished response (body read through
+     * the real handler) and returns what sendAsync hands out: completed, completed later or never.
+     */
+    record Reply(int status, String body, Function<HttpResponse<?>, CompletableFuture<HttpResponse<?>>> delivery) {
+
+        static Reply of(int status, String body) {
+            return new Reply(status, body, CompletableFuture::completedFuture);
+        }
+    }
+
     static class StubHttpClient extends HttpClient {
         private final AtomicInteger calls = new AtomicInteger(0);
 
+        /**
+         * Stub that answers every call with the reply the test computes for the request.
+         */
+        static StubHttpClient answering(Function<HttpRequest, Reply> replies) {
+            return new StubHttpClient() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request,
+                        HttpResponse.BodyHandler<T> responseBodyHandler) {
+                    Reply reply = replies.apply(request);
+                    HttpHeaders headers = HttpHeaders.of(Map.of(), (k, v) -> true);
+                    HttpResponse<T> response = new SimpleHttpResponse<>(request, reply.status(), headers,
+                            readBody(responseBodyHandler, reply.status(), headers, reply.body()), request.uri(),
+                            HttpClient.Version.HTTP_2);
+                    return (CompletableFuture<HttpResponse<T>>) (CompletableFuture<?>) reply.delivery().apply(response);
+                }
+            };
+        }
+
         @Override
         public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> responseBodyHandler) {
             int c = calls.incrementAndGet();
             if (c == 1) {
                 // Return 429 with Retry-After header
+                HttpHeaders headers = HttpHeaders.of(Map.of("Retry-After", List.of("1")), (k, v) -> true);
                 return CompletableFuture.completedFuture(new SimpleHttpResponse<>(
                         request,
                         429,
-                        HttpHeaders.of(Map.of("Retry-After", List.of("1")), (k, v) -> true),
-                        castBody(responseBodyHandler, "{\"error\":\"Too Many Requests\"}"),
+                        headers,
+                        readBody(responseBodyHandler, 429, headers, "{\"error\":\"Too Many Requests\"}"),
                         request.uri(),
                         HttpClient.Version.HTTP_2
                 ));
             }
-            // Success with simple match id list JSON
+            // Success with simple match id list JSON, delivered in two chunks
+            HttpHeaders headers = HttpHeaders.of(Map.of(), (k, v) -> true);
             return CompletableFuture.completedFuture(new SimpleHttpResponse<>(
                     request,
                     200,
-                    HttpHeaders.of(Map.of(), (k, v) -> true),
-                    castBody(responseBodyHandler, "[\"match1\",\"match2\"]"),
+                    headers,
+                    readBody(responseBodyHandler, 200, headers, "[\"match1\",", "\"match2\"]"),
                     request.uri(),
                     HttpClient.Version.HTTP_2
             ));
         }
 
-        @SuppressWarnings("unchecked")
-        private <T> T castBody(HttpResponse.BodyHandler<T> handler, String value) {
-            // We return the raw String body as many handlers will just accept a String for tests
-            return (T) value;
+        <T> T readBody(HttpResponse.BodyHandler<T> handler, int status, HttpHeaders headers, String... chunks) {
+            // Drive the real body handler the way the JDK client does: subscribe, push chunks, complete
+            HttpResponse.BodySubscriber<T> subscriber = handler.apply(new HttpResponse.ResponseInfo() {
+                @Override public int statusCode() { return status; }
+                @Override public HttpHeaders headers() { return headers; }
+                @Override public HttpClient.Version version() { return HttpClient.Version.HTTP_2; }
+            });
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override public void request(long n) { }
+                @Override public void cancel() { }
+            });
+            for (String chunk : chunks) {
+                subscriber.onNext(List.of(ByteBuffer.wrap(chunk.getBytes(StandardCharsets.UTF_8))));
+            }
+            subscriber.onComplete();
+            return subscriber.getBody().toCompletableFuture().join();
         }
 
         @Override
@@ -0,0 +1,99 @@
+package com.zerox80.riotapi.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RiotCircuitBreakerTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private RiotCircuitBreaker breaker() {
+        return new RiotCircuitBreaker("MatchDetails", true, 0.5, 4, 4, 30_000, 2, registry, now::get);
+    }
+
+    @Test
+    void opensOnceFailureRateReachesThresholdOverMinimumCalls() {
+        RiotCircuitBreaker breaker = breaker();
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(breaker.tryAcquire()).isTrue();
+            breaker.onFailure();
+        }
+        // Three failures, but fewer calls than the minimum
+        assertThat(breaker.getState()).isEqualTo(RiotCircuitBreaker.State.CLOSED);
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.onSuccess();
+
+        // 3 of 4 failed
+        assertThat(breaker.getState()).isEqualTo(RiotCircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+        assertThat(registry.counter("riotapi.client.circuit.rejected", "endpoint", "MatchDetails").count())
+                .isEqualTo(1);
+        assertThat(registry.get("riotapi.client.circuit.state").tag("endpoint", "MatchDetails").gauge().value())
+                .isEqualTo(RiotCircuitBreaker.State.OPEN.ordinal());
+    }
+
+    @Test
+    void slidingWindowForgetsOldFailures() {
+        RiotCircuitBreaker breaker = breaker();
+        breaker.onFailure();
+        for (int i = 0; i < 5; i++) {
+            breaker.onSuccess();
+        }
+        breaker.onFailure();
+
+        // Window of 4 holds success, success, success, failure
+        assertThat(breaker.getState()).isEqualTo(RiotCircuitBreaker.State.CLOSED);
+        assertThat(breaker.snapshot().failures()).isEqualTo(1);
+        assertThat(breaker.snapshot().failureRate()).isEqualTo(0.25);
+    }
+
+    @Test
+    void halfOpenTrialsCloseOrReopenTheBreaker() {
+        RiotCircuitBreaker breaker = breaker();
+        for (int i = 0; i < 4; i++) {
+            breaker.onFailure();
+        }
+        assertThat(breaker.snapshot().remainingOpenMillis()).isEqualTo(30_000);
+
+        now.addAndGet(30_000);
+        // Two trial calls, the third caller still fails fast
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isFalse();
+        assertThat(breaker.getState()).isEqualTo(RiotCircuitBreaker.State.HALF_OPEN);
+
+        // A trial that never reached Riot hands its slot on
+        breaker.onIgnored();
+        assertThat(breaker.tryAcquire()).isTrue();
+
+        breaker.onSuccess();
+        breaker.onFailure();
+        assertThat(breaker.getState()).isEqualTo(RiotCircuitBreaker.State.OPEN);
+
+        now.addAndGet(30_000);
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.onSuccess();
+        breaker.onSuccess();
+        assertThat(breaker.getState()).isEqualTo(RiotCircuitBreaker.State.CLOSED);
+        assertThat(breaker.snapshot().calls()).isZero();
+    }
+
+    @Test
+    void disabledBreakerNeverOpens() {
+        RiotCircuitBreaker breaker = new RiotCircuitBreaker("Account", false, 0.5, 4, 1, 30_000, 1, registry,
+                now::get);
+        for (int i = 0; i < 10; i++) {
+            breaker.onFailure();
+        }
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.getState()).isEqualTo(RiotCircuitBreaker.State.CLOSED);
+    }
+}
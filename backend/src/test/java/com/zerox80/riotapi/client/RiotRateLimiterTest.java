@@ -0,0 +1,142 @@
+package com.zerox80.riotapi.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpHeaders;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RiotRateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final HashedWheelTimer timer = new HashedWheelTimer("test-timer", Duration.ofMillis(10), 64);
+
+    @AfterEach
+    void stopTimer() {
+        timer.stop();
+    }
+
+    @Test
+    void holdsBackRequestsOnceDefaultAppWindowIsFull() throws Exception {
+        RiotRateLimiter limiter = new RiotRateLimiter(true, "2:1", 1.0, 1.0, registry, timer, now::get);
+
+        assertThat(limiter.acquire("europe", "MatchDetails", RequestPriority.INTERACTIVE)).isDone();
+        assertThat(limiter.acquire("europe", "MatchIds", RequestPriority.INTERACTIVE)).isDone();
+        CompletableFuture<Void> third = limiter.acquire("europe", "MatchDetails", RequestPriority.INTERACTIVE);
+        assertThat(third).isNotDone();
+        // Other routing hosts have their own bucket
+        assertThat(limiter.acquire("americas", "MatchDetails", RequestPriority.INTERACTIVE)).isDone();
+
+        now.addAndGet(1_000);
+        third.get(3, TimeUnit.SECONDS);
+        assertThat(registry.counter("riotapi.client.ratelimit.throttled", "route", "europe", "scope", "app",
+                "priority", "interactive").count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void quotaWaitBeyondTheMaxWaitFailsRightAway() {
+        RiotRateLimiter limiter = new RiotRateLimiter(true, "1:10", 1.0, 1.0, registry, timer, now::get);
+        assertThat(limiter.acquire("europe", "MatchDetails", RequestPriority.INTERACTIVE)).isDone();
+
+        CompletableFuture<Void> rejected = limiter.acquire("europe", "MatchDetails", RequestPriority.INTERACTIVE,
+                Duration.ofSeconds(1));
+        CompletableFuture<Void> waiting = limiter.acquire("europe", "MatchDetails", RequestPriority.INTERACTIVE,
+                Duration.ofSeconds(30));
+
+        assertThat(rejected).isCompletedExceptionally();
+        assertThat(rejected.handle((v, t) -> t).join()).isInstanceOf(RiotApiRequestException.class)
+                .hasMessageContaining("503");
+        assertThat(waiting).isNotDone();
+        assertThat(registry.counter("riotapi.client.ratelimit.rejected", "route", "europe",
+                "priority", "interactive").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void learnsMethodLimitsAndCountsFromHeaders() {
+        RiotRateLimiter limiter = new RiotRateLimiter(true, "100:1", 1.0, 1.0, registry, timer, now::get);
+        limiter.onResponse("euw1", "Summoner", headers(Map.of(
+                "X-App-Rate-Limit", "100:1,1000:120",
+                "X-App-Rate-Limit-Count", "1:1,1:120",
+                "X-Method-Rate-Limit", "2:10",
+                "X-Method-Rate-Limit-Count", "2:10")), 200, Optional.empty());
+
+        assertThat(limiter.acquire("euw1", "Summoner", RequestPriority.INTERACTIVE)).isNotDone();
+        assertThat(limiter.acquire("euw1", "LeagueEntries", RequestPriority.INTERACTIVE)).isDone();
+    }
+
+    @Test
+    void applicationLimit429PausesWholeBucket() {
+        RiotRateLimiter limiter = new RiotRateLimiter(true, "100:1", 1.0, 1.0, registry, timer, now::get);
+        boolean paused = limiter.onResponse("europe", "MatchDetails",
+                headers(Map.of("X-Rate-Limit-Type", "application")), 429, Optional.of(5L));
+
+        assertThat(paused).isTrue();
+        assertThat(limiter.acquire("europe", "MatchDetails", RequestPriority.INTERACTIVE)).isNotDone();
+        assertThat(limiter.acquire("europe", "Account", RequestPriority.INTERACTIVE)).isNotDone();
+        assertThat(limiter.acquire("euw1", "Summoner", RequestPriority.INTERACTIVE)).isDone();
+    }
+
+    @Test
+    void methodLimit429OnlyPausesThatMethod() {
+        RiotRateLimiter limiter = new RiotRateLimiter(true, "100:1", 1.0, 1.0, registry, timer, now::get);
+        limiter.onResponse("europe", "MatchDetails", headers(Map.of("X-Rate-Limit-Type", "method")), 429,
+                Optional.of(5L));
+
+        assertThat(limiter.acquire("europe", "MatchDetails", RequestPriority.INTERACTIVE)).isNotDone();
+        assertThat(limiter.acquire("europe", "MatchIds", RequestPriority.INTERACTIVE)).isDone();
+    }
+
+    @Test
+    void service429DoesNotPause() {
+        RiotRateLimiter limiter = new RiotRateLimiter(true, "100:1", 1.0, 1.0, registry, timer, now::get);
+        boolean paused = limiter.onResponse("europe", "MatchDetails",
+                headers(Map.of("X-Rate-Limit-Type", "service")), 429, Optional.of(5L));
+
+        assertThat(paused).isFalse();
+        assertThat(limiter.acquire("europe", "MatchDetails", RequestPriority.INTERACTIVE)).isDone();
+    }
+
+    @Test
+    void disabledLimiterNeverWaits() {
+        RiotRateLimiter limiter = new RiotRateLimiter(false, "1:1", 1.0, 1.0, registry, timer, now::get);
+
+        assertThat(limiter.acquire("europe", "MatchDetails", RequestPriority.INTERACTIVE)).isDone();
+        assertThat(limiter.acquire("europe", "MatchDetails", RequestPriority.INTERACTIVE)).isDone();
+    }
+
+    @Test
+    void backgroundRequestsLeaveHeadroomForInteractiveOnes() {
+        RiotRateLimiter limiter = new RiotRateLimiter(true, "4:1", 0.8, 0.5, registry, timer, now::get);
+
+        assertThat(limiter.acquire("europe", "MatchDetails", RequestPriority.BACKGROUND)).isDone();
+        assertThat(limiter.acquire("europe", "MatchDetails", RequestPriority.BACKGROUND)).isDone();
+        assertThat(limiter.acquire("europe", "MatchDetails", RequestPriority.BACKGROUND)).isNotDone();
+
+        assertThat(limiter.acquire("europe", "Account", RequestPriority.INTERACTIVE)).isDone();
+        assertThat(limiter.acquire("europe", "Account", RequestPriority.INTERACTIVE)).isDone();
+    }
+
+    @Test
+    void parseLimitsSkipsMalformedPairs() {
+        assertThat(RiotRateLimiter.parseLimits("20:1, x:5,100:120,:3"))
+                .containsExactly(new RiotRateLimiter.LimitSpec(20, 1_000), new RiotRateLimiter.LimitSpec(100, 120_000));
+    }
+
+    private static HttpHeaders headers(Map<String, String> values) {
+        Map<String, List<String>> map = new HashMap<>();
+        values.forEach((k, v) -> map.put(k, List.of(v)));
+        return HttpHeaders.of(map, (a, b) -> true);
+    }
+}
@@ -0,0 +1,66 @@
+package com.zerox80.riotapi.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Flow;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RiotResponseBodyTest {
+
+    @Test
+    void successBodyIsStreamedOverAllChunks() throws Exception {
+        RiotResponseBody body = receive(200, "{\"a\":", "\"bc\"", "}");
+
+        assertThat(body.size()).isEqualTo(10);
+        try (InputStream in = body.inputStream()) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("{\"a\":\"bc\"}");
+        }
+        // The stream can be opened again (e.g. for a retry of the parse)
+        try (InputStream in = body.inputStream()) {
+            assertThat(in.readAllBytes()).hasSize(10);
+        }
+    }
+
+    @Test
+    void errorBodyKeepsOnlyBoundedSnippet() {
+        String big = "x".repeat(400);
+        RiotResponseBody body = receive(500, big, big, big);
+
+        assertThat(body.size()).isEqualTo(500);
+        assertThat(body.snippet()).hasSize(501).endsWith("…");
+    }
+
+    @Test
+    void shortErrorBodyIsNotMarkedTruncated() {
+        RiotResponseBody body = receive(403, "{\"status\":{\"message\":\"Forbidden\"}}");
+
+        assertThat(body.snippet()).isEqualTo("{\"status\":{\"message\":\"Forbidden\"}}");
+    }
+
+    private static RiotResponseBody receive(int status, String... chunks) {
+        HttpResponse.BodySubscriber<RiotResponseBody> subscriber = RiotResponseBody.handler(500)
+                .apply(new HttpResponse.ResponseInfo() {
+                    @Override public int statusCode() { return status; }
+                    @Override public HttpHeaders headers() { return HttpHeaders.of(Map.of(), (k, v) -> true); }
+                    @Override public HttpClient.Version version() { return HttpClient.Version.HTTP_2; }
+                });
+        subscriber.onSubscribe(new Flow.Subscription() {
+            @Override public void request(long n) { }
+            @Override public void cancel() { }
+        });
+        for (String chunk : chunks) {
+            subscriber.onNext(List.of(ByteBuffer.wrap(chunk.getBytes(StandardCharsets.UTF_8))));
+        }
+        subscriber.onComplete();
+        return subscriber.getBody().toCompletableFuture().join();
+    }
+}
@@ -0,0 +1,120 @@
+package com.zerox80.riotapi.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SingleFlightTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void concurrentCallersShareOneLoad() {
+        SingleFlight<String, String> flight = new SingleFlight<>("test", 10, Duration.ofSeconds(10), registry);
+        CompletableFuture<String> load = new CompletableFuture<>();
+        AtomicInteger loads = new AtomicInteger();
+
+        CompletableFuture<String> first = flight.execute("k", () -> {
+            loads.incrementAndGet();
+            return load;
+        });
+        CompletableFuture<String> second = flight.execute("k", () -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture("other");
+        });
+        load.complete("value");
+
+        assertThat(first.join()).isEqualTo("value");
+        assertThat(second.join()).isEqualTo("value");
+        assertThat(loads).hasValue(1);
+        assertThat(flight.inFlight()).isZero();
+        assertThat(count("coalesced")).isEqualTo(1);
+    }
+
+    @Test
+    void loadIsCancelledOnlyWhenEveryCallerCancelled() {
+        SingleFlight<String, String> flight = new SingleFlight<>("test", 10, Duration.ofSeconds(10), registry);
+        CompletableFuture<RequestDeadline> seen = new CompletableFuture<>();
+        CompletableFuture<String> first = flight.execute("k", () -> {
+            seen.complete(RequestDeadline.current());
+            return new CompletableFuture<>();
+        });
+        CompletableFuture<String> second = flight.execute("k", CompletableFuture::new);
+        RequestDeadline group = seen.join();
+
+        first.cancel(true);
+        assertThat(group.isDone()).isFalse();
+        assertThat(flight.inFlight()).isEqualTo(1);
+
+        second.cancel(true);
+        assertThat(group.isCancelled()).isTrue();
+        assertThat(flight.inFlight()).isZero();
+        assertThat(count("cancelled")).isEqualTo(1);
+    }
+
+    @Test
+    void interactiveCallerDoesNotWaitOnPrefetchLoad() {
+        SingleFlight<String, String> flight = new SingleFlight<>("test", 10, Duration.ofSeconds(10), registry);
+        CompletableFuture<RequestDeadline> prefetchGroup = new CompletableFuture<>();
+        CompletableFuture<RequestPriority> interactiveLoad = new CompletableFuture<>();
+        CompletableFuture<String> prefetch = RequestPriority.PREFETCH.call(() -> flight.execute("k", () -> {
+            prefetchGroup.complete(RequestDeadline.current());
+            return new CompletableFuture<>();
+        }));
+
+        CompletableFuture<String> interactive = flight.execute("k", () -> {
+            interactiveLoad.complete(RequestPriority.current());
+            return CompletableFuture.completedFuture("value");
+        });
+
+        assertThat(interactiveLoad.join()).isEqualTo(RequestPriority.INTERACTIVE);
+        assertThat(interactive.join()).isEqualTo("value");
+        // The prefetch caller gets the interactive result and its own load is stopped
+        assertThat(prefetch.join()).isEqualTo("value");
+        assertThat(prefetchGroup.join().isCancelled()).isTrue();
+        assertThat(flight.inFlight()).isZero();
+        assertThat(count("upgraded")).isEqualTo(1);
+    }
+
+    @Test
+    void stuckLoadTimesOutAndFreesItsKey() {
+        SingleFlight<String, String> flight = new SingleFlight<>("test", 10, Duration.ofMillis(50), registry);
+
+        CompletableFuture<String> stuck = flight.execute("k", CompletableFuture::new);
+
+        assertThat(stuck.handle((v, t) -> t).join()).hasCauseInstanceOf(TimeoutException.class);
+        assertThat(flight.inFlight()).isZero();
+        assertThat(flight.execute("k", () -> CompletableFuture.completedFuture("fresh")).join()).isEqualTo("fresh");
+        assertThat(count("timeout")).isEqualTo(1);
+    }
+
+    @Test
+    void keysBeyondTheBoundLoadUnshared() {
+        SingleFlight<String, String> flight = new SingleFlight<>("test", 1, Duration.ofSeconds(10), registry);
+        flight.execute("a", CompletableFuture::new);
+        AtomicInteger loads = new AtomicInteger();
+
+        flight.execute("b", () -> {
+            loads.incrementAndGet();
+            return new CompletableFuture<>();
+        });
+        flight.execute("b", () -> {
+            loads.incrementAndGet();
+            return new CompletableFuture<>();
+        });
+
+        assertThat(loads).hasValue(2);
+        assertThat(flight.inFlight()).isEqualTo(1);
+        assertThat(count("bypassed")).isEqualTo(2);
+    }
+
+    private double count(String outcome) {
+        return registry.counter("riotapi.client.coalescing.calls", "map", "test", "outcome", outcome).count();
+    }
+}
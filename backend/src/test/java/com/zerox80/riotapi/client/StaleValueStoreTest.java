@@ -0,0 +1,35 @@
+package com.zerox80.riotapi.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StaleValueStoreTest {
+
+    @Test
+    void lastGoodValuesAreMarkedStale() {
+        StaleValueStore store = new StaleValueStore(Duration.ofHours(1), 10);
+        store.remember("summoners", "euw1:P1", "value");
+
+        String stale = store.lookup("summoners", "euw1:P1");
+
+        assertThat(stale).isEqualTo("value");
+        assertThat(store.isStale(stale)).isTrue();
+        assertThat(store.<String>lookup("accounts", "euw1:P1")).isNull();
+        assertThat(store.estimatedBytes()).isNaN();
+    }
+
+    @Test
+    void budgetModeBoundsAllValuesByEstimatedBytes() {
+        StaleValueStore store = new StaleValueStore(Duration.ofHours(1), 10_000, 8 * 1024);
+
+        IntStream.range(0, 500).forEach(i -> store.remember("summoners", "euw1:P" + i, "x".repeat(200) + i));
+
+        long kept = IntStream.range(0, 500).filter(i -> store.lookup("summoners", "euw1:P" + i) != null).count();
+        assertThat(store.estimatedBytes()).isPositive().isLessThanOrEqualTo(8 * 1024);
+        assertThat(kept).isBetween(1L, 499L);
+    }
+}
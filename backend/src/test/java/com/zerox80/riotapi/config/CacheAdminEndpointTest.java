@@ -0,0 +1,101 @@
+package com.zerox80.riotapi.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zerox80.riotapi.client.RiotRegion;
+import com.zerox80.riotapi.service.DataDragonService;
+import com.zerox80.riotapi.service.RiotApiService;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class CacheAdminEndpointTest {
+
+    private final RiotApiService riotApiService = mock(RiotApiService.class);
+    private final DataDragonService dataDragonService = mock(DataDragonService.class);
+
+    @Test
+    void summarizesCachesAndEvictsByPrefix() {
+        CaffeineCacheManager cacheManager = cacheManager();
+        CacheAdminEndpoint endpoint = endpoint(cacheManager);
+        cacheManager.getCache("summoners").put("euw1:A", "a");
+        cacheManager.getCache("summoners").put("euw1:B", "b");
+        cacheManager.getCache("summoners").put("na1:C", "c");
+        cacheManager.getCache("summoners").get("euw1:A");
+        cacheManager.getCache("summoners").get("euw1:X");
+
+        CacheAdminEndpoint.CacheSummary summary = endpoint.caches().get("summoners");
+        assertThat(summary.size()).isEqualTo(3);
+        assertThat(summary.estimatedBytes()).isPositive();
+        assertThat(summary.hits()).isEqualTo(1);
+        assertThat(summary.misses()).isEqualTo(1);
+        assertThat(endpoint.cache("summoners", 10).hotKeys()).containsExactlyInAnyOrder("euw1:***", "euw1:***",
+                "na1:***");
+        assertThat(CacheAdminEndpoint.maskKey("europe:0123456789abcdef")).isEqualTo("europe:012345...cdef");
+
+        assertThat(endpoint.evict("summoners", null, "euw1:").evicted()).isEqualTo(2);
+        assertThat(endpoint.evict("summoners", "na1:C", null).evicted()).isEqualTo(1);
+        assertThat(endpoint.caches().get("summoners").size()).isZero();
+        assertThat(endpoint.cache("unknown", null)).isNull();
+    }
+
+    @Test
+    void prefixEvictionReachesTheDatabaseLevel() {
+        List<Object> deleted = new ArrayList<>();
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager() {
+            @Override
+            protected Cache adaptCaffeineCache(String name, AsyncCache<Object, Object> cache) {
+                return new TieredCache(super.adaptCaffeineCache(name, cache), key -> null, (key, value) -> { },
+                        deleted::add, () -> deleted.add("*"), Runnable::run);
+            }
+        };
+        cacheManager.setAsyncCacheMode(true);
+        cacheManager.registerCustomCache("summoners", Caffeine.newBuilder().buildAsync());
+        CacheAdminEndpoint endpoint = endpoint(cacheManager);
+        cacheManager.getCache("summoners").put("euw1:A", "a");
+        cacheManager.getCache("summoners").put("na1:C", "c");
+
+        assertThat(endpoint.evict("summoners", null, "euw1:").evicted()).isEqualTo(1);
+        assertThat(deleted).containsExactly("euw1:A");
+        assertThat(cacheManager.getCache("summoners").get("na1:C")).isNotNull();
+    }
+
+    @Test
+    void warmUpLoadsValidRiotIdsAndChampions() throws Exception {
+        CacheAdminEndpoint endpoint = endpoint(cacheManager());
+
+        CacheAdminEndpoint.WarmUp warmUp = endpoint.warmUp("Name#EUW, Other#1234,broken", "Anivia,Ahri", "na1");
+
+        assertThat(warmUp.players()).isEqualTo(2);
+        assertThat(warmUp.champions()).isEqualTo(2);
+        assertThat(warmUp.rejected()).containsExactly("broken");
+        verify(riotApiService).getSummonerProfileDataAsync(RiotRegion.NA1, "Name", "EUW", true);
+        verify(riotApiService, times(2)).getSummonerProfileDataAsync(any(), anyString(), anyString(), anyBoolean());
+        verify(dataDragonService).getChampionDetail("Anivia", (Locale) null);
+        verify(dataDragonService).getChampionDetail("Ahri", (Locale) null);
+    }
+
+    private CacheAdminEndpoint endpoint(CaffeineCacheManager cacheManager) {
+        return new CacheAdminEndpoint(cacheManager, riotApiService, dataDragonService, Runnable::run, "euw1");
+    }
+
+    private static CaffeineCacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setAsyncCacheMode(true);
+        cacheManager.registerCustomCache("summoners", Caffeine.newBuilder()
+                .maximumSize(100).recordStats().buildAsync());
+        return cacheManager;
+    }
+}
@@ -0,0 +1,170 @@
+package com.zerox80.riotapi.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zerox80.riotapi.model.AccountDto;
+import com.zerox80.riotapi.model.ChampionDetail;
+import com.zerox80.riotapi.model.CompactMatch;
+import com.zerox80.riotapi.model.InfoDto;
+import com.zerox80.riotapi.model.MatchV5Dto;
+import com.zerox80.riotapi.model.MetadataDto;
+import com.zerox80.riotapi.model.PassiveSummary;
+import com.zerox80.riotapi.model.SpellSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.support.SimpleCacheManager;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CacheSnapshotterTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void snapshotIsRestoredIntoEmptyCaches() throws Exception {
+        CacheSnapshotProperties properties = properties();
+        CaffeineCacheManager before = cacheManager();
+        AccountDto account = new AccountDto();
+        account.setPuuid("P1");
+        account.setGameName("Name");
+        account.setTagLine("EUW");
+        before.getCache("accounts").put("europe:name#euw", account);
+        SpellSummary spell = new SpellSummary("AniviaQ", "Flash Frost", "Tooltip", "AniviaQ.png");
+        spell.setCooldown("12/11/10");
+        before.getCache("ddragonChampionDetail").put("anivia|15.1.1|de_DE", new ChampionDetail("Anivia", "15.1.1",
+                "Anivia", "the Cryophoenix", "Lore", List.of("Mage"), "Anivia.png",
+                new PassiveSummary("Rebirth", "Egg", "Anivia_P.png"), List.of(spell)));
+        before.getCache("ddragonRunes").put("15.1.1|de_DE", Map.of(8100, "Domination"));
+        before.getCache("ddragonVersions").put(SimpleKey.EMPTY, List.of("15.1.1", "14.24.1"));
+        before.getCache("matchDetails").put("europe:EUW1_1", match("EUW1_1"));
+
+        assertThat(snapshotter(before, properties).write()).isEqualTo(5);
+
+        CaffeineCacheManager after = cacheManager();
+        assertThat(snapshotter(after, properties).restore()).isEqualTo(5);
+
+        assertThat(after.getCache("accounts").get("europe:name#euw", AccountDto.class)).isEqualTo(account);
+        ChampionDetail detail = after.getCache("ddragonChampionDetail").get("anivia|15.1.1|de_DE",
+                ChampionDetail.class);
+        assertThat(detail.getPassive().getName()).isEqualTo("Rebirth");
+        assertThat(detail.getSpells().get(0).getCooldown()).isEqualTo("12/11/10");
+        assertThat(after.getCache("ddragonRunes").get("15.1.1|de_DE", Map.class)).isEqualTo(Map.of(8100, "Domination"));
+        assertThat(after.getCache("ddragonVersions").get(SimpleKey.EMPTY).get()).isEqualTo(List.of("15.1.1", "14.24.1"));
+        CompactMatch match = after.getCache("matchDetails").get("europe:EUW1_1", CompactMatch.class);
+        assertThat(match.toDto().getInfo().getQueueId()).isEqualTo(420);
+        // Restored entries keep their remaining lifetime
+        assertThat(remaining(after).minus(remaining(before)).abs()).isLessThan(Duration.ofSeconds(1));
+    }
+
+    @Test
+    void offHeapMatchStoreIsLeftOut() throws Exception {
+        CacheSnapshotProperties properties = properties();
+        CacheManager before = withMatchStore(new SimpleMeterRegistry());
+        before.getCache("matchDetails").put("europe:EUW1_1", match("EUW1_1"));
+        AccountDto account = new AccountDto();
+        account.setPuuid("P1");
+        before.getCache("accounts").put("europe:name#euw", account);
+
+        assertThat(snapshotter(before, properties).write()).isEqualTo(1);
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        CacheManager after = withMatchStore(registry);
+        assertThat(snapshotter(after, properties).restore()).isEqualTo(1);
+
+        assertThat(after.getCache("accounts").get("europe:name#euw", AccountDto.class)).isEqualTo(account);
+        assertThat(after.getCache("matchDetails").get("europe:EUW1_1")).isNull();
+        assertThat(registry.get("riotapi.cache.match-store.bytes").tag("form", "compressed").gauge().value())
+                .isZero();
+    }
+
+    @Test
+    void snapshotOfAnotherVersionIsIgnored() throws Exception {
+        CacheSnapshotProperties properties = properties();
+        CaffeineCacheManager before = cacheManager();
+        before.getCache("ddragonRunes").put("15.1.1|de_DE", Map.of(8100, "Domination"));
+        snapshotter(before, properties).write();
+
+        properties.setVersion("2");
+        CaffeineCacheManager after = cacheManager();
+
+        assertThat(snapshotter(after, properties).restore()).isZero();
+        assertThat(after.getCache("ddragonRunes").get("15.1.1|de_DE")).isNull();
+    }
+
+    @Test
+    void fingerprintChangesWithTheFieldsOfTheType() {
+        assertThat(CacheSnapshotter.fingerprint(CacheSnapshotter.signature(Map.of(1, "a"))))
+                .isEqualTo(CacheSnapshotter.fingerprint("java.util.LinkedHashMap<java.lang.Integer,java.lang.String>"));
+        assertThat(CacheSnapshotter.fingerprint("com.zerox80.riotapi.model.AccountDto"))
+                .isNotEqualTo(CacheSnapshotter.fingerprint("com.zerox80.riotapi.model.SpellSummary"));
+        assertThat(CacheSnapshotter.fingerprint("com.zerox80.riotapi.model.NoSuchType")).isEqualTo(-1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Duration remaining(CaffeineCacheManager cacheManager) {
+        return ((com.github.benmanes.caffeine.cache.Cache<Object, Object>) cacheManager.getCache("accounts")
+                .getNativeCache()).policy().expireVariably().orElseThrow()
+                .getExpiresAfter("europe:name#euw").orElseThrow();
+    }
+
+    private CacheSnapshotProperties properties() {
+        CacheSnapshotProperties properties = new CacheSnapshotProperties();
+        properties.setEnabled(true);
+        properties.setPath(dir.resolve("snapshot.bin").toString());
+        return properties;
+    }
+
+    private static CacheSnapshotter snapshotter(CacheManager cacheManager, CacheSnapshotProperties properties) {
+        return new CacheSnapshotter(cacheManager, properties, new ObjectMapper(), Runnable::run,
+                new SimpleMeterRegistry());
+    }
+
+    private static CaffeineCacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setAsyncCacheMode(true);
+        cacheManager.registerCustomCache("accounts", Caffeine.newBuilder()
+                .expireAfter(new JitteredExpiry(Duration.ofHours(12), 0.1)).buildAsync());
+        cacheManager.registerCustomCache("matchDetails", Caffeine.newBuilder()
+                .expireAfter(new JitteredExpiry(Duration.ofDays(7), 0.1)).buildAsync());
+        for (String name : List.of("ddragonChampionDetail", "ddragonRunes", "ddragonVersions")) {
+            cacheManager.registerCustomCache(name, Caffeine.newBuilder()
+                    .expireAfterWrite(12, TimeUnit.HOURS).buildAsync());
+        }
+        return cacheManager;
+    }
+
+    private static CacheManager withMatchStore(SimpleMeterRegistry registry) {
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(List.of(
+                new StaleRejectingCache(new CompressedMatchCache("matchDetails", 1 << 20, Duration.ofDays(7),
+                        new ObjectMapper(), registry), value -> false),
+                new CaffeineCache("accounts", Caffeine.newBuilder()
+                        .expireAfter(new JitteredExpiry(Duration.ofHours(12), 0.1)).buildAsync(), true)));
+        cacheManager.afterPropertiesSet();
+        return cacheManager;
+    }
+
+    private static CompactMatch match(String matchId) {
+        InfoDto info = new InfoDto();
+        info.setQueueId(420);
+        info.setParticipants(List.of());
+        MetadataDto metadata = new MetadataDto();
+        metadata.setMatchId(matchId);
+        MatchV5Dto dto = new MatchV5Dto();
+        dto.setMetadata(metadata);
+        dto.setInfo(info);
+        return CompactMatch.from(dto);
+    }
+}
@@ -0,0 +1,64 @@
+package com.zerox80.riotapi.config;
+
+import com.zerox80.riotapi.model.AccountDto;
+import com.zerox80.riotapi.model.CompactMatch;
+import com.zerox80.riotapi.model.InfoDto;
+import com.zerox80.riotapi.model.MatchV5Dto;
+import com.zerox80.riotapi.model.ParticipantDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CacheWeigherTest {
+
+    @Test
+    void matchListsWeighFarMoreThanAccounts() {
+        AccountDto account = new AccountDto();
+        account.setPuuid("p".repeat(78));
+        account.setGameName("Player");
+        account.setTagLine("EUW");
+        List<CompactMatch> history = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            history.add(match(i));
+        }
+
+        int accountBytes = CacheWeigher.INSTANCE.weigh("europe:player#euw", account);
+        int historyBytes = CacheWeigher.INSTANCE.weigh("europe:p-20", history);
+
+        assertThat(accountBytes).isBetween(100, 1_000);
+        assertThat(historyBytes).isGreaterThan(20 * 10 * 100);
+        assertThat(historyBytes).isGreaterThan(100 * accountBytes);
+    }
+
+    @Test
+    void budgetIsSplitByWeights() {
+        CacheBudgetProperties budget = new CacheBudgetProperties();
+        budget.setTotal(DataSize.ofMegabytes(100));
+        budget.setWeights(Map.of("matchDetails", 3, "accounts", 1));
+
+        assertThat(budget.budgetFor("matchDetails")).isEqualTo(DataSize.ofMegabytes(75).toBytes());
+        assertThat(budget.budgetFor("accounts")).isEqualTo(DataSize.ofMegabytes(25).toBytes());
+        // Unknown caches get weight 1
+        assertThat(budget.budgetFor("other")).isEqualTo(DataSize.ofMegabytes(25).toBytes());
+    }
+
+    private static CompactMatch match(int seed) {
+        List<ParticipantDto> participants = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            ParticipantDto participant = new ParticipantDto();
+            participant.setPuuid("puuid-" + seed + "-" + i + "-" + "x".repeat(60));
+            participant.setChampionName("Champion" + i);
+            participants.add(participant);
+        }
+        InfoDto info = new InfoDto();
+        info.setParticipants(participants);
+        MatchV5Dto dto = new MatchV5Dto();
+        dto.setInfo(info);
+        return CompactMatch.from(dto);
+    }
+}
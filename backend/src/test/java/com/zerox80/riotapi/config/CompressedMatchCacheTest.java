@@ -0,0 +1,100 @@
+package com.zerox80.riotapi.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zerox80.riotapi.model.CompactMatch;
+import com.zerox80.riotapi.model.InfoDto;
+import com.zerox80.riotapi.model.MatchV5Dto;
+import com.zerox80.riotapi.model.MetadataDto;
+import com.zerox80.riotapi.model.ParticipantDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache.ValueWrapper;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompressedMatchCacheTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void storedMatchesAreDecodedIntoEqualCopies() {
+        CompressedMatchCache cache = new CompressedMatchCache("matchDetails", 1 << 20, Duration.ofDays(7), mapper,
+                registry);
+        CompactMatch match = match("EUW1_1");
+
+        cache.put("europe:EUW1_1", match);
+        Object restored = ((ValueWrapper) cache.retrieve("europe:EUW1_1").join()).get();
+
+        assertThat(restored).isInstanceOf(CompactMatch.class).isNotSameAs(match);
+        JsonNode expected = mapper.valueToTree(match.toDto());
+        JsonNode actual = mapper.valueToTree(((CompactMatch) restored).toDto());
+        assertThat(actual).isEqualTo(expected);
+        assertThat(cache.retrieve("europe:EUW1_2")).isNull();
+        assertThat(registry.get("riotapi.cache.match-store.requests").tag("outcome", "hit").counter().count())
+                .isEqualTo(1);
+        assertThat(registry.get("riotapi.cache.match-store.requests").tag("outcome", "miss").counter().count())
+                .isEqualTo(1);
+        double compressed = registry.get("riotapi.cache.match-store.bytes").tag("form", "compressed").gauge().value();
+        double raw = registry.get("riotapi.cache.match-store.bytes").tag("form", "raw").gauge().value();
+        assertThat(compressed).isPositive().isLessThan(raw / 3);
+    }
+
+    @Test
+    void totalCompressedBytesStayWithinTheLimit() {
+        CompressedMatchCache cache = new CompressedMatchCache("matchDetails", 4096, Duration.ofDays(7), mapper,
+                registry);
+
+        for (int i = 0; i < 50; i++) {
+            cache.put("europe:EUW1_" + i, match("EUW1_" + i));
+        }
+        ((com.github.benmanes.caffeine.cache.Cache<?, ?>) cache.getNativeCache()).cleanUp();
+
+        double compressed = registry.get("riotapi.cache.match-store.bytes").tag("form", "compressed").gauge().value();
+        assertThat(compressed).isPositive().isLessThanOrEqualTo(4096);
+        assertThat(registry.get("riotapi.cache.match-store.entries").gauge().value()).isBetween(1.0, 49.0);
+    }
+
+    @Test
+    void expiredMatchesAreOnlyServedStaleForTheRetention() {
+        AtomicLong nanos = new AtomicLong();
+        CompressedMatchCache cache = new CompressedMatchCache("matchDetails", 1 << 20, Duration.ofDays(7),
+                Duration.ofHours(24), mapper, registry, nanos::get);
+        cache.put("europe:EUW1_1", match("EUW1_1"));
+
+        nanos.addAndGet(Duration.ofDays(7).plusHours(1).toNanos());
+        assertThat(cache.get("europe:EUW1_1")).isNull();
+        assertThat(cache.getStale("europe:EUW1_1").getMatchId()).isEqualTo("EUW1_1");
+
+        nanos.addAndGet(Duration.ofHours(24).toNanos());
+        assertThat(cache.getStale("europe:EUW1_1")).isNull();
+    }
+
+    private static CompactMatch match(String matchId) {
+        List<ParticipantDto> participants = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            ParticipantDto participant = new ParticipantDto();
+            participant.setPuuid("puuid-" + matchId + "-" + i);
+            participant.setChampionName("Champion" + i);
+            participant.setKills(i);
+            participant.setItem0(3000 + i);
+            participants.add(participant);
+        }
+        InfoDto info = new InfoDto();
+        info.setGameCreation(1_700_000_000_000L);
+        info.setQueueId(420);
+        info.setParticipants(participants);
+        MetadataDto metadata = new MetadataDto();
+        metadata.setMatchId(matchId);
+        MatchV5Dto dto = new MatchV5Dto();
+        dto.setMetadata(metadata);
+        dto.setInfo(info);
+        return CompactMatch.from(dto);
+    }
+}
@@ -0,0 +1,98 @@
+package com.zerox80.riotapi.config;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RefreshAheadCacheTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final AsyncCache<Object, Object> nativeCache = Caffeine.newBuilder()
+            .expireAfter(new JitteredExpiry(Duration.ofMinutes(10), 0.0))
+            .ticker(nanos::get)
+            .executor(Runnable::run)
+            .buildAsync();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RefreshAheadCache cache = new RefreshAheadCache(
+            new CaffeineCache("leagueEntries", nativeCache, true), nativeCache, Duration.ofMinutes(10), 0.8,
+            meterRegistry);
+
+    @Test
+    void hitPastTheThresholdReloadsOnceInTheBackground() {
+        AtomicInteger loads = new AtomicInteger();
+        CompletableFuture<String> pending = new CompletableFuture<>();
+
+        assertThat(cache.retrieve("k", () -> CompletableFuture.completedFuture("v" + loads.incrementAndGet())).join())
+                .isEqualTo("v1");
+
+        // Young entry: served without a reload
+        nanos.addAndGet(Duration.ofMinutes(5).toNanos());
+        assertThat(cache.retrieve("k", () -> {
+            loads.incrementAndGet();
+            return pending;
+        }).join()).isEqualTo("v1");
+        assertThat(loads).hasValue(1);
+
+        // Past 80% of the TTL: the stale value is served and a single reload starts
+        nanos.addAndGet(Duration.ofMinutes(4).toNanos());
+        for (int i = 0; i < 3; i++) {
+            assertThat(cache.retrieve("k", () -> {
+                loads.incrementAndGet();
+                return pending;
+            }).join()).isEqualTo("v1");
+        }
+        assertThat(loads).hasValue(2);
+
+        pending.complete("v2");
+        assertThat(cache.retrieve("k", CompletableFuture::new).join()).isEqualTo("v2");
+        assertThat(nativeCache.synchronous().policy().expireVariably().orElseThrow().getExpiresAfter("k"))
+                .hasValue(Duration.ofMinutes(10));
+        assertThat(meterRegistry.counter("riotapi.cache.refresh", "cache", "leagueEntries", "outcome", "succeeded")
+                .count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void staleReloadKeepsTheCurrentEntry() {
+        String lastGood = new String("v1");
+        RefreshAheadCache staleAware = new RefreshAheadCache(new CaffeineCache("leagueEntries", nativeCache, true),
+                nativeCache, Duration.ofMinutes(10), 0.8, meterRegistry, value -> value == lastGood);
+        staleAware.retrieve("k", () -> CompletableFuture.completedFuture("v1")).join();
+
+        // Riot is down: the loader falls back to the last good value, marked as stale
+        nanos.addAndGet(Duration.ofMinutes(9).toNanos());
+        staleAware.retrieve("k", () -> CompletableFuture.completedFuture(lastGood)).join();
+
+        assertThat(nativeCache.synchronous().getIfPresent("k")).isEqualTo("v1").isNotSameAs(lastGood);
+        assertThat(nativeCache.synchronous().policy().expireVariably().orElseThrow().getExpiresAfter("k"))
+                .hasValue(Duration.ofMinutes(1));
+        assertThat(meterRegistry.counter("riotapi.cache.refresh", "cache", "leagueEntries", "outcome", "stale")
+                .count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void jitterSpreadsTheTimeToLiveWithinBounds() {
+        JitteredExpiry expiry = new JitteredExpiry(Duration.ofMinutes(10), 0.1);
+        long ttl = Duration.ofMinutes(10).toNanos();
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int i = 0; i < 1000; i++) {
+            long drawn = expiry.expireAfterCreate("k", "v", 0);
+            min = Math.min(min, drawn);
+            max = Math.max(max, drawn);
+        }
+
+        assertThat(min).isGreaterThanOrEqualTo((long) (ttl * 0.9));
+        assertThat(max).isLessThanOrEqualTo((long) (ttl * 1.1));
+        assertThat(max - min).isGreaterThan(ttl / 10);
+        assertThat(expiry.expireAfterRead("k", "v", 0, 42)).isEqualTo(42);
+    }
+}
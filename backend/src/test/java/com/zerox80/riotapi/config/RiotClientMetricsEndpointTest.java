@@ -0,0 +1,69 @@
+package com.zerox80.riotapi.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zerox80.riotapi.client.HashedWheelTimer;
+import com.zerox80.riotapi.client.RiotApiClient;
+import com.zerox80.riotapi.client.RiotRegion;
+import com.zerox80.riotapi.fake.FakeRiotServer;
+import com.zerox80.riotapi.model.Summoner;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.support.NoOpCacheManager;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RiotClientMetricsEndpointTest {
+
+    private final HashedWheelTimer timer = new HashedWheelTimer("test-timer", Duration.ofMillis(10), 64);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private FakeRiotServer fake;
+
+    @AfterEach
+    void tearDown() {
+        timer.stop();
+        if (fake != null) {
+            fake.close();
+        }
+    }
+
+    @Test
+    void summarizesPermitsNetworkSizesAndCoalescing() {
+        fake = FakeRiotServer.builder().latency(FakeRiotServer.Latency.fixed(Duration.ofMillis(50))).start();
+        RiotApiProperties properties = new RiotApiProperties();
+        properties.setBaseUrl(fake.baseUrl());
+        RiotApiClient client = new RiotApiClient("test-key", "euw1", "https://example.com", "JUnit/MetricsTest",
+                new ObjectMapper(), registry, HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build(), 5,
+                new NoOpCacheManager(), properties,
+                timer, new CacheBudgetProperties());
+
+        List<CompletableFuture<Summoner>> calls = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            calls.add(client.getSummonerByPuuid(RiotRegion.EUW1, "P1"));
+        }
+        CompletableFuture.allOf(calls.toArray(CompletableFuture[]::new)).join();
+
+        RiotClientMetricsEndpoint.Summary summary = new RiotClientMetricsEndpoint(registry).summary();
+
+        RiotClientMetricsEndpoint.PermitPool pool = summary.permits().get("euw1");
+        assertThat(pool.limit()).isEqualTo(5);
+        assertThat(pool.inFlight()).isZero();
+        assertThat(pool.waitTime().get("interactive").count()).isEqualTo(1);
+        assertThat(pool.waitTime().get("interactive").percentiles()).containsKeys("p50", "p95", "p99");
+        RiotClientMetricsEndpoint.Distribution network = summary.network().get("Summoner").get("response");
+        assertThat(network.count()).isEqualTo(1);
+        assertThat(network.max()).isGreaterThanOrEqualTo(50);
+        assertThat(summary.responseSizes().get("Summoner").mean()).isPositive();
+        RiotClientMetricsEndpoint.Coalescing summoners = summary.coalescing().get("summoners");
+        assertThat(summoners.originated()).isEqualTo(1);
+        assertThat(summoners.coalesced()).isEqualTo(3);
+        assertThat(summoners.coalescedRatio()).isEqualTo(0.75);
+        assertThat(summary.coalescing()).containsKeys("accounts", "matchDetails");
+    }
+}
@@ -0,0 +1,56 @@
+package com.zerox80.riotapi.config;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StaleRejectingCacheTest {
+
+    private final Set<Object> staleValues = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final AsyncCache<Object, Object> nativeCache = Caffeine.newBuilder().executor(Runnable::run).buildAsync();
+    private final StaleRejectingCache cache = new StaleRejectingCache(
+            new CaffeineCache("summoners", nativeCache, true), staleValues::contains);
+
+    @Test
+    void staleLoadIsServedButNotStored() {
+        String stale = new String("last good");
+        staleValues.add(stale);
+        AtomicInteger loads = new AtomicInteger();
+
+        Object served = cache.retrieve("euw1:P1", () -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture(stale);
+        }).join();
+        Object fresh = cache.retrieve("euw1:P1", () -> {
+            loads.incrementAndGet();
+            return CompletableFuture.completedFuture("fresh");
+        }).join();
+
+        assertThat(served).isSameAs(stale);
+        assertThat(fresh).isEqualTo("fresh");
+        assertThat(loads).hasValue(2);
+        assertThat(nativeCache.synchronous().getIfPresent("euw1:P1")).isEqualTo("fresh");
+    }
+
+    @Test
+    void stalePutKeepsTheCurrentEntry() {
+        String stale = new String("old");
+        staleValues.add(stale);
+        cache.put("euw1:P1", "good");
+
+        cache.put("euw1:P1", stale);
+        cache.put("euw1:P2", stale);
+
+        assertThat(nativeCache.synchronous().getIfPresent("euw1:P1")).isEqualTo("good");
+        assertThat(nativeCache.synchronous().getIfPresent("euw1:P2")).isNull();
+    }
+}
@@ -0,0 +1,111 @@
+package com.zerox80.riotapi.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache.ValueWrapper;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TieredCacheTest {
+
+    private final CaffeineCache firstLevel = new CaffeineCache("accounts", Caffeine.newBuilder().buildAsync(), true);
+    private final Map<Object, Object> secondLevel = new HashMap<>();
+    private final List<Object> written = new ArrayList<>();
+    private final AtomicInteger lookups = new AtomicInteger();
+
+    private final TieredCache cache = new TieredCache(firstLevel,
+            key -> {
+                lookups.incrementAndGet();
+                return secondLevel.get(key);
+            },
+            (key, value) -> written.add(value));
+
+    @Test
+    void secondLevelHitIsServedAndCopiedIntoTheFirstLevel() {
+        secondLevel.put("europe:a#b", "stored");
+
+        assertThat(cache.retrieve("europe:a#b").join()).extracting(w -> ((ValueWrapper) w).get()).isEqualTo("stored");
+        assertThat(cache.retrieve("europe:a#b").join()).extracting(w -> ((ValueWrapper) w).get()).isEqualTo("stored");
+        assertThat(cache.retrieve("europe:c#d").join()).isNull();
+
+        assertThat(lookups).hasValue(2);
+        assertThat(firstLevel.retrieve("europe:a#b")).isNotNull();
+        assertThat(written).isEmpty();
+    }
+
+    @Test
+    void asynchronousLookupsRunOnTheExecutor() {
+        List<Runnable> queued = new ArrayList<>();
+        TieredCache offThread = new TieredCache(firstLevel, key -> {
+            lookups.incrementAndGet();
+            return secondLevel.get(key);
+        }, (key, value) -> written.add(value), key -> { }, () -> { }, queued::add);
+        secondLevel.put("europe:a#b", "stored");
+
+        CompletableFuture<?> hit = offThread.retrieve("europe:a#b");
+        CompletableFuture<String> miss = offThread.retrieve("europe:c#d",
+                () -> CompletableFuture.completedFuture("loaded"));
+
+        // Nothing touched the database on the calling thread
+        assertThat(lookups).hasValue(0);
+        assertThat(hit).isNotDone();
+        queued.forEach(Runnable::run);
+        assertThat(hit.join()).extracting(w -> ((ValueWrapper) w).get()).isEqualTo("stored");
+        assertThat(miss.join()).isEqualTo("loaded");
+        assertThat(lookups).hasValue(2);
+        assertThat(written).containsExactly("loaded");
+    }
+
+    @Test
+    void putWritesEachValueInstanceThroughOnce() {
+        String fresh = new String("fresh");
+        cache.put("europe:a#b", fresh);
+        cache.evict("europe:a#b");
+        // The same instance again, e.g. served as stale fallback
+        cache.put("europe:a#b", fresh);
+        cache.put("europe:a#b", new String("fresh"));
+
+        assertThat(written).hasSize(2);
+        assertThat(written.get(0)).isSameAs(fresh);
+    }
+
+    @Test
+    void evictAndClearDeleteFromTheSecondLevel() {
+        List<Object> deleted = new ArrayList<>();
+        TieredCache deleting = new TieredCache(firstLevel, secondLevel::get, (key, value) -> written.add(value),
+                deleted::add, () -> deleted.add("*"), Runnable::run);
+        secondLevel.put("europe:a#b", "stored");
+        deleting.put("europe:a#b", "fresh");
+        deleting.put("europe:c#d", "fresh");
+
+        assertThat(deleting.evictIfPresent("europe:a#b")).isTrue();
+        deleting.evict("europe:x#y");
+        deleting.clear();
+
+        assertThat(deleted).containsExactly("europe:a#b", "europe:x#y", "*");
+        assertThat(firstLevel.retrieve("europe:c#d")).isNull();
+    }
+
+    @Test
+    void secondLevelErrorsCountAsMiss() {
+        TieredCache failing = new TieredCache(firstLevel,
+                key -> {
+                    throw new IllegalStateException("database down");
+                },
+                (key, value) -> written.add(value));
+
+        assertThat(failing.retrieve("europe:a#b").join()).isNull();
+        assertThat(failing.get("europe:a#b")).isNull();
+        assertThat(failing.retrieve("europe:a#b", () -> CompletableFuture.completedFuture("loaded"))
+                .join()).isEqualTo("loaded");
+        assertThat(written).containsExactly("loaded");
+    }
+}
@@ -2,6 +2,7 @@ package com.zerox80.riotapi.controller;
 
 import com.zerox80.riotapi.client.RiotApiClient;
 import com.zerox80.riotapi.dto.ChampionBuildDto;
+import com.zerox80.riotapi.dto.ItemStatDto;
 import com.zerox80.riotapi.service.BuildAggregationService;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentMatchers;
@@ -14,6 +15,7 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.Locale;
 
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
@@ -50,6 +52,33 @@ class BuildControllerTest {
                 .andExpect(content().string(org.hamcrest.Matchers.containsString("Ahri")));
     }
 
+    @Test
+    void getBuild_doesNotCacheBuildsWithoutStats() throws Exception {
+        ChampionBuildDto empty = new ChampionBuildDto("Lux", "15.18", 420, "ALL", java.util.List.of(), java.util.List.of(), java.util.List.of());
+        when(aggregationService.loadBuild(ArgumentMatchers.eq("Lux"), ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any(Locale.class)))
+                .thenReturn(empty);
+
+        mockMvc.perform(get("/api/champions/Lux/build")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/champions/Lux/build")).andExpect(status().isOk());
+
+        verify(aggregationService, times(2)).loadBuild(ArgumentMatchers.eq("Lux"), ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any(Locale.class));
+    }
+
+    @Test
+    void getBuild_reloadsOnceAnAggregationFinished() throws Exception {
+        ChampionBuildDto dto = new ChampionBuildDto("Zed", "15.18", 420, "ALL",
+                java.util.List.of(new ItemStatDto(3142, 10, 6, "Youmuu", null)), java.util.List.of(), java.util.List.of());
+        when(aggregationService.loadBuild(ArgumentMatchers.eq("Zed"), ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any(Locale.class)))
+                .thenReturn(dto);
+
+        mockMvc.perform(get("/api/champions/Zed/build")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/champions/Zed/build")).andExpect(status().isOk());
+        when(aggregationService.buildGeneration("Zed")).thenReturn(1L);
+        mockMvc.perform(get("/api/champions/Zed/build")).andExpect(status().isOk());
+
+        verify(aggregationService, times(2)).loadBuild(ArgumentMatchers.eq("Zed"), ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any(Locale.class));
+    }
+
     @Test
     void aggregateWithoutToken_shouldReturnForbidden() throws Exception {
         mockMvc.perform(post("/api/champions/Ahri/aggregate"))
@@ -0,0 +1,81 @@
+package com.zerox80.riotapi.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.io.ByteArrayInputStream;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JsonResponseCacheTest {
+
+    private final JsonResponseCache cache = new JsonResponseCache(new ObjectMapper(), 10, Duration.ofMinutes(10));
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void servesStoredBytesAndAnswersConditionalRequestsWithoutLoading() throws Exception {
+        ResponseEntity<byte[]> first = cache.respond(new MockHttpServletRequest(), "champions|en_US|15.18.1",
+                CacheControl.maxAge(Duration.ofMinutes(30)), this::load);
+        String etag = first.getHeaders().getETag();
+
+        MockHttpServletRequest gzip = new MockHttpServletRequest();
+        gzip.addHeader("Accept-Encoding", "br, gzip;q=0.8");
+        ResponseEntity<byte[]> compressed = cache.respond(gzip, "champions|en_US|15.18.1", CacheControl.empty(),
+                this::load);
+
+        MockHttpServletRequest conditional = new MockHttpServletRequest();
+        conditional.addHeader("If-None-Match", "\"other\", W/" + etag);
+        ResponseEntity<byte[]> notModified = cache.respond(conditional, "champions|en_US|15.18.1",
+                CacheControl.empty(), this::load);
+
+        MockHttpServletRequest conditionalGzip = new MockHttpServletRequest();
+        conditionalGzip.addHeader("Accept-Encoding", "gzip");
+        conditionalGzip.addHeader("If-None-Match", etag);
+        ResponseEntity<byte[]> otherEncoding = cache.respond(conditionalGzip, "champions|en_US|15.18.1",
+                CacheControl.empty(), this::load);
+
+        assertThat(loads).hasValue(1);
+        assertThat(etag).startsWith("\"").hasSize(34);
+        assertThat(new String(first.getBody())).startsWith("{\"champions\":[");
+        assertThat(compressed.getHeaders().getFirst("Content-Encoding")).isEqualTo("gzip");
+        assertThat(new GZIPInputStream(new ByteArrayInputStream(compressed.getBody())).readAllBytes())
+                .isEqualTo(first.getBody());
+        // Strong ETags promise identical bytes, so the gzip variant has its own
+        assertThat(compressed.getHeaders().getETag()).isEqualTo(etag.substring(0, 33) + "-gz\"");
+        assertThat(notModified.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(notModified.getBody()).isNull();
+        assertThat(otherEncoding.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(otherEncoding.getHeaders().getETag()).isEqualTo(compressed.getHeaders().getETag());
+    }
+
+    @Test
+    void missingDataIsNotCached() throws Exception {
+        assertThat(cache.respond(new MockHttpServletRequest(), "champion|nope|en_US|15.18.1", CacheControl.empty(),
+                () -> {
+                    loads.incrementAndGet();
+                    return null;
+                }).getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        cache.respond(new MockHttpServletRequest(), "champion|nope|en_US|15.18.1", CacheControl.empty(), this::load);
+
+        assertThat(loads).hasValue(2);
+        assertThat(JsonResponseCache.acceptsGzip("gzip;q=0, deflate")).isFalse();
+        assertThat(JsonResponseCache.acceptsGzip("deflate, GZIP")).isTrue();
+    }
+
+    private Object load() {
+        loads.incrementAndGet();
+        // Large enough to be compressed
+        return Map.of("champions", IntStream.range(0, 40)
+                .mapToObj(i -> Map.of("id", "Champion" + i, "title", "the Cryophoenix"))
+                .toList());
+    }
+}
@@ -0,0 +1,137 @@
+package com.zerox80.riotapi.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zerox80.riotapi.client.RiotRegion;
+import com.zerox80.riotapi.model.InfoDto;
+import com.zerox80.riotapi.model.LeagueEntryDTO;
+import com.zerox80.riotapi.model.MatchV5Dto;
+import com.zerox80.riotapi.model.MetadataDto;
+import com.zerox80.riotapi.model.Summoner;
+import com.zerox80.riotapi.model.SummonerProfileData;
+import com.zerox80.riotapi.service.DataDragonService;
+import com.zerox80.riotapi.service.RiotApiService;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SummonerControllerEtagTest {
+
+    private final RiotApiService riotApiService = mock(RiotApiService.class);
+    private final DataDragonService dataDragonService = mock(DataDragonService.class);
+    private final SummonerController controller = new SummonerController(riotApiService, dataDragonService,
+            new ObjectMapper(), 10, 40, 1000, "euw1", Duration.ofSeconds(10));
+
+    @Test
+    void profileIsNotModifiedUntilItsDataVersionsChange() {
+        when(dataDragonService.getLatestVersion()).thenReturn("15.18.1");
+        LeagueEntryDTO entry = new LeagueEntryDTO();
+        entry.setQueueType("RANKED_SOLO_5x5");
+        entry.setTier("GOLD");
+        entry.setRank("II");
+        entry.setLeaguePoints(40);
+        when(riotApiService.getSummonerProfileDataAsync(RiotRegion.EUW1, "Player", "EUW", true))
+                .thenReturn(CompletableFuture.completedFuture(profile(entry, "EUW1_2")));
+
+        ResponseEntity<?> first = profile(null);
+        String etag = first.getHeaders().getETag();
+        ResponseEntity<?> unchanged = profile(etag);
+
+        entry.setLeaguePoints(58);
+        ResponseEntity<?> afterGame = profile(etag);
+
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(first.getHeaders().getCacheControl()).isEqualTo("no-cache, private");
+        assertThat(etag).startsWith("W/\"");
+        assertThat(unchanged.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(unchanged.getBody()).isNull();
+        assertThat(afterGame.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(afterGame.getHeaders().getETag()).isNotEqualTo(etag);
+        // The 304 skipped the payload, which would have asked for the image bases again
+        verify(dataDragonService, times(2)).getImageBases(null);
+    }
+
+    @Test
+    void matchPageIsNotModifiedWhileItsMatchIdsStayTheSame() {
+        Summoner summoner = new Summoner();
+        summoner.setPuuid("PUUID-1");
+        when(riotApiService.getSummonerByRiotId(RiotRegion.EUW1, "Player", "EUW"))
+                .thenReturn(CompletableFuture.completedFuture(summoner));
+        when(riotApiService.getMatchHistoryPaged(RiotRegion.EUW1, "PUUID-1", 0, 10))
+                .thenReturn(CompletableFuture.completedFuture(List.of(match("EUW1_2"), match("EUW1_1"))));
+
+        String etag = matches(null).getHeaders().getETag();
+        ResponseEntity<?> notModified = matches("\"other\", " + etag);
+
+        assertThat(notModified.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(notModified.getHeaders().getETag()).isEqualTo(etag);
+        verify(dataDragonService, never()).getImageBases(any());
+    }
+
+    @Test
+    void matchPageChangesWhenAnLpChangeArrives() {
+        Summoner summoner = new Summoner();
+        summoner.setPuuid("PUUID-1");
+        MatchV5Dto latest = match("EUW1_2");
+        latest.setInfo(new InfoDto());
+        when(riotApiService.getSummonerByRiotId(RiotRegion.EUW1, "Player", "EUW"))
+                .thenReturn(CompletableFuture.completedFuture(summoner));
+        when(riotApiService.getMatchHistoryPaged(RiotRegion.EUW1, "PUUID-1", 0, 10))
+                .thenReturn(CompletableFuture.completedFuture(List.of(latest, match("EUW1_1"))));
+
+        String etag = matches(null).getHeaders().getETag();
+        latest.getInfo().setLpChange(18);
+        ResponseEntity<?> withLp = matches(etag);
+
+        assertThat(withLp.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(withLp.getHeaders().getETag()).isNotEqualTo(etag);
+    }
+
+    private ResponseEntity<?> profile(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        if (ifNoneMatch != null) {
+            request.addHeader("If-None-Match", ifNoneMatch);
+        }
+        return controller.getSummonerProfile("Player#EUW", true, null, request, new MockHttpServletResponse(),
+                Locale.ENGLISH).join();
+    }
+
+    private ResponseEntity<?> matches(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        if (ifNoneMatch != null) {
+            request.addHeader("If-None-Match", ifNoneMatch);
+        }
+        return controller.getMoreMatches("Player#EUW", 0, 10, null, request).join();
+    }
+
+    private static SummonerProfileData profile(LeagueEntryDTO entry, String latestMatchId) {
+        Summoner summoner = new Summoner();
+        summoner.setPuuid("PUUID-1");
+        summoner.setSummonerLevel(300);
+        return new SummonerProfileData(summoner, List.of(entry), List.of(match(latestMatchId)), null,
+                Map.of("Anivia", 1L), "https://icon/1.jpg");
+    }
+
+    private static MatchV5Dto match(String matchId) {
+        MetadataDto metadata = new MetadataDto();
+        metadata.setMatchId(matchId);
+        MatchV5Dto match = new MatchV5Dto();
+        match.setMetadata(metadata);
+        return match;
+    }
+}
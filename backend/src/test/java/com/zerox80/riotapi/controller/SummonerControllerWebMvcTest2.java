@@ -2,6 +2,7 @@ package com.zerox80.riotapi.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.zerox80.riotapi.client.RiotApiClient;
+import com.zerox80.riotapi.client.RiotRegion;
 import com.zerox80.riotapi.model.Summoner;
 import com.zerox80.riotapi.model.SummonerSuggestionDTO;
 import com.zerox80.riotapi.service.DataDragonService;
@@ -91,9 +92,9 @@ class SummonerControllerWebMvcTest2 {
     void matches_shouldSanitizeStartAndPassToService() throws Exception {
         Summoner summoner = new Summoner();
         summoner.setPuuid("PUUID-1");
-        when(riotApiService.getSummonerByRiotId("Player", "EUW"))
+        when(riotApiService.getSummonerByRiotId(RiotRegion.EUW1, "Player", "EUW"))
                 .thenReturn(CompletableFuture.completedFuture(summoner));
-        when(riotApiService.getMatchHistoryPaged("PUUID-1", 0, 5))
+        when(riotApiService.getMatchHistoryPaged(RiotRegion.EUW1, "PUUID-1", 0, 5))
                 .thenReturn(CompletableFuture.completedFuture(List.of()));
 
         mockMvc.perform(get("/api/matches")
@@ -103,6 +104,32 @@ class SummonerControllerWebMvcTest2 {
                 .andExpect(status().isOk())
                 .andExpect(content().string("[]"));
 
-        verify(riotApiService).getMatchHistoryPaged("PUUID-1", 0, 5);
+        verify(riotApiService).getMatchHistoryPaged(RiotRegion.EUW1, "PUUID-1", 0, 5);
+    }
+
+    @Test
+    void matches_shouldUseRequestedRegion() throws Exception {
+        Summoner summoner = new Summoner();
+        summoner.setPuuid("PUUID-2");
+        when(riotApiService.getSummonerByRiotId(RiotRegion.KR, "Faker", "KR1"))
+                .thenReturn(CompletableFuture.completedFuture(summoner));
+        when(riotApiService.getMatchHistoryPaged(RiotRegion.KR, "PUUID-2", 0, 10))
+                .thenReturn(CompletableFuture.completedFuture(List.of()));
+
+        mockMvc.perform(get("/api/matches")
+                        .param("riotId", "Faker#KR1")
+                        .param("region", "KR"))
+                .andExpect(status().isOk());
+
+        verify(riotApiService).getMatchHistoryPaged(RiotRegion.KR, "PUUID-2", 0, 10);
+    }
+
+    @Test
+    void matches_shouldRejectUnknownRegion() throws Exception {
+        mockMvc.perform(get("/api/matches")
+                        .param("riotId", "Player#EUW")
+                        .param("region", "atlantis"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(org.hamcrest.Matchers.containsString("Unknown region")));
     }
 }
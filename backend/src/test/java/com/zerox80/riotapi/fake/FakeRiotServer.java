@@ -0,0 +1,648 @@
+package com.zerox80.riotapi.fake;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Embedded fake of the Riot API (account-v1, summoner-v4, league-v4, match-v5) and of
+ * Data Dragon / CommunityDragon, for integration and load tests without network or quota.
+ *
+ * Responses are replayed from JSON fixtures under {@code src/test/resources/fake-riot},
+ * laid out like the request path: {@code /lol/summoner/v4/summoners/by-puuid/abc} is
+ * served from {@code lol/summoner/v4/summoners/by-puuid/abc.json}. A directory or file
+ * named {@code _} matches any segment, and {@code {{0}}}, {@code {{1}}}, ... in such a
+ * fixture are replaced by the matched segments, so one template serves every match ID.
+ * Match ID lists honour the {@code start} and {@code count} query parameters.
+ *
+ * Latency distribution, Riot rate-limit headers (and 429s once they are exceeded),
+ * random or injected 429s with {@code Retry-After} and 5xx bursts are configurable.
+ * With {@link Builder#record} set, requests without a fixture are fetched once from
+ * the real API and written to the record directory, where later runs replay them.
+ *
+ * Point the application at it with {@code riot.api.base-url}, {@code ddragon.base-url}
+ * and {@code ddragon.community-dragon-base-url}; {@link #main} starts a standalone
+ * instance for load tests against a running backend.
+ */
+public final class FakeRiotServer implements AutoCloseable {
+
+    /**
+     * Latency added to a response, drawn once per request.
+     */
+    @FunctionalInterface
+    public interface Latency {
+
+        long nextMillis(Random random);
+
+        static Latency none() {
+            return random -> 0;
+        }
+
+        static Latency fixed(Duration delay) {
+            long millis = delay.toMillis();
+            return random -> millis;
+        }
+
+        /**
+         * Log-normal latency, the usual shape of API response times: most calls near the
+         * median, a long tail reaching the given p99.
+         */
+        static Latency logNormal(Duration median, Duration p99) {
+            double m = Math.max(1, median.toMillis());
+            double sigma = Math.log(Math.max(p99.toMillis(), m) / m) / 2.326;
+            return random -> Math.round(m * Math.exp(sigma * random.nextGaussian()));
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Random random;
+    private final Path fixtureRoot;
+    private final Path recordDir;
+    private final String recordUpstream;
+    private final String recordApiKey;
+    private final double throttleProbability;
+    private final long throttleRetryAfterSeconds;
+    private final int errorBurstEvery;
+    private final int errorBurstLength;
+    private final int errorBurstStatus;
+    private final Limits appLimits;
+    private final String methodLimitSpec;
+    private final Map<String, Limits> methodLimits = new ConcurrentHashMap<>();
+    private final Map<Path, String> fixtureCache = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> hits = new ConcurrentHashMap<>();
+    private final AtomicInteger apiCalls = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final AtomicInteger pendingThrottles = new AtomicInteger();
+    private final AtomicInteger pendingFailures = new AtomicInteger();
+    private volatile long injectedRetryAfterSeconds = 1;
+    private volatile int injectedFailureStatus = 503;
+    private volatile Latency latency;
+    private HttpClient recordClient;
+
+    private FakeRiotServer(Builder builder) throws IOException {
+        this.random = new Random(builder.seed);
+        this.fixtureRoot = classpathDirectory(builder.fixtures);
+        this.recordDir = builder.recordDir;
+        this.recordUpstream = builder.recordUpstream;
+        this.recordApiKey = builder.recordApiKey;
+        this.latency = builder.latency;
+        this.throttleProbability = builder.throttleProbability;
+        this.throttleRetryAfterSeconds = builder.throttleRetryAfterSeconds;
+        this.errorBurstEvery = builder.errorBurstEvery;
+        this.errorBurstLength = builder.errorBurstLength;
+        this.errorBurstStatus = builder.errorBurstStatus;
+        this.appLimits = builder.appRateLimit != null ? new Limits(builder.appRateLimit) : null;
+        this.methodLimitSpec = builder.methodRateLimit;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), builder.port), 1024);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Base URL to configure as riot.api.base-url / ddragon.base-url, e.g. "http://127.0.0.1:53211".
+     */
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    /**
+     * Answers the next API calls with 429 and the given Retry-After.
+     */
+    public void throttleNext(int calls, long retryAfterSeconds) {
+        injectedRetryAfterSeconds = retryAfterSeconds;
+        pendingThrottles.set(calls);
+    }
+
+    /**
+     * Answers the next API calls with the given 5xx status.
+     */
+    public void failNext(int calls, int status) {
+        injectedFailureStatus = status;
+        pendingFailures.set(calls);
+    }
+
+    public void setLatency(Latency latency) {
+        this.latency = latency;
+    }
+
+    /**
+     * Number of requests for a path (without query string).
+     */
+    public int hits(String path) {
+        AtomicInteger count = hits.get(path);
+        return count != null ? count.get() : 0;
+    }
+
+    public int totalHits() {
+        return hits.values().stream().mapToInt(AtomicInteger::get).sum();
+    }
+
+    /**
+     * Highest number of requests that were open at the same time.
+     */
+    public int maxConcurrent() {
+        return maxInFlight.get();
+    }
+
+    public void resetCounters() {
+        hits.clear();
+        maxInFlight.set(inFlight.get());
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        int open = inFlight.incrementAndGet();
+        maxInFlight.accumulateAndGet(open, Math::max);
+        try {
+            String path = exchange.getRequestURI().getPath();
+            hits.computeIfAbsent(path, p -> new AtomicInteger()).incrementAndGet();
+            sleep(latency.nextMillis(random));
+            respond(exchange, path);
+        } catch (RuntimeException e) {
+            send(exchange, 500, error(500, "Fake server error: " + e.getMessage()));
+        } finally {
+            inFlight.decrementAndGet();
+            exchange.close();
+        }
+    }
+
+    private void respond(HttpExchange exchange, String path) throws IOException {
+        String method = apiMethod(path);
+        Headers headers = exchange.getResponseHeaders();
+        if (method != null) {
+            int call = apiCalls.incrementAndGet();
+            if (pendingFailures.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                send(exchange, injectedFailureStatus, error(injectedFailureStatus, "Injected failure"));
+                return;
+            }
+            if (errorBurstEvery > 0 && (call - 1) % errorBurstEvery < errorBurstLength) {
+                send(exchange, errorBurstStatus, error(errorBurstStatus, "Injected failure burst"));
+                return;
+            }
+            if (pendingThrottles.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                throttle(exchange, injectedRetryAfterSeconds, "service");
+                return;
+            }
+            if (throttleProbability > 0 && random.nextDouble() < throttleProbability) {
+                throttle(exchange, throttleRetryAfterSeconds, "service");
+                return;
+            }
+            long now = System.currentTimeMillis();
+            Limits methodLimit = methodLimitSpec != null
+                    ? methodLimits.computeIfAbsent(method, m -> new Limits(methodLimitSpec))
+                    : null;
+            long appWait = appLimits != null ? appLimits.tryCount(now) : 0;
+            long methodWait = appWait == 0 && methodLimit != null ? methodLimit.tryCount(now) : 0;
+            if (appLimits != null) {
+                headers.set("X-App-Rate-Limit", appLimits.spec);
+                headers.set("X-App-Rate-Limit-Count", appLimits.countHeader());
+            }
+            if (methodLimit != null) {
+                headers.set("X-Method-Rate-Limit", methodLimit.spec);
+                headers.set("X-Method-Rate-Limit-Count", methodLimit.countHeader());
+            }
+            if (appWait > 0 || methodWait > 0) {
+                throttle(exchange, Math.max(appWait, methodWait), appWait > 0 ? "application" : "method");
+                return;
+            }
+        }
+
+        String body = fixture(path);
+        if (body == null) {
+            body = record(exchange.getRequestURI(), path);
+        }
+        if (body == null) {
+            send(exchange, 404, error(404, "Data not found - no fixture for " + path));
+            return;
+        }
+        if (path.endsWith("/ids")) {
+            body = page(body, exchange.getRequestURI().getRawQuery());
+        }
+        send(exchange, 200, body);
+    }
+
+    private void throttle(HttpExchange exchange, long retryAfterSeconds, String type) throws IOException {
+        exchange.getResponseHeaders().set("Retry-After", String.valueOf(retryAfterSeconds));
+        exchange.getResponseHeaders().set("X-Rate-Limit-Type", type);
+        send(exchange, 429, error(429, "Rate limit exceeded"));
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json;charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String error(int status, String message) {
+        return "{\"status\":{\"message\":\"" + escape(message) + "\",\"status_code\":" + status + "}}";
+    }
+
+    /**
+     * Riot method of an API path (the rate limit scope), null for static data.
+     */
+    private static String apiMethod(String path) {
+        if (path.startsWith("/riot/account/")) {
+            return "account-v1";
+        }
+        if (path.startsWith("/lol/summoner/")) {
+            return "summoner-v4";
+        }
+        if (path.startsWith("/lol/league/")) {
+            return "league-v4";
+        }
+        if (path.startsWith("/lol/match/")) {
+            return path.endsWith("/ids") ? "match-v5-ids" : "match-v5";
+        }
+        return null;
+    }
+
+    private String fixture(String path) {
+        List<String> segments = segments(path);
+        if (segments == null) {
+            return null;
+        }
+        Resolved resolved = null;
+        if (recordDir != null && Files.isDirectory(recordDir)) {
+            resolved = resolve(recordDir, segments, 0, List.of());
+        }
+        if (resolved == null) {
+            resolved = resolve(fixtureRoot, segments, 0, List.of());
+        }
+        if (resolved == null) {
+            return null;
+        }
+        String template = fixtureCache.computeIfAbsent(resolved.file(), FakeRiotServer::read);
+        for (int i = 0; i < resolved.captures().size(); i++) {
+            template = template.replace("{{" + i + "}}", escape(resolved.captures().get(i)));
+        }
+        return template;
+    }
+
+    private static List<String> segments(String path) {
+        List<String> segments = new ArrayList<>();
+        for (String segment : path.split("/")) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            if (segment.equals(".") || segment.equals("..") || segment.contains("\\")) {
+                return null;
+            }
+            segments.add(segment);
+        }
+        return segments.isEmpty() ? null : segments;
+    }
+
+    /**
+     * Walks the fixture tree, preferring exact names over the {@code _} wildcard.
+     */
+    private static Resolved resolve(Path dir, List<String> segments, int index, List<String> captures) {
+        String segment = segments.get(index);
+        if (index == segments.size() - 1) {
+            Path exact = dir.resolve(segment.endsWith(".json") ? segment : segment + ".json");
+            if (Files.isRegularFile(exact)) {
+                return new Resolved(exact, captures);
+            }
+            Path wildcard = dir.resolve("_.json");
+            return Files.isRegularFile(wildcard) ? new Resolved(wildcard, with(captures, segment)) : null;
+        }
+        Path exact = dir.resolve(segment);
+        if (Files.isDirectory(exact)) {
+            Resolved resolved = resolve(exact, segments, index + 1, captures);
+            if (resolved != null) {
+                return resolved;
+            }
+        }
+        Path wildcard = dir.resolve("_");
+        return Files.isDirectory(wildcard) ? resolve(wildcard, segments, index + 1, with(captures, segment)) : null;
+    }
+
+    private static List<String> with(List<String> captures, String capture) {
+        List<String> copy = new ArrayList<>(captures);
+        copy.add(capture);
+        return copy;
+    }
+
+    /**
+     * Fetches a missing fixture from the real API and stores it in the record directory.
+     */
+    private synchronized String record(URI requestUri, String path) {
+        if (recordUpstream == null || segments(path) == null) {
+            return null;
+        }
+        try {
+            if (recordClient == null) {
+                recordClient = HttpClient.newHttpClient();
+            }
+            String query = requestUri.getRawQuery();
+            URI upstream = URI.create(recordUpstream + requestUri.getRawPath() + (query != null ? "?" + query : ""));
+            HttpRequest.Builder request = HttpRequest.newBuilder(upstream).timeout(Duration.ofSeconds(20)).GET();
+            if (recordApiKey != null && apiMethod(path) != null) {
+                request.header("X-Riot-Token", recordApiKey);
+            }
+            HttpResponse<String> response = recordClient.send(request.build(),
+                    HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+            if (response.statusCode() != 200) {
+                return null;
+            }
+            String relative = path.substring(1);
+            Path target = recordDir.resolve(relative.endsWith(".json") ? relative : relative + ".json");
+            Files.createDirectories(target.getParent());
+            Files.writeString(target, response.body(), StandardCharsets.UTF_8);
+            return response.body();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * Applies start/count to a JSON array of match IDs.
+     */
+    private static String page(String body, String query) {
+        String trimmed = body.trim();
+        if (!trimmed.startsWith("[") || !trimmed.endsWith("]")) {
+            return body;
+        }
+        String inner = trimmed.substring(1, trimmed.length() - 1).trim();
+        List<String> ids = inner.isEmpty() ? List.of() : Arrays.stream(inner.split(",")).map(String::trim).toList();
+        int start = Math.min(ids.size(), Math.max(0, queryInt(query, "start", 0)));
+        int count = Math.max(0, queryInt(query, "count", 20));
+        return "[" + String.join(",", ids.subList(start, Math.min(ids.size(), start + count))) + "]";
+    }
+
+    private static int queryInt(String query, String name, int fallback) {
+        if (query == null) {
+            return fallback;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0 && pair.substring(0, eq).equals(name)) {
+                try {
+                    return Integer.parseInt(pair.substring(eq + 1));
+                } catch (NumberFormatException e) {
+                    return fallback;
+                }
+            }
+        }
+        return fallback;
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    private static String read(Path file) {
+        try {
+            return Files.readString(file, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Path classpathDirectory(String name) {
+        URL url = FakeRiotServer.class.getClassLoader().getResource(name);
+        if (url == null) {
+            throw new IllegalStateException("Fixture directory '" + name + "' is not on the classpath");
+        }
+        try {
+            return Path.of(url.toURI());
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            throw new IllegalStateException("Fixture directory '" + name + "' is not a plain directory: " + url, e);
+        }
+    }
+
+    private record Resolved(Path file, List<String> captures) {
+    }
+
+    /**
+     * Fixed windows of one rate limit spec ("20:1,100:120"), as Riot counts them.
+     */
+    private static final class Limits {
+
+        private final String spec;
+        private final int[] limits;
+        private final long[] windowMillis;
+        private final long[] windowStart;
+        private final int[] counts;
+
+        Limits(String spec) {
+            this.spec = spec;
+            String[] parts = spec.split(",");
+            this.limits = new int[parts.length];
+            this.windowMillis = new long[parts.length];
+            this.windowStart = new long[parts.length];
+            this.counts = new int[parts.length];
+            for (int i = 0; i < parts.length; i++) {
+                String[] pair = parts[i].trim().split(":");
+                limits[i] = Integer.parseInt(pair[0]);
+                windowMillis[i] = Long.parseLong(pair[1]) * 1000;
+            }
+        }
+
+        /**
+         * Counts a request if every window has room.
+         *
+         * @return 0 if counted, otherwise seconds until the blocking window resets
+         */
+        synchronized long tryCount(long now) {
+            long wait = 0;
+            for (int i = 0; i < limits.length; i++) {
+                if (now - windowStart[i] >= windowMillis[i]) {
+                    windowStart[i] = now;
+                    counts[i] = 0;
+                }
+                if (counts[i] >= limits[i]) {
+                    wait = Math.max(wait, (windowStart[i] + windowMillis[i] - now + 999) / 1000);
+                }
+            }
+            if (wait > 0) {
+                return Math.max(1, wait);
+            }
+            for (int i = 0; i < limits.length; i++) {
+                counts[i]++;
+            }
+            return 0;
+        }
+
+        synchronized String countHeader() {
+            StringBuilder header = new StringBuilder();
+            for (int i = 0; i < limits.length; i++) {
+                if (i > 0) {
+                    header.append(',');
+                }
+                header.append(counts[i]).append(':').append(windowMillis[i] / 1000);
+            }
+            return header.toString();
+        }
+    }
+
+    /**
+     * Options of a fake server; everything is off unless set.
+     */
+    public static final class Builder {
+
+        private int port;
+        private String fixtures = "fake-riot";
+        private Latency latency = Latency.none();
+        private String appRateLimit;
+        private String methodRateLimit;
+        private double throttleProbability;
+        private long throttleRetryAfterSeconds = 1;
+        private int errorBurstEvery;
+        private int errorBurstLength;
+        private int errorBurstStatus = 503;
+        private long seed = 42;
+        private Path recordDir;
+        private String recordUpstream;
+        private String recordApiKey;
+
+        private Builder() {
+        }
+
+        /** Port to listen on, 0 (default) picks a free one. */
+        public Builder port(int port) {
+            this.port = port;
+            return this;
+        }
+
+        /** Classpath directory holding the fixtures, "fake-riot" by default. */
+        public Builder fixtures(String classpathDirectory) {
+            this.fixtures = classpathDirectory;
+            return this;
+        }
+
+        public Builder latency(Latency latency) {
+            this.latency = latency;
+            return this;
+        }
+
+        /** App rate limits to announce and enforce, e.g. "20:1,100:120". */
+        public Builder appRateLimit(String spec) {
+            this.appRateLimit = spec;
+            return this;
+        }
+
+        /** Rate limits of every single method, e.g. "2000:10". */
+        public Builder methodRateLimit(String spec) {
+            this.methodRateLimit = spec;
+            return this;
+        }
+
+        /** Share of API calls answered with a service 429 and the given Retry-After. */
+        public Builder randomThrottling(double probability, long retryAfterSeconds) {
+            this.throttleProbability = probability;
+            this.throttleRetryAfterSeconds = retryAfterSeconds;
+            return this;
+        }
+
+        /** Fails {@code length} API calls out of every {@code every} with the given status. */
+        public Builder errorBursts(int every, int length, int status) {
+            this.errorBurstEvery = every;
+            this.errorBurstLength = length;
+            this.errorBurstStatus = status;
+            return this;
+        }
+
+        /** Seed of latency and throttling draws, for reproducible runs. */
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /**
+         * Records missing fixtures from the real API into a directory and replays them
+         * from there first.
+         *
+         * @param directory Where recorded fixtures are written
+         * @param upstream  Real host, e.g. "https://europe.api.riotgames.com"
+         * @param apiKey    Riot API key for the recording calls
+         */
+        public Builder record(Path directory, String upstream, String apiKey) {
+            this.recordDir = directory;
+            this.recordUpstream = upstream;
+            this.recordApiKey = apiKey;
+            return this;
+        }
+
+        public FakeRiotServer start() {
+            try {
+                return new FakeRiotServer(this);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Starts a standalone fake with production-like latency and dev-key rate limits.
+     * Usage: {@code FakeRiotServer [port]}, then start the backend with
+     * {@code riot.api.base-url}, {@code ddragon.base-url} and
+     * {@code ddragon.community-dragon-base-url} set to the printed URL.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8089;
+        FakeRiotServer fake = builder()
+                .port(port)
+                .latency(Latency.logNormal(Duration.ofMillis(80), Duration.ofMillis(600)))
+                .appRateLimit("20:1,100:120")
+                .methodRateLimit("2000:10")
+                .start();
+        System.out.println("Fake Riot API listening on " + fake.baseUrl());
+        Runtime.getRuntime().addShutdownHook(new Thread(fake::close));
+        Thread.currentThread().join();
+    }
+}
@@ -0,0 +1,251 @@
+package com.zerox80.riotapi.model;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompactMatchTest {
+
+    private static final String[] POSITIONS = { "TOP", "JUNGLE", "MIDDLE", "BOTTOM", "UTILITY" };
+    private static final String[] CHAMPIONS = { "Ahri", "LeeSin", "Ornn", "Jinx", "Thresh", "Darius", "Viego",
+            "Syndra", "Kaisa", "Nautilus" };
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void roundTripProducesTheSameJson() throws Exception {
+        MatchV5Dto original = parse(sampleJson(1));
+
+        MatchV5Dto restored = CompactMatch.from(original).toDto();
+
+        JsonNode expected = mapper.valueToTree(original);
+        JsonNode actual = mapper.valueToTree(restored);
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    @Test
+    void exposesFieldsUsedByAggregation() throws Exception {
+        CompactMatch match = CompactMatch.from(parse(sampleJson(7)));
+
+        assertThat(match.getMatchId()).isEqualTo("EUW1_7");
+        assertThat(match.getQueueId()).isEqualTo(420);
+        assertThat(match.getParticipants()).hasSize(10);
+        CompactParticipant first = match.getParticipants().get(0);
+        assertThat(first.getChampionName()).isEqualTo("Ahri");
+        assertThat(first.getTeamPosition()).isEqualTo("TOP");
+        assertThat(first.getItem(0)).isEqualTo(3000);
+        assertThat(first.getItem(6)).isEqualTo(3340);
+        assertThat(first.getPerkStyleCount()).isEqualTo(2);
+        assertThat(first.getPerkStyle(0)).isEqualTo(8100);
+        assertThat(first.getPerkStyle(1)).isEqualTo(8300);
+        assertThat(first.getPerkSelection(0, 0)).isEqualTo(8112);
+        assertThat(first.getPerkSelection(1, 1)).isEqualTo(8321);
+        assertThat(first.getPerkSelection(1, 2)).isZero();
+    }
+
+    @Test
+    void toDtoReturnsIndependentCopies() throws Exception {
+        CompactMatch match = CompactMatch.from(parse(sampleJson(3)));
+
+        match.toDto().getInfo().setLpChange(17);
+
+        assertThat(match.toDto().getInfo().getLpChange()).isNull();
+    }
+
+    @Test
+    void nullPerksAndMissingInfoAreHandled() {
+        ParticipantDto participant = new ParticipantDto();
+        participant.setChampionName("Ahri");
+        participant.setTeamPosition("Invalid");
+        InfoDto info = new InfoDto();
+        info.setParticipants(List.of(participant));
+        MatchV5Dto dto = new MatchV5Dto();
+        dto.setInfo(info);
+
+        CompactParticipant compact = CompactMatch.from(dto).getParticipants().get(0);
+
+        assertThat(compact.getPerkStyleCount()).isZero();
+        assertThat(compact.getPerkStyle(0)).isZero();
+        assertThat(compact.toDto().getPerks()).isNull();
+        assertThat(compact.getTeamPosition()).isNull();
+        assertThat(CompactMatch.from(new MatchV5Dto())).isNull();
+    }
+
+    @Test
+    void compactMatchNeedsLessThanHalfTheHeapOfTheDto() throws Exception {
+        int matches = 200;
+        List<MatchV5Dto> dtos = new ArrayList<>();
+        for (int i = 0; i < matches; i++) {
+            dtos.add(parse(sampleJson(i)));
+        }
+        List<CompactMatch> compacts = dtos.stream().map(CompactMatch::from).toList();
+
+        long dtoBytesPerMatch = deepSize(dtos) / matches;
+        long compactBytesPerMatch = deepSize(compacts) / matches;
+
+        // Measured with this fixture (compressed oops): ~12.8 KB per DTO vs. ~5.7 KB per compact match;
+        // what remains is mostly the per-player strings (PUUID, summoner ID, names)
+        assertThat(compactBytesPerMatch)
+                .as("compact %d bytes/match vs. dto %d bytes/match", compactBytesPerMatch, dtoBytesPerMatch)
+                .isLessThan(dtoBytesPerMatch / 2);
+    }
+
+    private MatchV5Dto parse(String json) throws Exception {
+        return mapper.readValue(json, MatchV5Dto.class);
+    }
+
+    /**
+     * Builds a ranked match as Riot returns it, with per-match unique ids and names.
+     */
+    private String sampleJson(int seed) throws Exception {
+        List<Map<String, Object>> participants = new ArrayList<>();
+        List<String> puuids = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            String puuid = "puuid-" + seed + "-" + i + "-" + "x".repeat(60);
+            puuids.add(puuid);
+            Map<String, Object> p = new java.util.LinkedHashMap<>();
+            p.put("puuid", puuid);
+            p.put("summonerId", "summoner-" + seed + "-" + i + "-" + "y".repeat(30));
+            p.put("summonerName", "Player" + seed + "x" + i);
+            p.put("riotIdGameName", "Player" + seed + "x" + i);
+            p.put("riotIdTagline", "EUW");
+            p.put("championName", CHAMPIONS[i]);
+            p.put("championId", 100 + i);
+            p.put("kills", seed % 10 + i);
+            p.put("deaths", i);
+            p.put("assists", 3 * i);
+            p.put("summonerLevel", 30 + seed);
+            p.put("teamId", i < 5 ? 100 : 200);
+            p.put("win", i < 5);
+            p.put("totalDamageDealtToChampions", 10_000 + seed * 13 + i);
+            p.put("totalMinionsKilled", 150 + i);
+            p.put("neutralMinionsKilled", 10 + i);
+            p.put("goldEarned", 9_000 + seed + i);
+            p.put("visionScore", 20 + i);
+            p.put("summoner1Id", 4);
+            p.put("summoner2Id", 14);
+            for (int slot = 0; slot < 6; slot++) {
+                p.put("item" + slot, 3000 + slot * 10 + i);
+            }
+            p.put("item6", 3340);
+            p.put("teamPosition", POSITIONS[i % 5]);
+            p.put("perks", Map.of("styles", List.of(
+                    Map.of("description", "primaryStyle", "style", 8100, "selections", List.of(
+                            selection(8112 + i), selection(8139), selection(8138), selection(8135))),
+                    Map.of("description", "subStyle", "style", 8300, "selections", List.of(
+                            selection(8304), selection(8321))))));
+            participants.add(p);
+        }
+        Map<String, Object> info = new java.util.LinkedHashMap<>();
+        info.put("gameCreation", 1_700_000_000_000L + seed);
+        info.put("gameDuration", 1_800 + seed);
+        info.put("gameEndTimestamp", 1_700_000_001_800L + seed);
+        info.put("gameStartTimestamp", 1_700_000_000_010L + seed);
+        info.put("gameId", 6_000_000_000L + seed);
+        info.put("gameMode", "CLASSIC");
+        info.put("gameName", "teambuilder-match-" + (6_000_000_000L + seed));
+        info.put("gameType", "MATCHED_GAME");
+        info.put("gameVersion", "14.1.555.1234");
+        info.put("mapId", 11);
+        info.put("platformId", "EUW1");
+        info.put("queueId", 420);
+        info.put("tournamentCode", "");
+        info.put("participants", participants);
+        Map<String, Object> match = Map.of(
+                "metadata", Map.of("dataVersion", "2", "matchId", "EUW1_" + seed, "participants", puuids),
+                "info", info);
+        return mapper.writeValueAsString(match);
+    }
+
+    private static Map<String, Object> selection(int perk) {
+        return Map.of("perk", perk, "var1", perk % 97, "var2", perk % 13, "var3", 0);
+    }
+
+    /**
+     * Estimates the retained heap of an object graph for a 64-bit JVM with compressed oops
+     * (12 byte headers, 4 byte references, 8 byte alignment). Objects reachable more than
+     * once, like interned strings, are counted once.
+     */
+    private static long deepSize(Object root) throws IllegalAccessException {
+        Set<Object> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<Object> pending = new ArrayList<>();
+        pending.add(root);
+        long total = 0;
+        while (!pending.isEmpty()) {
+            Object o = pending.remove(pending.size() - 1);
+            if (o == null || !seen.add(o)) {
+                continue;
+            }
+            Class<?> type = o.getClass();
+            if (o instanceof String s) {
+                total += 24 + align(16 + s.length());
+            } else if (o instanceof Number || o instanceof Boolean || o instanceof Enum<?>) {
+                total += 16;
+            } else if (type.isArray()) {
+                int length = Array.getLength(o);
+                Class<?> component = type.getComponentType();
+                if (component.isPrimitive()) {
+                    total += align(16 + (long) length * primitiveSize(component));
+                } else {
+                    total += align(16 + 4L * length);
+                    for (int i = 0; i < length; i++) {
+                        pending.add(Array.get(o, i));
+                    }
+                }
+            } else if (o instanceof Collection<?> c) {
+                // ArrayList: object + backing array sized to the elements
+                total += 24 + align(16 + 4L * c.size());
+                c.forEach(pending::add);
+            } else {
+                long shallow = 12;
+                for (Class<?> k = type; k != null && k != Object.class; k = k.getSuperclass()) {
+                    for (Field f : k.getDeclaredFields()) {
+                        if (Modifier.isStatic(f.getModifiers())) {
+                            continue;
+                        }
+                        Class<?> fieldType = f.getType();
+                        if (fieldType.isPrimitive()) {
+                            shallow += primitiveSize(fieldType);
+                        } else {
+                            shallow += 4;
+                            f.setAccessible(true);
+                            pending.add(f.get(o));
+                        }
+                    }
+                }
+                total += align(shallow);
+            }
+        }
+        return total;
+    }
+
+    private static int primitiveSize(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        }
+        if (type == int.class || type == float.class) {
+            return 4;
+        }
+        if (type == short.class || type == char.class) {
+            return 2;
+        }
+        return 1;
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+}
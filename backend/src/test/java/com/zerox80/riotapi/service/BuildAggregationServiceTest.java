@@ -1,6 +1,8 @@
 package com.zerox80.riotapi.service;
 
 import com.zerox80.riotapi.client.RiotApiClient;
+import com.zerox80.riotapi.client.RiotRegion;
+import com.zerox80.riotapi.model.CompactMatch;
 import com.zerox80.riotapi.model.InfoDto;
 import com.zerox80.riotapi.model.LeagueEntryDTO;
 import com.zerox80.riotapi.model.MatchV5Dto;
@@ -24,9 +26,11 @@ import java.util.List;
 import java.util.Locale;
 import java.util.concurrent.CompletableFuture;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -70,7 +74,9 @@ class BuildAggregationServiceTest {
         LeagueEntryDTO entry3 = new LeagueEntryDTO();
         entry3.setSummonerId("S2");
 
-        when(riotApiClient.getEntriesByQueueTierDivision(anyString(), anyString(), anyString(), anyInt()))
+        when(riotApiClient.getDefaultRegion()).thenReturn(RiotRegion.EUW1);
+        when(riotApiClient.getEntriesByQueueTierDivision(eq(RiotRegion.EUW1), anyString(), anyString(), anyString(),
+                anyInt()))
                 .thenReturn(CompletableFuture.completedFuture(List.of(entry1, entry2, entry3)));
 
         Summoner summoner1 = new Summoner();
@@ -78,21 +84,23 @@ class BuildAggregationServiceTest {
         Summoner summoner2 = new Summoner();
         summoner2.setPuuid("P2");
 
-        when(riotApiClient.getSummonerById("S1")).thenReturn(CompletableFuture.completedFuture(summoner1));
-        when(riotApiClient.getSummonerById("S2")).thenReturn(CompletableFuture.completedFuture(summoner2));
+        when(riotApiClient.getSummonerById(RiotRegion.EUW1, "S1")).thenReturn(CompletableFuture.completedFuture(summoner1));
+        when(riotApiClient.getSummonerById(RiotRegion.EUW1, "S2")).thenReturn(CompletableFuture.completedFuture(summoner2));
 
-        when(riotApiClient.getMatchIdsByPuuid(anyString(), anyInt()))
-                .thenAnswer(inv -> CompletableFuture.completedFuture(List.of("match-" + inv.getArgument(0))));
+        when(riotApiClient.getMatchIdsByPuuid(eq(RiotRegion.EUW1), anyString(), anyInt()))
+                .thenAnswer(inv -> CompletableFuture.completedFuture(List.of("match-" + inv.getArgument(1))));
 
-        MatchV5Dto match = buildMatchDto();
-        when(riotApiClient.getMatchDetails(anyString()))
+        CompactMatch match = CompactMatch.from(buildMatchDto());
+        when(riotApiClient.getMatchDetails(eq(RiotRegion.EUW1), anyString()))
                 .thenReturn(CompletableFuture.completedFuture(match));
 
+        assertThat(service.buildGeneration("ahri")).isZero();
         service.aggregateChampion("Ahri", 420, 1, 1, 2, locale);
 
-        verify(riotApiClient, times(1)).getSummonerById("S1");
-        verify(riotApiClient, times(1)).getSummonerById("S2");
-        verify(riotApiClient, times(2)).getMatchIdsByPuuid(anyString(), anyInt());
+        assertThat(service.buildGeneration("ahri")).isEqualTo(1);
+        verify(riotApiClient, times(1)).getSummonerById(RiotRegion.EUW1, "S1");
+        verify(riotApiClient, times(1)).getSummonerById(RiotRegion.EUW1, "S2");
+        verify(riotApiClient, times(2)).getMatchIdsByPuuid(eq(RiotRegion.EUW1), anyString(), anyInt());
         verify(itemRepo).deleteByChampionIdAndPatchAndQueueId("Ahri", "14.1", 420);
         verify(itemRepo).saveAll(any());
         verify(spellRepo).saveAll(any());
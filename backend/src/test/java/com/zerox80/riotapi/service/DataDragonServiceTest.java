@@ -1,7 +1,9 @@
 package com.zerox80.riotapi.service;
 
+import com.zerox80.riotapi.fake.FakeRiotServer;
 import com.zerox80.riotapi.model.ChampionDetail;
 import com.zerox80.riotapi.model.SpellSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
@@ -30,17 +32,19 @@ import static org.junit.jupiter.api.Assertions.*;
 
 class DataDragonServiceTest {
 
+    private static DataDragonService service(HttpClient httpClient, String locale, String ddragonBase,
+            String cdragonBase) {
+        // null base URLs = the public Data Dragon and CommunityDragon hosts
+        return new DataDragonService(httpClient, locale, "SummonerAPI-Test/1.0", null, ddragonBase, cdragonBase,
+                new SimpleMeterRegistry(), null);
+    }
+
     @Test
     void getImageBasesResolvesLatestPlaceholder() throws Exception {
         Map<String, String> responses = new HashMap<>();
         responses.put("https://ddragon.leagueoflegends.com/api/versions.json", "[\"15.18.1\",\"15.17.1\"]");
 
-        DataDragonService service = new DataDragonService(
-                new StubHttpClient(responses),
-                "de_DE",
-                "SummonerAPI-Test/1.0",
-                null
-        );
+        DataDragonService service = service(new StubHttpClient(responses), "de_DE", null, null);
 
         Map<String, String> bases = service.getImageBases("latest");
 
@@ -48,6 +52,20 @@ class DataDragonServiceTest {
         assertEquals("https://ddragon.leagueoflegends.com/cdn/15.18.1/img/champion/", bases.get("champSquare"));
     }
 
+    @Test
+    void fetchesFromConfiguredBaseUrl() throws Exception {
+        try (FakeRiotServer fake = FakeRiotServer.builder().start()) {
+            DataDragonService service = service(HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build(), "en_US",
+                    fake.baseUrl() + "/", fake.baseUrl());
+
+            Map<String, String> bases = service.getImageBases("latest");
+
+            assertEquals("15.18.1", bases.get("version"));
+            assertEquals(fake.baseUrl() + "/cdn/15.18.1/img/champion/", bases.get("champSquare"));
+            assertEquals(1, fake.hits("/api/versions.json"));
+        }
+    }
+
     @Test
     void getChampionDetailProvidesLocaleAwareSpells() throws Exception {
         Map<String, String> responses = new HashMap<>();
@@ -57,12 +75,7 @@ class DataDragonServiceTest {
         responses.put("https://raw.communitydragon.org/latest/plugins/rcp-be-lol-game-data/global/en_us/v1/champions/34.json", sampleCDragonJson());
         responses.put("https://raw.communitydragon.org/latest/plugins/rcp-be-lol-game-data/global/default/v1/champions/34.json", sampleCDragonJson());
 
-        DataDragonService service = new DataDragonService(
-                new StubHttpClient(responses),
-                "de_DE",
-                "SummonerAPI-Test/1.0",
-                null
-        );
+        DataDragonService service = service(new StubHttpClient(responses), "de_DE", null, null);
 
         ChampionDetail detail = service.getChampionDetail("Anivia", Locale.ENGLISH);
 
@@ -109,12 +122,7 @@ class DataDragonServiceTest {
         responses.put("https://raw.communitydragon.org/latest/plugins/rcp-be-lol-game-data/global/en_us/v1/champions/34.json", sampleCDragonJson());
         responses.put("https://raw.communitydragon.org/latest/plugins/rcp-be-lol-game-data/global/default/v1/champions/34.json", sampleCDragonJson());
 
-        DataDragonService service = new DataDragonService(
-                new StubHttpClient(responses),
-                "de_DE",
-                "SummonerAPI-Test/1.0",
-                null
-        );
+        DataDragonService service = service(new StubHttpClient(responses), "de_DE", null, null);
 
         ChampionDetail detailObj = service.getChampionDetail("Anivia", java.util.Locale.ENGLISH);
         assertNotNull(detailObj);
@@ -135,7 +143,7 @@ class DataDragonServiceTest {
 
     private static class ExplodingTooltipService extends DataDragonService {
         ExplodingTooltipService(HttpClient client) {
-            super(client, "de_DE", "SummonerAPI-Test/1.0", null);
+            super(client, "de_DE", "SummonerAPI-Test/1.0", null, null, null, new SimpleMeterRegistry(), null);
         }
 
         @Override
@@ -0,0 +1,121 @@
+package com.zerox80.riotapi.service;
+
+import com.zerox80.riotapi.fake.FakeRiotServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+
+import java.net.http.HttpClient;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class DataDragonVersionRegistryTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void requestPathsReadThePolledVersionWithoutFetching() {
+        try (FakeRiotServer fake = FakeRiotServer.builder().start()) {
+            ObjectProvider<DataDragonVersionRegistry> provider = mock(ObjectProvider.class);
+            DataDragonService service = new DataDragonService(
+                    HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build(), "en_US",
+                    "SummonerAPI-Test/1.0", null, fake.baseUrl(), fake.baseUrl(), new SimpleMeterRegistry(),
+                    provider);
+            List<Object> events = new ArrayList<>();
+            DataDragonVersionRegistry registry = new DataDragonVersionRegistry(service, events::add, Runnable::run,
+                    null, true);
+            when(provider.getIfAvailable()).thenReturn(registry);
+
+            registry.pollOnStartup();
+            boolean changedAgain = registry.refresh();
+            String version = service.getLatestVersion();
+            String patch = service.getLatestShortPatch();
+            String imageVersion = service.getImageBases(null).get("version");
+
+            assertThat(version).isEqualTo("15.18.1");
+            assertThat(patch).isEqualTo("15.18");
+            assertThat(imageVersion).isEqualTo("15.18.1");
+            assertThat(changedAgain).isFalse();
+            assertThat(registry.health().getStatus()).isEqualTo(Status.UP);
+            assertThat(events).containsExactly(new DataDragonVersionChangedEvent(null, "15.18.1", "15.18"));
+            // Only the two polls went to Data Dragon
+            assertThat(fake.hits("/api/versions.json")).isEqualTo(2);
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void beforeTheFirstSuccessfulPollRequestPathsServeThePersistedVersionWithoutFetching() {
+        try (FakeRiotServer fake = FakeRiotServer.builder().start()) {
+            // No versions.json under this base, so every poll fails
+            String ddragonBase = fake.baseUrl() + "/unreachable";
+            ObjectProvider<DataDragonVersionRegistry> provider = mock(ObjectProvider.class);
+            DataDragonService service = new DataDragonService(
+                    HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build(), "en_US",
+                    "SummonerAPI-Test/1.0", null, ddragonBase, fake.baseUrl(), new SimpleMeterRegistry(),
+                    provider);
+            CacheManager cacheManager = new ConcurrentMapCacheManager("ddragonVersions");
+            cacheManager.getCache("ddragonVersions").put(SimpleKey.EMPTY, List.of("15.17.1", "15.16.1"));
+            DataDragonVersionRegistry registry = new DataDragonVersionRegistry(service, event -> {
+            }, Runnable::run, cacheManager, true);
+            when(provider.getIfAvailable()).thenReturn(registry);
+
+            registry.pollOnStartup();
+            int pollHits = fake.hits("/unreachable/api/versions.json");
+            String version = service.getLatestVersion();
+            String imageVersion = service.getImageBases(null).get("version");
+            List<String> versions = service.getAllVersions();
+
+            assertThat(registry.current()).isNull();
+            assertThat(version).isEqualTo("15.17.1");
+            assertThat(imageVersion).isEqualTo("15.17.1");
+            assertThat(versions).isEmpty();
+            assertThat(registry.health().getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+            // Only the failed poll went to Data Dragon
+            assertThat(pollHits).isPositive();
+            assertThat(fake.hits("/unreachable/api/versions.json")).isEqualTo(pollHits);
+        }
+    }
+
+    @Test
+    void failedPollKeepsTheCurrentVersion() {
+        DataDragonService service = mock(DataDragonService.class);
+        List<Object> events = new ArrayList<>();
+        DataDragonVersionRegistry registry = new DataDragonVersionRegistry(service, events::add, Runnable::run, null,
+                true);
+        when(service.fetchVersions()).thenReturn(List.of("15.18.1", "15.17.1"), List.of(), List.of("15.19.1"));
+
+        registry.refresh();
+        registry.refresh();
+        DataDragonVersionRegistry.Snapshot afterFailure = registry.current();
+        registry.refresh();
+
+        assertThat(afterFailure.version()).isEqualTo("15.18.1");
+        assertThat(afterFailure.versions()).containsExactly("15.18.1", "15.17.1");
+        assertThat(registry.current().patch()).isEqualTo("15.19");
+        assertThat(events).containsExactly(
+                new DataDragonVersionChangedEvent(null, "15.18.1", "15.18"),
+                new DataDragonVersionChangedEvent("15.18.1", "15.19.1", "15.19"));
+    }
+
+    @Test
+    void disabledRegistryDoesNotPoll() {
+        DataDragonService service = mock(DataDragonService.class);
+        DataDragonVersionRegistry registry = new DataDragonVersionRegistry(service, event -> {
+        }, Runnable::run, null, false);
+
+        registry.pollOnStartup();
+        registry.pollPeriodically();
+
+        verifyNoInteractions(service);
+        assertThat(registry.current()).isNull();
+    }
+}
@@ -0,0 +1,123 @@
+package com.zerox80.riotapi.service;
+
+import com.zerox80.riotapi.client.RiotApiClient;
+import com.zerox80.riotapi.client.RiotRegion;
+import com.zerox80.riotapi.model.MatchIdSyncState;
+import com.zerox80.riotapi.repository.MatchIdSyncStateRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@TestPropertySource(properties = {
+        "spring.flyway.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:timeline;DB_CLOSE_DELAY=-1;MODE=PostgreSQL",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+class MatchIdTimelineServiceIntegrationTest {
+
+    @MockBean
+    private RiotApiClient riotApiClient;
+
+    @Autowired
+    private MatchIdTimelineService timelineService;
+
+    @Autowired
+    private MatchIdSyncStateRepository syncStateRepository;
+
+    @Test
+    void pagesWithinTheTimelineNeedNoFurtherCalls() {
+        when(riotApiClient.getMatchIdsByPuuidSince(RiotRegion.EUW1, "P-pages", 0, 0, 20))
+                .thenReturn(CompletableFuture.completedFuture(ids("EUW1_", 100, 20)));
+
+        List<String> first = timelineService.getMatchIds(RiotRegion.EUW1, "P-pages", 0, 5).join();
+        List<String> second = timelineService.getMatchIds(RiotRegion.EUW1, "P-pages", 5, 5).join();
+
+        assertThat(first).containsExactly("EUW1_100", "EUW1_99", "EUW1_98", "EUW1_97", "EUW1_96");
+        assertThat(second).containsExactly("EUW1_95", "EUW1_94", "EUW1_93", "EUW1_92", "EUW1_91");
+        verify(riotApiClient, times(1)).getMatchIdsByPuuidSince(RiotRegion.EUW1, "P-pages", 0, 0, 20);
+    }
+
+    @Test
+    void refreshAsksOnlyForNewerMatchesAndMergesThemInFront() {
+        when(riotApiClient.getMatchIdsByPuuidSince(RiotRegion.EUW1, "P-refresh", 0, 0, 20))
+                .thenReturn(CompletableFuture.completedFuture(ids("EUW1_", 100, 20)));
+        timelineService.getMatchIds(RiotRegion.EUW1, "P-refresh", 0, 5).join();
+        MatchIdSyncState state = syncStateRepository.findByRegionalRouteAndPuuid("europe", "P-refresh").orElseThrow();
+        state.setSyncedAt(Instant.now().minus(Duration.ofMinutes(10)));
+        syncStateRepository.save(state);
+        when(riotApiClient.getMatchIdsByPuuidSince(eq(RiotRegion.EUW1), eq("P-refresh"), anyLong(), eq(0), eq(100)))
+                .thenReturn(CompletableFuture.completedFuture(List.of("EUW1_102", "EUW1_101", "EUW1_100")));
+
+        List<String> page = timelineService.getMatchIds(RiotRegion.EUW1, "P-refresh", 0, 4).join();
+
+        assertThat(page).containsExactly("EUW1_102", "EUW1_101", "EUW1_100", "EUW1_99");
+        ArgumentCaptor<Long> startTime = ArgumentCaptor.forClass(Long.class);
+        verify(riotApiClient).getMatchIdsByPuuidSince(eq(RiotRegion.EUW1), eq("P-refresh"), startTime.capture(),
+                eq(0), eq(100));
+        // Last sync minus the overlap for games that were running during it
+        assertThat(startTime.getValue()).isBetween(
+                state.getSyncedAt().minus(Duration.ofHours(2)).getEpochSecond() - 1,
+                state.getSyncedAt().minus(Duration.ofHours(2)).getEpochSecond() + 1);
+    }
+
+    @Test
+    void windowsPastTheTimelinePageRiotFurtherBackOnce() {
+        when(riotApiClient.getMatchIdsByPuuidSince(RiotRegion.EUW1, "P-back", 0, 0, 20))
+                .thenReturn(CompletableFuture.completedFuture(ids("EUW1_", 100, 20)));
+        when(riotApiClient.getMatchIdsByPuuidSince(RiotRegion.EUW1, "P-back", 0, 20, 10))
+                .thenReturn(CompletableFuture.completedFuture(ids("EUW1_", 80, 4)));
+
+        timelineService.getMatchIds(RiotRegion.EUW1, "P-back", 0, 5).join();
+        List<String> older = timelineService.getMatchIds(RiotRegion.EUW1, "P-back", 20, 10).join();
+        List<String> beyond = timelineService.getMatchIds(RiotRegion.EUW1, "P-back", 30, 10).join();
+
+        assertThat(older).containsExactly("EUW1_80", "EUW1_79", "EUW1_78", "EUW1_77");
+        assertThat(beyond).isEmpty();
+        verify(riotApiClient, times(1)).getMatchIdsByPuuidSince(RiotRegion.EUW1, "P-back", 0, 20, 10);
+    }
+
+    @Test
+    void deepWindowsPageRiotBackInChunksOfOneHundred() {
+        when(riotApiClient.getMatchIdsByPuuidSince(RiotRegion.EUW1, "P-deep", 0, 0, 100))
+                .thenReturn(CompletableFuture.completedFuture(ids("EUW1_", 1000, 100)));
+        when(riotApiClient.getMatchIdsByPuuidSince(RiotRegion.EUW1, "P-deep", 0, 100, 100))
+                .thenReturn(CompletableFuture.completedFuture(ids("EUW1_", 900, 100)));
+        when(riotApiClient.getMatchIdsByPuuidSince(RiotRegion.EUW1, "P-deep", 0, 200, 100))
+                .thenReturn(CompletableFuture.completedFuture(ids("EUW1_", 800, 100)));
+        when(riotApiClient.getMatchIdsByPuuidSince(RiotRegion.EUW1, "P-deep", 0, 300, 20))
+                .thenReturn(CompletableFuture.completedFuture(ids("EUW1_", 700, 20)));
+
+        List<String> page = timelineService.getMatchIds(RiotRegion.EUW1, "P-deep", 300, 20).join();
+
+        assertThat(page).hasSize(20).startsWith("EUW1_700").endsWith("EUW1_681");
+        verify(riotApiClient, times(1)).getMatchIdsByPuuidSince(RiotRegion.EUW1, "P-deep", 0, 300, 20);
+    }
+
+    private static List<String> ids(String prefix, int newest, int count) {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ids.add(prefix + (newest - i));
+        }
+        return ids;
+    }
+}
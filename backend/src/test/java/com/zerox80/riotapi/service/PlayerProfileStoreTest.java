@@ -0,0 +1,70 @@
+package com.zerox80.riotapi.service;
+
+import com.zerox80.riotapi.config.RiotApiProperties;
+import com.zerox80.riotapi.model.Summoner;
+import com.zerox80.riotapi.model.SummonerRecord;
+import com.zerox80.riotapi.repository.AccountRecordRepository;
+import com.zerox80.riotapi.repository.SummonerRecordRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PlayerProfileStoreTest {
+
+    private final SummonerRecordRepository summoners = mock(SummonerRecordRepository.class);
+    private final PlayerProfileStore store = new PlayerProfileStore(mock(AccountRecordRepository.class), summoners,
+            mock(PlatformTransactionManager.class), new RiotApiProperties(), new SimpleMeterRegistry());
+
+    @Test
+    void summonerFreshnessFollowsTheTimeSinceTheLastChange() {
+        Instant fetchedAt = Instant.parse("2025-01-10T12:00:00Z");
+
+        // Just played: the lower bound applies
+        assertThat(store.summonerFreshness(fetchedAt, fetchedAt.minusSeconds(60).toEpochMilli()))
+                .isEqualTo(Duration.ofMinutes(30));
+        // Idle for two days: fresh for one more day
+        assertThat(store.summonerFreshness(fetchedAt, fetchedAt.minus(Duration.ofDays(2)).toEpochMilli()))
+                .isEqualTo(Duration.ofDays(1));
+        // Idle for months: capped
+        assertThat(store.summonerFreshness(fetchedAt, fetchedAt.minus(Duration.ofDays(90)).toEpochMilli()))
+                .isEqualTo(Duration.ofDays(7));
+    }
+
+    @Test
+    void expiredSummonersAreNotServed() {
+        Summoner summoner = new Summoner(null, null, "P1", null, 1, 0, 30);
+        SummonerRecord active = new SummonerRecord("euw1", "P1");
+        Instant fetchedAt = Instant.now().minus(Duration.ofHours(1));
+        active.update(new Summoner(null, null, "P1", null, 1, fetchedAt.minusSeconds(60).toEpochMilli(), 30),
+                fetchedAt);
+        SummonerRecord idle = new SummonerRecord("euw1", "P2");
+        idle.update(summoner, fetchedAt);
+        when(summoners.findByPlatformIdAndPuuid("euw1", "P1")).thenReturn(Optional.of(active));
+        when(summoners.findByPlatformIdAndPuuid("euw1", "P2")).thenReturn(Optional.of(idle));
+
+        assertThat(store.findSummoner("euw1", "P1")).isNull();
+        assertThat(store.findSummoner("euw1", "P2")).isNotNull();
+        assertThat(store.findSummoner("euw1", "P3")).isNull();
+    }
+
+    @Test
+    void deletedSummonerIsRemovedFromTheDatabase() {
+        SummonerRecord record = new SummonerRecord("euw1", "P1");
+        when(summoners.findByPlatformIdAndPuuid("euw1", "P1")).thenReturn(Optional.of(record));
+
+        store.deleteSummoner("euw1", "P1");
+        store.deleteSummoners();
+
+        verify(summoners).delete(record);
+        verify(summoners).deleteAllInBatch();
+    }
+}
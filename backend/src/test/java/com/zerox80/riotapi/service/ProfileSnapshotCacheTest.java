@@ -0,0 +1,80 @@
+package com.zerox80.riotapi.service;
+
+import com.zerox80.riotapi.config.RiotApiProperties;
+import com.zerox80.riotapi.model.SummonerProfileData;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProfileSnapshotCacheTest {
+
+    private final AtomicLong millis = new AtomicLong(1_000_000L);
+    private final AtomicInteger builds = new AtomicInteger();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ProfileSnapshotCache cache = new ProfileSnapshotCache(new RiotApiProperties(), meterRegistry,
+            millis::get);
+
+    @Test
+    void staleProfileIsServedWhileItIsRebuilt() {
+        CompletableFuture<SummonerProfileData> pending = new CompletableFuture<>();
+
+        SummonerProfileData first = cache.get("euw1:a#b:matches", builder(null)).join();
+        assertThat(first.revalidating()).isFalse();
+
+        // Within the fresh period: served without a rebuild
+        millis.addAndGet(Duration.ofSeconds(20).toMillis());
+        assertThat(cache.get("euw1:a#b:matches", builder(pending)).join()).isSameAs(first);
+        assertThat(builds).hasValue(1);
+
+        // Past it: served marked as revalidating, one rebuild for concurrent readers
+        millis.addAndGet(Duration.ofMinutes(1).toMillis());
+        for (int i = 0; i < 3; i++) {
+            SummonerProfileData served = cache.get("euw1:a#b:matches", builder(pending)).join();
+            assertThat(served.revalidating()).isTrue();
+            assertThat(served.assembledAt()).isEqualTo(first.assembledAt());
+        }
+        assertThat(builds).hasValue(2);
+
+        pending.complete(profile(false));
+        SummonerProfileData rebuilt = cache.get("euw1:a#b:matches", builder(null)).join();
+        assertThat(rebuilt.revalidating()).isFalse();
+        assertThat(rebuilt.assembledAt()).isAfter(first.assembledAt());
+        assertThat(meterRegistry.counter("riotapi.profile.cache.revalidations", "outcome", "succeeded").count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void incompleteProfilesAreNotStored() {
+        cache.get("euw1:a#b", () -> CompletableFuture.completedFuture(new SummonerProfileData("not found"))).join();
+        cache.get("euw1:a#b", () -> CompletableFuture.completedFuture(profile(true))).join();
+        cache.get("euw1:a#b", builder(null)).join();
+
+        // Too old for the staleness bound: assembled while the caller waits
+        millis.addAndGet(Duration.ofMinutes(11).toMillis());
+        assertThat(cache.get("euw1:a#b", builder(null)).join().revalidating()).isFalse();
+        assertThat(builds).hasValue(2);
+        assertThat(meterRegistry.counter("riotapi.profile.cache", "outcome", "miss").count()).isEqualTo(4.0);
+    }
+
+    private Supplier<CompletableFuture<SummonerProfileData>> builder(CompletableFuture<SummonerProfileData> pending) {
+        return () -> {
+            builds.incrementAndGet();
+            return pending != null ? pending : CompletableFuture.completedFuture(profile(false));
+        };
+    }
+
+    private SummonerProfileData profile(boolean stale) {
+        return new SummonerProfileData(null, List.of(), List.of(), null, Map.of(), null, null, stale,
+                Instant.ofEpochMilli(millis.get()), false);
+    }
+}
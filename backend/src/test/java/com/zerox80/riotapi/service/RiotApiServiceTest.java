@@ -1,7 +1,9 @@
 package com.zerox80.riotapi.service;
 
 import com.zerox80.riotapi.client.RiotApiClient;
+import com.zerox80.riotapi.client.RiotRegion;
 import com.zerox80.riotapi.model.AccountDto;
+import com.zerox80.riotapi.model.CompactMatch;
 import com.zerox80.riotapi.model.InfoDto;
 import com.zerox80.riotapi.model.MatchV5Dto;
 import com.zerox80.riotapi.model.ParticipantDto;
@@ -9,6 +11,7 @@ import com.zerox80.riotapi.model.Summoner;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
+import org.springframework.beans.factory.ObjectProvider;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.List;
@@ -16,6 +19,7 @@ import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -62,7 +66,7 @@ class RiotApiServiceTest {
 
         RiotApiService service = new RiotApiService(riotApiClient, playerLpRecordService);
 
-        Map<String, Long> counts = service.getChampionPlayCounts(List.of(m1, m2), puuid);
+        Map<String, Long> counts = service.getChampionPlayCounts(List.of(CompactMatch.from(m1), CompactMatch.from(m2)), puuid);
 
         assertThat(counts.get("Ahri")).isEqualTo(2L);
         assertThat(counts.get("Lux")).isEqualTo(1L);
@@ -77,17 +81,43 @@ class RiotApiServiceTest {
         account.setPuuid("P1");
         account.setGameName("Player");
 
-        when(riotApiClient.getAccountByRiotId("Player", "TAG"))
+        when(riotApiClient.getAccountByRiotId(RiotRegion.EUW1, "Player", "TAG"))
                 .thenReturn(CompletableFuture.completedFuture(account));
 
         Summoner summoner = new Summoner();
         summoner.setPuuid("P1");
-        when(riotApiClient.getSummonerByPuuid("P1"))
+        when(riotApiClient.getSummonerByPuuid(RiotRegion.EUW1, "P1"))
                 .thenReturn(CompletableFuture.completedFuture(summoner));
 
-        service.getSummonerByRiotId(" Player ", " TAG ").join();
+        service.getSummonerByRiotId(RiotRegion.EUW1, " Player ", " TAG ").join();
 
-        verify(riotApiClient).getAccountByRiotId("Player", "TAG");
-        verify(riotApiClient).getSummonerByPuuid("P1");
+        verify(riotApiClient).getAccountByRiotId(RiotRegion.EUW1, "Player", "TAG");
+        verify(riotApiClient).getSummonerByPuuid(RiotRegion.EUW1, "P1");
+    }
+
+    @Test
+    void profileReadsMatchHistoryThroughTheProxy() {
+        RiotApiService proxy = mock(RiotApiService.class);
+        @SuppressWarnings("unchecked")
+        ObjectProvider<RiotApiService> selfProvider = mock(ObjectProvider.class);
+        when(selfProvider.getIfAvailable()).thenReturn(proxy);
+        RiotApiService service = new RiotApiService(riotApiClient, playerLpRecordService, null, null, selfProvider);
+
+        AccountDto account = new AccountDto();
+        account.setPuuid("P1");
+        when(riotApiClient.getAccountByRiotId(RiotRegion.EUW1, "player", "tag"))
+                .thenReturn(CompletableFuture.completedFuture(account));
+        Summoner summoner = new Summoner();
+        summoner.setPuuid("P1");
+        when(riotApiClient.getSummonerByPuuid(RiotRegion.EUW1, "P1"))
+                .thenReturn(CompletableFuture.completedFuture(summoner));
+        when(riotApiClient.getLeagueEntriesByPuuid(RiotRegion.EUW1, "P1"))
+                .thenReturn(CompletableFuture.completedFuture(List.of()));
+        when(proxy.getMatchHistory(RiotRegion.EUW1, "P1", 50))
+                .thenReturn(CompletableFuture.completedFuture(List.of()));
+
+        service.getSummonerProfileDataAsync(RiotRegion.EUW1, "Player", "TAG", true).join();
+
+        verify(proxy).getMatchHistory(RiotRegion.EUW1, "P1", 50);
     }
 }